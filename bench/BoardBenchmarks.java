@@ -0,0 +1,60 @@
+package bench;
+
+import gui.BitBoard;
+import gui.BoardFormat;
+import gui.BoardLibrary;
+import gui.Boards;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 地图读取的基准测试
+ * Benchmarks du chargement des cartes
+ *  经典地图的代码构造、文本解析，以及从内存映射的地图库中按编号读取
+ *  Construction de la carte classique par le code, analyse du texte et lecture par numéro
+ *  dans une bibliothèque mappée en mémoire
+ */
+class BoardBenchmarks {
+
+    private static final int LIBRARY_SIZE = 4096;
+
+    static void register(Harness harness) {
+        StringWriter text = new StringWriter();
+        BoardFormat.writeText(Boards.classic(), text);
+        String classic = text.toString();
+
+        File file;
+        BoardLibrary library;
+        try {
+            file = File.createTempFile("boards", ".rbl");
+            file.deleteOnExit();
+            Random random = new Random(1);
+            List<BitBoard> boards = new ArrayList<>(LIBRARY_SIZE);
+            for (int i = 0; i < LIBRARY_SIZE; i++) {
+                boards.add(SolverBenchmark.randomBoard(random));
+            }
+            BoardLibrary.write(file, boards);
+            library = BoardLibrary.open(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        harness.add("board.classic", () -> Boards.classic().fingerprint());
+        harness.add("board.readText", () -> {
+            try {
+                return BoardFormat.readText(new StringReader(classic)).fingerprint();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        int[] next = new int[1];
+        harness.add("board.libraryGet", () -> library.get(next[0]++ & (LIBRARY_SIZE - 1)).fingerprint());
+    }
+}
@@ -0,0 +1,43 @@
+package bench;
+
+import gui.BitBoard;
+import gui.Obstacle;
+
+/**
+ * 坐标相关的基准测试
+ * Benchmarks des coordonnées
+ *  "r_c" 字符串的生成与解析，Obstacle 的 hashCode/equals(每次调用都会生成字符串)，以及打包的 int 格子下标
+ *  Construction et analyse des chaînes "r_c", hashCode/equals d'Obstacle (qui créent des chaînes à chaque appel)
+ *  et indice de case int packé
+ */
+class CoordinateBenchmarks {
+
+    static void register(Harness harness) {
+        String[] rcs = new String[BitBoard.CELLS];
+        Obstacle[] obstacles = new Obstacle[BitBoard.CELLS];
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            rcs[cell] = Obstacle.getR_C(BitBoard.row(cell), BitBoard.col(cell));
+            obstacles[cell] = new Obstacle(BitBoard.row(cell), BitBoard.col(cell));
+        }
+        int[] next = new int[1];
+
+        harness.add("coordinate.getR_C", () -> {
+            int cell = next[0]++ & 0xFF;
+            return Obstacle.getR_C(BitBoard.row(cell), BitBoard.col(cell)).length();
+        });
+        harness.add("coordinate.getR_getC", () -> {
+            String rc = rcs[next[0]++ & 0xFF];
+            return Obstacle.getR(rc) + Obstacle.getC(rc);
+        });
+        harness.add("coordinate.getCell", () -> Obstacle.getCell(rcs[next[0]++ & 0xFF]));
+        harness.add("coordinate.cell_row_col", () -> {
+            int cell = BitBoard.cell(next[0] & 0xF, (next[0]++ >> 4) & 0xF);
+            return BitBoard.row(cell) + BitBoard.col(cell);
+        });
+        harness.add("obstacle.hashCode", () -> obstacles[next[0]++ & 0xFF].hashCode());
+        harness.add("obstacle.equals", () -> {
+            int i = next[0]++;
+            return obstacles[i & 0xFF].equals(obstacles[(i * 7) & 0xFF]) ? 1 : 0;
+        });
+    }
+}
@@ -0,0 +1,293 @@
+package bench;
+
+import gui.BitBoard;
+import gui.Boards;
+import gui.GameEngine;
+import gui.Player;
+import gui.Solution;
+import gui.Solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 无界面的批量游戏模拟器
+ * Simulateur de parties en lot sans interface
+ *  每个线程复用一个 GameEngine，从开始游戏到游戏结束完整地进行 N 局游戏(输入步数、排序、步数上限、得分)
+ *  Chaque thread réutilise un GameEngine et joue N parties complètes du début à la fin
+ *  (saisie des pas, tri, limite de pas, score)
+ *  输出 局/秒、步/秒 以及得分分布；超过 MAX_ROUNDS 回合被截断的局单独统计，不计入局数和得分分布
+ *  Affiche parties/s, coups/s et la distribution des scores ; les parties coupées après MAX_ROUNDS tours
+ *  sont comptées à part, hors du nombre de parties et de la distribution des scores
+ *      默认策略为 optimal: random 和 scripted 的玩家大多数局都到不了终点，只适合测量引擎的吞吐量
+ *      Stratégie optimal par défaut : les joueurs random et scripted n'atteignent presque jamais l'arrivée,
+ *      ils ne servent qu'à mesurer le débit du moteur
+ *      用法  usage : java bench.GameSimulator [局数 parties] [玩家数 joueurs] [optimal|random|scripted] [线程数 threads]
+ */
+public class GameSimulator {
+
+    /**
+     * 每局游戏最多进行的回合数(随机玩家可能永远到不了终点)
+     * Nombre maximum de tours par partie (un joueur aléatoire peut ne jamais atteindre l'arrivée)
+     */
+    private static final int MAX_ROUNDS = 200;
+
+    /**
+     * 模拟玩家的策略  Stratégie d'un joueur simulé
+     */
+    public interface Strategy {
+
+        /**
+         * @return  玩家输入的步数   nombre de pas saisi par le joueur
+         */
+        int bid(GameEngine engine, Player player);
+
+        /**
+         * @return  下一步的方向 BitBoard.UP/DOWN/LEFT/RIGHT   direction du prochain coup
+         */
+        int move(GameEngine engine, Player player);
+    }
+
+    /**
+     * 随机输入步数、随机移动   Pas et déplacements aléatoires
+     */
+    public static class RandomStrategy implements Strategy {
+        private final Random random;
+        private final int maxBid;
+
+        public RandomStrategy(Random random, int maxBid) {
+            this.random = random;
+            this.maxBid = maxBid;
+        }
+
+        @Override
+        public int bid(GameEngine engine, Player player) {
+            return 1 + random.nextInt(maxBid);
+        }
+
+        @Override
+        public int move(GameEngine engine, Player player) {
+            return random.nextInt(4);
+        }
+    }
+
+    /**
+     * 按照固定的脚本循环输入步数和方向   Rejoue en boucle un script fixe de pas et de directions
+     */
+    public static class ScriptedStrategy implements Strategy {
+        private final int[] bids;
+        private final int[] moves;
+        private int nextBid;
+        private int nextMove;
+
+        public ScriptedStrategy(int[] bids, int[] moves) {
+            this.bids = bids;
+            this.moves = moves;
+        }
+
+        @Override
+        public int bid(GameEngine engine, Player player) {
+            return bids[nextBid++ % bids.length];
+        }
+
+        @Override
+        public int move(GameEngine engine, Player player) {
+            return moves[nextMove++ % moves.length];
+        }
+    }
+
+    /**
+     * 使用求解器：输入最优步数并按最优解移动(无解时随机)
+     * Utilise le solveur : saisit le nombre optimal de pas et suit la solution optimale (aléatoire sans solution)
+     */
+    public static class OptimalStrategy implements Strategy {
+        private final Solver solver;
+        private final Random random;
+
+        public OptimalStrategy(Solver solver, Random random) {
+            this.solver = solver;
+            this.random = random;
+        }
+
+        @Override
+        public int bid(GameEngine engine, Player player) {
+            Solution solution = solver.solve(engine.getRobots(), engine.getCurrentChessIndex());
+            return solution == null ? 1 + random.nextInt(solver.getMaxDepth()) : solution.length();
+        }
+
+        @Override
+        public int move(GameEngine engine, Player player) {
+            Solution solution = solver.solve(engine.getRobots(), engine.getCurrentChessIndex());
+            return solution == null || solution.length() == 0 ? random.nextInt(4) : solution.getDirection(0);
+        }
+    }
+
+    /**
+     * 一个线程的统计结果(最后合并)  Statistiques d'un thread (fusionnées à la fin)
+     */
+    static class Stats implements GameEngine.OnGameListener {
+        /**
+         * 正常结束的局数和被截断的局数   Parties terminées normalement et parties coupées
+         */
+        long games;
+        long moves;
+        long rounds;
+        long capped;
+        /**
+         * scores[s] : 得分为 s 的玩家数   nombre de joueurs avec le score s
+         */
+        final long[] scores = new long[GameEngine.ROBOTS + 1];
+        /**
+         * winners[s] : 获胜者得分为 s 的局数   nombre de parties dont le gagnant a le score s
+         */
+        final long[] winners = new long[GameEngine.ROBOTS + 1];
+
+        int gameRounds;
+
+        @Override
+        public void onRoundStarted(int robot, Player firstBidder) {
+            rounds++;
+            gameRounds++;
+        }
+
+        @Override
+        public void onGameOver(List<Player> ranking) {
+            winners[ranking.get(0).getScore()]++;
+            for (Player player : ranking) {
+                scores[player.getScore()]++;
+            }
+            games++;
+        }
+
+        void add(Stats other) {
+            games += other.games;
+            moves += other.moves;
+            rounds += other.rounds;
+            capped += other.capped;
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] += other.scores[i];
+                winners[i] += other.winners[i];
+            }
+        }
+    }
+
+    private final BitBoard board;
+    private final int playerNumber;
+    private final String strategy;
+
+    public GameSimulator(BitBoard board, int playerNumber, String strategy) {
+        this.board = board;
+        this.playerNumber = playerNumber;
+        this.strategy = strategy;
+    }
+
+    /**
+     * 在一个线程中连续进行 games 局游戏
+     * Joue games parties à la suite dans un seul thread
+     * @param seed  随机种子(相同种子结果相同)   graine aléatoire (même graine, même résultat)
+     */
+    Stats play(int games, long seed) {
+        Random random = new Random(seed);
+        GameEngine engine = new GameEngine(board, new Random(random.nextLong()));
+        Stats stats = new Stats();
+        engine.addListener(stats);
+
+        List<Player> players = new ArrayList<>(playerNumber);
+        Strategy[] strategies = new Strategy[playerNumber];
+        Solver solver = null;
+        for (int i = 0; i < playerNumber; i++) {
+            Player player = new Player();
+            player.setName(String.valueOf(i));
+            players.add(player);
+            switch (strategy) {
+                case "scripted":
+                    strategies[i] = new ScriptedStrategy(new int[]{3 + i, 5, 8}, new int[]{BitBoard.UP, BitBoard.LEFT, BitBoard.DOWN, BitBoard.RIGHT, BitBoard.LEFT});
+                    break;
+                case "optimal":
+                    if (solver == null) {
+                        solver = new Solver(engine.getBoard(), engine.getSlideTable());
+                        solver.setMaxDepth(12);
+                    }
+                    strategies[i] = new OptimalStrategy(solver, new Random(random.nextLong()));
+                    break;
+                default:
+                    strategies[i] = new RandomStrategy(new Random(random.nextLong()), 8);
+                    break;
+            }
+        }
+
+        for (int g = 0; g < games; g++) {
+            stats.gameRounds = 0;
+            engine.startGame(players);
+            while (engine.getPhase() != GameEngine.Phase.OVER) {
+                if (stats.gameRounds > MAX_ROUNDS) {
+                    stats.capped++;
+                    break;
+                }
+                if (engine.getPhase() == GameEngine.Phase.BIDDING) {
+                    Player bidder = engine.getPlayers().get(engine.getCurrentPlayerIndex() + 1);
+                    engine.submitBid(strategies[indexOf(players, bidder)].bid(engine, bidder));
+                } else {
+                    Player player = engine.getCurrentPlayer();
+                    engine.move(strategies[indexOf(players, player)].move(engine, player));
+                    stats.moves++;
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 引擎会对玩家排序，这里按照对象查找策略下标
+     * Le moteur trie les joueurs, on retrouve donc l'indice de stratégie par identité
+     */
+    private static int indexOf(List<Player> players, Player player) {
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i) == player) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unknown player " + player.getName());
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int playerNumber = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        String strategy = args.length > 2 ? args[2] : "optimal";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        GameSimulator simulator = new GameSimulator(Boards.classic(), playerNumber, strategy);
+        simulator.play(Math.max(1, games / 100), 0);    // 预热 échauffement
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<Stats>> futures = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int share = games / threads + (t < games % threads ? 1 : 0);
+            long seed = t + 1;
+            futures.add(executor.submit(() -> simulator.play(share, seed)));
+        }
+        Stats total = new Stats();
+        for (Future<Stats> future : futures) {
+            total.add(future.get());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        System.out.printf("games      %d finished (%d players, %s, %d threads)%n", total.games, playerNumber, strategy, threads);
+        System.out.printf("capped     %d (more than %d rounds, not in games or scores)%n", total.capped, MAX_ROUNDS);
+        System.out.printf("rounds     %d%n", total.rounds);
+        System.out.printf("moves      %d%n", total.moves);
+        System.out.printf("games/sec  %.0f finished, %.0f played%n", total.games / seconds,
+                (total.games + total.capped) / seconds);
+        System.out.printf("moves/sec  %.0f%n", total.moves / seconds);
+        System.out.printf("%-6s %12s %12s%n", "score", "players", "winners");
+        for (int s = 0; s < total.scores.length; s++) {
+            System.out.printf("%-6d %12d %12d%n", s, total.scores[s], total.winners[s]);
+        }
+    }
+}
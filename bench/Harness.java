@@ -0,0 +1,348 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 微基准测试框架
+ * Harnais de micro-benchmarks
+ *  项目没有构建文件，无法引入 JMH；这是一个简单的手写框架，不是 JMH 的替代品，结果只适合粗略比较
+ *  Le projet n'a pas de fichier de build et ne peut pas dépendre de JMH ; ceci est un harnais écrit à la main,
+ *  pas un équivalent de JMH, ses résultats ne servent qu'à des comparaisons grossières
+ *      - 每个基准测试在自己的 JVM 中运行(-f 个 fork)，一个基准测试的 JIT 编译和类型信息不会影响下一个
+ *      - chaque benchmark s'exécute dans sa propre JVM (-f forks), la compilation JIT et les profils de types
+ *      d'un benchmark n'influencent pas le suivant
+ *      - 预热轮 + 测量轮，模式为平均时间(ns/op)   itérations d'échauffement + de mesure, mode temps moyen (ns/op)
+ *      - 每轮的结果汇总进 blackhole，防止 JIT 删除无用代码   les résultats alimentent un blackhole pour empêcher le JIT d'éliminer le code
+ *      - 每次操作分配的字节数(近似 JMH 的 gc.alloc.rate.norm)   octets alloués par opération (proche de gc.alloc.rate.norm de JMH)
+ *      - 结果输出为类似 JMH -rf json 的 JSON，便于在版本之间比较   résultats écrits dans un JSON proche de -rf json de JMH,
+ *      pour comparer les versions
+ *      -f 0 在当前 JVM 中依次运行所有基准测试(只用于调试，结果会相互影响)
+ *      -f 0 exécute tous les benchmarks dans la JVM courante (débogage seulement, les résultats s'influencent)
+ *      用法  usage : java bench.Harness [-f fork 数 forks] [-w 预热轮 warmup] [-i 测量轮 iterations] [-t 每轮毫秒 ms]
+ *      [-o result.json] [正则 regex]
+ */
+public class Harness {
+
+    /**
+     * 一次被测操作，返回值会被消费   Une opération mesurée, la valeur de retour est consommée
+     */
+    public interface Op {
+        long run();
+    }
+
+    /**
+     * 一个基准测试的结果  Résultat d'un benchmark
+     */
+    static class Result {
+        final String name;
+        /**
+         * 所有 fork 的测量轮，按 fork 依次排列   Itérations de mesure de tous les forks, fork après fork
+         */
+        final double[] scores;
+        final int forks;
+        double allocated;
+
+        Result(String name, double[] scores, int forks) {
+            this.name = name;
+            this.scores = scores;
+            this.forks = forks;
+        }
+
+        double mean() {
+            double sum = 0;
+            for (double score : scores) {
+                sum += score;
+            }
+            return sum / scores.length;
+        }
+
+        /**
+         * 99.9% 置信区间的半宽(正态近似)   demi-largeur de l'intervalle de confiance à 99,9 % (approximation normale)
+         */
+        double error() {
+            if (scores.length < 2) {
+                return Double.NaN;
+            }
+            double mean = mean();
+            double sum = 0;
+            for (double score : scores) {
+                sum += (score - mean) * (score - mean);
+            }
+            return 3.291 * Math.sqrt(sum / (scores.length - 1)) / Math.sqrt(scores.length);
+        }
+    }
+
+    /**
+     * fork 出的 JVM 输出原始结果的行前缀   Préfixe de la ligne de résultats bruts écrite par une JVM forkée
+     */
+    private static final String RAW = "#raw ";
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Op> ops = new ArrayList<>();
+    private int warmupIterations = 3;
+    private int measurementIterations = 5;
+    private long iterationMillis = 500;
+    private int forks = 1;
+
+    /**
+     * 防止结果被 JIT 优化掉   Empêche le JIT d'éliminer les résultats
+     */
+    private long blackhole;
+
+    public Harness add(String name, Op op) {
+        names.add(name);
+        ops.add(op);
+        return this;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Harness harness = new Harness();
+        String output = null;
+        Pattern filter = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-f":
+                    harness.forks = Integer.parseInt(args[++i]);
+                    break;
+                case "-w":
+                    harness.warmupIterations = Integer.parseInt(args[++i]);
+                    break;
+                case "-i":
+                    harness.measurementIterations = Integer.parseInt(args[++i]);
+                    break;
+                case "-t":
+                    harness.iterationMillis = Long.parseLong(args[++i]);
+                    break;
+                case "-o":
+                    output = args[++i];
+                    break;
+                default:
+                    filter = Pattern.compile(args[i]);
+                    break;
+            }
+        }
+
+        CoordinateBenchmarks.register(harness);
+        MoveBenchmarks.register(harness);
+        BoardBenchmarks.register(harness);
+        SearchBenchmarks.register(harness);
+        TimerBenchmarks.register(harness);
+
+        List<Result> results = harness.run(filter);
+        if (output != null) {
+            harness.writeJson(new File(output), results);
+        }
+    }
+
+    /**
+     * 运行名称匹配 filter 的基准测试(filter 为 null 时全部运行)
+     * Exécute les benchmarks dont le nom correspond à filter (tous si filter est null)
+     */
+    List<Result> run(Pattern filter) throws IOException {
+        List<Result> results = new ArrayList<>();
+        System.out.printf(Locale.ROOT, "%-36s %14s %12s %12s%n", "Benchmark", "Score", "Error", "B/op");
+        for (int b = 0; b < ops.size(); b++) {
+            String name = names.get(b);
+            if (filter != null && !filter.matcher(name).find()) {
+                continue;
+            }
+            Result result = forks > 0 ? fork(name) : measure(name, ops.get(b));
+            results.add(result);
+            System.out.printf(Locale.ROOT, "%-36s %14.3f %12.3f %12.1f%n", name, result.mean(), result.error(), result.allocated);
+        }
+        if (blackhole == 42) {
+            System.out.println();
+        }
+        return results;
+    }
+
+    /**
+     * 在 forks 个新的 JVM 中分别运行一个基准测试(-f 0，只匹配这个名称)，合并它们的测量轮
+     * Exécute un benchmark dans forks nouvelles JVM (-f 0, filtre sur ce seul nom) et réunit leurs itérations
+     */
+    private Result fork(String name) throws IOException {
+        double[] scores = new double[forks * measurementIterations];
+        double allocated = 0;
+        for (int f = 0; f < forks; f++) {
+            List<String> command = new ArrayList<>();
+            command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(Harness.class.getName());
+            command.add("-f");
+            command.add("0");
+            command.add("-w");
+            command.add(String.valueOf(warmupIterations));
+            command.add("-i");
+            command.add(String.valueOf(measurementIterations));
+            command.add("-t");
+            command.add(String.valueOf(iterationMillis));
+            command.add("^" + Pattern.quote(name) + "$");
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String raw = null;
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith(RAW)) {
+                        raw = line;
+                    }
+                }
+            }
+            try {
+                process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while running " + name, e);
+            }
+            if (raw == null) {
+                throw new IOException("Fork of " + name + " exited with " + process.exitValue() + " and no result");
+            }
+            // RAW 分配字节数 测量轮...   RAW octets alloués itérations...
+            String[] fields = raw.substring(RAW.length()).trim().split(" ");
+            allocated += Double.parseDouble(fields[0].replace("\"", "")) / forks;
+            for (int i = 0; i < measurementIterations; i++) {
+                scores[f * measurementIterations + i] = Double.parseDouble(fields[1 + i]);
+            }
+        }
+        Result result = new Result(name, scores, forks);
+        result.allocated = allocated;
+        return result;
+    }
+
+    /**
+     * 在当前 JVM 中运行一个基准测试   Exécute un benchmark dans la JVM courante
+     */
+    private Result measure(String name, Op op) {
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(op);
+        }
+        double[] scores = new double[measurementIterations];
+        long allocated = 0;
+        long operations = 0;
+        for (int i = 0; i < measurementIterations; i++) {
+            long before = allocatedBytes();
+            long[] count = new long[1];
+            scores[i] = iteration(op, count);
+            allocated += allocatedBytes() - before;
+            operations += count[0];
+        }
+        Result result = new Result(name, scores, 1);
+        result.allocated = allocated < 0 ? Double.NaN : (double) allocated / operations;
+        StringBuilder raw = new StringBuilder(RAW).append(number(result.allocated));
+        for (double score : scores) {
+            raw.append(' ').append(number(score));
+        }
+        System.out.println(raw);
+        return result;
+    }
+
+    private double iteration(Op op) {
+        return iteration(op, new long[1]);
+    }
+
+    /**
+     * 在 iterationMillis 内尽量多次执行 op，返回平均每次的纳秒数
+     * Exécute op autant que possible pendant iterationMillis, renvoie la moyenne en nanosecondes par opération
+     */
+    private double iteration(Op op, long[] count) {
+        long deadline = System.nanoTime() + iterationMillis * 1_000_000L;
+        long operations = 0;
+        long sink = 0;
+        long start = System.nanoTime();
+        long now;
+        int batch = 1;
+        do {
+            for (int i = 0; i < batch; i++) {
+                sink += op.run();
+            }
+            operations += batch;
+            now = System.nanoTime();
+            if (batch < 1 << 16) {
+                batch <<= 1;
+            }
+        } while (now < deadline);
+        blackhole += sink;
+        count[0] = operations;
+        return (double) (now - start) / operations;
+    }
+
+    /**
+     * 当前线程累计分配的字节数，不支持时返回 -1
+     * Octets alloués par le thread courant, -1 si non supporté
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * 按照 JMH 的 -rf json 格式写出结果   Écrit les résultats au format -rf json de JMH
+     */
+    void writeJson(File file, List<Result> results) throws IOException {
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.println("[");
+            for (int r = 0; r < results.size(); r++) {
+                Result result = results.get(r);
+                double mean = result.mean();
+                double error = result.error();
+                out.println("    {");
+                out.printf(Locale.ROOT, "        \"benchmark\" : \"%s\",%n", result.name);
+                out.println("        \"mode\" : \"avgt\",");
+                out.println("        \"threads\" : 1,");
+                out.printf(Locale.ROOT, "        \"forks\" : %d,%n", result.forks);
+                out.printf(Locale.ROOT, "        \"jdkVersion\" : \"%s\",%n", System.getProperty("java.version"));
+                out.printf(Locale.ROOT, "        \"warmupIterations\" : %d,%n", warmupIterations);
+                out.printf(Locale.ROOT, "        \"warmupTime\" : \"%d ms\",%n", iterationMillis);
+                out.printf(Locale.ROOT, "        \"measurementIterations\" : %d,%n", measurementIterations);
+                out.printf(Locale.ROOT, "        \"measurementTime\" : \"%d ms\",%n", iterationMillis);
+                out.println("        \"primaryMetric\" : {");
+                out.printf(Locale.ROOT, "            \"score\" : %s,%n", number(mean));
+                out.printf(Locale.ROOT, "            \"scoreError\" : %s,%n", number(error));
+                out.printf(Locale.ROOT, "            \"scoreConfidence\" : [ %s, %s ],%n", number(mean - error), number(mean + error));
+                out.println("            \"scoreUnit\" : \"ns/op\",");
+                out.print("            \"rawData\" : [ ");
+                int perFork = result.scores.length / result.forks;
+                for (int f = 0; f < result.forks; f++) {
+                    out.print(f == 0 ? "[ " : ", [ ");
+                    for (int i = 0; i < perFork; i++) {
+                        out.print((i == 0 ? "" : ", ") + number(result.scores[f * perFork + i]));
+                    }
+                    out.print(" ]");
+                }
+                out.println(" ]");
+                out.println("        },");
+                out.println("        \"secondaryMetrics\" : {");
+                out.println("            \"·gc.alloc.rate.norm\" : {");
+                out.printf(Locale.ROOT, "                \"score\" : %s,%n", number(result.allocated));
+                out.println("                \"scoreUnit\" : \"B/op\"");
+                out.println("            }");
+                out.println("        }");
+                out.println(r == results.size() - 1 ? "    }" : "    },");
+            }
+            out.println("]");
+        }
+    }
+
+    /**
+     * JSON 不支持 NaN   JSON ne supporte pas NaN
+     */
+    private static String number(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "\"NaN\"" : String.format(Locale.ROOT, "%.6f", value);
+    }
+}
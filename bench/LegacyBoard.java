@@ -0,0 +1,133 @@
+package bench;
+
+import gui.BitBoard;
+import gui.Obstacle;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static gui.Obstacle.*;
+
+/**
+ * 旧版地图模型(仅用于基准对比)
+ * Ancien modèle de carte (uniquement pour comparer les benchmarks)
+ *  复现最初 AppMain 中以 "r_c" 字符串为键的 obstacleMap、nonBirthPointSet，
+ *  以及一格一格移动的 chessMove*Straightly 循环和 randomChessPos
+ *  Reproduit l'obstacleMap et le nonBirthPointSet indexés par chaînes "r_c" de l'AppMain d'origine,
+ *  ainsi que les boucles case par case de chessMove*Straightly et randomChessPos
+ */
+class LegacyBoard {
+
+    private final Map<String, Obstacle> obstacleMap = new HashMap<>();
+    private final Set<String> nonBirthPointSet = new HashSet<>();
+
+    /**
+     * 从位棋盘生成旧版的 Map 集合(包括地图四周不可进入的点)
+     * Construit l'ancienne Map à partir du bitboard (y compris les points infranchissables autour de la carte)
+     */
+    LegacyBoard(BitBoard board) {
+        for (int r = -1; r <= BitBoard.SIZE; r++) {
+            for (int c = -1; c <= BitBoard.SIZE; c++) {
+                obstacleMap.put(getR_C(r, c), new Obstacle(r, c,
+                        board.canEnter(r, c, BitBoard.UP), board.canEnter(r, c, BitBoard.DOWN),
+                        board.canEnter(r, c, BitBoard.LEFT), board.canEnter(r, c, BitBoard.RIGHT), false));
+                if (r >= 0 && r < BitBoard.SIZE && c >= 0 && c < BitBoard.SIZE) {
+                    int cell = BitBoard.cell(r, c);
+                    if (board.hasRobot(cell)) {
+                        obstacleMap.get(getR_C(r, c)).setHasChess(true);
+                    }
+                    if (!board.isSpawnable(cell)) {
+                        nonBirthPointSet.add(getR_C(r, c));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 旧版的滑动：每走一格解析一次字符串、查一次 Map，并更新棋子标记
+     * Ancienne glissade : à chaque case on parse la chaîne, on consulte la Map et on met à jour le marqueur du pion
+     * @param rc    棋子所在位置  position du pion
+     * @return  棋子停下的位置(棋子会留在该位置)   position d'arrêt (le pion y reste)
+     */
+    String slide(String rc, int dir) {
+        String current = rc;
+        while (true) {
+            int r = getR(current);
+            int c = getC(current);
+            switch (dir) {
+                case BitBoard.UP:
+                    r--;
+                    break;
+                case BitBoard.DOWN:
+                    r++;
+                    break;
+                case BitBoard.LEFT:
+                    c--;
+                    break;
+                default:
+                    c++;
+                    break;
+            }
+            String next = getR_C(r, c);
+            Obstacle obstacle = obstacleMap.getOrDefault(next, new Obstacle(r, c));
+            boolean can;
+            switch (dir) {
+                case BitBoard.UP:
+                    can = obstacle.isCanUp();
+                    break;
+                case BitBoard.DOWN:
+                    can = obstacle.isCanDown();
+                    break;
+                case BitBoard.LEFT:
+                    can = obstacle.isCanLeft();
+                    break;
+                default:
+                    can = obstacle.isCanRight();
+                    break;
+            }
+            if (can && !obstacle.isHasChess()) {
+                chessMove(current, r, c, next);
+                current = next;
+            } else {
+                return current;
+            }
+        }
+    }
+
+    private void chessMove(String lastRC, int r, int c, String rc) {
+        obstacleMap.get(lastRC).setHasChess(false);
+        Obstacle obstacle = obstacleMap.getOrDefault(rc, new Obstacle(r, c));
+        obstacle.setHasChess(true);
+        obstacleMap.put(rc, obstacle);
+    }
+
+    /**
+     * 旧版的随机出生点(每次新建 Random，拒绝采样)
+     * Ancien point d'apparition aléatoire (nouveau Random à chaque appel, échantillonnage par rejet)
+     */
+    String randomPos() {
+        Random random = new Random();
+        int r;
+        int c;
+        String rc;
+        do {
+            r = Math.abs(random.nextInt()) % 16;
+            c = Math.abs(random.nextInt()) % 16;
+            rc = getR_C(r, c);
+        } while (nonBirthPointSet.contains(rc) || obstacleMap.containsKey(rc) && obstacleMap.get(rc).isHasChess());
+        return rc;
+    }
+
+    /**
+     * 把棋子从 from 移动到 to (用于基准测试复位)   Déplace un pion de from à to (pour réinitialiser les benchmarks)
+     */
+    void moveChess(String from, String to) {
+        if (!from.equals(to)) {
+            chessMove(from, getR(to), getC(to), to);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package bench;
+
+import gui.BitBoard;
+import gui.Boards;
+import gui.GameEngine;
+import gui.MoveLog;
+import gui.Obstacle;
+import gui.Replay;
+import gui.SlideTable;
+import gui.Solver;
+
+import java.util.Random;
+
+/**
+ * 棋子移动与出生点的基准测试
+ * Benchmarks du déplacement des pions et des points d'apparition
+ *  所有移动的实现都按同一个(棋子, 方向)序列在经典地图上移动，棋子停在终点，因此结果可以直接比较
+ *  Toutes les implémentations suivent la même séquence (pion, direction) sur la carte classique
+ *  et le pion reste à l'arrêt, les résultats sont donc directement comparables
+ */
+class MoveBenchmarks {
+
+    private static final int SEQUENCE = 4096;
+    /**
+     * 对局记录达到这个长度后重新开始游戏，基准测试不会无限占用内存
+     * Au-delà de cette longueur de journal la partie recommence : le benchmark n'occupe pas une mémoire illimitée
+     */
+    private static final int LOG_LIMIT = 1 << 20;
+
+    static void register(Harness harness) {
+        BitBoard classic = Boards.classic();
+        Random random = new Random(7);
+        int[] sequence = new int[SEQUENCE];
+        for (int i = 0; i < SEQUENCE; i++) {
+            sequence[i] = random.nextInt(16);       // robot << 2 | dir
+        }
+        int[] start = startCells(classic, random);
+
+        // 旧版：字符串坐标 + Map，一格一格移动   ancienne version : coordonnées texte + Map, case par case
+        BitBoard legacyBoard = withRobots(classic, start);
+        LegacyBoard legacy = new LegacyBoard(legacyBoard);
+        String[] legacyRobots = new String[start.length];
+        for (int i = 0; i < start.length; i++) {
+            legacyRobots[i] = Obstacle.getR_C(BitBoard.row(start[i]), BitBoard.col(start[i]));
+        }
+        int[] legacyNext = new int[1];
+        harness.add("move.legacyLoop", () -> {
+            int move = sequence[legacyNext[0]++ & (SEQUENCE - 1)];
+            int robot = move >> 2;
+            String stop = legacy.slide(legacyRobots[robot], move & 3);
+            legacyRobots[robot] = stop;
+            return stop.length();
+        });
+
+        // 位棋盘一格一格移动   bitboard case par case
+        BitBoard stepBoard = withRobots(classic, start);
+        int[] stepRobots = start.clone();
+        int[] stepNext = new int[1];
+        harness.add("move.bitBoardStep", () -> {
+            int move = sequence[stepNext[0]++ & (SEQUENCE - 1)];
+            int robot = move >> 2;
+            int dir = move & 3;
+            int from = stepRobots[robot];
+            int cell = from;
+            while (stepBoard.canStep(cell, dir)) {
+                cell = BitBoard.neighbour(cell, dir);
+            }
+            stepBoard.moveRobot(from, cell);
+            stepRobots[robot] = cell;
+            return cell;
+        });
+
+        // 滑动终点表 + 位棋盘   table des glissades + bitboard
+        BitBoard slideBoard = withRobots(classic, start);
+        SlideTable slideTable = new SlideTable(slideBoard);
+        int[] slideRobots = start.clone();
+        int[] slideNext = new int[1];
+        harness.add("move.slideTable", () -> {
+            int move = sequence[slideNext[0]++ & (SEQUENCE - 1)];
+            int robot = move >> 2;
+            int from = slideRobots[robot];
+            int cell = slideTable.slide(from, move & 3, slideBoard);
+            slideBoard.moveRobot(from, cell);
+            slideRobots[robot] = cell;
+            return cell;
+        });
+
+        // 滑动终点表 + 打包的棋子状态(求解器使用)   table des glissades + état packé (utilisé par le solveur)
+        int[] packed = {Solver.pack(start)};
+        int[] packedNext = new int[1];
+        harness.add("move.slideTablePacked", () -> {
+            int move = sequence[packedNext[0]++ & (SEQUENCE - 1)];
+            int robot = move >> 2;
+            int cell = slideTable.slide(Solver.cellOf(packed[0], robot), move & 3, packed[0]);
+            packed[0] = Solver.withCell(packed[0], robot, cell);
+            return cell;
+        });
+
+        // 完整的一步游戏操作(滑动、事件、终点判断、步数)   un coup complet du jeu (glissade, événements, arrivée, pas)
+        GameEngine game = new GameEngine(classic, new Random(5));
+        game.startGame(1);
+        int[] gameNext = new int[1];
+        harness.add("move.engine", () -> {
+            if (game.getPhase() == GameEngine.Phase.OVER || game.getMoveLog().size() >= LOG_LIMIT) {
+                game.startGame(1);
+            }
+            if (game.getPhase() != GameEngine.Phase.MOVING) {
+                game.submitBid(Integer.MAX_VALUE);
+            }
+            return game.move(sequence[gameNext[0]++ & (SEQUENCE - 1)] & 3);
+        });
+
+        // 重放对局记录中的一个操作(出价、移动、撤销、重做、超时)
+        // rejoue une action d'un journal de partie (enchère, coup, annulation, rétablissement, dépassement)
+        MoveLog log = recordGame(classic, new Random(13));
+        GameEngine replay = new GameEngine(classic, log.getSeed());
+        int[] replayNext = new int[1];
+        harness.add("replay.action", () -> {
+            int i = replayNext[0] < log.size() ? replayNext[0] : 0;
+            replayNext[0] = Replay.apply(replay, log, i, i + 1);
+            return replay.getRobots();
+        });
+
+        // 出生点拒绝采样   échantillonnage par rejet des points d'apparition
+        int[] legacySpawnNext = new int[1];
+        harness.add("spawn.legacy", () -> {
+            int robot = legacySpawnNext[0]++ & 3;
+            String rc = legacy.randomPos();
+            legacy.moveChess(legacyRobots[robot], rc);
+            legacyRobots[robot] = rc;
+            return rc.length();
+        });
+        GameEngine engine = new GameEngine(classic, new Random(11));
+        int[] spawnNext = new int[1];
+        harness.add("spawn.engine", () -> {
+            int robot = spawnNext[0]++ & 3;
+            engine.respawn(robot);
+            return engine.getRobotCell(robot);
+        });
+    }
+
+    /**
+     * 记录一局随机玩家的游戏(两个玩家，出价都小于 MoveLog.MAX_SHORT_BID，每个操作一个字节)
+     * Enregistre une partie de joueurs aléatoires (deux joueurs, enchères inférieures à MoveLog.MAX_SHORT_BID,
+     * un octet par action)
+     */
+    static MoveLog recordGame(BitBoard board, Random random) {
+        GameEngine engine = new GameEngine(board, random.nextLong());
+        engine.startGame(2);
+        while (engine.getPhase() != GameEngine.Phase.OVER && engine.getMoveLog().size() < LOG_LIMIT) {
+            if (engine.getPhase() == GameEngine.Phase.BIDDING) {
+                engine.submitBid(1 + random.nextInt(30));
+            } else {
+                int action = random.nextInt(20);
+                if (action == 0) {
+                    engine.undo();
+                } else if (action == 1) {
+                    engine.redo();
+                } else if (action == 2) {
+                    engine.timeout();
+                } else {
+                    engine.move(random.nextInt(4));
+                }
+            }
+        }
+        return engine.getMoveLog().copy(engine.getMoveLog().size());
+    }
+
+    /**
+     * 随机选取四个可以出生且不重叠的格子  Choisit quatre cases d'apparition distinctes au hasard
+     */
+    static int[] startCells(BitBoard board, Random random) {
+        int[] cells = new int[GameEngine.ROBOTS];
+        for (int i = 0; i < cells.length; i++) {
+            int cell;
+            boolean used;
+            do {
+                cell = random.nextInt(BitBoard.CELLS);
+                used = false;
+                for (int k = 0; k < i; k++) {
+                    used |= cells[k] == cell;
+                }
+            } while (used || !board.isSpawnable(cell));
+            cells[i] = cell;
+        }
+        return cells;
+    }
+
+    static BitBoard withRobots(BitBoard board, int[] cells) {
+        BitBoard copy = new BitBoard(board);
+        copy.clearRobots();
+        for (int cell : cells) {
+            copy.setRobot(cell, true);
+        }
+        return copy;
+    }
+}
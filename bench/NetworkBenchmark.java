@@ -0,0 +1,213 @@
+package bench;
+
+import gui.GameClient;
+import gui.GameServer;
+import gui.GameSessionManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网络协议基准测试
+ * Banc d'essai du protocole réseau
+ *  在本机启动 GameServer，每张桌子 P 个 localhost 客户端(随机玩家)通过二进制协议进行游戏 T 秒
+ *  Démarre un GameServer local ; P clients localhost par table (joueurs aléatoires) jouent pendant T secondes
+ *  avec le protocole binaire
+ *      输出: 每秒的消息数、服务器处理每条消息的时间(解码和分发)、每次 write 发送的消息数(批处理)、
+ *      客户端从发送移动到收到第一条回复的延迟
+ *      Affiche : messages par seconde, temps de traitement serveur par message (décodage et distribution),
+ *      messages par write (lots), latence client entre l'envoi d'un coup et la première réponse
+ *      用法  usage : java bench.NetworkBenchmark [桌子数 tables] [玩家数 joueurs] [秒数 secondes]
+ */
+public class NetworkBenchmark {
+
+    private static final int MAX_BID = 12;
+
+    /**
+     * 一个随机玩家  Un joueur aléatoire
+     */
+    private static final class Bot implements GameClient.Listener {
+        private final Random random;
+        private final boolean host;
+        private final CountDownLatch welcomed;
+        private GameClient client;
+        private volatile int session = -1;
+        private int seat = -1;
+        private int robot;
+        private long sentAt;
+        private volatile long received;
+        private volatile long latencyNanos;
+        private volatile long latencyCount;
+        private volatile long latencyMax;
+
+        Bot(long seed, boolean host, CountDownLatch welcomed) {
+            this.random = new Random(seed);
+            this.host = host;
+            this.welcomed = welcomed;
+        }
+
+        @Override
+        public void onWelcome(int session, int seat, int phase, int robot, int[] robots) {
+            received++;
+            this.session = session;
+            this.seat = seat;
+            this.robot = robot;
+            welcomed.countDown();
+        }
+
+        @Override
+        public void onRobotMoved(int robot, int from, int to) {
+            received++;
+            answered();
+        }
+
+        @Override
+        public void onRoundStarted(int robot, int firstBidder) {
+            received++;
+            this.robot = robot;
+            onBidder(firstBidder);
+        }
+
+        @Override
+        public void onBidRequested(int seat) {
+            received++;
+            onBidder(seat);
+        }
+
+        @Override
+        public void onTurnStarted(int seat) {
+            received++;
+            answered();
+        }
+
+        @Override
+        public void onStepsLeft(int seat, int stepsLeft) {
+            received++;
+            answered();
+            if (seat == this.seat) {
+                sentAt = System.nanoTime();
+                send(() -> client.move(robot, random.nextInt(4)));
+            }
+        }
+
+        @Override
+        public void onRobotArrived(int seat, int robot) {
+            received++;
+        }
+
+        @Override
+        public void onGameOver(int[] seats, int[] scores) {
+            received++;
+            if (host) {
+                send(() -> client.start(0));
+            }
+        }
+
+        private void onBidder(int bidder) {
+            if (bidder == seat) {
+                send(() -> client.bid(1 + random.nextInt(MAX_BID)));
+            }
+        }
+
+        /**
+         * 收到上一次移动之后的第一条消息  Premier message reçu après le dernier coup envoyé
+         */
+        private void answered() {
+            if (sentAt != 0) {
+                long latency = System.nanoTime() - sentAt;
+                sentAt = 0;
+                latencyNanos += latency;
+                latencyCount++;
+                latencyMax = Math.max(latencyMax, latency);
+            }
+        }
+
+        private void send(IoAction action) {
+            try {
+                action.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        GameSessionManager manager = new GameSessionManager(null, TimeUnit.MINUTES.toMillis(1));
+        GameServer server = new GameServer(manager, new InetSocketAddress("localhost", 0));
+        InetSocketAddress address = new InetSocketAddress("localhost", server.getPort());
+
+        List<Bot> bots = new ArrayList<>();
+        List<GameClient> clients = new ArrayList<>();
+        List<GameClient> hosts = new ArrayList<>();
+        for (int table = 0; table < tables; table++) {
+            CountDownLatch hostWelcomed = new CountDownLatch(1);
+            Bot host = new Bot(table * 97L, true, hostWelcomed);
+            host.client = new GameClient(address, host);
+            host.client.join(-1);
+            hostWelcomed.await(10, TimeUnit.SECONDS);
+            bots.add(host);
+            clients.add(host.client);
+            hosts.add(host.client);
+            CountDownLatch welcomed = new CountDownLatch(players - 1);
+            for (int seat = 1; seat < players; seat++) {
+                Bot bot = new Bot(table * 97L + seat, false, welcomed);
+                bot.client = new GameClient(address, bot);
+                bot.client.join(host.session);
+                bots.add(bot);
+                clients.add(bot.client);
+            }
+            welcomed.await(10, TimeUnit.SECONDS);
+        }
+
+        long messagesBefore = server.getMessages();
+        long nanosBefore = server.getProcessingNanos();
+        long writesBefore = server.getWrites();
+        long start = System.nanoTime();
+        for (GameClient host : hosts) {
+            host.start(0);
+        }
+        TimeUnit.SECONDS.sleep(seconds);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long messages = server.getMessages() - messagesBefore;
+        long nanos = server.getProcessingNanos() - nanosBefore;
+        long writes = server.getWrites() - writesBefore;
+        long received = 0;
+        long latency = 0;
+        long latencyCount = 0;
+        long latencyMax = 0;
+        for (Bot bot : bots) {
+            received += bot.received;
+            latency += bot.latencyNanos;
+            latencyCount += bot.latencyCount;
+            latencyMax = Math.max(latencyMax, bot.latencyMax);
+        }
+        System.out.printf("%d tables x %d players over localhost, %d s%n", tables, players, seconds);
+        System.out.printf("server: %.0f messages/s in, %.0f ns processing per message%n",
+                messages / elapsed, nanos / (double) Math.max(1, messages));
+        System.out.printf("server: %.0f messages/s out, %.1f messages per write%n",
+                received / elapsed, received / (double) Math.max(1, writes));
+        System.out.printf("client: move -> reply %.0f us average, %.0f us max (%d samples)%n",
+                latency / 1e3 / Math.max(1, latencyCount), latencyMax / 1e3, latencyCount);
+
+        for (GameClient client : clients) {
+            client.close();
+        }
+        server.close();
+        manager.shutdown();
+    }
+}
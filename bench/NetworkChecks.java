@@ -0,0 +1,325 @@
+package bench;
+
+import gui.Boards;
+import gui.GameClient;
+import gui.GameServer;
+import gui.GameSessionManager;
+import gui.Protocol;
+import gui.SlideTable;
+import gui.Solver;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多人游戏服务器的检查
+ * Vérifications du serveur multijoueur
+ *  在本机启动一个 GameServer，用 GameClient 和原始套接字检查协议，任何一项失败时抛出异常(退出码非 0)
+ *  Démarre un GameServer local et vérifie le protocole avec des GameClient et des sockets bruts ;
+ *  une vérification qui échoue lève une exception (code de sortie non nul)
+ *      加入、出价和移动产生预期的状态变化消息   rejoindre, enchérir et jouer produisent les messages attendus
+ *      长度错误的消息、加入前的消息、第二次加入得到对应的错误码
+ *      message de longueur incorrecte, message avant JOIN, second JOIN : code d'erreur correspondant
+ *      待发送数据超过 1 MB 的连接被断开，其他连接不受影响
+ *      une connexion qui dépasse 1 Mo en attente est fermée, les autres continuent
+ *      用法  usage : java bench.NetworkChecks
+ */
+public class NetworkChecks {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    /**
+     * 把收到的消息按顺序记录为文本   Enregistre les messages reçus, dans l'ordre, sous forme de texte
+     */
+    static final class Recorder implements GameClient.Listener {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        /**
+         * 四个棋子的格子(由 WELCOME 和 ROBOT_MOVED 维护)   Cases des quatre pions (tenues à jour par WELCOME et ROBOT_MOVED)
+         */
+        final int[] robots = new int[4];
+        volatile int session = -1;
+        volatile int seat = -1;
+
+        @Override
+        public void onWelcome(int session, int seat, int phase, int robot, int[] cells) {
+            this.session = session;
+            this.seat = seat;
+            System.arraycopy(cells, 0, robots, 0, robots.length);
+            events.add("welcome " + seat + " " + phase);
+        }
+
+        @Override
+        public void onRobotMoved(int robot, int from, int to) {
+            robots[robot] = to;
+            events.add("moved " + robot + " " + from + " " + to);
+        }
+
+        @Override
+        public void onRoundStarted(int robot, int firstBidder) {
+            events.add("round " + robot + " " + firstBidder);
+        }
+
+        @Override
+        public void onBidRequested(int seat) {
+            events.add("bid " + seat);
+        }
+
+        @Override
+        public void onTurnStarted(int seat) {
+            events.add("turn " + seat);
+        }
+
+        @Override
+        public void onStepsLeft(int seat, int stepsLeft) {
+            events.add("steps " + seat + " " + stepsLeft);
+        }
+
+        @Override
+        public void onRobotArrived(int seat, int robot) {
+            events.add("arrived " + seat + " " + robot);
+        }
+
+        @Override
+        public void onGameOver(int[] seats, int[] scores) {
+            events.add("over");
+        }
+
+        @Override
+        public void onError(int code) {
+            events.add("error " + code);
+        }
+
+        @Override
+        public void onClosed() {
+            events.add("closed");
+        }
+
+        /**
+         * 等待第一条以 prefix 开头的消息(跳过之前的消息)   Attend le premier message commençant par prefix
+         * (les précédents sont sautés)
+         */
+        String await(String prefix) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+            while (true) {
+                String event = events.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (event == null) {
+                    throw new IllegalStateException("No \"" + prefix + "\" message");
+                }
+                if (event.startsWith(prefix)) {
+                    return event;
+                }
+            }
+        }
+    }
+
+    /**
+     * 直接读写字节的连接(可以发送客户端不会发送的消息)
+     * Connexion qui lit et écrit des octets bruts (pour envoyer ce qu'un client n'enverrait pas)
+     */
+    static final class RawConnection implements AutoCloseable {
+        final Socket socket;
+        final OutputStream out;
+        final DataInputStream in;
+
+        RawConnection(InetSocketAddress address, int receiveBuffer) throws IOException {
+            socket = new Socket();
+            if (receiveBuffer > 0) {
+                socket.setReceiveBufferSize(receiveBuffer);
+            }
+            socket.connect(address);
+            socket.setSoTimeout((int) TIMEOUT_MILLIS);
+            out = socket.getOutputStream();
+            in = new DataInputStream(socket.getInputStream());
+        }
+
+        void send(int... bytes) throws IOException {
+            byte[] data = new byte[bytes.length];
+            for (int i = 0; i < bytes.length; i++) {
+                data[i] = (byte) bytes[i];
+            }
+            out.write(data);
+            out.flush();
+        }
+
+        /**
+         * 读取一条消息: 类型和内容   Lit un message : type et contenu
+         */
+        int[] receive() throws IOException {
+            int type = in.readUnsignedByte();
+            int length = in.readUnsignedByte();
+            int[] message = new int[1 + length];
+            message[0] = type;
+            for (int i = 0; i < length; i++) {
+                message[1 + i] = in.readUnsignedByte();
+            }
+            return message;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private final InetSocketAddress address;
+
+    NetworkChecks(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private GameClient connect(Recorder recorder, int session) throws IOException, InterruptedException {
+        GameClient client = new GameClient(address, recorder);
+        client.join(session);
+        recorder.await("welcome ");
+        return client;
+    }
+
+    /**
+     * --------------------------------------
+     * 检查  Vérifications
+     * --------------------------------------
+     */
+
+    /**
+     * 两个客户端加入同一个会话，开始游戏，出价并移动一步
+     * Deux clients rejoignent la même session, lancent la partie, enchérissent et jouent un coup
+     */
+    void joinBidMove() throws IOException, InterruptedException {
+        Recorder[] recorders = {new Recorder(), new Recorder()};
+        GameClient[] clients = new GameClient[2];
+        clients[0] = connect(recorders[0], -1);
+        clients[1] = connect(recorders[1], recorders[0].session);
+        try {
+            check(recorders[0].seat == 0 && recorders[1].seat == 1, "seats " + recorders[0].seat + ", " + recorders[1].seat);
+
+            clients[0].start(0);
+            String[] round = recorders[0].await("round ").split(" ");
+            check(recorders[1].await("round ").equals(String.join(" ", round)), "both clients see the same round");
+            int robot = Integer.parseInt(round[1]);
+            int first = Integer.parseInt(round[2]);
+            int second = 1 - first;
+
+            clients[first].bid(3);
+            check(recorders[0].await("bid ").equals("bid " + second), "second bidder requested");
+            clients[second].bid(5);
+            String turn = recorders[0].await("turn ");
+            check(recorders[1].await("turn ").equals(turn), "both clients see the same turn");
+            int mover = Integer.parseInt(turn.split(" ")[1]);
+            check(mover == first, "lowest bid moves first, got " + turn);
+            recorders[0].await("steps " + mover + " 3");
+
+            // 选择一个能移动的方向，并预测终点   direction qui déplace le pion, avec la case d'arrivée prévue
+            SlideTable slideTable = new SlideTable(Boards.classic());
+            int state = Solver.pack(recorders[mover].robots);
+            int from = recorders[mover].robots[robot];
+            int dir = 0;
+            while (slideTable.slide(from, dir, state) == from) {
+                dir++;
+            }
+            int to = slideTable.slide(from, dir, state);
+            clients[mover].move(robot, dir);
+            String moved = "moved " + robot + " " + from + " " + to;
+            check(recorders[0].await("moved ").equals(moved), "robot moved as predicted");
+            check(recorders[1].await("moved ").equals(moved), "robot move sent to every client");
+            check(recorders[0].await("steps " + mover).equals("steps " + mover + " 2"), "one step used");
+
+            // 不是自己的回合的移动被忽略: 下一条移动消息是撤销   un coup hors de son tour est ignoré : le message
+            // de déplacement suivant est l'annulation
+            clients[second].move(robot, dir ^ 1);
+            TimeUnit.MILLISECONDS.sleep(200);
+            clients[mover].undo();
+            check(recorders[0].await("moved ").equals("moved " + robot + " " + to + " " + from), "out-of-turn move ignored");
+            check(recorders[0].await("steps " + mover).equals("steps " + mover + " 3"), "undo refunds the step");
+        } finally {
+            clients[0].close();
+            clients[1].close();
+        }
+    }
+
+    /**
+     * 长度错误的消息、加入前的消息和第二次加入   Longueur incorrecte, message avant JOIN et second JOIN
+     */
+    void errors() throws IOException, InterruptedException {
+        try (RawConnection raw = new RawConnection(address, 0)) {
+            raw.send(Protocol.JOIN, 0);
+            check(raw.receive()[1] == Protocol.ERROR_UNKNOWN_MESSAGE, "JOIN without a session id");
+            raw.send(Protocol.BID, 1, 5);
+            check(raw.receive()[1] == Protocol.ERROR_UNKNOWN_MESSAGE, "BID with one byte");
+            raw.send(Protocol.MOVE, 2, 0, 0);
+            check(raw.receive()[1] == Protocol.ERROR_UNKNOWN_MESSAGE, "MOVE with two bytes");
+            raw.send(Protocol.UNDO, 0);
+            int[] reply = raw.receive();
+            check(reply[0] == Protocol.ERROR && reply[1] == Protocol.ERROR_NOT_JOINED, "UNDO before JOIN");
+            raw.send(Protocol.START, 1, 2);
+            check(raw.receive()[1] == Protocol.ERROR_NOT_JOINED, "START before JOIN");
+        }
+
+        Recorder recorder = new Recorder();
+        try (GameClient client = connect(recorder, -1)) {
+            client.join(recorder.session);
+            check(recorder.await("error ").equals("error " + Protocol.ERROR_ALREADY_JOINED), "second JOIN");
+            client.join(-1);
+            check(recorder.await("error ").equals("error " + Protocol.ERROR_ALREADY_JOINED), "JOIN -1 after joining");
+        }
+    }
+
+    /**
+     * 一个不读取回复的连接被断开，其他连接继续工作
+     * Une connexion qui ne lit pas ses réponses est fermée, les autres continuent
+     */
+    void slowClient() throws IOException, InterruptedException {
+        Recorder recorder = new Recorder();
+        try (GameClient other = connect(recorder, -1);
+             RawConnection slow = new RawConnection(address, 4096)) {
+            // 每条 UNDO 得到一条 3 字节的 ERROR_NOT_JOINED，不读取，直到服务器断开
+            // chaque UNDO reçoit un ERROR_NOT_JOINED de 3 octets, jamais lu, jusqu'à la fermeture par le serveur
+            byte[] chunk = new byte[64 * 1024];
+            for (int i = 0; i < chunk.length; i += 2) {
+                chunk[i] = (byte) Protocol.UNDO;
+            }
+            boolean disconnected = false;
+            for (long sent = 0; sent < 256L << 20 && !disconnected; sent += chunk.length) {
+                try {
+                    slow.out.write(chunk);
+                } catch (IOException e) {
+                    disconnected = true;
+                }
+            }
+            check(disconnected, "slow client disconnected");
+
+            other.join(recorder.session);
+            check(recorder.await("error ").equals("error " + Protocol.ERROR_ALREADY_JOINED), "other client still served");
+            Recorder late = new Recorder();
+            GameClient client = connect(late, recorder.session);
+            client.close();
+            check(late.seat == 1, "new client joins after the disconnection");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        GameSessionManager manager = new GameSessionManager(null, TimeUnit.MINUTES.toMillis(1));
+        try (GameServer server = new GameServer(manager, new InetSocketAddress("localhost", 0))) {
+            NetworkChecks checks = new NetworkChecks(new InetSocketAddress("localhost", server.getPort()));
+            checks.joinBidMove();
+            System.out.println("ok  join, bid and move");
+            checks.errors();
+            System.out.println("ok  error codes");
+            checks.slowClient();
+            System.out.println("ok  slow client disconnected");
+        } finally {
+            manager.shutdown();
+        }
+    }
+}
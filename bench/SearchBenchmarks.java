@@ -0,0 +1,103 @@
+package bench;
+
+import gui.BitBoard;
+import gui.Boards;
+import gui.ParallelSolver;
+import gui.Solution;
+import gui.Solver;
+import gui.SolverCache;
+import gui.TargetAnalysis;
+
+import java.util.Random;
+
+/**
+ * 求解器的基准测试
+ * Benchmarks des solveurs
+ *  在经典地图上对固定的一组随机局面求解(每次操作求解一个局面)
+ *  Résout un ensemble fixe de positions aléatoires sur la carte classique (une position par opération)
+ */
+class SearchBenchmarks {
+
+    private static final int POSITIONS = 64;
+
+    static void register(Harness harness) {
+        BitBoard board = Boards.classic();
+        Random random = new Random(3);
+        int[] states = new int[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            states[i] = Solver.pack(MoveBenchmarks.startCells(board, random));
+        }
+
+        // 游戏规则：只有当前棋子移动   règle du jeu : seul le pion courant bouge
+        Solver single = new Solver(board);
+        add(harness, "solver.activeRobot", single, states);
+
+        // 经典规则，广度优先   règles classiques, en largeur
+        Solver bfs = new Solver(board, single.getSlideTable());
+        bfs.setHelperMoves(true);
+        bfs.setMaxDepth(8);
+        bfs.setIdaDepth(Integer.MAX_VALUE);
+        add(harness, "solver.bfs", bfs, states);
+
+        // 规范化状态(辅助棋子排序、地图对称)作为对照   avec états canoniques (auxiliaires triés, symétries), pour comparaison
+        Solver canonical = new Solver(board, single.getSlideTable());
+        canonical.setHelperMoves(true);
+        canonical.setMaxDepth(8);
+        canonical.setIdaDepth(Integer.MAX_VALUE);
+        canonical.setCanonicalStates(true);
+        add(harness, "solver.bfsCanonical", canonical, states);
+
+        // 经典规则，IDA*   règles classiques, IDA*
+        Solver ida = new Solver(board, single.getSlideTable());
+        ida.setHelperMoves(true);
+        ida.setMaxDepth(8);
+        ida.setIdaDepth(0);
+        add(harness, "solver.idaStar", ida, states);
+
+        ParallelSolver parallel = new ParallelSolver(board, single.getSlideTable(), Runtime.getRuntime().availableProcessors());
+        parallel.setHelperMoves(true);
+        parallel.setMaxDepth(8);
+        parallel.setIdaDepth(Integer.MAX_VALUE);
+        add(harness, "solver.parallelBfs", parallel, states);
+
+        // 一个局面的全部 16 个终点: 16 次独立搜索与一次分析   les 16 points finaux d'une position :
+        // 16 recherches indépendantes contre une seule analyse
+        TargetAnalysis analysis = new TargetAnalysis(board, single.getSlideTable());
+        int[] nextTargets = new int[1];
+        harness.add("targets.solver16", () -> {
+            int robots = states[nextTargets[0]++ % POSITIONS];
+            int total = 0;
+            for (int t = 0; t < analysis.getTargetCount(); t++) {
+                Solution solution = single.solve(robots, analysis.getTargetColor(t), analysis.getTargetCell(t));
+                total += solution == null ? TargetAnalysis.UNREACHABLE : solution.length();
+            }
+            return total;
+        });
+        int[] nextAnalysis = new int[1];
+        harness.add("targets.analysis", () -> {
+            analysis.analyse(states[nextAnalysis[0]++ % POSITIONS]);
+            int total = 0;
+            for (int t = 0; t < analysis.getTargetCount(); t++) {
+                total += analysis.getTargetMoves(t);
+            }
+            return total;
+        });
+
+        SolverCache cache = new SolverCache(POSITIONS * 4);
+        int[] next = new int[1];
+        harness.add("solver.cacheHit", () -> {
+            int i = next[0]++ % POSITIONS;
+            Solution solution = cache.solve(bfs, states[i], i & 3);
+            return solution == null ? -1 : solution.length();
+        });
+    }
+
+    private static void add(Harness harness, String name, Solver solver, int[] states) {
+        int[] next = new int[1];
+        harness.add(name, () -> {
+            int i = next[0]++ % states.length;
+            Solution solution = solver.solve(states[i], i & 3);
+            return solution == null ? -1 : solution.length();
+        });
+    }
+}
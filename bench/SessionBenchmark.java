@@ -0,0 +1,145 @@
+package bench;
+
+import gui.GameEngine;
+import gui.GameSession;
+import gui.GameSessionManager;
+import gui.LoopbackClient;
+import gui.MoveLog;
+import gui.Replay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多会话服务器基准测试
+ * Banc d'essai du serveur multi-sessions
+ *  在一个进程中创建 N 个会话，每个座位一个本地回环客户端(随机玩家)，然后:
+ *  Crée N sessions dans un seul processus, un client local en boucle (joueur aléatoire) par siège, puis :
+ *      1. 测量每个会话占用的堆内存(包括引擎、执行器、定时器和客户端)
+ *      1. mesure la mémoire de tas par session (moteur, exécuteur, minuterie et clients compris)
+ *      2. 所有会话同时进行游戏 T 秒，统计每秒处理的操作数，换算为每个核心能承载的会话数
+ *      (假设真人每张桌子每秒 HUMAN_ACTIONS 个操作)
+ *      2. toutes les sessions jouent pendant T secondes : actions traitées par seconde, converties en sessions
+ *      par cœur (en supposant HUMAN_ACTIONS actions par seconde et par table avec des joueurs humains)
+ *      3. 关闭会话后用对局记录重放一部分会话，检查重放得到的棋子位置与会话中的完全相同
+ *      3. après la fermeture, rejoue une partie des sessions à partir de leur journal et vérifie que
+ *      les positions des pions sont identiques
+ *      用法  usage : java bench.SessionBenchmark [会话数 sessions] [玩家数 joueurs] [秒数 secondes] [线程数 threads]
+ */
+public class SessionBenchmark {
+
+    /**
+     * 真人玩家每张桌子每秒的操作数(出价和移动)   Actions par seconde et par table avec des joueurs humains
+     */
+    private static final double HUMAN_ACTIONS = 2.0;
+    private static final int MAX_BID = 12;
+    private static final int REPLAYED = 100;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        GameSessionManager manager = new GameSessionManager(null, threads, TimeUnit.MINUTES.toMillis(1));
+        // 地图和滑动终点表先读取，不算在会话的内存中   carte et table chargées avant, hors mémoire des sessions
+        manager.create(GameSessionManager.CLASSIC).close();
+
+        long before = usedMemory();
+        List<GameSession> sessions = new ArrayList<>(count);
+        List<LoopbackClient> clients = new ArrayList<>(count * players);
+        for (int i = 0; i < count; i++) {
+            GameSession session = manager.create(GameSessionManager.CLASSIC, i);
+            for (int seat = 0; seat < players; seat++) {
+                LoopbackClient client = new LoopbackClient(session, seat, (long) i * players + seat, MAX_BID,
+                        seat == 0 ? players : 0);
+                session.join(client);
+                clients.add(client);
+            }
+            sessions.add(session);
+        }
+        awaitIdle(sessions);
+        long after = usedMemory();
+        System.out.printf("%d sessions x %d players, %d threads%n", count, players, threads);
+        System.out.printf("memory: %.0f bytes/session (%.1f MB total)%n",
+                (after - before) / (double) count, (after - before) / 1e6);
+
+        long start = System.nanoTime();
+        for (GameSession session : sessions) {
+            session.start(players);
+        }
+        TimeUnit.SECONDS.sleep(seconds);
+        long actions = 0;
+        long events = 0;
+        int games = 0;
+        for (LoopbackClient client : clients) {
+            actions += client.getActions();
+            events += client.getEvents();
+            games += client.getGames();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long playing = usedMemory();
+
+        double perSecond = actions / elapsed;
+        double perCore = perSecond / Math.min(threads, Runtime.getRuntime().availableProcessors());
+        System.out.printf("played: %.0f actions/s, %.0f events/s, %d games, %.0f bytes/session while playing%n",
+                perSecond, events / elapsed, games, (playing - before) / (double) count);
+        System.out.printf("capacity: %.0f actions/s per core = %.0f sessions per core at %.1f actions/s per table%n",
+                perCore, perCore / HUMAN_ACTIONS, HUMAN_ACTIONS);
+
+        verifyReplays(sessions);
+        manager.shutdown();
+    }
+
+    /**
+     * 在每个会话的 executor 中取得对局记录和棋子位置，关闭会话后重放并比较
+     * Récupère journal et positions dans l'executor de chaque session, puis rejoue après fermeture et compare
+     */
+    private static void verifyReplays(List<GameSession> sessions) throws Exception {
+        int checked = 0;
+        long moves = 0;
+        long nanos = 0;
+        for (int i = 0; i < sessions.size() && checked < REPLAYED; i += Math.max(1, sessions.size() / REPLAYED)) {
+            GameSession session = sessions.get(i);
+            CompletableFuture<Object[]> snapshot = new CompletableFuture<>();
+            session.execute(engine -> {
+                MoveLog log = engine.getMoveLog();
+                snapshot.complete(new Object[]{log.copy(log.size()), engine.getRobots()});
+                session.close();
+            });
+            Object[] state = snapshot.get(10, TimeUnit.SECONDS);
+            MoveLog log = (MoveLog) state[0];
+            long start = System.nanoTime();
+            GameEngine replayed = Replay.replay(session.getEngine().getBoard(), log);
+            nanos += System.nanoTime() - start;
+            moves += log.size();
+            if (replayed.getRobots() != (Integer) state[1]) {
+                throw new IllegalStateException("Replay of session " + session.getId() + " differs");
+            }
+            checked++;
+        }
+        System.out.printf("replay: %d sessions identical, %d actions in %.1f ms%n", checked, moves, nanos / 1e6);
+    }
+
+    /**
+     * 等待所有会话处理完排队的操作   Attend que toutes les sessions aient traité leurs actions en attente
+     */
+    private static void awaitIdle(List<GameSession> sessions) throws InterruptedException {
+        for (GameSession session : sessions) {
+            while (session.pending() > 0) {
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+        }
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
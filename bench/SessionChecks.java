@@ -0,0 +1,230 @@
+package bench;
+
+import gui.GameEngine;
+import gui.GameSession;
+import gui.GameSessionManager;
+import gui.LoopbackClient;
+import gui.MoveLog;
+import gui.Player;
+import gui.Replay;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 多会话服务器的检查
+ * Vérifications du serveur multi-sessions
+ *  在进程内的会话上使用本地回环客户端(LoopbackClient)，任何一项失败时抛出异常(退出码非 0)
+ *  Utilise des clients locaux en boucle (LoopbackClient) sur des sessions du processus ; une vérification
+ *  qui échoue lève une exception (code de sortie non nul)
+ *      座位的分配与释放，最后一个座位释放后会话关闭   attribution et libération des sièges, fermeture de la
+ *      session au départ du dernier siège
+ *      不是轮到的座位的出价和移动被忽略   enchères et coups d'un siège hors de son tour ignorés
+ *      回合通过共用的时间轮超时   le tour expire par la roue temporelle partagée
+ *      重放会话的对局记录得到相同的棋子位置和分数   rejouer le journal d'une session donne les mêmes
+ *      positions et les mêmes scores
+ *      用法  usage : java bench.SessionChecks
+ */
+public class SessionChecks {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+    private static final long TURN_MILLIS = 100;
+
+    /**
+     * 在会话的 executor 中记录引擎事件(座位号)   Enregistre les événements du moteur (sièges) dans l'executor de la session
+     */
+    static final class Recorder implements GameEngine.OnGameListener {
+        private final GameSession session;
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        Recorder(GameSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public void onRoundStarted(int robot, Player firstBidder) {
+            events.add("round " + session.seatOf(firstBidder));
+        }
+
+        @Override
+        public void onBidRequested(Player player) {
+            events.add("bid " + session.seatOf(player));
+        }
+
+        @Override
+        public void onTurnStarted(Player player) {
+            events.add("turn " + session.seatOf(player));
+        }
+
+        /**
+         * 等待第一条以 prefix 开头的事件   Attend le premier événement commençant par prefix
+         * @return  事件中的座位号   siège de l'événement
+         */
+        int await(String prefix) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+            while (true) {
+                String event = events.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (event == null) {
+                    throw new IllegalStateException("No \"" + prefix + "\" event");
+                }
+                if (event.startsWith(prefix)) {
+                    return Integer.parseInt(event.substring(event.indexOf(' ') + 1));
+                }
+            }
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    /**
+     * 在会话的 executor 中读取引擎(之前排队的操作都已执行)
+     * Lit le moteur dans l'executor de la session (les actions déjà en file sont exécutées)
+     */
+    private static <T> T query(GameSession session, Function<GameEngine, T> read) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        session.execute(engine -> result.complete(read.apply(engine)));
+        return result.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * --------------------------------------
+     * 检查  Vérifications
+     * --------------------------------------
+     */
+
+    /**
+     * 座位按从小到大分配，释放的座位可以重新分配，最后一个座位释放后会话关闭并且不再分配座位
+     * Sièges attribués du plus petit au plus grand, un siège libéré est réattribué ; après le dernier,
+     * la session est fermée et n'attribue plus de siège
+     */
+    static void seats(GameSessionManager manager) {
+        GameSession session = manager.create(GameSessionManager.CLASSIC, 1);
+        check(session.reserveSeat(3) == 0 && session.reserveSeat(3) == 1 && session.reserveSeat(3) == 2, "seats 0, 1, 2");
+        check(session.reserveSeat(3) == -1, "session full at the limit");
+        check(!manager.release(session, 1), "releasing one seat keeps the session");
+        check(session.getSeatCount() == 3, "seat count is the highest seat + 1");
+        check(session.reserveSeat(3) == 1, "released seat reused");
+        check(!manager.release(session, 1) && !manager.release(session, 1), "releasing twice is ignored");
+        check(!manager.release(session, 2) && session.getSeatCount() == 1, "seat count shrinks");
+        check(manager.release(session, 0), "last seat closes the session");
+        check(session.isClosed() && manager.get(session.getId()) == null, "closed session removed from the manager");
+        check(session.reserveSeat(3) == -1, "closed session assigns no seat");
+    }
+
+    /**
+     * 不是轮到的座位的出价和移动被忽略   Enchères et coups d'un siège hors de son tour ignorés
+     */
+    static void wrongSeat(GameSessionManager manager) throws Exception {
+        GameSession session = manager.create(GameSessionManager.CLASSIC, 2);
+        Recorder recorder = new Recorder(session);
+        session.join(recorder);
+        session.start(2);
+        int first = recorder.await("round ");
+        int second = 1 - first;
+
+        session.bid(second, 3);
+        check(query(session, GameEngine::getCurrentPlayerIndex) == -1, "bid from the wrong seat ignored");
+        session.bid(first, 3);
+        check(recorder.await("bid ") == second, "second seat asked to bid");
+        session.bid(first, 4);
+        check(query(session, GameEngine::getCurrentPlayerIndex) == 0, "second bid from the first seat ignored");
+        session.bid(second, 5);
+        int mover = recorder.await("turn ");
+        check(mover == first, "lowest bid moves first");
+
+        int robots = query(session, GameEngine::getRobots);
+        int used = query(session, engine -> engine.getCurrentPlayer().getUsedSteps());
+        for (int dir = 0; dir < 4; dir++) {
+            session.move(second, dir);
+        }
+        check(query(session, GameEngine::getRobots) == robots, "moves from the wrong seat ignored");
+        check(query(session, engine -> engine.getCurrentPlayer().getUsedSteps()) == used, "no step used by the wrong seat");
+        manager.close(session.getId());
+    }
+
+    /**
+     * 没有人移动时回合在 TURN_MILLIS 后通过时间轮超时
+     * Sans coup, le tour expire après TURN_MILLIS par la roue temporelle
+     */
+    static void turnTimeout(GameSessionManager manager) throws Exception {
+        GameSession session = manager.create(GameSessionManager.CLASSIC, 3);
+        Recorder recorder = new Recorder(session);
+        session.join(recorder);
+        session.start(2);
+        int first = recorder.await("round ");
+        session.bid(first, 3);
+        session.bid(1 - first, 5);
+        check(recorder.await("turn ") == first, "first turn");
+        long start = System.nanoTime();
+        check(recorder.await("turn ") == 1 - first, "turn passed to the other seat");
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        check(elapsed >= TURN_MILLIS / 2, "turn expired too early: " + elapsed + " ms");
+        MoveLog log = query(session, engine -> engine.getMoveLog().copy(engine.getMoveLog().size()));
+        check(log.get(log.size() - 1) == MoveLog.TIMEOUT, "timeout recorded in the move log");
+        manager.close(session.getId());
+    }
+
+    /**
+     * 随机客户端玩一段时间后，重放记录得到相同的棋子位置和分数
+     * Après un moment de jeu de clients aléatoires, rejouer le journal donne les mêmes positions et scores
+     */
+    static void replay(GameSessionManager manager) throws Exception {
+        int players = 3;
+        GameSession session = manager.create(GameSessionManager.CLASSIC, 4);
+        LoopbackClient[] clients = new LoopbackClient[players];
+        for (int seat = 0; seat < players; seat++) {
+            clients[seat] = new LoopbackClient(session, seat, seat, 8, seat == 0 ? players : 0);
+            session.join(clients[seat]);
+        }
+        session.start(players);
+        TimeUnit.MILLISECONDS.sleep(300);
+        Object[] state = query(session, engine -> {
+            MoveLog log = engine.getMoveLog();
+            Object[] snapshot = {log.copy(log.size()), engine.getRobots(), scores(engine.getPlayers())};
+            session.close();
+            return snapshot;
+        });
+        MoveLog log = (MoveLog) state[0];
+        check(clients[0].getActions() > 0 && log.size() > 0, "clients played");
+        GameEngine replayed = Replay.replay(session.getEngine().getBoard(), log);
+        check(replayed.getRobots() == (Integer) state[1], "replayed positions");
+        check(scores(replayed.getPlayers()).equals(state[2]), "replayed scores " + scores(replayed.getPlayers())
+                + " instead of " + state[2]);
+        manager.close(session.getId());
+    }
+
+    private static String scores(List<Player> players) {
+        StringBuilder scores = new StringBuilder();
+        for (Player player : players) {
+            scores.append(player.getScore()).append(' ');
+        }
+        return scores.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        GameSessionManager manager = new GameSessionManager(null, 2, TimeUnit.MINUTES.toMillis(1));
+        GameSessionManager fast = new GameSessionManager(null, 2, TURN_MILLIS);
+        try {
+            seats(manager);
+            System.out.println("ok  seat assignment and release");
+            wrongSeat(manager);
+            System.out.println("ok  wrong seats ignored");
+            turnTimeout(fast);
+            System.out.println("ok  turn timeout");
+            replay(manager);
+            System.out.println("ok  replay");
+            check(manager.size() == 0 && fast.size() == 0, "all sessions closed");
+        } finally {
+            manager.shutdown();
+            fast.shutdown();
+        }
+    }
+}
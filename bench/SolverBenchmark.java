@@ -0,0 +1,184 @@
+package bench;
+
+import gui.BitBoard;
+import gui.BoardGenerator;
+import gui.ParallelSolver;
+import gui.SlideTable;
+import gui.Solution;
+import gui.Solver;
+import gui.StateCanonicalizer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 求解器基准测试
+ * Banc d'essai du solveur
+ *  对比单线程 Solver 与 1~N 个线程的 ParallelSolver，输出加速比曲线，并检查解是否完全相同
+ *  Compare le Solver monothread au ParallelSolver de 1 à N threads, affiche la courbe d'accélération
+ *  et vérifie que les solutions sont identiques
+ *  然后对比规范化状态(辅助棋子排序、地图对称)前后的状态数和时间，并统计生成地图中有对称的比例
+ *  Compare ensuite le nombre d'états et le temps avec et sans états canoniques (auxiliaires triés, symétries
+ *  de la carte), et compte la part de cartes générées qui ont une symétrie
+ *      用法  usage : java bench.SolverBenchmark [最大线程数 nombre max de threads] [局面数 nombre de positions]
+ */
+public class SolverBenchmark {
+
+    private static final int MAX_DEPTH = 9;
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int positions = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+
+        Random random = new Random(42);
+        BitBoard board = randomBoard(random);
+        int[] states = new int[positions];
+        for (int i = 0; i < positions; i++) {
+            states[i] = randomRobots(random);
+        }
+
+        Solver solver = new Solver(board);
+        configure(solver);
+        run(solver, states);    // 预热 échauffement
+        long start = System.nanoTime();
+        List<Solution> expected = run(solver, states);
+        double sequentialMs = (System.nanoTime() - start) / 1e6;
+        System.out.printf("%-10s %10s %10s %8s%n", "threads", "ms", "speedup", "match");
+        System.out.printf("%-10s %10.1f %10.2f %8s%n", "sequential", sequentialMs, 1.0, "-");
+
+        for (int threads = 1; threads <= maxThreads; threads = threads < maxThreads && threads * 2 > maxThreads ? maxThreads : threads * 2) {
+            ParallelSolver parallel = new ParallelSolver(board, solver.getSlideTable(), threads);
+            configure(parallel);
+            run(parallel, states);
+            start = System.nanoTime();
+            List<Solution> actual = run(parallel, states);
+            double ms = (System.nanoTime() - start) / 1e6;
+            parallel.shutdown();
+            System.out.printf("%-10d %10.1f %10.2f %8s%n", threads, ms, sequentialMs / ms, same(expected, actual));
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+
+        Solver canonical = new Solver(board, solver.getSlideTable());
+        configure(canonical);
+        canonical.setCanonicalStates(true);
+        run(canonical, states);
+        long[] rawStats = measure(solver, states);
+        long[] canonicalStats = measure(canonical, states);
+        System.out.printf("%n%-10s %12s %10s%n", "states", "visited", "ms");
+        System.out.printf("%-10s %12d %10.1f%n", "raw", rawStats[0], rawStats[1] / 1e6);
+        System.out.printf("%-10s %12d %10.1f%n", "canonical", canonicalStats[0], canonicalStats[1] / 1e6);
+        System.out.printf("reduction  %12.2fx %9.2fx   same lengths: %s%n", rawStats[0] / (double) canonicalStats[0],
+                rawStats[1] / (double) canonicalStats[1], sameLengths(run(canonical, states), expected));
+
+        int boards = 1000;
+        int symmetric = 0;
+        for (BitBoard generated : new BoardGenerator().generate(42, boards)) {
+            if (new StateCanonicalizer(new SlideTable(generated)).getSymmetryCount() > 0) {
+                symmetric++;
+            }
+        }
+        System.out.printf("generated boards with a symmetry: %d / %d%n", symmetric, boards);
+    }
+
+    /**
+     * 所有局面访问的状态数之和与用时(纳秒)   Somme des états visités et durée (ns) pour toutes les positions
+     */
+    private static long[] measure(Solver solver, int[] states) {
+        long visited = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < states.length; i++) {
+            solver.solve(states[i], i % 4);
+            visited += solver.getVisitedCount();
+        }
+        return new long[]{visited, System.nanoTime() - start};
+    }
+
+    private static boolean sameLengths(List<Solution> expected, List<Solution> actual) {
+        for (int i = 0; i < expected.size(); i++) {
+            int a = expected.get(i) == null ? -1 : expected.get(i).length();
+            int b = actual.get(i) == null ? -1 : actual.get(i).length();
+            if (a != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 经典规则(所有棋子都可以移动)，并强制使用广度优先搜索
+     * Règles classiques (tous les pions bougent) et recherche en largeur forcée
+     */
+    private static void configure(Solver solver) {
+        solver.setHelperMoves(true);
+        solver.setMaxDepth(MAX_DEPTH);
+        solver.setIdaDepth(Integer.MAX_VALUE);
+    }
+
+    private static List<Solution> run(Solver solver, int[] states) {
+        List<Solution> solutions = new ArrayList<>(states.length);
+        for (int i = 0; i < states.length; i++) {
+            solutions.add(solver.solve(states[i], i % 4));
+        }
+        return solutions;
+    }
+
+    private static boolean same(List<Solution> expected, List<Solution> actual) {
+        for (int i = 0; i < expected.size(); i++) {
+            Solution a = expected.get(i);
+            Solution b = actual.get(i);
+            if (a == null || b == null) {
+                if (a != b) {
+                    return false;
+                }
+                continue;
+            }
+            if (a.length() != b.length()) {
+                return false;
+            }
+            for (int k = 0; k < a.length(); k++) {
+                if (a.getMove(k) != b.getMove(k)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 随机生成带墙和终点的地图(固定种子，结果可重复)
+     * Génère une carte aléatoire avec murs et points finaux (graine fixe, résultat reproductible)
+     */
+    static BitBoard randomBoard(Random random) {
+        BitBoard board = new BitBoard();
+        for (int i = 0; i < 70; i++) {
+            board.setCanEnter(random.nextInt(BitBoard.SIZE), random.nextInt(BitBoard.SIZE), random.nextInt(4), false);
+        }
+        for (int color = 0; color < 4; color++) {
+            for (int i = 0; i < 4; i++) {
+                board.setTarget(random.nextInt(BitBoard.CELLS), color);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * 随机放置四个不重叠的棋子  Place quatre pions aléatoires sans chevauchement
+     */
+    static int randomRobots(Random random) {
+        int[] cells = new int[4];
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < cells.length; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(BitBoard.CELLS);
+            } while (!used.add(cell));
+            cells[i] = cell;
+        }
+        return Solver.pack(cells);
+    }
+}
@@ -0,0 +1,51 @@
+package bench;
+
+import gui.TimingWheel;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时器相关的基准测试
+ * Benchmarks des minuteries
+ *  在已经有 LIVE 个回合倒计时(每个会话一个)的情况下，调度并取消一个定时任务:
+ *  Planifie puis annule une tâche alors que LIVE comptes à rebours (un par session) sont déjà en place :
+ *  时间轮(O(1)) 与 ScheduledThreadPoolExecutor(堆，O(log n)) 对比
+ *  roue temporelle (O(1)) contre ScheduledThreadPoolExecutor (tas, O(log n))
+ */
+class TimerBenchmarks {
+
+    /**
+     * 同时存在的定时器个数  Nombre de minuteries simultanées
+     */
+    private static final int LIVE = 10_000;
+
+    static void register(Harness harness) {
+        Runnable nothing = () -> {
+        };
+
+        TimingWheel wheel = new TimingWheel("bench-wheel");
+        for (int i = 0; i < LIVE; i++) {
+            wheel.schedule(nothing, 60 + i % 60, TimeUnit.SECONDS, Runnable::run);
+        }
+        harness.add("timer.wheel.scheduleCancel", () -> {
+            TimingWheel.Timeout timeout = wheel.schedule(nothing, 60, TimeUnit.SECONDS, Runnable::run);
+            return timeout.cancel() ? 1 : 0;
+        });
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "bench-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        for (int i = 0; i < LIVE; i++) {
+            executor.schedule(nothing, 60 + i % 60, TimeUnit.SECONDS);
+        }
+        harness.add("timer.executor.scheduleCancel", () -> {
+            ScheduledFuture<?> future = executor.schedule(nothing, 60, TimeUnit.SECONDS);
+            return future.cancel(false) ? 1 : 0;
+        });
+    }
+}
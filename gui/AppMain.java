@@ -1,12 +1,13 @@
 package gui;
 
+import javafx.animation.Interpolator;
+import javafx.animation.TranslateTransition;
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.concurrent.ScheduledService;
-import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
+import javafx.scene.CacheHint;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
@@ -16,14 +17,17 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.*;
 import javafx.scene.layout.*;
+import javafx.stage.Screen;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
-
-import static gui.Obstacle.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 主程序类
@@ -36,6 +40,12 @@ public class AppMain extends Application {
     private static final double PADDING = 10;
     private static final int SIZE = 16;
     private static final double SIDE = (WIDTH - 2 * PADDING) / (SIZE * 1.0);
+    /**
+     * 棋子滑过一格的动画时间(毫秒)，以及一次滑动的最短时间
+     * Durée d'animation pour glisser d'une case (ms), et durée minimale d'une glissade
+     */
+    private static final double SLIDE_MILLIS_PER_CELL = 35;
+    private static final double SLIDE_MIN_MILLIS = 90;
 
     /**
      * 每个玩家回合可操作的时间上限
@@ -46,30 +56,10 @@ public class AppMain extends Application {
     private static final int STEP_TIME = 60;
 
     /**
-     * 用于记录当前玩家回合剩余的时间
-     * Utilisé pour enregistrer le temps restant du tour du joueur actuel
-     */
-    private AtomicInteger currentStepTime = new AtomicInteger(0);
-    /**
-     * 用于记录当前操作的玩家下标
-     * L'indice du joueur utilisé pour enregistrer l'action en cours
-     */
-    private AtomicInteger currentPlayerIndex = new AtomicInteger(-1);
-    /**
-     * 用于记录当前被操作的棋子下标
-     * Utilisé pour enregistrer l'indice de la pièce d'échecs en cours d'utilisation
-     */
-    private AtomicInteger currentChessIndex = new AtomicInteger(0);
-    /**
-     * 用于定时WTimer
-     * Pour chronométrer WTimer
+     * 用于定时WTimer(剩余时间由它的截止时间计算)
+     * Pour chronométrer WTimer (le temps restant est calculé à partir de son échéance)
      */
     private WTimer moveTimer;
-    /**
-     * 玩家列表
-     * liste des joueurs
-     */
-    private List<Player> playerList;
     /**
      * 步数输入按钮
      * bouton pour saisir les étapes
@@ -125,18 +115,71 @@ public class AppMain extends Application {
     private ImageView greenChess;
     private ImageView yellowChess;
     private ImageView blueChess;
+    /**
+     * 画布棋盘(-Drobot.renderer=canvas 时使用，否则为 null)
+     * Plateau dessiné sur Canvas (avec -Drobot.renderer=canvas, sinon null)
+     */
+    private BoardCanvas boardCanvas;
 
 
     /**
-     * 障碍物Map集合
-     * Obstacle (c'est-à-dire mur) Collection de cartes
+     * 游戏引擎(游戏规则、棋子位置以及位棋盘)
+     * Moteur de jeu (règles du jeu, position des pions et bitboard)
+     *  界面只负责显示引擎的事件和把玩家的操作交给引擎
+     *  L'interface affiche seulement les événements du moteur et lui transmet les actions des joueurs
+     */
+    private GameEngine engine = createEngine();
+    /**
+     * 电脑玩家(第一次开始游戏时创建，之后每局复用)
+     * Joueurs ordinateur (créés au premier démarrage, réutilisés ensuite)
+     *  -Drobot.bots=数量 : 在人类玩家之后加入的电脑玩家数，默认 0
+     *  -Drobot.bots=nombre : joueurs ordinateur ajoutés après les joueurs humains, 0 par défaut
+     *  -Drobot.bot.level=EASY|NORMAL|HARD|EXPERT : 电脑玩家的难度，默认 NORMAL
+     *  -Drobot.bot.level=EASY|NORMAL|HARD|EXPERT : difficulté des joueurs ordinateur, NORMAL par défaut
+     */
+    private List<BotPlayer> bots;
+    /**
+     * 求解结果缓存  Cache des résultats du solveur
+     *  设置 -Drobot.cache=文件 时在启动时读取、退出时保存
+     *  Avec -Drobot.cache=fichier, il est lu au démarrage et enregistré à la fermeture
+     */
+    private SolverCache solverCache = new SolverCache(4096);
+    /**
+     * 预先求解器: 每个回合开始时就在后台求最优解，提示、出价检查和回合结束的显示都使用它的结果
+     * Solveur anticipé : la solution optimale est calculée en arrière-plan dès le début de chaque manche,
+     * l'indice, la vérification des enchères et l'affichage de fin de manche utilisent son résultat
+     */
+    private SpeculativeSolver speculativeSolver = new SpeculativeSolver(engine, solverCache);
+    /**
+     * 出价检查器(可选)   Vérificateur d'enchères (optionnel)
+     *  设置 -Drobot.bidcheck=毫秒 时启用，每个输入的步数在后台与最优解比较，最多用时为该毫秒数
+     *  Activé avec -Drobot.bidcheck=millisecondes : chaque nombre de pas saisi est comparé en arrière-plan
+     *  à la solution optimale, en au plus ce nombre de millisecondes
+     */
+    private BidVerifier bidVerifier = createBidVerifier();
+    /**
+     * 出价检查结果以及上一回合最优步数的标签
+     * Étiquette du résultat de vérification des enchères et du nombre optimal de pas de la manche précédente
+     */
+    private Label bidInfoLabel = new Label();
+    /**
+     * 回合难度: 每个回合开始时一次分析得到当前颜色所有终点的最优步数
+     * Difficulté de la manche : une analyse au début de chaque manche donne l'optimum de tous les points
+     * finaux de la couleur courante
+     */
+    private TargetAnalysis targetAnalysis = new TargetAnalysis(engine.getBoard(), engine.getSlideTable());
+    private Label difficultyLabel = new Label();
+    /**
+     * 本回合开始时局面的最优解，以及是否已经有玩家开始移动
+     * Solution optimale de la position du début de manche, et un joueur a-t-il commencé à jouer
      */
-    private Map<String, Obstacle> obstacleMap = new HashMap<>();
+    private CompletableFuture<Solution> roundSolution;
+    private boolean roundPlayed;
     /**
-     * 非出生点Set集合
-     * Collection d'ensembles non liés au point de naissance
+     * 回合编号，用来丢弃上一回合迟到的检查结果
+     * Numéro de manche, pour ignorer les résultats arrivés en retard d'une manche précédente
      */
-    private Set<String> nonBirthPointSet = new HashSet<>();
+    private int round;
 
     /**
      * Start方法，初始化游戏并显示gui界面
@@ -152,8 +195,10 @@ public class AppMain extends Application {
 
         initGameGridPane();         //初始化布局Initialiser la mise en page
 
-        executeSecondScheduledService();        //线程，保证倒计时的时候可以操作键盘。因为倒计时是一个线程，操作键盘是一个线程。他们两个需要同时运行
-        //Fil pour s'assurer que le clavier peut être utilisé pendant le compte à rebours. Parce que le compte à rebours est un fil, l'utilisation du clavier est un fil. Les deux doivent courir en même temps
+        initGameListener();         //游戏事件 événements du jeu
+
+        executeSecondScheduledService();        //倒计时定时器，按截止时间调度，不阻塞键盘操作
+        //Minuterie du compte à rebours, planifiée par échéance, sans bloquer le clavier
 
         initInfoLabel();
 
@@ -166,6 +211,10 @@ public class AppMain extends Application {
 
         initPlayerStepInputPane();      //初始化玩家步数的输入框Initialiser la zone de saisie des pas du joueur
 
+        initHintPane();                 //初始化提示按钮 Initialiser le bouton d'indice
+
+
+        loadSolverCache();
 
         root.getChildren().add(rightRoot);
         Scene scene = new Scene(root, 1100, 700);
@@ -174,73 +223,177 @@ public class AppMain extends Application {
     }
 
     /**
-     * 初始化定时器(这里开辟了新的线程)
-     * Initialiser le minuteur (un nouveau fil est ouvert ici)
-     *  - 每秒执行一次WTimer对象的update()方法
-     *  Exécute la méthode update() de l'objet WTimer toutes les secondes
+     * 关闭程序时保存求解结果缓存
+     * Enregistre le cache des résultats du solveur à la fermeture du programme
+     */
+    @Override
+    public void stop() throws Exception {
+        String path = System.getProperty("robot.cache");
+        if (path != null) {
+            solverCache.save(new File(path));
+        }
+        if (bidVerifier != null) {
+            bidVerifier.shutdown();
+        }
+        speculativeSolver.shutdown();
+        super.stop();
+    }
+
+    /**
+     * 读取求解结果缓存文件(如果设置了 robot.cache 并且文件存在)
+     * Lit le fichier de cache des résultats (si robot.cache est défini et que le fichier existe)
+     */
+    private void loadSolverCache() {
+        String path = System.getProperty("robot.cache");
+        if (path == null || !new File(path).isFile()) {
+            return;
+        }
+        try {
+            solverCache.load(new File(path));
+        } catch (IOException e) {
+            System.err.println("Cannot load solver cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 创建出价检查器(没有设置 robot.bidcheck 时返回 null)
+     * Crée le vérificateur d'enchères (null si robot.bidcheck n'est pas défini)
+     */
+    private BidVerifier createBidVerifier() {
+        String budget = System.getProperty("robot.bidcheck");
+        if (budget == null) {
+            return null;
+        }
+        return new BidVerifier(speculativeSolver, Long.parseLong(budget));
+    }
+
+    /**
+     * 读取游戏使用的地图并创建游戏引擎
+     * Lit la carte utilisée par le jeu et crée le moteur
+     *  - -Drobot.library=地图库文件 : 打开 -Drobot.board.id 指定的地图(没有指定时随机选择)，编号记录在对局记录中
+     *  -Drobot.library=bibliothèque : ouvre la carte -Drobot.board.id (au hasard si absent), son numéro est noté
+     *  dans le journal de partie
+     *  - -Drobot.board=地图文件(.txt 或 .bin)
+     *  -Drobot.board=fichier de carte (.txt ou .bin)
+     *  - 都没有设置或读取失败时使用经典地图(注意背景图片只画了经典地图的墙)
+     *  Sinon, ou en cas d'erreur, la carte classique (l'image de fond ne montre que les murs classiques)
+     *  - -Drobot.seed=种子 : 第一局游戏的种子(出生点可以重现)
+     *  -Drobot.seed=graine : graine de la première partie (points d'apparition reproductibles)
+     */
+    private static GameEngine createEngine() {
+        String library = System.getProperty("robot.library");
+        String path = System.getProperty("robot.board");
+        String seedProperty = System.getProperty("robot.seed");
+        long seed = seedProperty != null ? Long.parseLong(seedProperty) : new Random().nextLong();
+        try {
+            if (library != null) {
+                try (BoardLibrary boards = BoardLibrary.open(new File(library))) {
+                    String idProperty = System.getProperty("robot.board.id");
+                    int id = idProperty != null ? Integer.parseInt(idProperty) : new Random().nextInt(boards.size());
+                    GameEngine engine = new GameEngine(boards.get(id), seed);
+                    engine.getMoveLog().setBoardId(id);
+                    return engine;
+                }
+            }
+            if (path != null) {
+                return new GameEngine(BoardFormat.load(new File(path)), seed);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot load board: " + e.getMessage());
+        }
+        return new GameEngine(Boards.classic(), seed);
+    }
+
+    /**
+     * 保存刚结束的一局游戏的记录(设置了 -Drobot.log=目录 时)，可以用 gui.Replay 重放
+     * Enregistre le journal de la partie qui vient de finir (avec -Drobot.log=répertoire),
+     * rejouable avec gui.Replay
+     */
+    private void saveMoveLog() {
+        String dir = System.getProperty("robot.log");
+        if (dir == null) {
+            return;
+        }
+        File file = new File(dir, "game-" + Long.toHexString(engine.getSeed()) + ".rml");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            engine.getMoveLog().write(out);
+        } catch (IOException e) {
+            System.err.println("Cannot save move log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 初始化定时器
+     * Initialiser le minuteur
+     *  - 玩家回合开始时 start()，STEP_TIME 秒后准时超时，结束该玩家本回合
+     *  start() au début du tour d'un joueur, dépassement exact après STEP_TIME secondes, qui termine son tour
+     *  - 回合进行中每秒刷新一次剩余时间标签，其他时候定时器没有任何任务
+     *  Pendant le tour, l'étiquette du temps restant est actualisée chaque seconde, sinon la minuterie n'a aucune tâche
+     *  - 回调通过 Platform.runLater 在 FX 线程中执行(不可以由其他线程直接操作gui)
+     *  Les rappels s'exécutent sur le thread FX via Platform.runLater (les autres threads ne peuvent pas manipuler l'interface)
      */
     private void executeSecondScheduledService() {
-        moveTimer = WTimer.createWTimer(0, new WTimer.OnTimerListener() {
+        moveTimer = WTimer.createWTimer(1000, STEP_TIME * 1000L, Platform::runLater, new WTimer.OnTimerListener() {
+            /**
+             * 将剩余时间刷新到标签上
+             * Actualisez le temps restant sur l'étiquette
+             */
             @Override
             public void onTimerRunning(WTimer mTimer) {
-                /*
-                    注意要使用 Platform.runLater 来执行gui操作！
-                    Remarque à utiliser Platform.runLater pour effectuer des opérations d'interface graphique !
-                    不可以由其他线程直接操作gui
-                    L'interface graphique ne peut pas être directement manipulée par d'autres threads
-                        这个方法会将要执行的内容 放入一个消息队列
-                        Cette méthode placera le contenu à exécuter dans une file d'attente de messages
-                        当主线程有空时从消息队列中取出执行
-                        Prendre l'exécution à partir de la file d'attente des messages lorsque le thread principal est libre
-                 */
-                Platform.runLater(new Runnable() {
-                    /**
-                     * 剩余时间-1
-                     * Temps restant -1
-                     *  - 如果时间用完结束该玩家本回合
-                     *  Si le temps est écoulé, terminez le tour du joueur
-                     *  - 如果时间还剩余则将剩余时间刷新到标签上
-                     *  S'il reste du temps, actualisez le temps restant sur l'étiquette
-                     */
-                    @Override
-                    public void run() {
-                        int time = currentStepTime.getAndDecrement();
-                        if (time <= 0) {
-                            // step over
-                            nextPlayerStep();
-                        } else {
-                            timeInfoLabel.setText(String.valueOf(time));
-                        }
-                    }
-                });
+                timeInfoLabel.setText(String.valueOf(mTimer.getRemainingSeconds()));
             }
-        });
 
-        ScheduledService<Void> scheduledService = new ScheduledService<Void>() {
+            /**
+             * 时间用完结束该玩家本回合
+             * Le temps est écoulé, terminez le tour du joueur
+             */
             @Override
-            protected Task<Void> createTask() {
-                return new Task<Void>() {
-                    @Override
-                    protected Void call() throws Exception {
-                        moveTimer.update();
-//                        System.out.println("---");
-//                        System.out.println("playerIndex:" + currentPlayerIndex);
-//                        System.out.println("chessIndex:" + currentChessIndex);
-                        return null;
-                    }
-                };
+            public void onTimeout(WTimer mTimer) {
+                timeInfoLabel.setText("0");
+                engine.timeout();
             }
+        });
+    }
 
-        };
-        // Set up a thread pool , 'restart' will try to reuse threads
-        scheduledService.setExecutor(Executors.newFixedThreadPool(1));
-        // Delay 2s to start
-        scheduledService.setDelay(Duration.millis(2000));
-        // Execute at an interval of 1 second
-        scheduledService.setPeriod(Duration.millis(1000));
-        scheduledService.start();
-//        testScheduledService.cancel();
-//        testScheduledService.restart();
+    /**
+     * 把棋子的ImageView移动到目标格子
+     * Déplace l'ImageView du pion vers la case d'arrivée
+     *  1. 引擎已经算好了终点，只修改一次 GridPane 约束(一次布局)
+     *  1. Le moteur a déjà calculé l'arrivée, la contrainte GridPane n'est modifiée qu'une fois (une seule mise en page)
+     *  2. 用 translateX/Y 把棋子放回原来的显示位置，再用 TranslateTransition 滑到 0
+     *  2. translateX/Y replace le pion à sa position affichée, puis une TranslateTransition le fait glisser jusqu'à 0
+     *      平移只改变节点的变换，棋子图片被缓存(CacheHint.SPEED)，由 GPU 合成，不会重新布局
+     *      La translation ne change que la transformation du nœud, l'image mise en cache (CacheHint.SPEED)
+     *      est composée par le GPU, sans nouvelle mise en page
+     *      动画时间与距离成正比；动画进行中也可以继续按键，新的动画从当前显示位置开始
+     *      La durée est proportionnelle à la distance ; on peut appuyer pendant l'animation,
+     *      la nouvelle animation part de la position affichée
+     *  3. 不在同一行或同一列的移动(回到原位、随机刷新)直接跳过去
+     *  3. Les déplacements hors ligne ou colonne (retour à l'origine, réapparition) sont instantanés
+     */
+    private void slideChess(Chess chess, int from, int to) {
+        ImageView view = chess.getImageView();
+        TranslateTransition transition = chess.getTransition();
+        transition.stop();
+        // 相对于新格子的当前显示位置   position affichée actuelle, relative à la nouvelle case
+        double x = view.getTranslateX() + (BitBoard.col(from) - BitBoard.col(to)) * SIDE;
+        double y = view.getTranslateY() + (BitBoard.row(from) - BitBoard.row(to)) * SIDE;
+        GridPane.setConstraints(view, BitBoard.col(to), BitBoard.row(to));
+        if (BitBoard.row(from) != BitBoard.row(to) && BitBoard.col(from) != BitBoard.col(to)) {
+            view.setTranslateX(0);
+            view.setTranslateY(0);
+            return;
+        }
+        view.setTranslateX(x);
+        view.setTranslateY(y);
+        double cells = Math.max(Math.abs(x), Math.abs(y)) / SIDE;
+        transition.setDuration(Duration.millis(Math.max(SLIDE_MIN_MILLIS, cells * SLIDE_MILLIS_PER_CELL)));
+        transition.setFromX(x);
+        transition.setFromY(y);
+        transition.setToX(0);
+        transition.setToY(0);
+        transition.setInterpolator(Interpolator.EASE_OUT);
+        transition.playFromStart();
     }
 
     /**
@@ -261,182 +414,138 @@ public class AppMain extends Application {
         stackPane2.getChildren().add(timeInfoLabel);
         rightRoot.getChildren().add(stackPane2);
     }
-
     /**
      * 初始化 键盘事件
      * Initialiser les événements du clavier
-     *  - 首先判断是否为可操作阶段，不是则过滤掉监听的键盘事件
-     *  Déterminez d'abord s'il s'agit d'une étape opérationnelle, sinon, filtrez les événements de clavier surveillés
-     *  - 仅监听 上下左右 四个按键，控制当前棋子进行单方向移动，直至撞墙或棋子
-     *  Surveillez uniquement les quatre boutons haut, bas, gauche et droite, et contrôlez la pièce actuelle pour
-     *  qu'elle se déplace dans une direction jusqu'à ce qu'elle touche le mur ou la pièce
+     *  - 监听 上下左右 四个按键，交给游戏引擎控制当前棋子进行单方向移动，直至撞墙或棋子
+     *  Surveillez les quatre boutons haut, bas, gauche et droite, le moteur de jeu déplace
+     *  la pièce actuelle dans une direction jusqu'à ce qu'elle touche le mur ou la pièce
+     *  - Z / Y 撤销 / 重做当前玩家本回合的上一步(撤销会退还一步)
+     *  Z / Y annule / rétablit le dernier coup du joueur courant pendant ce tour (l'annulation rend le pas)
+     *  - 不是可操作阶段时引擎会忽略这一步
+     *  Hors d'une étape opérationnelle, le moteur ignore le déplacement
      */
     private void initKeyBoardEvent() {
         root.addEventHandler(KeyEvent.KEY_RELEASED, event -> {
-            String key = event.getCode().getName();     //当前按下按钮的名字，ex：up， down
-            int chessIndex = currentChessIndex.get();
-            if (chessIndex < 0 || chessIndex >= chessList.size()) {
-                System.err.println("chessIndex < 0 || chessIndex >= chessList.size()");
-                return;
-            }
-            int playerIndex = currentPlayerIndex.get();
-            if (playerIndex < 0 || playerIndex >= playerList.size()) {
-                System.err.println("playerIndex < 0 || playerIndex >= playerList.size()");
-                return;
+            if (engine.getCurrentPlayer() instanceof BotPlayer) {
+                return;     // 电脑玩家自己移动   le joueur ordinateur joue seul
             }
-
-            ImageView imageView = chessList.get(chessIndex).getImageView();
+            String key = event.getCode().getName();     //当前按下按钮的名字，ex：up， down
             switch (key) {
                 case "Up":
-                    chessMoveUpStraightly(imageView);
+                    engine.move(BitBoard.UP);
                     break;
                 case "Down":
-                    chessMoveDownStraightly(imageView);
+                    engine.move(BitBoard.DOWN);
                     break;
                 case "Left":
-                    chessMoveLeftStraightly(imageView);
+                    engine.move(BitBoard.LEFT);
                     break;
                 case "Right":
-                    chessMoveRightStraightly(imageView);
+                    engine.move(BitBoard.RIGHT);
+                    break;
+                case "Z":
+                    engine.undo();
+                    break;
+                case "Y":
+                    engine.redo();
                     break;
                 default:
                     break;
             }
-//            System.out.println(key);
         });
     }
 
     /**
-     * 控制当前棋子一直向上移动，直至撞到墙或棋子，这一步操作结束
-     * Contrôlez la pièce d'échecs actuelle pour qu'elle se déplace vers le haut
-     * jusqu'à ce qu'il heurte un mur ou une pièce d'échecs
-     *Cette étape est terminée
-     * @param chess 被操作的棋子的ImageView
-     *              chess ImageVue du pion manipulé
+     * 初始化游戏事件监听器，把引擎的状态变化显示到界面上
+     * Initialise l'écouteur d'événements du jeu, qui affiche les changements d'état du moteur dans l'interface
      */
-    private synchronized void chessMoveUpStraightly(ImageView chess) {      //一直向上走的函数/fonction pour remonter jusqu'au bout
-        while (true) {
-            String r_c = (String) chessList.get(currentChessIndex.get()).getImageView().getUserData();
-            // up
-            int r = getR(r_c) - 1;          //向上走就是r值减一，row-1
-            int c = getC(r_c);              //Monter est la valeur r moins un, ligne-1
-            r_c = getR_C(r, c);
-
-            Obstacle obstacle = obstacleMap.getOrDefault(r_c, new Obstacle(r, c));
-            if (obstacle.isCanUp() && !obstacle.isHasChess()) {     //判断未来的那个点是否能向上走，若可以往上走同时那里没有别的机器人，则棋子可以走
-                //Déterminez si le point dans le futur peut monter, s'il peut monter et qu'il n'y a pas d'autre robot là-bas, le pion peut monter
-                chessMove(chess, r, c, r_c);        //robot移动 robot mobile
-            } else {
-                stepOver();
-                break;
+    private void initGameListener() {
+        engine.addListener(new GameEngine.OnGameListener() {
+            /**
+             * 移动棋子的ImageView   déplacer l'ImageView du pion
+             */
+            @Override
+            public void onRobotMoved(int robot, int from, int to) {
+                Chess chess = chessList.get(robot);
+                chess.setCell(to);
+                chess.setOriginCell(engine.getOriginCell(robot));
+                if (boardCanvas != null) {
+                    boardCanvas.moveRobot(robot, from, to);
+                } else {
+                    slideChess(chess, from, to);
+                }
             }
-        }
-    }
-    /**
-     * 控制当前棋子一直向下移动，直至撞到墙或棋子，这一步操作结束
-     * Contrôlez la pièce d'échecs actuelle pour qu'elle
-     * se déplace vers le bas jusqu'à ce qu'elle touche le mur ou
-     * la pièce d'échecs, cette étape est terminée
-     * @param chess 被操作的棋子的ImageView
-     *              chess ImageVue du pion manipulé
-     */
-    private synchronized void chessMoveDownStraightly(ImageView chess) {
-        while (true) {      //while循环，如果棋子可以一直走下去，循环就一直进行，如果不能走了，循环break
-            ///while loop, si le pion peut continuer, la boucle continuera, s'il ne peut pas continuer, la boucle se cassera
-            String r_c = (String) chessList.get(currentChessIndex.get()).getImageView().getUserData();
-            // down
-            int r = getR(r_c) + 1;      //向下走row+1  //descendre rang+1
-            int c = getC(r_c);
-            r_c = getR_C(r, c);
-
-            Obstacle obstacle = obstacleMap.getOrDefault(r_c, new Obstacle(r, c));
-            if (obstacle.isCanDown() && !obstacle.isHasChess()) {
-                chessMove(chess, r, c, r_c);
-            } else {
-                stepOver();      //机器人不能行走  Le robot ne peut pas bouger
-                break;
+
+            /**
+             * 将定时器暂停，通知玩家开始输入步数，并设置步数输入确定按钮可以点击
+             * Mettez le chronomètre en pause, informez le joueur de saisir le nombre de coups
+             * et rendez le bouton de saisie cliquable
+             */
+            @Override
+            public void onRoundStarted(int robot, Player firstBidder) {
+                round++;
+                if (bidVerifier != null) {
+                    bidVerifier.cancel();
+                }
+                showRoundOptimal();
+                roundSolution = speculativeSolver.solve(engine.getRobots(), robot);
+                showRoundDifficulty(robot);
+                roundPlayed = false;
+                moveTimer.stop();
+                chessOrderLabel.setText(String.valueOf(robot + 1));
+                infoLabel.setText("Turn to player " + firstBidder.getName() + " to enter number of steps");
+                stepInputButton.setDisable(false);
             }
-        }
-    }
-    /**
-     * 控制当前棋子一直向左移动，直至撞到墙或棋子，这一步操作结束
-     * Contrôlez la pièce d'échecs actuelle pour qu'elle se déplace vers la gauche jusqu'à
-     * ce qu'elle touche le mur ou la pièce d'échecs, cette étape est terminée
-     * @param chess 被操作的棋子的ImageView
-     *        chess ImageVue du pion manipulé
-     */
-    private synchronized void chessMoveLeftStraightly(ImageView chess) {
-        while (true) {
-            String r_c = (String) chessList.get(currentChessIndex.get()).getImageView().getUserData();
-            // left
-            int r = getR(r_c);
-            int c = getC(r_c) - 1;
-            r_c = getR_C(r, c);
-
-            Obstacle obstacle = obstacleMap.getOrDefault(r_c, new Obstacle(r, c));
-            if (obstacle.isCanLeft() && !obstacle.isHasChess()) {
-                chessMove(chess, r, c, r_c);
-            } else {
-                stepOver();
-                break;
+
+            @Override
+            public void onBidRequested(Player player) {
+                infoLabel.setText("Turn to player " + player.getName() + " to enter number of steps");  //现在是玩家n输入步数    Maintenant c'est au joueur n d'entrer le nombre de coups
             }
-        }
-    }
-    /**
-     * 控制当前棋子一直向右移动，直至撞到墙或棋子，这一步操作结束
-     * Contrôlez la pièce d'échecs actuelle pour qu'elle se déplace vers la
-     * droite jusqu'à ce qu'elle touche le mur ou la pièce d'échecs,
-     * cette étape est terminée
-     * @param chess 被操作的棋子的ImageView
-     *              chess ImageVue du pion manipulé
-     */
-    private synchronized void chessMoveRightStraightly(ImageView chess) {
-        while (true) {
-            String r_c = (String) chessList.get(currentChessIndex.get()).getImageView().getUserData();
-            // right
-            int r = getR(r_c);
-            int c = getC(r_c) + 1;
-            r_c = getR_C(r, c);
-
-            Obstacle obstacle = obstacleMap.getOrDefault(r_c, new Obstacle(r, c));
-            if (obstacle.isCanRight() && !obstacle.isHasChess()) {
-                chessMove(chess, r, c, r_c);
-            } else {
-                stepOver();
-                break;
+
+            /**
+             * 重新开始计时  redémarrer le chronomètre
+             */
+            @Override
+            public void onTurnStarted(Player player) {
+                roundPlayed = true;
+                stepInputButton.setDisable(true);
+                timeInfoLabel.setText(String.valueOf(STEP_TIME));
+                moveTimer.start();
             }
-        }
-    }
 
-    /**
-     * 结束当前步
-     * terminer l'étape en cours
-     *  1. 判断棋子是否抵达对应终点，如果抵达则玩家得分并直接开始下一个回合！
-     *  1. Déterminez si la pièce a atteint le point final correspondant. Si c'est le cas,
-     *  le joueur marquera des points et commencera directement le tour suivant！
-     *  2. 如果没有抵达终点，则玩家进行下一步操作
-     *  2. Si le point final n'est pas atteint, le joueur passera à l'étape suivante
-     */
-    private void stepOver() {
-        int index = currentChessIndex.get();
-        Chess chess = chessList.get(index);
-        String rc = ((String) chess.getImageView().getUserData());
-        if (obstacleMap.containsKey(rc) && index == obstacleMap.get(rc).finalPoint) {       //判断robot是否到达终点，并且颜色匹配
-            //Déterminez si le robot a atteint le point final et si les couleurs correspondent
-            int playerIndex = currentPlayerIndex.get();
-            Player player = playerList.get(playerIndex);
-            player.setScore(player.getScore() + 1);     //该玩家得分加1 Le score du joueur augmente de 1
-
-            // increment !!游戏走到终点。才会让玩家的分数加一，否则永远走同一个颜色的棋子，直到棋子到达终点
-            //incrément !! Le jeu touche à sa fin. Seul le score du joueur sera augmenté de un, sinon les pions de la même
-            // couleur seront toujours joués jusqu'à ce que les pions atteignent la fin.
-            chessOrderLabel.setText(String.valueOf(currentChessIndex.incrementAndGet() + 1));
-
-            nextRound();        //下一个回合，下一个颜色的robot开始移动
-            //Au tour suivant, le robot de la couleur suivante commence à se déplacer
-        } else {
-            nextStep();         //同一玩家的下一步  prochaine étape pour le même joueur
-        }
+            @Override
+            public void onStepsLeft(Player player, int stepsLeft) {
+                infoLabel.setText("Player " + player.getName() + " has " + stepsLeft + " steps left.");
+            }
+
+            /**
+             * 弹窗显示获胜玩家，以及各个玩家的得分情况
+             * La fenêtre contextuelle affiche les joueurs gagnants et le score de chaque joueur
+             */
+            @Override
+            public void onGameOver(List<Player> ranking) {
+                round++;
+                if (bidVerifier != null) {
+                    bidVerifier.cancel();
+                }
+                showRoundOptimal();
+                roundSolution = null;
+                difficultyLabel.setText("");
+                moveTimer.stop();
+                saveMoveLog();
+                System.err.println("Game Over！");
+                infoLabel.setText("Waiting game start");
+
+                StringBuilder text = new StringBuilder("Game Over ! Player " + ranking.get(0).getName() + " win!\n");
+                for (Player player : ranking) {
+                    text.append("Player ").append(player.getName()).append(" : ").append(player.getScore()).append("\n");
+                }
+
+                Alert alert = new Alert(Alert.AlertType.CONFIRMATION, text.toString());
+                alert.showAndWait();
+            }
+        });
     }
 
     /**
@@ -459,26 +568,25 @@ public class AppMain extends Application {
             /**
              * 确定步数按钮响应事件
              * Déterminer le bouton des étapes pour répondre aux événements
-             *  1. 获取当前玩家，并更新玩家下标值
-             *  1. Obtenez le lecteur actuel et mettez à jour la valeur d'indice du lecteur
-             *  2. 将输入的步数信息存放到玩家对象中
-             *  2. Stockez les informations d'étape saisies dans l'objet joueur
-             *  3. 判断是否所有玩家已经输入完步数，如果输入完则可以开始当前回合(调用startRound)
-             *  3. Déterminez si tous les joueurs ont entré le nombre de coups, s'ils sont entrés dans le tour en cours (appelez startRound)
+             *  将输入的步数交给游戏引擎，所有玩家输入完成后引擎开始当前回合
+             *  Transmet le nombre de pas saisi au moteur, qui commence le tour une fois que tous les joueurs ont saisi
              * @param event 按钮点击事件
              *              event clic sur un bouton événement
              */
             @Override
-            public void handle(ActionEvent event) {     //点击事件，判断点击的时候是不是最后一个玩家已经输入完成，若是，则不允许点击
-                //Cliquez sur l'événement pour déterminer si le dernier joueur a terminé la saisie au moment du clic.
-                // Si c'est le cas, le clic n'est pas autorisé.
-                int i = currentPlayerIndex.incrementAndGet();
-                Player player = playerList.get(i);          //玩家号   numéro de joueur
-                player.setSteps(Integer.parseInt(stepInputTextField.getText()));        //玩家输入的步数   Nombre de coups saisis par le joueur
-                if (i >= playerList.size() - 1) {
-                    startRound();
-                } else {
-                    infoLabel.setText("Turn to player " + player.getName() + " to enter number of steps");  //现在是玩家n输入步数    Maintenant c'est au joueur n d'entrer le nombre de coups
+            public void handle(ActionEvent event) {
+                int bid = Integer.parseInt(stepInputTextField.getText());
+                if (engine.getPhase() != GameEngine.Phase.BIDDING) {
+                    return;
+                }
+                Player player = engine.getPlayers().get(engine.getCurrentPlayerIndex() + 1);
+                if (player instanceof BotPlayer) {
+                    return;     // 电脑玩家自己出价   le joueur ordinateur enchérit seul
+                }
+                int robots = engine.getRobots();
+                int robot = engine.getCurrentChessIndex();
+                if (engine.submitBid(bid) && bidVerifier != null) {        //玩家输入的步数   Nombre de coups saisis par le joueur
+                    verifyBid(player, robots, robot, bid);
                 }
             }
         });
@@ -486,150 +594,104 @@ public class AppMain extends Application {
         hbox.getChildren().addAll(stepInputLabel, stepInputTextField, stepInputButton);
 
         rightRoot.getChildren().add(hbox);
+        rightRoot.getChildren().add(bidInfoLabel);
+        rightRoot.getChildren().add(difficultyLabel);
     }
 
     /**
-     * 开始当前回合
-     * commencer le tour en cours
-     *  1. 按照玩家输入的步数排序
-     *  1. Trier par le nombre de coups saisis par le joueur
-     *  2. 重置当前玩家下标号
-     *  2. Réinitialiser l'indice du joueur actuel
-     *  3. 开始由步数设定最小的玩家开始操作(调用nextPlayerStep)
-     *  3. Démarrez l'opération par le joueur avec le plus petit nombre d'étapes (appelez nextPlayerStep)
-     */
-    private void startRound() {
-        // sort by steps
-        playerList.sort(new Player.PlayerStepsComparator());
-        currentPlayerIndex.set(-1);
-        stepInputButton.setDisable(true);
-//        System.out.println(playerList.get(0).getSteps());
-        nextPlayerStep();
-    }
-
-    /**
-     * 由下一个玩家操作
-     * Actionné par le joueur suivant
-     *  1. 重置当前棋子位置(将棋子移动到原本生成的位置)
-     *  1. Réinitialisez la position actuelle du pion (déplacez le pion à la position générée d'origine)
-     *  2. 更新并获取当前玩家下标
-     *  2. Mettez à jour et obtenez l'indice du joueur actuel
-     *  3. 判断当前回合是否所有玩家都已经消耗完步数
-     *  3. Déterminez si tous les joueurs du tour en cours ont épuisé leurs pas
-     *      - 如果消耗完了，则重新开始新的回合(当前操作的棋子不变)
-     *      - S'il est épuisé, recommencez un nouveau tour (les pièces d'échecs actuellement utilisées restent inchangées)
-     *      - 没有消耗完，则轮到下一个 设定步数 最少的玩家操作
-     *      - S'il n'est pas epuise, ce sera la prochaine opération du joueur avec le nombre minimum d'étapes définies
+     * 显示本回合的难度: 最近终点的步数，以及同颜色每个终点的步数
+     * Affiche la difficulté de la manche : coups vers le point final le plus proche, puis vers chaque point
+     * final de la couleur
      */
-    private synchronized void nextPlayerStep() {
-        int chessIndex = currentChessIndex.get();
-        if (chessIndex >= 0 && chessIndex < chessList.size()) {
-            Chess chess = chessList.get(chessIndex);
-            String originRC = chess.getOriginRC();
-            chessMove(chess.getImageView(), getR(originRC), getC(originRC), originRC);
-        }
-
-
-        int index = currentPlayerIndex.incrementAndGet();
-        if (index >= playerList.size()) {
-            // round over
-            nextRound();
+    private void showRoundDifficulty(int robot) {
+        targetAnalysis.analyse(engine.getRobots());
+        int best = targetAnalysis.getBestTarget(robot);
+        if (best < 0) {
+            difficultyLabel.setText("Difficulty: no target reachable by this robot alone");
             return;
         }
-
-        Player player = playerList.get(index);
-        player.setUsedSteps(0);
-        // start round
-        currentStepTime.set(STEP_TIME);
-        timeInfoLabel.setText(String.valueOf(STEP_TIME));
-        moveTimer.start();
-
-        nextStep();
+        StringBuilder text = new StringBuilder("Difficulty: ").append(targetAnalysis.getTargetMoves(best))
+                .append(" moves (targets:");
+        for (int t = 0; t < targetAnalysis.getTargetCount(); t++) {
+            if (targetAnalysis.getTargetColor(t) == robot) {
+                int moves = targetAnalysis.getTargetMoves(t);
+                text.append(' ').append(moves == TargetAnalysis.UNREACHABLE ? "-" : String.valueOf(moves));
+            }
+        }
+        difficultyLabel.setText(text.append(')').toString());
     }
 
     /**
-     * 下一步玩家控制棋子移动操作
-     * À l'étape suivante, le joueur contrôle le mouvement des pièces
-     *   1. 获取当前玩家是否还剩余步数(player.getUsedSteps() >= player.getSteps())
-     *   1. Obtenir le nombre de pas laissés par le joueur actuel (player.getUsedSteps() >= player.getSteps())
-     *      - 如果使用完了步数，则轮到下一个玩家操作(调用nextPlayerStep)
-     *      - Si le nombre de pas est épuisé, c'est au tour du joueur suivant (appelez nextPlayerStep)
-     *   2. 更新游戏状态标签，通知当前玩家还剩下多少步
-     *   2. Mettez à jour l'étiquette d'état du jeu pour informer le joueur actuel du nombre de coups restants
-     *   3. 更新玩家使用的步数，步数+1
-     *   3. Mettre à jour le nombre de pas utilisés par le joueur, le nombre de pas +1
+     * 回合结束后显示这个回合的最优步数(只有玩家已经开始移动时才显示)
+     * Affiche le nombre optimal de pas de la manche terminée (seulement si un joueur a commencé à jouer)
      */
-    private synchronized void nextStep() {
-        int index = currentPlayerIndex.get();
-        Player player = playerList.get(index);
-        System.out.println("nextStep,steps:"+player.getSteps()+",used:"+player.getUsedSteps());
-        if (player.getUsedSteps() >= player.getSteps()) {
-            // next player step
-            nextPlayerStep();
+    private void showRoundOptimal() {
+        bidInfoLabel.setText("");
+        if (!roundPlayed || roundSolution == null || !roundSolution.isDone()
+                || roundSolution.isCancelled() || roundSolution.isCompletedExceptionally()) {
             return;
         }
-
-        infoLabel.setText("Player " + player.getName() + " has " + (player.getSteps() - player.getUsedSteps()) + " steps left.");
-        player.setUsedSteps(player.getUsedSteps() + 1);
+        Solution solution = roundSolution.getNow(null);
+        bidInfoLabel.setText(solution == null ? "Last round had no solution within "
+                + speculativeSolver.getSolver().getMaxDepth() + " moves" : "Optimal was " + solution.length() + " moves");
     }
 
     /**
-     * 下一个回合
-     * tour suivant
-     *  1. 将定时器暂停，并重置剩余时间
-     *  1. Mettez le chronomètre en pause et réinitialisez le temps restant
-     *  2. 判断当前是否所有棋子都已经抵达终点(游戏是否结束)
-     *  2. Déterminez si toutes les pièces ont atteint la fin (si le jeu est terminé)
-     *      - 如果所有棋子都已经抵达终点，则结束游戏(调用gameOver)
-     *      - Si toutes les pièces ont atteint la fin, terminez le jeu (appelez gameOver)
-     *  3. 重置当前玩家号
-     *  3. Réinitialiser le numéro de joueur actuel
-     *  4. 更新游戏状态标签，通知玩家开始输入步数
-     *  4. Mettez à jour la balise d'état du jeu pour informer le joueur de commencer à saisir le nombre de coups
-     *  5. 设置步数输入确定按钮可以点击
-     *  5. Définissez le nombre d'étapes à saisir et le bouton OK peut être cliqué
+     * 在后台检查玩家的出价，结果显示在出价检查标签上
+     * Vérifie l'enchère du joueur en arrière-plan, le résultat s'affiche sur l'étiquette de vérification
+     *  结果回到 FX 线程时如果回合已经变了就丢弃
+     *  Le résultat est ignoré si la manche a changé quand il revient sur le thread FX
      */
-    private void nextRound() {
-        moveTimer.stop();
-        currentStepTime.set(STEP_TIME);
-
-        // no increment!!!
-        int chessIndex = currentChessIndex.get();
-        if (chessIndex >= chessList.size()) {
-            gameOver();
-            return;
-        }
-        currentPlayerIndex.set(-1);
-
-        infoLabel.setText("Turn to player " + playerList.get(0).getName() + " to enter number of steps");
-        stepInputButton.setDisable(false);
+    private void verifyBid(Player player, int robots, int robot, int bid) {
+        int bidRound = round;
+        bidVerifier.verify(robots, robot, bid, (steps, verdict) -> Platform.runLater(() -> {
+            if (bidRound != round) {
+                return;
+            }
+            switch (verdict) {
+                case ACHIEVABLE:
+                    bidInfoLabel.setText("Player " + player.getName() + ": " + steps + " steps is achievable");
+                    break;
+                case TOO_LOW:
+                    bidInfoLabel.setText("Player " + player.getName() + ": " + steps + " steps is impossibly low");
+                    break;
+                default:
+                    bidInfoLabel.setText("Player " + player.getName() + ": " + steps + " steps could not be checked in time");
+                    break;
+            }
+        }));
     }
 
     /**
-     * 游戏结束
-     *  1. 更新游戏状态标签为 "Waiting game start"
-     *  1. Mettez à jour la balise d'état du jeu sur "Waiting game start"
-     *  2. 重置当前玩家号
-     *  2. Réinitialiser le numéro de joueur actuel
-     *  3. 按照玩家分数进行排序
-     *  3. Trier par score de joueur
-     *  4. 弹窗显示获胜玩家，以及各个玩家的得分情况
-     *  4. La fenêtre contextuelle affiche les joueurs gagnants et le score de chaque joueur
+     * 初始化提示面板
+     * Initialiser le panneau d'indice
+     *  点击 "Hint" 按钮后显示当前棋子抵达同颜色终点的最优解(回合开始时已经在后台求解)
+     *  Un clic sur "Hint" affiche la solution optimale du pion courant vers un point final
+     *  de sa couleur (déjà calculée en arrière-plan depuis le début de la manche)
      */
-    private void gameOver() {
-        System.err.println("Game Over！");
-        infoLabel.setText("Waiting game start");
-        currentChessIndex.set(-1);
-
-        playerList.sort(new Player.PlayerScoreComparator());
-        StringBuilder text = new StringBuilder("Game Over ! Player " + playerList.get(0).getName() + " win!\n");
-
-        for (Player player : playerList) {
-            text.append("Player ").append(player.getName()).append(" : ").append(player.getScore()).append("\n");
-        }
+    private void initHintPane() {
+        Button hintButton = new Button("Hint");
+        hintButton.setOnAction(event -> {
+            int chessIndex = engine.getCurrentChessIndex();
+            if (chessIndex < 0 || chessIndex >= GameEngine.ROBOTS) {
+                return;
+            }
+            CompletableFuture<Solution> result = speculativeSolver.solve(engine.getRobots(), chessIndex);
+            if (!result.isDone()) {
+                infoLabel.setText("Solving...");
+            }
+            result.thenAccept(solution -> Platform.runLater(() -> {
+                if (solution == null) {
+                    infoLabel.setText("No solution within " + speculativeSolver.getSolver().getMaxDepth() + " steps");
+                } else {
+                    infoLabel.setText("Optimal " + solution.length() + " steps: " + solution);
+                }
+            }));
+        });
+        HBox hbox = new HBox(8); // spacing = 8
+        hbox.getChildren().add(hintButton);
 
-        Alert alert = new Alert(Alert.AlertType.CONFIRMATION, text.toString());
-        alert.showAndWait();
+        rightRoot.getChildren().add(hbox);
     }
 
     private void initPlayerOrderPane() {
@@ -656,22 +718,10 @@ public class AppMain extends Application {
         yellow.setGraphic(new ImageView(yellowChessImage));
         blue.setGraphic(new ImageView(blueChessImage));
 
-        red.setOnAction(event -> {          //给按钮设置点击事件 Définir l'événement de clic pour le bouton
-            randomChessPos(chessList.get(0));
-            nextRound();
-        });
-        green.setOnAction(event -> {
-            randomChessPos(chessList.get(1));       //只重置这一个按钮的位置并且 ne réinitialise que la position de ce bouton et
-            nextRound();                            //开启下一个回合   commencer le tour suivant
-        });
-        yellow.setOnAction(event -> {
-            randomChessPos(chessList.get(2));
-            nextRound();
-        });
-        blue.setOnAction(event -> {
-            randomChessPos(chessList.get(3));
-            nextRound();
-        });
+        red.setOnAction(event -> engine.respawn(0));        //给按钮设置点击事件 Définir l'événement de clic pour le bouton
+        green.setOnAction(event -> engine.respawn(1));      //只重置这一个棋子的位置并且开启下一个回合   ne réinitialise que ce pion et commence le tour suivant
+        yellow.setOnAction(event -> engine.respawn(2));
+        blue.setOnAction(event -> engine.respawn(3));
 
         HBox hbox = new HBox(8); // spacing = 8      //设置水平布局   définir la disposition horizontale
         hbox.getChildren().addAll(red, green, yellow, blue, chessOrderLabel);
@@ -694,10 +744,9 @@ public class AppMain extends Application {
         playerNumberBtn.setOnAction(new EventHandler<ActionEvent>() {       //点击函数，点击按钮 Cliquez sur la fonction, cliquez sur le bouton
             @Override
             public void handle(ActionEvent event) {
-                startGame(Integer.parseInt(playerNumberTextField.getText()));
+                engine.startGame(createPlayers(Integer.parseInt(playerNumberTextField.getText())));
             }   //传入playerNumberTextField，默认是2.获取玩家数量，传入开始游戏
-            //Passez playerNumberTextField, la valeur par défaut est 2. Obtenez le nombre de joueurs, passez pour commencer le jeuPassez playerNumberTextField,
-            // la valeur par défaut est 2. Obtenez le nombre de joueurs, passez pour commencer le jeu
+            //Passez playerNumberTextField, la valeur par défaut est 2. Obtenez le nombre de joueurs, passez pour commencer le jeu
         });
         HBox hbox = new HBox(8); // spacing = 8
         hbox.getChildren().addAll(playerNumberLabel, playerNumberTextField, playerNumberBtn);
@@ -705,25 +754,53 @@ public class AppMain extends Application {
         rightRoot.getChildren().add(hbox);
     }
 
+    /**
+     * 本局的玩家: humans 个人类玩家，然后是电脑玩家
+     * Joueurs de la partie : humans joueurs humains, puis les joueurs ordinateur
+     *  电脑玩家在后台线程中搜索，出价和移动通过 Platform.runLater 交回 FX 线程
+     *  Les joueurs ordinateur cherchent dans un thread d'arrière-plan, enchères et coups reviennent
+     *  sur le thread FX par Platform.runLater
+     */
+    private List<Player> createPlayers(int humans) {
+        if (bots == null) {
+            bots = new ArrayList<>();
+            int count = Integer.getInteger("robot.bots", 0);
+            BotPlayer.Difficulty level = BotPlayer.Difficulty.valueOf(
+                    System.getProperty("robot.bot.level", "NORMAL").toUpperCase(Locale.ROOT));
+            for (int i = 0; i < count; i++) {
+                bots.add(new BotPlayer("Bot " + (i + 1), engine, level, Platform::runLater));
+            }
+        }
+        List<Player> players = new ArrayList<>(humans + bots.size());
+        for (int i = 0; i < humans; i++) {
+            Player player = new Player();
+            player.setName(String.valueOf(i + 1));
+            players.add(player);
+        }
+        players.addAll(bots);
+        return players;
+    }
+
     /**
      * 初始化游戏地图以及相关控件和事件
      * Initialiser la carte du jeu et les commandes et événements associés
-     *  1. 初始化地图
-     *  1. Initialiser la carte
+     *  1. 初始化地图(墙、非出生点和终点由 Boards 定义，保存在引擎的位棋盘中)
+     *  1. Initialiser la carte (murs, points non-spawn et points finaux sont définis par Boards,
+     *  dans le bitboard du moteur)
      *  2. 初始化相关控件和事件
      *  2. Initialiser les contrôles et événements associés
-     *      1. 初始化障碍物Map集合
-     *      1. Initialiser la collection de cartes d'obstacles
-     *      2. 初始化非出生点Set集合
-     *      2. Initialiser la collection Set non-spawn
-     *      3. 初始化棋子
-     *      3. Initialiser les pièces
-     *      4. 初始化终点(也是放在障碍物Map集合中)
-     *      4. Initialiser le point final (également placé dans la collection Obstacle Map)
-     *      5. 初始化键盘监听事件
-     *      5. Initialiser les événements d'écoute du clavier
+     *      1. 初始化棋子
+     *      1. Initialiser les pièces
+     *      2. 初始化键盘监听事件
+     *      2. Initialiser les événements d'écoute du clavier
+     *  设置 -Drobot.renderer=canvas 时改用画布棋盘(BoardCanvas)
+     *  Avec -Drobot.renderer=canvas, le plateau dessiné sur Canvas (BoardCanvas) est utilisé
      */
     private void initGameGridPane() {       //绘制初始的棋盘   Dessinez le premier damier
+        if ("canvas".equals(System.getProperty("robot.renderer"))) {
+            initBoardCanvas();
+            return;
+        }
         GridPane gridPane = new GridPane();
         for (int i = 0; i < SIZE; i++) {
             ColumnConstraints columnConstraints = new ColumnConstraints();
@@ -735,10 +812,7 @@ public class AppMain extends Application {
         }
         gridPane.setPadding(new Insets(PADDING));
 
-        initObstacle();     //mur
-        initNonBirthPoint();        //place can not birth
         initChess(gridPane);        //robot
-        initFinalPoint();           //final point
         initKeyBoardEvent();        //clavier
 
         gridPane.setPrefSize(WIDTH, HEIGHT);
@@ -751,307 +825,23 @@ public class AppMain extends Application {
     }
 
     /**
-     * 初始化终点集合  Initialiser la collection de points de terminaison
-     *  将终点信息标记到 障碍物集合中 Marquez les informations de fin dans l'ensemble d'obstacles
-     */
-    private void initFinalPoint() {
-        // red 0
-        addFinalPointToMap(0, 4, 2);
-        addFinalPointToMap(0, 3, 11);
-        addFinalPointToMap(0, 14, 4);
-        addFinalPointToMap(0, 11, 12);
-        // green 1
-        addFinalPointToMap(1, 5, 4);
-        addFinalPointToMap(1, 6, 10);
-        addFinalPointToMap(1, 12, 1);
-        addFinalPointToMap(1, 11, 13);
-        // yellow 2
-        addFinalPointToMap(2, 2, 3);
-        addFinalPointToMap(2, 1, 9);
-        addFinalPointToMap(2, 9, 3);
-        addFinalPointToMap(2, 9, 10);
-        // blue 3
-        addFinalPointToMap(3, 3, 5);
-        addFinalPointToMap(3, 5, 14);
-        addFinalPointToMap(3, 11, 6);
-        addFinalPointToMap(3, 13, 9);
-    }
-
-    /**
-     * 将终点信息标记到障碍物集合的辅助方法
-     * Méthode d'assistance pour marquer les informations de point final sur l'ensemble d'obstacles
-     * @param finalPoint    终点值 valeur finale
-     * @param r 行号  numéro de ligne
-     * @param c 列号  numéro de colonne
-     */
-    private void addFinalPointToMap(int finalPoint, int r, int c) {
-        String rc = getR_C(r, c);
-        Obstacle obstacle = obstacleMap.getOrDefault(rc, new Obstacle(r, c));
-        obstacle.setFinalPoint(finalPoint);
-        obstacleMap.put(rc, obstacle);
-    }
-
-    /**
-     * 初始化障碍物Map集合  Initialiser la collection de cartes d'obstacles
-     *  1. 将地图四周设置不可通行点放入Map集合      1. Placez les points infranchissables autour de la carte dans la collection Map
-     *  2. 一行一行设置不可通行的障碍物点，放入Map集合      Définissez les points d'obstacles infranchissables ligne par ligne et mettez-les dans la collection Map
-     */
-    private void initObstacle() {       //有墙的格子     treillis avec murs
-        for (int i = 0; i < 16; i++) {
-            obstacleMap.put(getR_C(-1, i), new Obstacle(-1, i, false, false, false, false, false));
-            obstacleMap.put(getR_C(16, i), new Obstacle(16, i, false, false, false, false, false));
-            obstacleMap.put(getR_C(i, 16), new Obstacle(i, 16, false, false, false, false, false));
-            obstacleMap.put(getR_C(i, -1), new Obstacle(i, -1, false, false, false, false, false));
-        }       //设置一个墙把棋盘围住，这样robot就无法走出去      Installez un mur pour entourer le tableau afin que le robot ne puisse pas sortir
-
-        // row 0
-        obstacleMap.put(getR_C(0, 5), new Obstacle(0, 5, true, true, false, true, false));
-        obstacleMap.put(getR_C(0, 6), new Obstacle(0, 6, true, true, true, false, false));
-
-        obstacleMap.put(getR_C(0, 11), new Obstacle(0, 11, true, true, false, true, false));
-        obstacleMap.put(getR_C(0, 12), new Obstacle(0, 12, true, true, true, false, false));
-        // row 1
-        obstacleMap.put(getR_C(1, 3), new Obstacle(1, 3, false, true, true, true, false));
-
-        obstacleMap.put(getR_C(1, 9), new Obstacle(1, 9, false, true, false, true, false));
-        obstacleMap.put(getR_C(1, 10), new Obstacle(1, 10, true, true, true, false, false));
-        // row 2
-        obstacleMap.put(getR_C(2, 2), new Obstacle(2, 2, true, true, false, true, false));
-        obstacleMap.put(getR_C(2, 3), new Obstacle(2, 3, true, false, true, false, false));
-
-        obstacleMap.put(getR_C(2, 9), new Obstacle(2, 9, true, false, true, true, false));
-
-        obstacleMap.put(getR_C(2, 15), new Obstacle(2, 15, false, true, true, true, false));
-        // row 3
-        obstacleMap.put(getR_C(3, 0), new Obstacle(3, 0, false, true, true, true, false));
-
-        obstacleMap.put(getR_C(3, 2), new Obstacle(3, 2, false, true, true, true, false));
-
-        obstacleMap.put(getR_C(3, 4), new Obstacle(3, 4, true, true, false, true, false));
-        obstacleMap.put(getR_C(3, 5), new Obstacle(3, 5, false, true, true, false, false));
-
-        obstacleMap.put(getR_C(3, 10), new Obstacle(3, 10, true, true, false, true, false));
-        obstacleMap.put(getR_C(3, 11), new Obstacle(3, 11, false, true, true, false, false));
-
-        obstacleMap.put(getR_C(3, 15), new Obstacle(3, 15, true, false, true, true, false));
-        // row 4
-        obstacleMap.put(getR_C(4, 0), new Obstacle(4, 0, true, false, true, true, false));
-
-        obstacleMap.put(getR_C(4, 2), new Obstacle(4, 2, true, false, false, true, false));
-        obstacleMap.put(getR_C(4, 3), new Obstacle(4, 3, true, true, true, false, false));
-
-        obstacleMap.put(getR_C(4, 5), new Obstacle(4, 5, true, false, true, true, false));
-
-        obstacleMap.put(getR_C(4, 11), new Obstacle(4, 11, true, false, true, true, false));
-
-        obstacleMap.put(getR_C(4, 14), new Obstacle(4, 14, false, true, true, true, false));
-        // row 5
-        obstacleMap.put(getR_C(5, 4), new Obstacle(5, 4, false, true, false, true, false));
-
-        obstacleMap.put(getR_C(5, 10), new Obstacle(5, 10, false, true, true, true, false));
-
-        obstacleMap.put(getR_C(5, 13), new Obstacle(5, 13, true, true, false, true, false));
-        obstacleMap.put(getR_C(5, 14), new Obstacle(5, 14, true, false, true, false, false));
-        // row 6
-        addObstacleToMap(6, 4,"d");
-
-        addObstacleToMap(6, 10, "dl");
-        addObstacleToMap(6, 11, "r");
-        // row 7
-        addObstacleToMap(7, 7, "udlr");
-        addObstacleToMap(7, 8, "udlr");
-
-        addObstacleToMap(7, 12, "l");
-        addObstacleToMap(7, 13, "ru");
-        // row 8
-        addObstacleToMap(8, 3, "u");
-
-        addObstacleToMap(8, 7, "udlr");
-        addObstacleToMap(8, 8, "udlr");
-        addObstacleToMap(8, 13, "d");
-        // row 9
-        addObstacleToMap(9, 3, "dl");
-        addObstacleToMap(9, 4, "r");
-
-        addObstacleToMap(9, 10, "ul");
-        addObstacleToMap(9, 11, "r");
-        // row 10
-        addObstacleToMap(10, 6, "u");
-
-        addObstacleToMap(10 , 10, "d");
-
-        addObstacleToMap(10, 12, "u");
-        // row 11
-        addObstacleToMap(11, 5, "l");
-        addObstacleToMap(11, 6,"rd");
-
-        addObstacleToMap(11, 12, "dl");
-        addObstacleToMap(11,13,"ru");
-        // row 12
-        addObstacleToMap(12, 0 ,"l");
-        addObstacleToMap(12,1,"ru");
-
-        addObstacleToMap(12, 9,"udlr");
-
-        addObstacleToMap(12,15,"u");
-        // row 13
-        addObstacleToMap(13,0,"u");
-
-        addObstacleToMap(13, 1, "d");
-
-        addObstacleToMap(13,8,"l");
-        addObstacleToMap(13,9,"rd");
-
-        addObstacleToMap(13,15,"d");
-        // row 14
-        addObstacleToMap(14,0,"d");
-
-        addObstacleToMap(14,4,"lu");
-        addObstacleToMap(14,5,"r");
-
-        addObstacleToMap(14,11,"udlr");
-        // row 15
-        addObstacleToMap(15,4,"d");
-
-        addObstacleToMap(15,6,"l");
-        addObstacleToMap(15,7,"r");
-
-        addObstacleToMap(15,10,"l");
-        addObstacleToMap(15,11,"r");
-
-
-
-    }
-
-    /**
-     * 初始化非出生点Set集合     Initialiser la collection Set non-spawn
-     *  将不允许棋子刷新的位置点放入到一个Set集合中     Placez les points de position qui ne permettent pas au pion de se rafraîchir dans une collection Set
-     */
-    private void initNonBirthPoint() {
-        nonBirthPointSet.add(getR_C(1,9));
-        nonBirthPointSet.add(getR_C(2,3));
-        nonBirthPointSet.add(getR_C(3,5));
-        nonBirthPointSet.add(getR_C(3,11));
-        nonBirthPointSet.add(getR_C(4,2));
-        nonBirthPointSet.add(getR_C(5,4));
-        nonBirthPointSet.add(getR_C(5,14));
-        nonBirthPointSet.add(getR_C(6,10));
-        nonBirthPointSet.add(getR_C(7,7));
-        nonBirthPointSet.add(getR_C(7,8));
-        nonBirthPointSet.add(getR_C(7,13));
-        nonBirthPointSet.add(getR_C(8,7));
-        nonBirthPointSet.add(getR_C(8,8));
-        nonBirthPointSet.add(getR_C(9,3));
-        nonBirthPointSet.add(getR_C(9,10));
-        nonBirthPointSet.add(getR_C(11,6));
-        nonBirthPointSet.add(getR_C(11,12));
-        nonBirthPointSet.add(getR_C(11,13));
-        nonBirthPointSet.add(getR_C(12,1));
-        nonBirthPointSet.add(getR_C(12,9));
-        nonBirthPointSet.add(getR_C(13,9));
-        nonBirthPointSet.add(getR_C(14,4));
-        nonBirthPointSet.add(getR_C(14,11));
-    }
-
-    /**
-     * 随机刷新指定棋子位置       Rafraîchir au hasard la position de la pièce d'échecs spécifiée
-     *  1. 随机生成行与列，直到生成的坐标允许放入棋子时，将该棋子移动至该坐标
-     *  1. Générez aléatoirement des lignes et des colonnes jusqu'à ce que les coordonnées générées permettent
-     *  le placement d'une pièce d'échecs, déplacez la pièce d'échecs à cette coordonnée
-     *  2. 更新棋子原始位置(originRC)
-     *  2. Mettre à jour la position d'origine du pion (originRC)
-     * @param chess 被刷新位置的棋子    Pion en position rafraîchie
-     */
-    private synchronized void randomChessPos(Chess chess) {     //synchronized线程同步  synchronisation des threads
-        Random random = new Random();       //随机数   nombre aléatoire
-        int r;      //row ligne
-        int c;      //colome
-        String rc;
-        do{
-            r = Math.abs(random.nextInt()) % 16;        //用随机数生成随机的位置，因为随机数有可能生成负数。所以用abs取随机数的绝对值
-            //Utilisez des nombres aléatoires pour générer des positions aléatoires, car les nombres aléatoires peuvent générer des nombres négatifs.
-            // Utilisez donc abs pour prendre la valeur absolue du nombre aléatoire
-            c = Math.abs(random.nextInt()) % 16;        //对16进行取余，因为棋盘是16*16
-            //Prenez le reste de 16 car le plateau est de 16*16
-            rc = getR_C(r, c);      //得到随机的位置   obtenir un emplacement aléatoire
-        }while (nonBirthPointSet.contains(rc) || obstacleMap.containsKey(rc) && obstacleMap.get(rc).hasChess);
-        //得到位置要进行判断，判断不能是出生点的地方（终点，中间四个格子，障碍物（两个斜着的））||判断是否有棋子
-        //L'emplacement doit être jugé, et le jugement ne peut pas être le lieu du point de naissance (le point final,
-        // les quatre carrés du milieu, les obstacles (deux obliques)) || juger s'il y a des pièces d'échecs
-        chessMove(chess.getImageView(), r, c, rc);//移动棋子
-        chess.setOriginRC(rc);
-        //在chess类里面设置的原始的位置，记录原始位置是为了一个人操作失败之后，下一个玩家可以回到之前的位置开始进行操作
-        //La position d'origine définie dans la classe de chess, la position d'origine est enregistrée de sorte
-        // qu'après l'échec de l'opération d'une personne, le joueur suivant peut revenir à la position précédente pour commencer l'opération
-    }
-
-    /**
-     * 移动棋子
-     * déplacer le pion
-     *  1. 获取当前棋子坐标
-     *  1. Obtenir les coordonnées de la pièce en cours
-     *  2. 将棋子移动到指定坐标
-     *  2. Déplacez le pion aux coordonnées spécifiées
-     *      - 将当前点标记为无棋子
-     *      - marquer le point actuel comme aucun pion
-     *      - 将目标点标记为有棋子
-     *      - marquer les points cibles comme ayant des pions
-     * @param chess 被移动的棋子的ImageView    ImageVue du pion déplacé
-     * @param r 移动的目标点行号    Numéro de ligne de point cible déplacé
-     * @param c 移动的目标点列号    Numéro de colonne de point cible déplacé
-     * @param rc    移动的目标点坐标字符串     La chaîne de coordonnées du point cible mobile
+     * 初始化画布棋盘  Initialiser le plateau dessiné sur Canvas
+     *  墙、终点和棋子都由 BoardCanvas 画出，不加载 bg.jpg，也不创建棋子的 ImageView
+     *  Murs, points finaux et pions sont dessinés par BoardCanvas : bg.jpg n'est pas chargé
+     *  et aucune ImageView de pion n'est créée
      */
-    private synchronized void chessMove(ImageView chess, int r, int c, String rc) {
-        String lastRC = (String) chess.getUserData();
-        obstacleMap.get(lastRC).setHasChess(false);
-
-        GridPane.setConstraints(chess, c, r);
-
-        chess.setUserData(rc);
-
-        Obstacle obstacle = obstacleMap.getOrDefault(rc, new Obstacle(r, c));
-        obstacle.setHasChess(true);
-        obstacleMap.put(rc, obstacle);
-    }
-
-    /**
-     * 随机刷新所有棋子位置       Rafraîchir au hasard toutes les positions des pions
-     */
-    private void randomAllChessPos(){
-        for (Chess chess : chessList) {
-            randomChessPos(chess);      //对所有的棋子进行遍历，遍历完成之后对每一个棋子调用一次随机放置
+    private void initBoardCanvas() {
+        chessList = new ArrayList<Chess>();
+        int[] cells = new int[GameEngine.ROBOTS];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = engine.getRobotCell(i);
+            chessList.add(new Chess(null, cells[i]));
         }
-    }
+        boardCanvas = new BoardCanvas(engine.getBoard(), SIDE, PADDING, cells);
+        boardCanvas.setScale(Screen.getPrimary().getOutputScaleX());       //按屏幕缩放比例缓存棋子图片   images des pions à l'échelle de l'écran
+        initKeyBoardEvent();        //clavier
 
-    /**
-     * 添加障碍物点到Map集合的辅助方法
-     * Méthode d'assistance pour ajouter des points d'obstacle à la collection Map
-     * @param row   行号  numéro de ligne
-     * @param col   列号  numéro de colonne
-     * @param re    不允许进入该点的方式 字符串 (包含该点是否为棋子)
-     *              Chemins non autorisés à saisir le point Chaîne (contient si le point est un pion)
-     *              - u : 不允许下方点直接抵达该点  Le point ci-dessous n'est pas autorisé à aller directement à ce point
-     *              - d : 不允许上方点直接抵达该点  Le point ci-dessus n'est pas autorisé à atteindre le point directement
-     *              - l : 不允许右方点直接抵达该点  Le point de droite n'est pas autorisé à aller directement à ce point
-     *              - r : 不允许左方点直接抵达该点  Le point de gauche n'est pas autorisé à aller directement à ce point
-     *              - c : 标记该点有棋子       Marquez le point avec un pion
-     */
-    private void addObstacleToMap(int row, int col, String re) {
-        boolean l = true, r = true, u = true, d = true, chess = false;
-        for (int i = 0; i < re.length(); i++) {
-            if (re.charAt(i) == 'l') {
-                l = false;
-            } else if (re.charAt(i) == 'r') {
-                r = false;
-            } else if (re.charAt(i) == 'u') {
-                u = false;
-            } else if (re.charAt(i) == 'd') {
-                d = false;
-            } else if (re.charAt(i) == 'c') {
-                chess = true;
-            }
-        }
-        obstacleMap.put(getR_C(row, col), new Obstacle(row, col, u, d, l, r, chess));
+        root.getChildren().add(boardCanvas);
     }
 
     /**
@@ -1060,61 +850,31 @@ public class AppMain extends Application {
      */
     private void initChess(GridPane gridPane) {
         chessList = new ArrayList<Chess>();
-        redChess = addRobot(gridPane, redChessImage, 1, 1);
-        chessList.add(new Chess(redChess));
-        greenChess = addRobot(gridPane, greenChessImage, 8, 9);
-        chessList.add(new Chess(greenChess));
-        yellowChess = addRobot(gridPane, yellowChessImage, 13, 5);
-        chessList.add(new Chess(yellowChess));
-        blueChess = addRobot(gridPane, blueChessImage, 4, 13);
-        chessList.add(new Chess(blueChess));
+        redChess = addRobot(gridPane, redChessImage, engine.getRobotCell(0));
+        chessList.add(new Chess(redChess, engine.getRobotCell(0)));
+        greenChess = addRobot(gridPane, greenChessImage, engine.getRobotCell(1));
+        chessList.add(new Chess(greenChess, engine.getRobotCell(1)));
+        yellowChess = addRobot(gridPane, yellowChessImage, engine.getRobotCell(2));
+        chessList.add(new Chess(yellowChess, engine.getRobotCell(2)));
+        blueChess = addRobot(gridPane, blueChessImage, engine.getRobotCell(3));
+        chessList.add(new Chess(blueChess, engine.getRobotCell(3)));
     }
 
     /**
      * 添加棋子(机器人)到棋盘上的指定位置      Ajouter des pièces d'échecs (robots) à des positions spécifiées sur l'échiquier
      * @param gridPane  棋盘  damier
      * @param image 棋子图片    Photo de robot
-     * @param row   行号      numéro de ligne
-     * @param col   列号      numéro de colonne
+     * @param cell  格子下标(BitBoard.cell)    indice de case (BitBoard.cell)
      * @return  生成的棋子ImageView  Généré pion ImageView
      */
-    private ImageView addRobot(GridPane gridPane, Image image, int row, int col) {
+    private ImageView addRobot(GridPane gridPane, Image image, int cell) {
         ImageView imageView = new ImageView(image);
-        imageView.setUserData(row + "_" + col);
-
-        gridPane.add(imageView, col, row);
-        String r_c = getR_C(row, col);
-        Obstacle obstacle = obstacleMap.getOrDefault(r_c, new Obstacle(row, col));
-        obstacle.setHasChess(true);
-        obstacleMap.put(r_c, obstacle);
+        imageView.setCache(true);
+        imageView.setCacheHint(CacheHint.SPEED);     //动画时由 GPU 合成缓存的图片   l'image en cache est composée par le GPU pendant l'animation
+        gridPane.add(imageView, BitBoard.col(cell), BitBoard.row(cell));
         return imageView;
     }
 
-    /**
-     * 开始游戏
-     * commencer le jeu
-     *  1. 根据输入的玩家数量，初始化玩家列表
-     *  1. Initialiser la liste des joueurs en fonction du nombre de joueurs saisis
-     *  2. 设置步数输入按钮为可点击的
-     *  2. Rendre le bouton d'entrée pas à pas cliquable
-     *  3. 更新游戏状态标签为轮到首个玩家去输入步数
-     *  3. Mettez à jour l'étiquette d'état du jeu au tour du premier joueur pour entrer le nombre de coups
-     * @param playerNumber 玩家数量 Nombre de joueurs
-     */
-    private synchronized void startGame(int playerNumber) {
-        randomAllChessPos();
-        currentPlayerIndex.set(-1);
-        currentChessIndex.set(0);
-        playerList = new ArrayList<>(playerNumber);
-        for (int i = 0; i < playerNumber; i++) {
-            Player p = new Player();
-            p.setName(String.valueOf(i + 1));
-            playerList.add(p);
-        }
-        stepInputButton.setDisable(false);
-        infoLabel.setText("Turn to player " + playerList.get(0).getName() + " to input steps");
-    }
-
     /**
      * 主方法，程序入口
      * méthode principale, entrée de programme
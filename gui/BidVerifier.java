@@ -0,0 +1,139 @@
+package gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 出价检查器
+ * Vérificateur d'enchères
+ *  玩家输入步数后，在后台线程中把它与当前棋子的最优解比较，判断这个步数能不能做到
+ *  Quand un joueur saisit un nombre de pas, il est comparé dans un thread d'arrière-plan
+ *  à la solution optimale du pion courant pour savoir s'il est réalisable
+ *      最优解来自 SpeculativeSolver(回合开始时已经在求解)，通常检查时已经算完
+ *      La solution vient du SpeculativeSolver (lancé au début de la manche), en général déjà terminée
+ *      每次检查有时间预算，超时返回 UNKNOWN，不会让输入步数的流程等待(预先求解不受影响，继续进行)
+ *      Chaque vérification a un budget de temps, au-delà elle renvoie UNKNOWN : la saisie n'attend jamais
+ *      (la résolution anticipée n'est pas affectée et continue)
+ *      回合推进时调用 cancel()，正在等待的检查被中断，排队的检查被丢弃
+ *      cancel() est appelé quand la manche avance : la vérification en attente de résultat est interrompue,
+ *      celles de la file sont abandonnées
+ *  回调在检查线程中执行，界面需要自己切换到 FX 线程
+ *  Le rappel s'exécute dans le thread de vérification, l'interface doit repasser sur le thread FX
+ */
+public class BidVerifier {
+
+    /**
+     * 检查结果  Résultat de la vérification
+     */
+    public enum Verdict {
+        /**
+         * 步数不少于最优解，可以做到  Pas supérieur ou égal à l'optimal, réalisable
+         */
+        ACHIEVABLE,
+        /**
+         * 步数少于最优解(或在最大步数内无解)，不可能做到
+         * Pas inférieur à l'optimal (ou aucune solution dans la profondeur maximale), impossible
+         */
+        TOO_LOW,
+        /**
+         * 在时间预算内没有得到结果  Pas de résultat dans le budget de temps
+         */
+        UNKNOWN
+    }
+
+    /**
+     * 检查完成的回调  Rappel de fin de vérification
+     */
+    public interface Callback {
+        void onVerified(int bid, Verdict verdict);
+    }
+
+    private final SpeculativeSolver speculativeSolver;
+    private final long budgetMillis;
+    private final ExecutorService executor;
+    /**
+     * 还没有完成的检查  Vérifications pas encore terminées
+     */
+    private final List<Future<?>> pending = new ArrayList<>();
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * @param speculativeSolver 提供最优解的预先求解器   solveur anticipé qui fournit la solution optimale
+     * @param budgetMillis      每次检查的时间预算(毫秒)   budget de temps de chaque vérification (ms)
+     */
+    public BidVerifier(SpeculativeSolver speculativeSolver, long budgetMillis) {
+        this.speculativeSolver = speculativeSolver;
+        this.budgetMillis = budgetMillis;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bid-verifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 在后台检查一个出价  Vérifie une enchère en arrière-plan
+     * @param robots    打包的棋子位置   positions packées des pions
+     * @param robot     当前棋子下标    indice du pion courant
+     * @param bid       玩家输入的步数   nombre de pas saisi par le joueur
+     * @param callback  检查线程中调用(被取消时不调用)   appelé dans le thread de vérification (pas en cas d'annulation)
+     */
+    public synchronized void verify(int robots, int robot, int bid, Callback callback) {
+        pending.removeIf(Future::isDone);
+        pending.add(executor.submit(() -> {
+            Verdict verdict = check(robots, robot, bid);
+            if (!Thread.currentThread().isInterrupted()) {
+                callback.onVerified(bid, verdict);
+            }
+        }));
+    }
+
+    /**
+     * 在当前线程中检查一个出价(最多用时 budgetMillis)
+     * Vérifie une enchère dans le thread courant (au plus budgetMillis)
+     */
+    public Verdict check(int robots, int robot, int bid) {
+        Solution solution;
+        try {
+            solution = speculativeSolver.solve(robots, robot).get(budgetMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Verdict.UNKNOWN;
+        } catch (TimeoutException | CancellationException | ExecutionException e) {
+            return Verdict.UNKNOWN;
+        }
+        if (solution == null) {
+            return bid > speculativeSolver.getSolver().getMaxDepth() ? Verdict.UNKNOWN : Verdict.TOO_LOW;
+        }
+        return bid >= solution.length() ? Verdict.ACHIEVABLE : Verdict.TOO_LOW;
+    }
+
+    /**
+     * 取消所有还没有完成的检查(回合推进时调用，预先求解由 SpeculativeSolver 自己处理)
+     * Annule toutes les vérifications pas encore terminées (appelé quand la manche avance,
+     * la résolution anticipée est gérée par le SpeculativeSolver)
+     */
+    public synchronized void cancel() {
+        for (Future<?> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+}
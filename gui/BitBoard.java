@@ -0,0 +1,467 @@
+package gui;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 位棋盘类
+ * Classe de plateau en bits (bitboard)
+ *  用位掩码记录 16x16 地图上的墙、棋子和终点，取代 Map&lt;String, Obstacle&gt;
+ *  Enregistre les murs, les pions et les points finaux de la carte 16x16 avec des masques de bits,
+ *  remplace Map&lt;String, Obstacle&gt;
+ *      格子下标 cell = row * 16 + col，区间[0,255]
+ *      Indice de case cell = row * 16 + col, intervalle [0,255]
+ *      每个掩码为 4 个 long (256 位)，判断只需要一次位运算，不创建任何对象
+ *      Chaque masque fait 4 long (256 bits), un test est une seule opération de bits, sans allocation
+ */
+public class BitBoard {
+
+    /**
+     * 地图边长  côté de la carte
+     */
+    public static final int SIZE = 16;
+    /**
+     * 格子总数  nombre total de cases
+     */
+    public static final int CELLS = SIZE * SIZE;
+
+    /**
+     * 移动方向 (与 Obstacle 的 canUp/canDown/canLeft/canRight 对应)
+     * Directions de déplacement (correspondent à canUp/canDown/canLeft/canRight d'Obstacle)
+     */
+    public static final int UP = 0;
+    public static final int DOWN = 1;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 3;
+
+    /**
+     * 各方向走一格时下标的变化量   Variation de l'indice pour un pas dans chaque direction
+     */
+    private static final int[] DELTA = {-SIZE, SIZE, -1, 1};
+
+    /**
+     * 一个 256 位掩码需要的 long 个数  Nombre de long pour un masque de 256 bits
+     */
+    private static final int WORDS = CELLS / 64;
+
+    /**
+     * 墙掩码: walls[dir * 4 + word] 中的位表示 该格子不能向 dir 方向走出一格
+     * Masque des murs : un bit de walls[dir * 4 + word] indique que la case ne peut pas avancer d'un pas vers dir
+     *  地图四周的边界(原来 initObstacle 中 -1/16 的一圈)也记录在这里
+     *  La bordure de la carte (l'anneau -1/16 de initObstacle) est aussi enregistrée ici
+     */
+    private final long[] walls = new long[4 * WORDS];
+    /**
+     * 棋子掩码 (原 Obstacle.hasChess)   Masque des pions (ancien Obstacle.hasChess)
+     */
+    private final long[] robots = new long[WORDS];
+    /**
+     * 终点掩码: targets[color * 4 + word] (原 Obstacle.finalPoint)
+     * Masque des points finaux : targets[color * 4 + word] (ancien Obstacle.finalPoint)
+     */
+    private final long[] targets = new long[4 * WORDS];
+    /**
+     * 非出生点掩码 (原 AppMain.nonBirthPointSet)   Masque des cases interdites à l'apparition (ancien nonBirthPointSet)
+     */
+    private final long[] noSpawn = new long[WORDS];
+
+    /**
+     * 地图二进制编码的字节数(墙、终点、非出生点，不包含棋子)
+     * Taille en octets de l'encodage binaire de la carte (murs, points finaux, non-spawn, sans les pions)
+     */
+    public static final int BYTES = (4 * WORDS + 4 * WORDS + WORDS) * Long.BYTES;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * 创建一个只有边界墙的空地图
+     * Crée une carte vide avec seulement les murs de bordure
+     */
+    public BitBoard() {
+        for (int i = 0; i < SIZE; i++) {
+            set(walls, UP * WORDS, cell(0, i));
+            set(walls, DOWN * WORDS, cell(SIZE - 1, i));
+            set(walls, LEFT * WORDS, cell(i, 0));
+            set(walls, RIGHT * WORDS, cell(i, SIZE - 1));
+        }
+    }
+
+    /**
+     * 复制构造器  Constructeur de copie
+     * @param other 被复制的地图   carte copiée
+     */
+    public BitBoard(BitBoard other) {
+        System.arraycopy(other.walls, 0, walls, 0, walls.length);
+        System.arraycopy(other.robots, 0, robots, 0, robots.length);
+        System.arraycopy(other.targets, 0, targets, 0, targets.length);
+        System.arraycopy(other.noSpawn, 0, noSpawn, 0, noSpawn.length);
+    }
+
+    /**
+     * --------------------------------------
+     * 坐标辅助方法  Méthodes d'assistance des coordonnées
+     * --------------------------------------
+     */
+
+    /**
+     * [公共静态方法] 行号与列号转换为格子下标
+     * [Méthode statique publique] Convertit le numéro de ligne et de colonne en indice de case
+     * @param r 行号  numéro de ligne
+     * @param c 列号  numéro de colonne
+     * @return  格子下标   indice de case
+     */
+    public static int cell(int r, int c) {
+        return (r << 4) | c;
+    }
+
+    /**
+     * [公共静态方法] 格子下标获取行号   [Méthode statique publique] Numéro de ligne d'un indice de case
+     */
+    public static int row(int cell) {
+        return cell >>> 4;
+    }
+
+    /**
+     * [公共静态方法] 格子下标获取列号   [Méthode statique publique] Numéro de colonne d'un indice de case
+     */
+    public static int col(int cell) {
+        return cell & (SIZE - 1);
+    }
+
+    /**
+     * [公共静态方法] 向 dir 方向走一格后的格子下标 (不检查墙，调用前需用 canMove 判断)
+     * [Méthode statique publique] Indice de la case après un pas vers dir (sans vérifier les murs,
+     * utilisez canMove avant l'appel)
+     */
+    public static int neighbour(int cell, int dir) {
+        return cell + DELTA[dir];
+    }
+
+    /**
+     * [公共静态方法] 向 dir 方向走一格后是否还在地图内 (不考虑墙)
+     * [Méthode statique publique] La case voisine vers dir est-elle encore dans la carte (sans tenir compte des murs)
+     */
+    public static boolean hasNeighbour(int cell, int dir) {
+        switch (dir) {
+            case UP:
+                return row(cell) > 0;
+            case DOWN:
+                return row(cell) < SIZE - 1;
+            case LEFT:
+                return col(cell) > 0;
+            default:
+                return col(cell) < SIZE - 1;
+        }
+    }
+
+    /**
+     * --------------------------------------
+     * 墙  Murs
+     * --------------------------------------
+     */
+
+    /**
+     * 判断从该格子能否向 dir 方向走一格 (只考虑墙和边界)
+     * Détermine si l'on peut avancer d'un pas vers dir depuis cette case (murs et bordure seulement)
+     */
+    public boolean canMove(int cell, int dir) {
+        return !test(walls, dir * WORDS, cell);
+    }
+
+    /**
+     * 判断从该格子能否向 dir 方向走一格 (墙、边界以及目标格上的棋子)
+     * Détermine si l'on peut avancer d'un pas vers dir depuis cette case (murs, bordure et pion sur la case cible)
+     */
+    public boolean canStep(int cell, int dir) {
+        return canMove(cell, dir) && !hasRobot(cell + DELTA[dir]);
+    }
+
+    /**
+     * 判断能否沿 dir 方向直接进入该点 (对应 Obstacle 的 canUp/canDown/canLeft/canRight)
+     * Détermine si l'on peut entrer dans ce point en allant vers dir
+     * (correspond à canUp/canDown/canLeft/canRight d'Obstacle)
+     */
+    public boolean canEnter(int r, int c, int dir) {
+        int fromR = r - dir2row(dir);
+        int fromC = c - dir2col(dir);
+        if (!inside(fromR, fromC) || !inside(r, c)) {
+            return false;
+        }
+        return canMove(cell(fromR, fromC), dir);
+    }
+
+    /**
+     * 设置能否沿 dir 方向直接进入该点
+     * Définit si l'on peut entrer dans ce point en allant vers dir
+     *  墙记录在来源格子上，来源在地图外时(边界)忽略
+     *  Le mur est enregistré sur la case d'origine, ignoré si l'origine est hors de la carte (bordure)
+     */
+    public void setCanEnter(int r, int c, int dir, boolean can) {
+        int fromR = r - dir2row(dir);
+        int fromC = c - dir2col(dir);
+        if (!inside(fromR, fromC) || !inside(r, c)) {
+            return;
+        }
+        int from = cell(fromR, fromC);
+        if (can) {
+            clear(walls, dir * WORDS, from);
+        } else {
+            set(walls, dir * WORDS, from);
+        }
+    }
+
+    /**
+     * 将一个 Obstacle 记录的所有属性写入位棋盘
+     * Écrit tous les attributs enregistrés par un Obstacle dans le bitboard
+     *  地图外的点(旧的 -1/16 边界)忽略，边界已经在构造器中设置
+     *  Les points hors carte (ancienne bordure -1/16) sont ignorés, la bordure est déjà définie dans le constructeur
+     * @param obstacle 障碍物    obstacle
+     */
+    public void addObstacle(Obstacle obstacle) {
+        int r = obstacle.getRow();
+        int c = obstacle.getCol();
+        if (!inside(r, c)) {
+            return;
+        }
+        setCanEnter(r, c, UP, obstacle.isCanUp());
+        setCanEnter(r, c, DOWN, obstacle.isCanDown());
+        setCanEnter(r, c, LEFT, obstacle.isCanLeft());
+        setCanEnter(r, c, RIGHT, obstacle.isCanRight());
+        setRobot(cell(r, c), obstacle.isHasChess());
+        if (obstacle.getFinalPoint() >= 0) {
+            setTarget(cell(r, c), obstacle.getFinalPoint());
+        }
+    }
+
+    /**
+     * --------------------------------------
+     * 棋子  Pions
+     * --------------------------------------
+     */
+
+    /**
+     * 该点上是否存在棋子   Y a-t-il un pion sur la case
+     */
+    public boolean hasRobot(int cell) {
+        return test(robots, 0, cell);
+    }
+
+    /**
+     * 设置该点上是否存在棋子  Définit s'il y a un pion sur la case
+     */
+    public void setRobot(int cell, boolean hasRobot) {
+        if (hasRobot) {
+            set(robots, 0, cell);
+        } else {
+            clear(robots, 0, cell);
+        }
+    }
+
+    /**
+     * 将棋子从 from 移动到 to   Déplace un pion de from à to
+     */
+    public void moveRobot(int from, int to) {
+        clear(robots, 0, from);
+        set(robots, 0, to);
+    }
+
+    /**
+     * 获取第 r 行的棋子掩码(低 16 位，第 c 位表示第 c 列有棋子)
+     * Masque des pions de la ligne r (16 bits de poids faible, le bit c indique un pion en colonne c)
+     */
+    public int robotRow(int r) {
+        return (int) (robots[r >>> 2] >>> ((r & 3) << 4)) & 0xFFFF;
+    }
+
+    /**
+     * 清除所有棋子  Efface tous les pions
+     */
+    public void clearRobots() {
+        for (int i = 0; i < WORDS; i++) {
+            robots[i] = 0L;
+        }
+    }
+
+    /**
+     * 地图上是否有棋子   La carte contient-elle des pions
+     */
+    public boolean hasRobots() {
+        for (int i = 0; i < WORDS; i++) {
+            if (robots[i] != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 没有棋子的地图: 没有棋子时返回自己，否则返回去掉棋子的副本
+     * Carte sans pions : elle-même si elle n'en a pas, sinon une copie sans les pions
+     */
+    public BitBoard withoutRobots() {
+        if (!hasRobots()) {
+            return this;
+        }
+        BitBoard copy = new BitBoard(this);
+        copy.clearRobots();
+        return copy;
+    }
+
+    /**
+     * --------------------------------------
+     * 终点  Points finaux
+     * --------------------------------------
+     */
+
+    /**
+     * 获取该点的终点颜色  Couleur du point final de la case
+     * @return  -1 : 不是任何颜色棋子的终点  pas un point final ; 0~3 : 红 绿 黄 蓝  rouge vert jaune bleu
+     */
+    public int getTarget(int cell) {
+        for (int color = 0; color < 4; color++) {
+            if (test(targets, color * WORDS, cell)) {
+                return color;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 判断该点是否为 color 颜色棋子的终点   Détermine si la case est un point final de la couleur color
+     */
+    public boolean isTarget(int cell, int color) {
+        return test(targets, color * WORDS, cell);
+    }
+
+    /**
+     * 设置该点为 color 颜色棋子的终点(一个点只属于一种颜色)
+     * Définit la case comme point final de la couleur color (une case n'appartient qu'à une couleur)
+     */
+    public void setTarget(int cell, int color) {
+        for (int i = 0; i < 4; i++) {
+            clear(targets, i * WORDS, cell);
+        }
+        if (color >= 0) {
+            set(targets, color * WORDS, cell);
+        }
+    }
+
+    /**
+     * --------------------------------------
+     * 出生点  Points d'apparition
+     * --------------------------------------
+     */
+
+    /**
+     * 棋子能否在该点刷新(不考虑该点上已有的棋子)
+     * Un pion peut-il apparaître sur la case (sans tenir compte d'un pion déjà présent)
+     */
+    public boolean isSpawnable(int cell) {
+        return !test(noSpawn, 0, cell);
+    }
+
+    /**
+     * 设置棋子能否在该点刷新  Définit si un pion peut apparaître sur la case
+     */
+    public void setSpawnable(int cell, boolean spawnable) {
+        if (spawnable) {
+            clear(noSpawn, 0, cell);
+        } else {
+            set(noSpawn, 0, cell);
+        }
+    }
+
+    /**
+     * 地图指纹: 墙和终点的 64 位哈希值(不包含棋子)，用于缓存等需要区分地图的地方
+     * Empreinte de la carte : hachage 64 bits des murs et des points finaux (sans les pions),
+     * utilisé par exemple par les caches pour distinguer les cartes
+     */
+    public long fingerprint() {
+        long h = 0x243F6A8885A308D3L;
+        for (long word : walls) {
+            h = mix64(h ^ word);
+        }
+        for (long word : targets) {
+            h = mix64(h ^ word);
+        }
+        return h;
+    }
+
+    /**
+     * --------------------------------------
+     * 二进制编码  Encodage binaire
+     * --------------------------------------
+     */
+
+    /**
+     * 把地图写入 buffer 的当前位置(BYTES 个字节，使用 buffer 的字节序)
+     * Écrit la carte à la position courante de buffer (BYTES octets, dans l'ordre d'octets de buffer)
+     */
+    public void write(ByteBuffer buffer) {
+        for (long word : walls) {
+            buffer.putLong(word);
+        }
+        for (long word : targets) {
+            buffer.putLong(word);
+        }
+        for (long word : noSpawn) {
+            buffer.putLong(word);
+        }
+    }
+
+    /**
+     * 从 buffer 的当前位置读取地图，直接填充掩码(没有棋子)
+     * Lit une carte à la position courante de buffer en remplissant directement les masques (sans pion)
+     */
+    public static BitBoard read(ByteBuffer buffer) {
+        BitBoard board = new BitBoard();
+        for (int i = 0; i < board.walls.length; i++) {
+            board.walls[i] = buffer.getLong();
+        }
+        for (int i = 0; i < board.targets.length; i++) {
+            board.targets[i] = buffer.getLong();
+        }
+        for (int i = 0; i < board.noSpawn.length; i++) {
+            board.noSpawn[i] = buffer.getLong();
+        }
+        return board;
+    }
+
+    /**
+     * --------------------------------------
+     * 位运算辅助方法  Méthodes d'assistance des bits
+     * --------------------------------------
+     */
+
+    private static long mix64(long h) {
+        h *= 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static boolean inside(int r, int c) {
+        return r >= 0 && r < SIZE && c >= 0 && c < SIZE;
+    }
+
+    private static int dir2row(int dir) {
+        return dir == UP ? -1 : dir == DOWN ? 1 : 0;
+    }
+
+    private static int dir2col(int dir) {
+        return dir == LEFT ? -1 : dir == RIGHT ? 1 : 0;
+    }
+
+    private static boolean test(long[] mask, int offset, int cell) {
+        return (mask[offset + (cell >>> 6)] & (1L << cell)) != 0;
+    }
+
+    private static void set(long[] mask, int offset, int cell) {
+        mask[offset + (cell >>> 6)] |= 1L << cell;
+    }
+
+    private static void clear(long[] mask, int offset, int cell) {
+        mask[offset + (cell >>> 6)] &= ~(1L << cell);
+    }
+}
@@ -0,0 +1,177 @@
+package gui;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 画布棋盘
+ * Plateau dessiné sur un Canvas
+ *  GridPane + ImageView + bg.jpg 之外的另一种显示方式: 地板、墙、终点和棋子都直接画在一个 Canvas 上
+ *  Alternative à GridPane + ImageView + bg.jpg : sol, murs, points finaux et pions sont dessinés sur un seul Canvas
+ *      墙和终点从位棋盘中读取，所以读取的地图(不只是经典地图)也能正确显示
+ *      Les murs et les points finaux sont lus dans le bitboard : les cartes chargées (pas seulement la carte
+ *      classique) s'affichent correctement
+ *      棋子图片按屏幕缩放比例(DPI)预先缩放好并缓存，每种缩放比例只解码一次
+ *      Les images des pions sont pré-mises à l'échelle du facteur d'écran (DPI) et mises en cache,
+ *      décodées une seule fois par facteur
+ *      棋子移动后只重画起点和终点两个格子，不重画整个棋盘
+ *      Après un déplacement, seules les cases de départ et d'arrivée sont redessinées, pas tout le plateau
+ *  只能在 FX 线程中使用   À utiliser uniquement sur le thread FX
+ */
+public class BoardCanvas extends Canvas {
+
+    private static final String[] ROBOT_IMAGES = {"/gui/p1.jpg", "/gui/p2.jpg", "/gui/p3.jpg", "/gui/p4.jpg"};
+    private static final Color[] COLORS = {Color.CRIMSON, Color.FORESTGREEN, Color.GOLD, Color.ROYALBLUE};
+    private static final Color FLOOR = Color.rgb(236, 232, 222);
+    private static final Color GRID = Color.rgb(200, 194, 180);
+    private static final Color WALL = Color.rgb(60, 50, 40);
+    private static final Color BLOCKED = Color.rgb(120, 110, 100);
+
+    /**
+     * 预先缩放的棋子图片，键为像素大小   Images des pions pré-mises à l'échelle, clé : taille en pixels
+     */
+    private static final Map<Integer, Image[]> SPRITES = new HashMap<>();
+
+    private final BitBoard board;
+    /**
+     * 格子边长与边距(逻辑像素)   Côté d'une case et marge (pixels logiques)
+     */
+    private final double side;
+    private final double padding;
+    /**
+     * 墙的厚度的一半(每个格子只画自己那一半，重画一个格子不会擦掉邻居的墙)
+     * Demi-épaisseur d'un mur (chaque case ne dessine que sa moitié : redessiner une case n'efface pas le mur du voisin)
+     */
+    private final double wall;
+    /**
+     * 显示中的棋子位置  Position affichée des pions
+     */
+    private final int[] robotCells = new int[GameEngine.ROBOTS];
+    private Image[] sprites;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * @param board     位棋盘(只读取墙和终点)   bitboard (seuls les murs et points finaux sont lus)
+     * @param side      格子边长(逻辑像素)   côté d'une case (pixels logiques)
+     * @param padding   边距   marge
+     * @param robots    棋子的格子下标(红 绿 黄 蓝)   indices de case des pions (rouge vert jaune bleu)
+     */
+    public BoardCanvas(BitBoard board, double side, double padding, int[] robots) {
+        super(BitBoard.SIZE * side + 2 * padding, BitBoard.SIZE * side + 2 * padding);
+        this.board = board;
+        this.side = side;
+        this.padding = padding;
+        this.wall = Math.max(1, side / 16);
+        System.arraycopy(robots, 0, robotCells, 0, robotCells.length);
+        setScale(1);
+    }
+
+    /**
+     * 设置屏幕缩放比例(例如 Screen.getOutputScaleX())，换用对应大小的棋子图片并重画
+     * Fixe le facteur d'échelle de l'écran (par exemple Screen.getOutputScaleX()), prend les images
+     * de pion de la taille correspondante et redessine
+     */
+    public void setScale(double scale) {
+        sprites = sprites((int) Math.ceil(side * scale));
+        redraw();
+    }
+
+    /**
+     * 重画整个棋盘  Redessine tout le plateau
+     */
+    public void redraw() {
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.setFill(WALL);
+        gc.fillRect(0, 0, getWidth(), getHeight());
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            drawCell(gc, cell);
+        }
+    }
+
+    /**
+     * 棋子移动后只重画起点和终点   Après un déplacement, seuls le départ et l'arrivée sont redessinés
+     */
+    public void moveRobot(int robot, int from, int to) {
+        robotCells[robot] = to;
+        GraphicsContext gc = getGraphicsContext2D();
+        drawCell(gc, from);
+        drawCell(gc, to);
+    }
+
+    /**
+     * 画一个格子: 地板、终点、棋子以及这个格子一侧的墙
+     * Dessine une case : sol, point final, pion et la moitié des murs côté case
+     */
+    private void drawCell(GraphicsContext gc, int cell) {
+        double x = padding + BitBoard.col(cell) * side;
+        double y = padding + BitBoard.row(cell) * side;
+        boolean blocked = true;
+        for (int dir = 0; dir < 4 && blocked; dir++) {
+            blocked = !board.canMove(cell, dir);
+        }
+        gc.setFill(GRID);
+        gc.fillRect(x, y, side, side);
+        gc.setFill(blocked ? BLOCKED : FLOOR);
+        gc.fillRect(x + 0.5, y + 0.5, side - 1, side - 1);
+
+        int target = board.getTarget(cell);
+        if (target >= 0) {
+            double inset = side * 0.2;
+            gc.setFill(COLORS[target]);
+            gc.fillRoundRect(x + inset, y + inset, side - 2 * inset, side - 2 * inset, inset, inset);
+        }
+        for (int robot = 0; robot < robotCells.length; robot++) {
+            if (robotCells[robot] == cell) {
+                gc.drawImage(sprites[robot], x + 1, y + 1, side - 2, side - 2);
+            }
+        }
+
+        gc.setFill(WALL);
+        if (isWall(cell, BitBoard.UP)) {
+            gc.fillRect(x, y, side, wall);
+        }
+        if (isWall(cell, BitBoard.DOWN)) {
+            gc.fillRect(x, y + side - wall, side, wall);
+        }
+        if (isWall(cell, BitBoard.LEFT)) {
+            gc.fillRect(x, y, wall, side);
+        }
+        if (isWall(cell, BitBoard.RIGHT)) {
+            gc.fillRect(x + side - wall, y, wall, side);
+        }
+    }
+
+    /**
+     * 格子 dir 一侧的边上是否有墙(任意一边不能通过就算墙，墙可能是单向的)
+     * Y a-t-il un mur sur le bord dir de la case (un passage impossible dans un sens suffit, les murs peuvent être à sens unique)
+     */
+    private boolean isWall(int cell, int dir) {
+        if (!board.canMove(cell, dir)) {
+            return true;
+        }
+        return BitBoard.hasNeighbour(cell, dir) && !board.canMove(BitBoard.neighbour(cell, dir), dir ^ 1);
+    }
+
+    /**
+     * 获取(或解码)pixels 像素大小的棋子图片   Obtient (ou décode) les images de pion de pixels pixels
+     */
+    private static Image[] sprites(int pixels) {
+        return SPRITES.computeIfAbsent(pixels, size -> {
+            Image[] images = new Image[ROBOT_IMAGES.length];
+            for (int i = 0; i < images.length; i++) {
+                images[i] = new Image(BoardCanvas.class.getResourceAsStream(ROBOT_IMAGES[i]), size, size, true, true);
+            }
+            return images;
+        });
+    }
+}
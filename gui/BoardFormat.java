@@ -0,0 +1,233 @@
+package gui;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 地图文件格式
+ * Format des fichiers de carte
+ *  文本格式(.txt，可读可手写)，每行一条记录，# 开始的是注释:
+ *  Format texte (.txt, lisible et modifiable à la main), une entrée par ligne, # commence un commentaire :
+ *      wall 行 列 udlr        不允许从哪些方向进入该点，与 Boards 中 addObstacleToBoard 的编码相同
+ *      wall ligne colonne udlr  directions par lesquelles on ne peut pas entrer dans ce point, même codage que addObstacleToBoard
+ *      nospawn 行 列          棋子不能在该点刷新   un pion ne peut pas apparaître sur ce point
+ *      target 颜色 行 列       red/green/yellow/blue (或 0~3) 的终点   point final de la couleur (ou 0~3)
+ *  二进制格式(.bin): "RBB1" + BitBoard.BYTES 个字节的掩码，读取时直接填充位棋盘
+ *  Format binaire (.bin) : "RBB1" + BitBoard.BYTES octets de masques, lus directement dans le bitboard
+ */
+public class BoardFormat {
+
+    private static final int MAGIC = 0x52424231;  // "RBB1"
+
+    private static final String[] COLORS = {"red", "green", "yellow", "blue"};
+    private static final String CODES = "udlr";
+
+    /**
+     * --------------------------------------
+     * 构造器
+     * Constructeur
+     * --------------------------------------
+     */
+
+    private BoardFormat() {
+    }
+
+    /**
+     * 根据扩展名读取地图(.bin 为二进制，其他为文本)
+     * Lit une carte selon l'extension (.bin binaire, sinon texte)
+     * @throws IOException  读取失败或格式错误   échec de lecture ou format invalide
+     */
+    public static BitBoard load(File file) throws IOException {
+        if (file.getName().endsWith(".bin")) {
+            return readBinary(file);
+        }
+        try (Reader in = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return readText(in);
+        }
+    }
+
+    /**
+     * 根据扩展名保存地图(.bin 为二进制，其他为文本)
+     * Enregistre une carte selon l'extension (.bin binaire, sinon texte)
+     */
+    public static void save(BitBoard board, File file) throws IOException {
+        if (file.getName().endsWith(".bin")) {
+            writeBinary(board, file);
+            return;
+        }
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writeText(board, out);
+        }
+    }
+
+    /**
+     * 地图格式转换工具  Outil de conversion des cartes
+     *  用法  usage : java gui.BoardFormat 输入 entrée(文件 fichier | classic) 输出 sortie(.txt | .bin)
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: java gui.BoardFormat <input|classic> <output.txt|output.bin>");
+            return;
+        }
+        BitBoard board = "classic".equals(args[0]) ? Boards.classic() : load(new File(args[0]));
+        save(board, new File(args[1]));
+    }
+
+    /**
+     * --------------------------------------
+     * 文本格式  Format texte
+     * --------------------------------------
+     */
+
+    /**
+     * @throws IOException  读取失败或格式错误(包含行号)   échec de lecture ou format invalide (avec le numéro de ligne)
+     */
+    public static BitBoard readText(Reader reader) throws IOException {
+        BitBoard board = new BitBoard();
+        BufferedReader in = new BufferedReader(reader);
+        String line;
+        int number = 0;
+        while ((line = in.readLine()) != null) {
+            number++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            try {
+                switch (fields[0]) {
+                    case "wall":
+                        expect(fields, 4);
+                        addWall(board, cell(fields[1], fields[2]), fields[3]);
+                        break;
+                    case "nospawn":
+                        expect(fields, 3);
+                        board.setSpawnable(cell(fields[1], fields[2]), false);
+                        break;
+                    case "target":
+                        expect(fields, 4);
+                        board.setTarget(cell(fields[2], fields[3]), color(fields[1]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown entry '" + fields[0] + "'");
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Line " + number + ": " + e.getMessage(), e);
+            }
+        }
+        return board;
+    }
+
+    public static void writeText(BitBoard board, Writer writer) {
+        PrintWriter out = new PrintWriter(writer);
+        out.println("# wall row col udlr : cannot enter the cell moving up/down/left/right");
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            StringBuilder codes = new StringBuilder(4);
+            for (int dir = 0; dir < 4; dir++) {
+                // 只写地图内的墙，边界由 BitBoard 构造器生成  seuls les murs intérieurs, la bordure vient du constructeur
+                if (BitBoard.hasNeighbour(cell, dir ^ 1) && !board.canMove(BitBoard.neighbour(cell, dir ^ 1), dir)) {
+                    codes.append(CODES.charAt(dir));
+                }
+            }
+            if (codes.length() > 0) {
+                out.println("wall " + BitBoard.row(cell) + " " + BitBoard.col(cell) + " " + codes);
+            }
+        }
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            if (!board.isSpawnable(cell)) {
+                out.println("nospawn " + BitBoard.row(cell) + " " + BitBoard.col(cell));
+            }
+        }
+        for (int color = 0; color < COLORS.length; color++) {
+            for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+                if (board.isTarget(cell, color)) {
+                    out.println("target " + COLORS[color] + " " + BitBoard.row(cell) + " " + BitBoard.col(cell));
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private static void expect(String[] fields, int count) {
+        if (fields.length != count) {
+            throw new IllegalArgumentException("'" + fields[0] + "' needs " + (count - 1) + " values");
+        }
+    }
+
+    private static int cell(String row, String col) {
+        int r = Integer.parseInt(row);
+        int c = Integer.parseInt(col);
+        if (r < 0 || r >= BitBoard.SIZE || c < 0 || c >= BitBoard.SIZE) {
+            throw new IllegalArgumentException("cell " + r + " " + c + " is outside the board");
+        }
+        return BitBoard.cell(r, c);
+    }
+
+    private static int color(String value) {
+        for (int color = 0; color < COLORS.length; color++) {
+            if (COLORS[color].equalsIgnoreCase(value) || String.valueOf(color).equals(value)) {
+                return color;
+            }
+        }
+        throw new IllegalArgumentException("unknown color '" + value + "'");
+    }
+
+    private static void addWall(BitBoard board, int cell, String codes) {
+        for (int i = 0; i < codes.length(); i++) {
+            int dir = CODES.indexOf(codes.charAt(i));
+            if (dir < 0) {
+                throw new IllegalArgumentException("unknown wall code '" + codes.charAt(i) + "'");
+            }
+            board.setCanEnter(BitBoard.row(cell), BitBoard.col(cell), dir, false);
+        }
+    }
+
+    /**
+     * --------------------------------------
+     * 二进制格式  Format binaire
+     * --------------------------------------
+     */
+
+    public static BitBoard readBinary(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + BitBoard.BYTES);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // 读满为止  lire jusqu'à remplir
+            }
+            buffer.flip();
+            if (buffer.remaining() < Integer.BYTES + BitBoard.BYTES || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a board file: " + file);
+            }
+            return BitBoard.read(buffer);
+        }
+    }
+
+    public static void writeBinary(BitBoard board, File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + BitBoard.BYTES);
+        buffer.putInt(MAGIC);
+        board.write(buffer);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
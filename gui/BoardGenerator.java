@@ -0,0 +1,258 @@
+package gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * 地图生成器
+ * Générateur de cartes
+ *  和实体桌游一样由四块旋转的 8x8 象限组成:
+ *  Comme le jeu de plateau physique, la carte est formée de quatre quadrants 8x8 tournés :
+ *      - 每个象限有 4 个 L 形墙角，每个墙角放一个终点(四种颜色各一个，所以整张地图每种颜色 4 个终点)
+ *      - chaque quadrant a 4 coins de murs en L, chacun avec un point final (une couleur chacun,
+ *      soit 4 points finaux par couleur sur la carte)
+ *      - 每个象限在两条外边上各有一段墙   chaque quadrant a un mur sur chacun de ses deux bords extérieurs
+ *      - 象限靠近中心的格子被封住(对应经典地图的 7_7/7_8/8_7/8_8)
+ *      - la case du quadrant près du centre est bloquée (comme 7_7/7_8/8_7/8_8 de la carte classique)
+ *  生成后检查: 从随机抽取的出生点出发，棋子单独移动(不借助其他棋子)也能抵达每种颜色的至少一个终点，
+ *  所以每一回合都有解，否则换一个随机数重新生成
+ *  Vérification : depuis des points d'apparition tirés au hasard, un pion seul (sans s'appuyer sur les autres)
+ *  atteint au moins un point final de chaque couleur, chaque manche a donc une solution ; sinon la carte
+ *  est régénérée avec un autre tirage
+ *  相同的种子总是生成相同的地图   La même graine génère toujours la même carte
+ */
+public class BoardGenerator {
+
+    /**
+     * 象限边长  côté d'un quadrant
+     */
+    private static final int QUADRANT = BitBoard.SIZE / 2;
+    /**
+     * 每个象限的 L 形墙角数(每种颜色一个)   Nombre de coins en L par quadrant (un par couleur)
+     */
+    private static final int CORNERS = 4;
+    /**
+     * 顺时针旋转 90 度后的方向   Direction après une rotation de 90 degrés dans le sens horaire
+     */
+    private static final int[] ROTATE = {BitBoard.RIGHT, BitBoard.LEFT, BitBoard.UP, BitBoard.DOWN};
+
+    /**
+     * 检查可达性时抽取的出生点个数  Nombre de points d'apparition tirés pour la vérification
+     */
+    private int spawnSamples = 32;
+    /**
+     * 从出生点到终点允许的最大步数  Nombre maximal de pas autorisé d'un point d'apparition à un point final
+     */
+    private int maxMoves = 20;
+
+    /**
+     * 生成一张地图  Génère une carte
+     * @param seed  随机种子   graine aléatoire
+     * @return  通过可达性检查的新地图(没有棋子)   nouvelle carte validée (sans pion)
+     */
+    public BitBoard generate(long seed) {
+        Random random = new Random(seed);
+        while (true) {
+            BitBoard board = new BitBoard();
+            boolean placed = true;
+            for (int quadrant = 0; quadrant < 4 && placed; quadrant++) {
+                placed = addQuadrant(board, quadrant, random);
+            }
+            if (placed && isValid(board, random)) {
+                return board;
+            }
+        }
+    }
+
+    /**
+     * 并行生成 count 张地图，第 i 张使用种子 firstSeed + i (结果与线程数无关)
+     * Génère count cartes en parallèle, la i-ème avec la graine firstSeed + i (résultat indépendant du nombre de threads)
+     */
+    public List<BitBoard> generate(long firstSeed, int count) {
+        return LongStream.range(firstSeed, firstSeed + count)
+                .parallel()
+                .mapToObj(this::generate)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 在地图上放置一个象限  Place un quadrant sur la carte
+     *  先在左上角象限的坐标中生成，再顺时针旋转 quadrant 次
+     *  Généré dans les coordonnées du quadrant haut-gauche, puis tourné quadrant fois dans le sens horaire
+     * @return  墙角放不下时返回 false(重新生成整张地图)   false si les coins ne tiennent pas (toute la carte est régénérée)
+     */
+    private boolean addQuadrant(BitBoard board, int quadrant, Random random) {
+        // 中心格子: 四面都是墙，不能出生   case centrale : murs sur les quatre côtés, pas d'apparition
+        int center = BitBoard.cell(QUADRANT - 1, QUADRANT - 1);
+        for (int dir = 0; dir < 4; dir++) {
+            addWall(board, center, dir, quadrant);
+        }
+        board.setSpawnable(rotate(center, quadrant), false);
+
+        // 外边上的墙(上边和左边)   murs des bords extérieurs (haut et gauche)
+        addWall(board, BitBoard.cell(0, 2 + random.nextInt(QUADRANT - 4)), BitBoard.RIGHT, quadrant);
+        addWall(board, BitBoard.cell(2 + random.nextInt(QUADRANT - 4), 0), BitBoard.DOWN, quadrant);
+
+        // L 形墙角和终点   coins en L et points finaux
+        int[] colors = {0, 1, 2, 3};
+        for (int i = colors.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = colors[i];
+            colors[i] = colors[j];
+            colors[j] = swap;
+        }
+        int[] corners = new int[CORNERS];
+        for (int i = 0; i < CORNERS; i++) {
+            int cell;
+            int attempts = 0;
+            do {
+                if (++attempts > 64) {
+                    return false;
+                }
+                cell = BitBoard.cell(1 + random.nextInt(QUADRANT - 2), 1 + random.nextInt(QUADRANT - 2));
+            } while (!isFree(cell, corners, i));
+            corners[i] = cell;
+            addWall(board, cell, random.nextBoolean() ? BitBoard.UP : BitBoard.DOWN, quadrant);
+            addWall(board, cell, random.nextBoolean() ? BitBoard.LEFT : BitBoard.RIGHT, quadrant);
+            int target = rotate(cell, quadrant);
+            board.setTarget(target, colors[i]);
+            board.setSpawnable(target, false);
+        }
+        return true;
+    }
+
+    /**
+     * 墙角之间至少隔一格，并且不贴着中心格子
+     * Les coins sont séparés d'au moins une case et ne touchent pas la case centrale
+     */
+    private static boolean isFree(int cell, int[] corners, int count) {
+        int r = BitBoard.row(cell);
+        int c = BitBoard.col(cell);
+        if (r >= QUADRANT - 2 && c >= QUADRANT - 2) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (Math.abs(BitBoard.row(corners[i]) - r) < 2 && Math.abs(BitBoard.col(corners[i]) - c) < 2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 在左上角象限坐标 cell 的 dir 一侧加一面(双向的)墙，旋转后写入地图
+     * Ajoute un mur (dans les deux sens) du côté dir de la case cell du quadrant haut-gauche, après rotation
+     */
+    private static void addWall(BitBoard board, int cell, int dir, int quadrant) {
+        cell = rotate(cell, quadrant);
+        for (int i = 0; i < quadrant; i++) {
+            dir = ROTATE[dir];
+        }
+        if (!BitBoard.hasNeighbour(cell, dir)) {
+            return;
+        }
+        int neighbour = BitBoard.neighbour(cell, dir);
+        board.setCanEnter(BitBoard.row(neighbour), BitBoard.col(neighbour), dir, false);
+        board.setCanEnter(BitBoard.row(cell), BitBoard.col(cell), dir ^ 1, false);
+    }
+
+    /**
+     * 顺时针旋转 90 度 times 次: (r, c) -> (c, 15 - r)
+     * Rotation de 90 degrés dans le sens horaire, times fois : (r, c) -> (c, 15 - r)
+     */
+    private static int rotate(int cell, int times) {
+        for (int i = 0; i < times; i++) {
+            cell = BitBoard.cell(BitBoard.col(cell), BitBoard.SIZE - 1 - BitBoard.row(cell));
+        }
+        return cell;
+    }
+
+    /**
+     * 可达性检查: 从抽取的每个出生点出发，棋子单独移动时每种颜色都有一个终点能在 maxMoves 步内抵达
+     * Vérification : depuis chaque point d'apparition tiré, un pion seul atteint un point final de chaque couleur en maxMoves pas
+     */
+    private boolean isValid(BitBoard board, Random random) {
+        SlideTable slideTable = new SlideTable(board);
+        byte[] distances = new byte[BitBoard.CELLS];
+        int[] queue = new int[BitBoard.CELLS];
+        for (int sample = 0; sample < spawnSamples; sample++) {
+            int spawn;
+            do {
+                spawn = random.nextInt(BitBoard.CELLS);
+            } while (!board.isSpawnable(spawn));
+
+            // 单个棋子的广度优先搜索(最多 256 个状态)   recherche en largeur d'un pion seul (256 états au plus)
+            Arrays.fill(distances, (byte) -1);
+            distances[spawn] = 0;
+            queue[0] = spawn;
+            int tail = 1;
+            for (int head = 0; head < tail; head++) {
+                int cell = queue[head];
+                if (distances[cell] >= maxMoves) {
+                    continue;
+                }
+                for (int dir = 0; dir < 4; dir++) {
+                    int stop = slideTable.wallStop(cell, dir);
+                    if (distances[stop] < 0) {
+                        distances[stop] = (byte) (distances[cell] + 1);
+                        queue[tail++] = stop;
+                    }
+                }
+            }
+            int colors = 0;
+            for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+                int color = board.getTarget(cell);
+                if (color >= 0 && distances[cell] >= 0) {
+                    colors |= 1 << color;
+                }
+            }
+            if (colors != (1 << GameEngine.ROBOTS) - 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getSpawnSamples() {
+        return spawnSamples;
+    }
+
+    public void setSpawnSamples(int spawnSamples) {
+        this.spawnSamples = spawnSamples;
+    }
+
+    public int getMaxMoves() {
+        return maxMoves;
+    }
+
+    /**
+     * @param maxMoves  不超过 127   au plus 127
+     */
+    public void setMaxMoves(int maxMoves) {
+        this.maxMoves = Math.min(maxMoves, Byte.MAX_VALUE);
+    }
+
+    /**
+     * 生成地图库  Génère une bibliothèque de cartes
+     *  用法  usage : java gui.BoardGenerator 数量 nombre 输出 sortie.rbl [种子 graine]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: java gui.BoardGenerator <count> <library.rbl> [seed]");
+            return;
+        }
+        int count = Integer.parseInt(args[0]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        BoardGenerator generator = new BoardGenerator();
+        long start = System.nanoTime();
+        List<BitBoard> boards = generator.generate(seed, count);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        BoardLibrary.write(new File(args[1]), boards);
+        System.out.printf("%d boards in %.2f s (%.0f boards/sec)%n", count, seconds, count / seconds);
+    }
+}
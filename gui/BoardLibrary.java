@@ -0,0 +1,112 @@
+package gui;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 地图库
+ * Bibliothèque de cartes
+ *  一个文件保存成千上万张地图，使用内存映射，按编号直接打开某一张地图而不需要解析整个文件
+ *  Un fichier contient des milliers de cartes, mappé en mémoire : une carte s'ouvre par son numéro
+ *  sans analyser tout le fichier
+ *      文件头: "RBL1"、记录大小、地图数量   en-tête : "RBL1", taille d'un enregistrement, nombre de cartes
+ *      之后是定长记录(BitBoard.BYTES 字节)，编号 id 的记录位于 HEADER + id * BitBoard.BYTES
+ *      puis des enregistrements de taille fixe (BitBoard.BYTES octets), l'enregistrement id est à HEADER + id * BitBoard.BYTES
+ *  打开后可以被多个线程同时读取   Une fois ouverte, elle peut être lue par plusieurs threads en même temps
+ */
+public class BoardLibrary implements Closeable {
+
+    private static final int MAGIC = 0x52424C31;  // "RBL1"
+    private static final int HEADER = 3 * Integer.BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int size;
+
+    /**
+     * --------------------------------------
+     * 构造器
+     * Constructeur
+     * --------------------------------------
+     */
+
+    private BoardLibrary(FileChannel channel, MappedByteBuffer buffer, int size) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * 打开地图库(只映射，不读取地图)
+     * Ouvre la bibliothèque (mappage seulement, aucune carte n'est lue)
+     * @throws IOException  读取失败或格式错误   échec de lecture ou format invalide
+     */
+    public static BoardLibrary open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long length = channel.size();
+            if (length < HEADER) {
+                throw new IOException("Not a board library: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != BitBoard.BYTES) {
+                throw new IOException("Not a board library: " + file);
+            }
+            int size = buffer.getInt(2 * Integer.BYTES);
+            if (size < 0 || HEADER + (long) size * BitBoard.BYTES > length) {
+                throw new IOException("Truncated board library: " + file);
+            }
+            return new BoardLibrary(channel, buffer, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 写出地图库  Écrit une bibliothèque de cartes
+     */
+    public static void write(File file, List<BitBoard> boards) throws IOException {
+        long length = HEADER + (long) boards.size() * BitBoard.BYTES;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            out.putInt(MAGIC);
+            out.putInt(BitBoard.BYTES);
+            out.putInt(boards.size());
+            for (BitBoard board : boards) {
+                board.write(out);
+            }
+            out.force();
+        }
+    }
+
+    /**
+     * 按编号读取地图  Lit une carte par son numéro
+     * @param id    地图编号 [0, size)   numéro de carte [0, size)
+     * @return  新的位棋盘(没有棋子)   nouveau bitboard (sans pion)
+     */
+    public BitBoard get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Board " + id + " of " + size);
+        }
+        ByteBuffer record = buffer.duplicate();
+        record.position(HEADER + id * BitBoard.BYTES);
+        return BitBoard.read(record);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,261 @@
+package gui;
+
+/**
+ * 地图类
+ * Classe des cartes
+ *  保存游戏使用的地图定义(墙、非出生点、终点)，生成 GameEngine 使用的位棋盘
+ *  Contient les définitions des cartes du jeu (murs, points non-spawn, points finaux)
+ *  et construit le bitboard utilisé par GameEngine
+ */
+public class Boards {
+
+    /**
+     * --------------------------------------
+     * 构造器
+     * Constructeur
+     * --------------------------------------
+     */
+
+    private Boards() {
+    }
+
+    /**
+     * 经典地图(游戏默认使用的地图)
+     * Carte classique (carte utilisée par défaut par le jeu)
+     * @return  新的位棋盘(没有棋子)   nouveau bitboard (sans pion)
+     */
+    public static BitBoard classic() {
+        BitBoard board = new BitBoard();
+        initObstacle(board);        //mur
+        initNonBirthPoint(board);   //place can not birth
+        initFinalPoint(board);      //final point
+        return board;
+    }
+
+    /**
+     * 初始化终点集合  Initialiser la collection de points de terminaison
+     *  将终点信息标记到 位棋盘中 Marquez les informations de fin dans le bitboard
+     */
+    private static void initFinalPoint(BitBoard board) {
+        // red 0
+        addFinalPointToBoard(board, 0, 4, 2);
+        addFinalPointToBoard(board, 0, 3, 11);
+        addFinalPointToBoard(board, 0, 14, 4);
+        addFinalPointToBoard(board, 0, 11, 12);
+        // green 1
+        addFinalPointToBoard(board, 1, 5, 4);
+        addFinalPointToBoard(board, 1, 6, 10);
+        addFinalPointToBoard(board, 1, 12, 1);
+        addFinalPointToBoard(board, 1, 11, 13);
+        // yellow 2
+        addFinalPointToBoard(board, 2, 2, 3);
+        addFinalPointToBoard(board, 2, 1, 9);
+        addFinalPointToBoard(board, 2, 9, 3);
+        addFinalPointToBoard(board, 2, 9, 10);
+        // blue 3
+        addFinalPointToBoard(board, 3, 3, 5);
+        addFinalPointToBoard(board, 3, 5, 14);
+        addFinalPointToBoard(board, 3, 11, 6);
+        addFinalPointToBoard(board, 3, 13, 9);
+    }
+
+    /**
+     * 将终点信息标记到位棋盘的辅助方法
+     * Méthode d'assistance pour marquer les informations de point final sur le bitboard
+     * @param finalPoint    终点值 valeur finale
+     * @param r 行号  numéro de ligne
+     * @param c 列号  numéro de colonne
+     */
+    private static void addFinalPointToBoard(BitBoard board, int finalPoint, int r, int c) {
+        board.setTarget(BitBoard.cell(r, c), finalPoint);
+    }
+
+    /**
+     * 初始化障碍物  Initialiser les obstacles
+     *  1. 地图四周的不可通行点由 BitBoard 构造器设置      1. Les points infranchissables autour de la carte sont posés par le constructeur de BitBoard
+     *  2. 一行一行设置不可通行的障碍物点，写入位棋盘      Définissez les points d'obstacles infranchissables ligne par ligne et écrivez-les dans le bitboard
+     */
+    private static void initObstacle(BitBoard board) {       //有墙的格子     treillis avec murs
+        // 包围棋盘的墙已经由 BitBoard 构造器设置，robot无法走出去
+        // Le mur qui entoure le plateau est déjà posé par le constructeur de BitBoard, le robot ne peut pas sortir
+
+        // row 0
+        board.addObstacle(new Obstacle(0, 5, true, true, false, true, false));
+        board.addObstacle(new Obstacle(0, 6, true, true, true, false, false));
+
+        board.addObstacle(new Obstacle(0, 11, true, true, false, true, false));
+        board.addObstacle(new Obstacle(0, 12, true, true, true, false, false));
+        // row 1
+        board.addObstacle(new Obstacle(1, 3, false, true, true, true, false));
+
+        board.addObstacle(new Obstacle(1, 9, false, true, false, true, false));
+        board.addObstacle(new Obstacle(1, 10, true, true, true, false, false));
+        // row 2
+        board.addObstacle(new Obstacle(2, 2, true, true, false, true, false));
+        board.addObstacle(new Obstacle(2, 3, true, false, true, false, false));
+
+        board.addObstacle(new Obstacle(2, 9, true, false, true, true, false));
+
+        board.addObstacle(new Obstacle(2, 15, false, true, true, true, false));
+        // row 3
+        board.addObstacle(new Obstacle(3, 0, false, true, true, true, false));
+
+        board.addObstacle(new Obstacle(3, 2, false, true, true, true, false));
+
+        board.addObstacle(new Obstacle(3, 4, true, true, false, true, false));
+        board.addObstacle(new Obstacle(3, 5, false, true, true, false, false));
+
+        board.addObstacle(new Obstacle(3, 10, true, true, false, true, false));
+        board.addObstacle(new Obstacle(3, 11, false, true, true, false, false));
+
+        board.addObstacle(new Obstacle(3, 15, true, false, true, true, false));
+        // row 4
+        board.addObstacle(new Obstacle(4, 0, true, false, true, true, false));
+
+        board.addObstacle(new Obstacle(4, 2, true, false, false, true, false));
+        board.addObstacle(new Obstacle(4, 3, true, true, true, false, false));
+
+        board.addObstacle(new Obstacle(4, 5, true, false, true, true, false));
+
+        board.addObstacle(new Obstacle(4, 11, true, false, true, true, false));
+
+        board.addObstacle(new Obstacle(4, 14, false, true, true, true, false));
+        // row 5
+        board.addObstacle(new Obstacle(5, 4, false, true, false, true, false));
+
+        board.addObstacle(new Obstacle(5, 10, false, true, true, true, false));
+
+        board.addObstacle(new Obstacle(5, 13, true, true, false, true, false));
+        board.addObstacle(new Obstacle(5, 14, true, false, true, false, false));
+        // row 6
+        addObstacleToBoard(board, 6, 4,"d");
+
+        addObstacleToBoard(board, 6, 10, "dl");
+        addObstacleToBoard(board, 6, 11, "r");
+        // row 7
+        addObstacleToBoard(board, 7, 7, "udlr");
+        addObstacleToBoard(board, 7, 8, "udlr");
+
+        addObstacleToBoard(board, 7, 12, "l");
+        addObstacleToBoard(board, 7, 13, "ru");
+        // row 8
+        addObstacleToBoard(board, 8, 3, "u");
+
+        addObstacleToBoard(board, 8, 7, "udlr");
+        addObstacleToBoard(board, 8, 8, "udlr");
+        addObstacleToBoard(board, 8, 13, "d");
+        // row 9
+        addObstacleToBoard(board, 9, 3, "dl");
+        addObstacleToBoard(board, 9, 4, "r");
+
+        addObstacleToBoard(board, 9, 10, "ul");
+        addObstacleToBoard(board, 9, 11, "r");
+        // row 10
+        addObstacleToBoard(board, 10, 6, "u");
+
+        addObstacleToBoard(board, 10 , 10, "d");
+
+        addObstacleToBoard(board, 10, 12, "u");
+        // row 11
+        addObstacleToBoard(board, 11, 5, "l");
+        addObstacleToBoard(board, 11, 6,"rd");
+
+        addObstacleToBoard(board, 11, 12, "dl");
+        addObstacleToBoard(board, 11,13,"ru");
+        // row 12
+        addObstacleToBoard(board, 12, 0 ,"l");
+        addObstacleToBoard(board, 12,1,"ru");
+
+        addObstacleToBoard(board, 12, 9,"udlr");
+
+        addObstacleToBoard(board, 12,15,"u");
+        // row 13
+        addObstacleToBoard(board, 13,0,"u");
+
+        addObstacleToBoard(board, 13, 1, "d");
+
+        addObstacleToBoard(board, 13,8,"l");
+        addObstacleToBoard(board, 13,9,"rd");
+
+        addObstacleToBoard(board, 13,15,"d");
+        // row 14
+        addObstacleToBoard(board, 14,0,"d");
+
+        addObstacleToBoard(board, 14,4,"lu");
+        addObstacleToBoard(board, 14,5,"r");
+
+        addObstacleToBoard(board, 14,11,"udlr");
+        // row 15
+        addObstacleToBoard(board, 15,4,"d");
+
+        addObstacleToBoard(board, 15,6,"l");
+        addObstacleToBoard(board, 15,7,"r");
+
+        addObstacleToBoard(board, 15,10,"l");
+        addObstacleToBoard(board, 15,11,"r");
+
+
+
+    }
+
+    /**
+     * 初始化非出生点     Initialiser les points non-spawn
+     *  将不允许棋子刷新的位置点标记到位棋盘中     Marquez dans le bitboard les points de position qui ne permettent pas au pion de se rafraîchir
+     */
+    private static void initNonBirthPoint(BitBoard board) {
+        board.setSpawnable(BitBoard.cell(1, 9), false);
+        board.setSpawnable(BitBoard.cell(2, 3), false);
+        board.setSpawnable(BitBoard.cell(3, 5), false);
+        board.setSpawnable(BitBoard.cell(3, 11), false);
+        board.setSpawnable(BitBoard.cell(4, 2), false);
+        board.setSpawnable(BitBoard.cell(5, 4), false);
+        board.setSpawnable(BitBoard.cell(5, 14), false);
+        board.setSpawnable(BitBoard.cell(6, 10), false);
+        board.setSpawnable(BitBoard.cell(7, 7), false);
+        board.setSpawnable(BitBoard.cell(7, 8), false);
+        board.setSpawnable(BitBoard.cell(7, 13), false);
+        board.setSpawnable(BitBoard.cell(8, 7), false);
+        board.setSpawnable(BitBoard.cell(8, 8), false);
+        board.setSpawnable(BitBoard.cell(9, 3), false);
+        board.setSpawnable(BitBoard.cell(9, 10), false);
+        board.setSpawnable(BitBoard.cell(11, 6), false);
+        board.setSpawnable(BitBoard.cell(11, 12), false);
+        board.setSpawnable(BitBoard.cell(11, 13), false);
+        board.setSpawnable(BitBoard.cell(12, 1), false);
+        board.setSpawnable(BitBoard.cell(12, 9), false);
+        board.setSpawnable(BitBoard.cell(13, 9), false);
+        board.setSpawnable(BitBoard.cell(14, 4), false);
+        board.setSpawnable(BitBoard.cell(14, 11), false);
+    }
+
+    /**
+     * 添加障碍物点到位棋盘的辅助方法
+     * Méthode d'assistance pour ajouter des points d'obstacle au bitboard
+     * @param row   行号  numéro de ligne
+     * @param col   列号  numéro de colonne
+     * @param re    不允许进入该点的方式 字符串 (包含该点是否为棋子)
+     *              Chemins non autorisés à saisir le point Chaîne (contient si le point est un pion)
+     *              - u : 不允许下方点直接抵达该点  Le point ci-dessous n'est pas autorisé à aller directement à ce point
+     *              - d : 不允许上方点直接抵达该点  Le point ci-dessus n'est pas autorisé à atteindre le point directement
+     *              - l : 不允许右方点直接抵达该点  Le point de droite n'est pas autorisé à aller directement à ce point
+     *              - r : 不允许左方点直接抵达该点  Le point de gauche n'est pas autorisé à aller directement à ce point
+     *              - c : 标记该点有棋子       Marquez le point avec un pion
+     */
+    private static void addObstacleToBoard(BitBoard board, int row, int col, String re) {
+        boolean l = true, r = true, u = true, d = true, chess = false;
+        for (int i = 0; i < re.length(); i++) {
+            if (re.charAt(i) == 'l') {
+                l = false;
+            } else if (re.charAt(i) == 'r') {
+                r = false;
+            } else if (re.charAt(i) == 'u') {
+                u = false;
+            } else if (re.charAt(i) == 'd') {
+                d = false;
+            } else if (re.charAt(i) == 'c') {
+                chess = true;
+            }
+        }
+        board.addObstacle(new Obstacle(row, col, u, d, l, r, chess));
+    }
+}
@@ -0,0 +1,235 @@
+package gui;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 电脑玩家
+ * Joueur ordinateur
+ *  与人类玩家一样是引擎玩家列表中的一个 Player，监听引擎事件，自己输入步数并移动棋子
+ *  Un Player de la liste du moteur comme un joueur humain : il écoute les événements du moteur,
+ *  saisit lui-même ses pas et déplace le pion
+ *      回合开始时在后台线程中进行随时可中断的搜索(BotSearch)，在时间预算内不断改进已知的最好解
+ *      Au début de la manche, une recherche interruptible à tout moment (BotSearch) tourne dans un thread
+ *      d'arrière-plan et améliore la meilleure solution connue jusqu'à la fin du budget
+ *      轮到自己时出价为最好解的步数(没有解时出 PASS_BID)，轮到自己操作时每隔 moveMillis 执行一步
+ *      À son tour d'enchérir il annonce la longueur de sa meilleure solution (PASS_BID sans solution),
+ *      à son tour de jouer il exécute un coup toutes les moveMillis
+ *      难度对应搜索时间预算和最大搜索深度   la difficulté correspond au budget de temps et à la profondeur maximale
+ *  搜索不在引擎线程中进行，不会阻塞界面和回合倒计时；引擎操作都通过 callback 交回引擎线程
+ *  La recherche ne tourne jamais sur le thread du moteur : ni l'interface ni le compte à rebours ne sont bloqués ;
+ *  les actions sur le moteur repassent par callback sur le thread du moteur
+ *      callback 必须是异步的(Platform::runLater、会话的 SerialExecutor)，不能在监听器中直接操作引擎
+ *      callback doit être asynchrone (Platform::runLater, SerialExecutor d'une session) : le moteur
+ *      n'est jamais appelé depuis un écouteur
+ */
+public class BotPlayer extends Player implements GameEngine.OnGameListener {
+
+    /**
+     * 难度  Difficulté
+     */
+    public enum Difficulty {
+        EASY(20, 4),
+        NORMAL(100, 8),
+        HARD(400, 14),
+        EXPERT(1500, Solver.DEFAULT_MAX_DEPTH);
+
+        /**
+         * 每个回合的搜索时间(毫秒)与最大搜索深度   Temps de recherche par manche (ms) et profondeur maximale
+         */
+        private final long budgetMillis;
+        private final int maxDepth;
+
+        Difficulty(long budgetMillis, int maxDepth) {
+            this.budgetMillis = budgetMillis;
+            this.maxDepth = maxDepth;
+        }
+
+        public long getBudgetMillis() {
+            return budgetMillis;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+    }
+
+    /**
+     * 没有找到解时的出价(排在最后，轮到时直接放弃)   Enchère sans solution (jouée en dernier, abandon à son tour)
+     */
+    public static final int PASS_BID = Solver.DEFAULT_MAX_DEPTH + 1;
+    public static final long DEFAULT_MOVE_MILLIS = 300;
+
+    /**
+     * 所有电脑玩家共用的搜索线程池(每个处理器核心一个线程)，几个电脑玩家的搜索同时进行
+     * Pool de recherche partagé par tous les joueurs ordinateur (un thread par cœur), les recherches
+     * de plusieurs joueurs tournent en même temps
+     */
+    private static final ExecutorService SEARCH = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "bot-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final GameEngine engine;
+    private final Difficulty difficulty;
+    private final Executor callback;
+    private final TimingWheel wheel;
+    private final long moveMillis;
+    /**
+     * 只在搜索线程中使用   Utilisée seulement dans le thread de recherche
+     */
+    private final BotSearch searcher;
+
+    /**
+     * 以下字段只在引擎线程中使用   Champs suivants utilisés seulement dans le thread du moteur
+     *  generation : 每个回合、每次操作开始加一，用来丢弃过期的搜索结果和移动
+     *  generation : incrémenté à chaque manche et à chaque tour de jeu, pour ignorer résultats et coups périmés
+     */
+    private int generation;
+    private Solution plan;
+    private boolean thought;
+    private Future<?> thinking;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    public BotPlayer(String name, GameEngine engine, Difficulty difficulty, Executor callback) {
+        this(name, engine, difficulty, callback, TimingWheel.shared(), DEFAULT_MOVE_MILLIS);
+    }
+
+    /**
+     * 创建电脑玩家并注册为引擎的监听器(在引擎线程中调用)
+     * Crée le joueur et l'enregistre comme écouteur du moteur (à appeler dans le thread du moteur)
+     * @param callback      在引擎线程中执行出价和移动(必须异步)   exécute enchères et coups dans le thread du moteur (asynchrone)
+     * @param wheel         移动之间的间隔使用的时间轮   roue temporelle pour espacer les coups
+     * @param moveMillis    两步之间的间隔(毫秒)   intervalle entre deux coups (ms)
+     */
+    public BotPlayer(String name, GameEngine engine, Difficulty difficulty, Executor callback,
+                     TimingWheel wheel, long moveMillis) {
+        setName(name);
+        this.engine = engine;
+        this.difficulty = difficulty;
+        this.callback = callback;
+        this.wheel = wheel;
+        this.moveMillis = moveMillis;
+        this.searcher = new BotSearch(engine.getBoard(), engine.getSlideTable());
+        engine.addListener(this);
+    }
+
+    /**
+     * --------------------------------------
+     * 引擎事件(引擎线程)  Événements du moteur (thread du moteur)
+     * --------------------------------------
+     */
+
+    @Override
+    public void onRoundStarted(int robot, Player firstBidder) {
+        int current = ++generation;
+        plan = null;
+        thought = false;
+        cancelSearch();
+        if (!engine.getPlayers().contains(this)) {
+            return;
+        }
+        int robots = engine.getRobots();
+        thinking = SEARCH.submit(() -> {
+            // 预算从搜索开始时计算，排队等待的时间不算   le budget part du début de la recherche, pas de l'attente
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(difficulty.budgetMillis);
+            Solution best = searcher.search(robots, robot, difficulty.maxDepth, deadline);
+            callback.execute(() -> {
+                if (generation == current) {
+                    plan = best;
+                    thought = true;
+                    bidIfMyTurn();
+                }
+            });
+        });
+    }
+
+    @Override
+    public void onBidRequested(Player player) {
+        if (player == this) {
+            callback.execute(this::bidIfMyTurn);
+        }
+    }
+
+    @Override
+    public void onTurnStarted(Player player) {
+        int current = ++generation;
+        if (player != this) {
+            return;
+        }
+        if (plan == null || plan.length() > getSteps()) {
+            callback.execute(() -> {
+                if (generation == current) {
+                    engine.timeout();
+                }
+            });
+            return;
+        }
+        scheduleMove(current, 0);
+    }
+
+    @Override
+    public void onGameOver(List<Player> ranking) {
+        generation++;
+        plan = null;
+        cancelSearch();
+    }
+
+    /**
+     * 轮到自己出价并且已经有搜索结果时出价   Enchérit si c'est son tour et que la recherche a abouti
+     */
+    private void bidIfMyTurn() {
+        if (!thought || engine.getPhase() != GameEngine.Phase.BIDDING) {
+            return;
+        }
+        int next = engine.getCurrentPlayerIndex() + 1;
+        if (next < engine.getPlayers().size() && engine.getPlayers().get(next) == this) {
+            engine.submitBid(plan != null ? plan.length() : PASS_BID);
+        }
+    }
+
+    /**
+     * moveMillis 之后执行计划中的第 i 步   Exécute le coup i du plan après moveMillis
+     */
+    private void scheduleMove(int current, int i) {
+        wheel.schedule(() -> {
+            if (generation != current || engine.getCurrentPlayer() != this || plan == null || i >= plan.length()) {
+                return;
+            }
+            engine.move(plan.getDirection(i));
+            // 到达终点后进入新的回合，generation 已经改变   à l'arrivée une nouvelle manche commence, generation a changé
+            scheduleMove(current, i + 1);
+        }, moveMillis, TimeUnit.MILLISECONDS, callback);
+    }
+
+    private void cancelSearch() {
+        if (thinking != null) {
+            thinking.cancel(true);
+            thinking = null;
+        }
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * 停止当前的搜索和移动，不再监听引擎   Arrête recherche et coups, n'écoute plus le moteur
+     */
+    public void shutdown() {
+        generation++;
+        cancelSearch();
+        engine.removeListener(this);
+    }
+}
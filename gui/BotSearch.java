@@ -0,0 +1,95 @@
+package gui;
+
+import java.util.Arrays;
+
+/**
+ * 电脑玩家的搜索
+ * Recherche des joueurs ordinateur
+ *  随时可中断的搜索(anytime): 先用贪心走法得到一个解，再用一次比它更短的广度优先搜索找最优解，
+ *  截止时间到达时返回已知的最好解
+ *  Recherche interruptible à tout moment (anytime) : une marche gloutonne donne d'abord une solution,
+ *  puis une seule recherche en largeur limitée à une solution plus courte cherche l'optimum ; à l'échéance
+ *  la meilleure solution connue est renvoyée
+ *      BotPlayer 在后台线程中使用，Tournament 在每个工作线程中同步使用
+ *      Utilisée par BotPlayer dans un thread d'arrière-plan, et de façon synchrone par chaque thread de Tournament
+ *  不是线程安全的(内部的 Solver 不是)   N'est pas thread-safe (le Solver interne ne l'est pas)
+ */
+public class BotSearch {
+
+    private final BitBoard board;
+    private final Solver solver;
+
+    /**
+     * @param board         地图(只读取终点)   carte (seuls les points finaux sont lus)
+     * @param slideTable    该地图的滑动终点表，可以共用   table des glissades de la carte, partageable
+     */
+    public BotSearch(BitBoard board, SlideTable slideTable) {
+        this.board = board;
+        this.solver = new Solver(board, slideTable);
+    }
+
+    /**
+     * 搜索当前棋子抵达同颜色终点的解
+     * Cherche une solution pour que le pion courant atteigne un point final de sa couleur
+     * @param maxDepth  最大步数   nombre maximum de pas
+     * @param deadline  System.nanoTime() 的截止时刻，0 表示不限时   échéance System.nanoTime(), 0 pour aucune limite
+     * @return  已知的最好解，在 maxDepth 步内没有找到时返回 null   meilleure solution connue, null si aucune
+     *          n'a été trouvée en maxDepth pas
+     */
+    public Solution search(int robots, int robot, int maxDepth, long deadline) {
+        Solution best = greedy(robots, robot, maxDepth);
+        // 广度优先搜索按层进行，找到的第一个解就是最优解，只需要找比贪心解更短的
+        // la recherche en largeur avance par couches, la première solution trouvée est optimale ;
+        // seule une solution plus courte que la solution gloutonne est cherchée
+        int depth = best != null ? Math.min(maxDepth, best.length() - 1) : maxDepth;
+        if (depth < 1) {
+            return best;
+        }
+        solver.setDeadline(deadline);
+        solver.setMaxDepth(depth);
+        Solution solution = solver.solve(robots, robot);
+        return solution != null && !solver.isCancelled() ? solution : best;
+    }
+
+    /**
+     * 贪心走法: 每一步走到离终点(只考虑墙)最近且没有到过的格子
+     * Marche gloutonne : chaque coup va vers la case non visitée la plus proche de l'arrivée (murs seulement)
+     */
+    private Solution greedy(int robots, int robot, int maxDepth) {
+        DistanceMap distances = solver.getColorDistances(robot);
+        SlideTable slideTable = solver.getSlideTable();
+        byte[] moves = new byte[maxDepth];
+        long[] seen = new long[BitBoard.CELLS / 64];
+        int state = robots;
+        int cell = Solver.cellOf(state, robot);
+        seen[cell >> 6] |= 1L << cell;
+        for (int length = 0; length < moves.length; length++) {
+            int bestDir = -1;
+            int bestCell = cell;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int dir = 0; dir < 4; dir++) {
+                int to = slideTable.slide(cell, dir, state);
+                if (to == cell || (seen[to >> 6] & 1L << to) != 0) {
+                    continue;
+                }
+                if (board.getTarget(to) == robot) {
+                    moves[length] = Solution.encode(robot, dir);
+                    return new Solution(Arrays.copyOf(moves, length + 1));
+                }
+                if (distances.get(to) < bestDistance) {
+                    bestDistance = distances.get(to);
+                    bestDir = dir;
+                    bestCell = to;
+                }
+            }
+            if (bestDir < 0) {
+                return null;
+            }
+            moves[length] = Solution.encode(robot, bestDir);
+            cell = bestCell;
+            state = Solver.withCell(state, robot, cell);
+            seen[cell >> 6] |= 1L << cell;
+        }
+        return null;
+    }
+}
@@ -1,6 +1,7 @@
 package gui;
 
 
+import javafx.animation.TranslateTransition;
 import javafx.scene.image.ImageView;
 
 /**
@@ -16,24 +17,30 @@ public class Chess {
      * ImageVue du pion
      *  显示在游戏地图中的棋子图片
      *  Image des pièces affichées sur la carte du jeu
-     *  便于操作棋子图片移动，和设置图片的附加属性(setUserData)
-     *  Il est facile de manipuler le mouvement de l'image de la pièce d'échecs et de définir
-     *  les propriétés supplémentaires de l'image (setUserData)
-     *      setUserData(Object o):
-     *          给ImageView添加附加属性，这里我添加了一共String属性
-     *          Ajouter des propriétés supplémentaires à ImageView, ici j'ajoute un total de propriétés String
-     *          用于存储当前棋子所在的位置 格式为 "rol_column"
-     *          Utilisé pour stocker la position du pion courant au format "rol_column"
      */
     private ImageView imageView;
     /**
-     * 棋子最开始的位置 格式为 “row_column”
-     * La position de départ du pion au format "rol_column"
+     * 棋子当前所在的格子(BitBoard.cell)
+     * Case actuelle du pion (BitBoard.cell)
+     *  只在显示时才转换为 "row_column" 字符串(Obstacle.getR_C)
+     *  Convertie en chaîne "row_column" seulement pour l'affichage (Obstacle.getR_C)
+     */
+    private int cell;
+    /**
+     * 棋子本回合开始时的格子(BitBoard.cell)
+     * Case du pion au début du tour (BitBoard.cell)
      *  记录生成时的棋子位置，当玩家操作结束后便于回到原始位置
      *  Enregistrez la position de la pièce d'échecs lorsqu'elle est générée,
      *  et il est pratique de revenir à la position d'origine lorsque le joueur termine l'opération
      */
-    private String originRC;
+    private int originCell;
+    /**
+     * 棋子的滑动动画(只改变 translateX/Y，不触发布局)
+     * Animation de glissade du pion (modifie seulement translateX/Y, sans passe de mise en page)
+     *  同一个对象重复使用，新的移动开始时停止上一个动画
+     *  Le même objet est réutilisé, l'animation précédente s'arrête quand un nouveau déplacement commence
+     */
+    private TranslateTransition transition;
 
     /**
      * --------------------------------------
@@ -42,9 +49,10 @@ public class Chess {
      * --------------------------------------
      */
 
-    public Chess(ImageView imageView, String originRC) {
+    public Chess(ImageView imageView, int cell) {
         this.imageView = imageView;
-        this.originRC = originRC;
+        this.cell = cell;
+        this.originCell = cell;
     }
 
     public Chess(ImageView imageView) {
@@ -68,11 +76,27 @@ public class Chess {
         this.imageView = imageView;
     }
 
-    public String getOriginRC() {
-        return originRC;
+    public int getCell() {
+        return cell;
+    }
+
+    public void setCell(int cell) {
+        this.cell = cell;
+    }
+
+    public int getOriginCell() {
+        return originCell;
+    }
+
+    public void setOriginCell(int originCell) {
+        this.originCell = originCell;
     }
 
-    public void setOriginRC(String originRC) {
-        this.originRC = originRC;
+    public TranslateTransition getTransition() {
+        if (transition == null) {
+            transition = new TranslateTransition();
+        }
+        transition.setNode(imageView);
+        return transition;
     }
 }
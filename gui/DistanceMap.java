@@ -0,0 +1,70 @@
+package gui;
+
+import java.util.Arrays;
+
+/**
+ * 终点距离表(可采纳的启发函数)
+ * Table des distances vers l'arrivée (heuristique admissible)
+ *  从终点反向广度优先搜索，记录每个格子至少需要几步才能抵达终点(忽略其他棋子)
+ *  Recherche en largeur inverse depuis l'arrivée : enregistre pour chaque case le nombre minimal
+ *  de pas pour atteindre l'arrivée (en ignorant les autres pions)
+ *      放宽规则: 滑动可以停在路上的任意格子(其他棋子可能挡住它)，所以结果不会高估真实步数
+ *      Règle relâchée : une glissade peut s'arrêter sur n'importe quelle case du chemin (un autre pion
+ *      peut la bloquer), le résultat ne surestime donc jamais le nombre réel de pas
+ */
+public class DistanceMap {
+
+    /**
+     * 无法抵达  Inaccessible
+     */
+    public static final int UNREACHABLE = 0xFF;
+
+    private final byte[] distances = new byte[BitBoard.CELLS];
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * @param board 位棋盘(只用到墙)   bitboard (seuls les murs sont utilisés)
+     * @param goal  终点掩码(4 个 long)  masque des arrivées (4 long)
+     */
+    public DistanceMap(BitBoard board, long[] goal) {
+        Arrays.fill(distances, (byte) UNREACHABLE);
+        int[] queue = new int[BitBoard.CELLS];
+        int tail = 0;
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            if ((goal[cell >>> 6] & (1L << cell)) != 0) {
+                distances[cell] = 0;
+                queue[tail++] = cell;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int cell = queue[head];
+            int next = get(cell) + 1;
+            for (int dir = 0; dir < 4; dir++) {
+                // 反向走: 所有沿 dir 方向滑动会经过 cell 的格子
+                // En sens inverse : toutes les cases dont la glissade vers dir passe par cell
+                int back = dir ^ 1;
+                int from = cell;
+                while (BitBoard.hasNeighbour(from, back) && board.canMove(BitBoard.neighbour(from, back), dir)) {
+                    from = BitBoard.neighbour(from, back);
+                    if (get(from) == UNREACHABLE) {
+                        distances[from] = (byte) next;
+                        queue[tail++] = from;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 从该格子抵达终点至少需要的步数   Nombre minimal de pas depuis la case vers l'arrivée
+     * @return  步数，无法抵达时返回 UNREACHABLE   nombre de pas, UNREACHABLE si inaccessible
+     */
+    public int get(int cell) {
+        return distances[cell] & 0xFF;
+    }
+}
@@ -0,0 +1,348 @@
+package gui;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 多人游戏客户端
+ * Client du jeu multijoueur
+ *  连接 GameServer，发送出价和移动，在读取线程中解码服务器的消息并交给 Listener
+ *  Se connecte à un GameServer, envoie enchères et coups, décode les messages du serveur dans
+ *  un thread de lecture et les transmet au Listener
+ *      发送方法可以在任意线程调用(加锁)，每次调用写出一条消息   les envois sont utilisables depuis n'importe
+ *      quel thread (verrou), chaque appel écrit un message
+ *      用法(控制台客户端)  usage (client console) : java gui.GameClient [主机 hôte] [端口 port] [会话 session]
+ */
+public class GameClient implements Closeable {
+
+    /**
+     * 服务器消息的监听器(所有方法都有空的默认实现，在读取线程中调用)
+     * Écouteur des messages du serveur (implémentations vides par défaut, appelé dans le thread de lecture)
+     */
+    public interface Listener {
+        /**
+         * @param phase     GameEngine.Phase 的序号   ordinal de GameEngine.Phase
+         * @param robots    四个棋子的格子   cases des quatre pions
+         */
+        default void onWelcome(int session, int seat, int phase, int robot, int[] robots) {
+        }
+
+        default void onRobotMoved(int robot, int from, int to) {
+        }
+
+        default void onRoundStarted(int robot, int firstBidder) {
+        }
+
+        default void onBidRequested(int seat) {
+        }
+
+        default void onTurnStarted(int seat) {
+        }
+
+        default void onStepsLeft(int seat, int stepsLeft) {
+        }
+
+        default void onRobotArrived(int seat, int robot) {
+        }
+
+        /**
+         * @param seats     按名次排列的座位   sièges dans l'ordre du classement
+         */
+        default void onGameOver(int[] seats, int[] scores) {
+        }
+
+        default void onError(int code) {
+        }
+
+        /**
+         * 连接被关闭  Connexion fermée
+         */
+        default void onClosed() {
+        }
+    }
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final String USAGE = "start [N] | bid N | up | down | left | right | undo | redo | quit";
+
+    private final SocketChannel channel;
+    private final Listener listener;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(Protocol.MAX_MESSAGE);
+    private final Thread reader;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    public GameClient(InetSocketAddress address, Listener listener) throws IOException {
+        this.channel = SocketChannel.open(address);
+        this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.listener = listener;
+        this.reader = new Thread(this::read, "game-client");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * --------------------------------------
+     * 发送  Envoi
+     * --------------------------------------
+     */
+
+    /**
+     * 加入会话，-1 创建一个新会话   Rejoint une session, -1 pour en créer une
+     */
+    public synchronized void join(int session) throws IOException {
+        Protocol.join(out, session);
+        flush();
+    }
+
+    /**
+     * 开始游戏，0 表示所有已经加入的座位   Commence la partie, 0 pour tous les sièges déjà attribués
+     */
+    public synchronized void start(int players) throws IOException {
+        Protocol.start(out, players);
+        flush();
+    }
+
+    public synchronized void bid(int steps) throws IOException {
+        Protocol.bid(out, steps);
+        flush();
+    }
+
+    public synchronized void move(int robot, int dir) throws IOException {
+        Protocol.move(out, robot, dir);
+        flush();
+    }
+
+    public synchronized void undo() throws IOException {
+        Protocol.empty(out, Protocol.UNDO);
+        flush();
+    }
+
+    public synchronized void redo() throws IOException {
+        Protocol.empty(out, Protocol.REDO);
+        flush();
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * --------------------------------------
+     * 接收  Réception
+     * --------------------------------------
+     */
+
+    private void read() {
+        ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                Protocol.decode(in, this::dispatch);
+                in.compact();
+            }
+        } catch (IOException e) {
+            // 连接已关闭   connexion fermée
+        } finally {
+            listener.onClosed();
+        }
+    }
+
+    /**
+     * 座位与棋子按有符号字节读取(-1 表示没有)   Sièges et pions lus en octet signé (-1 pour aucun)
+     */
+    private void dispatch(int type, ByteBuffer payload) {
+        switch (type) {
+            case Protocol.WELCOME:
+                int session = payload.getInt();
+                int seat = payload.get();
+                int phase = payload.get();
+                int robot = payload.get();
+                int[] robots = new int[GameEngine.ROBOTS];
+                for (int i = 0; i < robots.length; i++) {
+                    robots[i] = payload.get() & 0xFF;
+                }
+                listener.onWelcome(session, seat, phase, robot, robots);
+                break;
+            case Protocol.ROBOT_MOVED:
+                listener.onRobotMoved(payload.get(), payload.get() & 0xFF, payload.get() & 0xFF);
+                break;
+            case Protocol.ROUND_STARTED:
+                listener.onRoundStarted(payload.get(), payload.get());
+                break;
+            case Protocol.BID_REQUESTED:
+                listener.onBidRequested(payload.get());
+                break;
+            case Protocol.TURN_STARTED:
+                listener.onTurnStarted(payload.get());
+                break;
+            case Protocol.STEPS_LEFT:
+                listener.onStepsLeft(payload.get(), payload.getInt());
+                break;
+            case Protocol.ROBOT_ARRIVED:
+                listener.onRobotArrived(payload.get(), payload.get());
+                break;
+            case Protocol.GAME_OVER:
+                int count = payload.get() & 0xFF;
+                int[] seats = new int[count];
+                int[] scores = new int[count];
+                for (int i = 0; i < count; i++) {
+                    seats[i] = payload.get();
+                    scores[i] = payload.getShort() & 0xFFFF;
+                }
+                listener.onGameOver(seats, scores);
+                break;
+            case Protocol.ERROR:
+                listener.onError(payload.get() & 0xFF);
+                break;
+            default:
+                // 未知消息(新版本服务器)，忽略   message inconnu (serveur plus récent), ignoré
+                break;
+        }
+    }
+
+    /**
+     * 控制台客户端: start N / bid N / up down left right / undo / redo / quit
+     * Client console : start N / bid N / up down left right / undo / redo / quit
+     */
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+        int session = args.length > 2 ? Integer.parseInt(args[2]) : -1;
+        int[] robot = {0};
+        try (GameClient client = new GameClient(new InetSocketAddress(host, port), new Listener() {
+            @Override
+            public void onWelcome(int session, int seat, int phase, int current, int[] robots) {
+                robot[0] = current;
+                System.out.println("session " + session + ", seat " + seat + ", phase "
+                        + GameEngine.Phase.values()[phase]);
+            }
+
+            @Override
+            public void onRobotMoved(int moved, int from, int to) {
+                System.out.println("robot " + moved + ": " + BitBoard.row(to) + "," + BitBoard.col(to));
+            }
+
+            @Override
+            public void onRoundStarted(int current, int firstBidder) {
+                robot[0] = current;
+                System.out.println("round: robot " + current + ", seat " + firstBidder + " bids");
+            }
+
+            @Override
+            public void onBidRequested(int seat) {
+                System.out.println("seat " + seat + " bids");
+            }
+
+            @Override
+            public void onTurnStarted(int seat) {
+                System.out.println("seat " + seat + " moves");
+            }
+
+            @Override
+            public void onStepsLeft(int seat, int stepsLeft) {
+                System.out.println("seat " + seat + ": " + stepsLeft + " steps left");
+            }
+
+            @Override
+            public void onRobotArrived(int seat, int arrived) {
+                System.out.println("seat " + seat + " scores with robot " + arrived);
+            }
+
+            @Override
+            public void onGameOver(int[] seats, int[] scores) {
+                for (int i = 0; i < seats.length; i++) {
+                    System.out.println((i + 1) + ". seat " + seats[i] + ": " + scores[i]);
+                }
+            }
+
+            @Override
+            public void onError(int code) {
+                System.out.println("error " + code);
+            }
+
+            @Override
+            public void onClosed() {
+                System.out.println("disconnected");
+            }
+        })) {
+            client.join(session);
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] words = line.trim().split("\\s+");
+                switch (words[0]) {
+                    case "start":
+                        int players = words.length > 1 ? parseNumber(words[1]) : 0;
+                        if (players < 0 || words.length > 2) {
+                            System.out.println(USAGE);
+                        } else {
+                            client.start(players);
+                        }
+                        break;
+                    case "bid":
+                        int steps = words.length == 2 ? parseNumber(words[1]) : -1;
+                        if (steps < 0) {
+                            System.out.println(USAGE);
+                        } else {
+                            client.bid(steps);
+                        }
+                        break;
+                    case "up":
+                        client.move(robot[0], BitBoard.UP);
+                        break;
+                    case "down":
+                        client.move(robot[0], BitBoard.DOWN);
+                        break;
+                    case "left":
+                        client.move(robot[0], BitBoard.LEFT);
+                        break;
+                    case "right":
+                        client.move(robot[0], BitBoard.RIGHT);
+                        break;
+                    case "undo":
+                        client.undo();
+                        break;
+                    case "redo":
+                        client.redo();
+                        break;
+                    case "quit":
+                        return;
+                    default:
+                        System.out.println(USAGE);
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 控制台输入的非负整数，不是数字时返回 -1   Entier positif saisi à la console, -1 si ce n'est pas un nombre
+     */
+    private static int parseNumber(String word) {
+        try {
+            return Math.max(-1, Integer.parseInt(word));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
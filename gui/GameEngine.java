@@ -0,0 +1,732 @@
+package gui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 游戏引擎类
+ * Classe du moteur de jeu
+ *  不依赖任何界面的游戏规则: 开始游戏、玩家输入步数、移动棋子、回合与得分、游戏结束
+ *  Règles du jeu sans aucune interface : démarrer la partie, saisie des pas des joueurs,
+ *  déplacement des pions, tours et scores, fin de partie
+ *      棋子的位置保存在引擎中(不再放在 ImageView.setUserData 里)
+ *      La position des pions est conservée dans le moteur (plus dans ImageView.setUserData)
+ *      状态变化通过 OnGameListener 通知界面(或机器人、服务器等)
+ *      Les changements d'état sont notifiés par OnGameListener à l'interface (ou aux bots, au serveur, etc.)
+ *      每局游戏使用一个种子初始化随机数，所有操作记录在 MoveLog 中，可以由 Replay 重放整局游戏
+ *      Chaque partie initialise le hasard avec une graine et toutes les actions sont enregistrées dans
+ *      un MoveLog : Replay peut rejouer la partie entière
+ *  注意: 引擎不是线程安全的，所有方法需要在同一个线程中调用(界面中为 FX 线程)
+ *  Attention : le moteur n'est pas thread-safe, toutes les méthodes doivent être appelées
+ *  depuis le même thread (le thread FX dans l'interface)
+ */
+public class GameEngine {
+
+    /**
+     * 棋子个数(红 绿 黄 蓝)  Nombre de pions (rouge vert jaune bleu)
+     */
+    public static final int ROBOTS = 4;
+
+    /**
+     * 一个回合中最多可以撤销的步数  Nombre maximum de coups annulables pendant un tour
+     */
+    public static final int UNDO_LIMIT = 256;
+
+    /**
+     * 游戏开始前棋子的默认位置   Position par défaut des pions avant le début de la partie
+     */
+    private static final int[] DEFAULT_ROBOTS = {
+            BitBoard.cell(1, 1), BitBoard.cell(8, 9), BitBoard.cell(13, 5), BitBoard.cell(4, 13)};
+
+    /**
+     * 游戏阶段  Phase de jeu
+     */
+    public enum Phase {
+        /**
+         * 等待开始游戏  En attente du début de la partie
+         */
+        WAITING,
+        /**
+         * 玩家依次输入步数  Les joueurs saisissent leurs pas à tour de rôle
+         */
+        BIDDING,
+        /**
+         * 玩家依次操作棋子  Les joueurs déplacent le pion à tour de rôle
+         */
+        MOVING,
+        /**
+         * 游戏结束  Partie terminée
+         */
+        OVER
+    }
+
+    /**
+     * 位棋盘(墙、终点、非出生点，没有棋子)，只读，可以被同一地图的所有引擎共用
+     * Bitboard (murs, points finaux, points non-spawn, sans pions), en lecture seule, partageable par tous
+     * les moteurs de la même carte
+     */
+    private final BitBoard board;
+    /**
+     * 滑动终点表  Table des glissades
+     */
+    private final SlideTable slideTable;
+    /**
+     * 每个棋子当前所在的格子   Case actuelle de chaque pion
+     */
+    private final int[] robotCells = new int[ROBOTS];
+    /**
+     * 每个棋子本回合开始时的格子(玩家操作结束后回到该位置)
+     * Case de chaque pion au début du tour (le pion y revient à la fin de l'opération d'un joueur)
+     */
+    private final int[] originCells = new int[ROBOTS];
+    /**
+     * 打包的棋子位置(见 Solver.pack)，引擎中唯一可变的棋子状态与 robotCells 同步
+     * Positions packées des pions (voir Solver.pack), tenues à jour avec robotCells
+     */
+    private int robots;
+
+    private final Random random;
+    /**
+     * 当前这局游戏的种子，以及下一局的种子   Graine de la partie en cours et de la suivante
+     */
+    private long seed;
+    private long nextSeed;
+    /**
+     * 对局记录  Journal de partie
+     */
+    private final MoveLog log;
+    /**
+     * 当前玩家本回合的移动: 起点格子与方向，用于撤销和重做
+     * Coups du joueur courant pendant ce tour : case de départ et direction, pour annuler et rétablir
+     *  turnMoves : 已经执行的移动数   nombre de coups joués
+     *  turnTop : 可以重做到的位置   position jusqu'où on peut rétablir
+     */
+    private final byte[] turnFrom = new byte[UNDO_LIMIT];
+    private final byte[] turnDirs = new byte[UNDO_LIMIT];
+    private int turnMoves;
+    private int turnTop;
+    /**
+     * 监听器数组(添加时复制)，遍历时不创建迭代器，移动棋子不产生垃圾对象
+     * Tableau d'écouteurs (copié à l'ajout) : le parcours ne crée pas d'itérateur, un déplacement n'alloue rien
+     */
+    private OnGameListener[] listeners = new OnGameListener[0];
+
+    private List<Player> playerList = new ArrayList<>();
+    /**
+     * 当前操作(或输入步数)的玩家下标   Indice du joueur qui opère (ou saisit ses pas)
+     */
+    private int currentPlayerIndex = -1;
+    /**
+     * 当前被操作的棋子下标  Indice du pion actuellement utilisé
+     */
+    private int currentChessIndex = 0;
+    private Phase phase = Phase.WAITING;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * @param board 地图(只读，引擎不会修改，有棋子时使用去掉棋子的副本)，棋子放在默认位置
+     *              carte (lecture seule, jamais modifiée par le moteur ; copie sans pions si elle en contient),
+     *              pions aux positions par défaut
+     */
+    public GameEngine(BitBoard board) {
+        this(board, new Random().nextLong());
+    }
+
+    /**
+     * @param random    只用来生成种子   sert uniquement à tirer la graine
+     */
+    public GameEngine(BitBoard board, Random random) {
+        this(board, random.nextLong());
+    }
+
+    /**
+     * @param seed  第一局游戏的种子(之后每局的种子由上一局生成)
+     *              graine de la première partie (celle des parties suivantes est tirée de la précédente)
+     */
+    public GameEngine(BitBoard board, long seed) {
+        this(board, new SlideTable(board), seed);
+    }
+
+    /**
+     * @param slideTable    该地图的滑动终点表(只读，可以被多个引擎共用，例如服务器中同一地图的所有会话)
+     *                      table des glissades de la carte (lecture seule, peut être partagée par plusieurs
+     *                      moteurs, par exemple toutes les sessions d'une même carte sur le serveur)
+     */
+    public GameEngine(BitBoard board, SlideTable slideTable, long seed) {
+        this.board = board.withoutRobots();
+        this.slideTable = slideTable;
+        this.random = new Random(seed);
+        this.seed = seed;
+        this.nextSeed = seed;
+        this.log = new MoveLog(seed);
+        for (int i = 0; i < ROBOTS; i++) {
+            robotCells[i] = DEFAULT_ROBOTS[i];
+            originCells[i] = DEFAULT_ROBOTS[i];
+        }
+        robots = Solver.pack(robotCells);
+    }
+
+    /**
+     * --------------------------------------
+     * 玩家操作  Actions des joueurs
+     * --------------------------------------
+     */
+
+    /**
+     * 开始游戏
+     * commencer le jeu
+     *  1. 随机刷新所有棋子位置   Rafraîchir au hasard toutes les positions des pions
+     *  2. 根据输入的玩家数量，初始化玩家列表   Initialiser la liste des joueurs en fonction du nombre de joueurs saisis
+     *  3. 开始第一个回合，由首个玩家输入步数   Commencer le premier tour, le premier joueur saisit le nombre de coups
+     * @param playerNumber 玩家数量 Nombre de joueurs
+     */
+    public void startGame(int playerNumber) {
+        List<Player> players = new ArrayList<>(playerNumber);
+        for (int i = 0; i < playerNumber; i++) {
+            Player p = new Player();
+            p.setName(String.valueOf(i + 1));
+            players.add(p);
+        }
+        startGame(players);
+    }
+
+    /**
+     * 使用指定的玩家对象开始游戏(例如机器人玩家)
+     * Commence la partie avec les joueurs donnés (par exemple des bots)
+     */
+    public void startGame(List<Player> players) {
+        // 每局游戏从默认位置和自己的种子开始，记录只依赖这局游戏
+        // Chaque partie part des positions par défaut et de sa propre graine : le journal ne dépend que d'elle
+        seed = nextSeed;
+        random.setSeed(seed);
+        nextSeed = random.nextLong();
+        log.reset(seed);
+        log.start(players.size());
+        resetRobots();
+        randomAllChessPos();
+        currentChessIndex = 0;
+        playerList = new ArrayList<>(players);
+        for (Player player : playerList) {
+            player.setScore(0);
+        }
+        nextRound();
+    }
+
+    /**
+     * 当前玩家输入步数
+     * Le joueur courant saisit son nombre de pas
+     *  所有玩家都输入完成后开始当前回合(调用startRound)
+     *  Quand tous les joueurs ont saisi, le tour en cours commence (appel de startRound)
+     * @param steps 玩家输入的步数   nombre de pas saisi par le joueur
+     * @return  不在输入步数阶段时返回 false   false hors de la phase de saisie
+     */
+    public boolean submitBid(int steps) {
+        if (phase != Phase.BIDDING) {
+            return false;
+        }
+        log.bid(steps);
+        int i = ++currentPlayerIndex;
+        Player player = playerList.get(i);          //玩家号   numéro de joueur
+        player.setSteps(steps);        //玩家输入的步数   Nombre de coups saisis par le joueur
+        if (i >= playerList.size() - 1) {
+            startRound();
+        } else {
+            for (OnGameListener listener : listeners) {
+                listener.onBidRequested(playerList.get(i + 1));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 控制当前棋子沿 dir 方向一直移动，直至撞到墙或棋子，这一步操作结束
+     * Déplace le pion courant vers dir jusqu'à ce qu'il touche un mur ou un pion, cette étape est terminée
+     * @param dir   移动方向 BitBoard.UP/DOWN/LEFT/RIGHT   direction de déplacement
+     * @return  棋子停下的格子，当前不能操作时返回 -1   case d'arrêt du pion, -1 si aucune action n'est possible
+     */
+    public int move(int dir) {
+        if (phase != Phase.MOVING || currentChessIndex < 0 || currentChessIndex >= ROBOTS) {
+            return -1;
+        }
+        log.move(currentChessIndex, dir);
+        // 新的移动之后不能再重做被撤销的移动   après un nouveau coup, les coups annulés ne peuvent plus être rétablis
+        turnTop = turnMoves;
+        return slide(dir);
+    }
+
+    /**
+     * 撤销当前玩家本回合的上一步，棋子回到移动前的格子，退还一步
+     * Annule le dernier coup du joueur courant pendant ce tour : le pion revient à sa case de départ
+     * et le pas est rendu
+     * @return  本回合没有可以撤销的移动时返回 false   false si aucun coup de ce tour ne peut être annulé
+     */
+    public boolean undo() {
+        if (!canUndo()) {
+            return false;
+        }
+        log.append(MoveLog.UNDO);
+        int robot = currentChessIndex;
+        int from = turnFrom[--turnMoves] & 0xFF;
+        if (robotCells[robot] != from) {
+            chessMove(robot, from);
+        }
+        // usedSteps 包含正在等待的一步，nextStep 会重新加一
+        // usedSteps compte le pas en attente, nextStep l'ajoute de nouveau
+        Player player = playerList.get(currentPlayerIndex);
+        player.setUsedSteps(player.getUsedSteps() - 2);
+        nextStep();
+        return true;
+    }
+
+    /**
+     * 重做上一个被撤销的移动(再消耗一步)
+     * Rétablit le dernier coup annulé (consomme de nouveau un pas)
+     * @return  棋子停下的格子，没有可以重做的移动时返回 -1   case d'arrêt, -1 si rien à rétablir
+     */
+    public int redo() {
+        if (!canRedo()) {
+            return -1;
+        }
+        log.append(MoveLog.REDO);
+        return slide(turnDirs[turnMoves]);
+    }
+
+    public boolean canUndo() {
+        return phase == Phase.MOVING && turnMoves > 0;
+    }
+
+    public boolean canRedo() {
+        return phase == Phase.MOVING && turnMoves < turnTop;
+    }
+
+    /**
+     * 当前玩家操作超时，轮到下一个玩家
+     * Le temps du joueur courant est écoulé, c'est au joueur suivant
+     */
+    public void timeout() {
+        if (phase == Phase.MOVING) {
+            log.append(MoveLog.TIMEOUT);
+            nextPlayerStep();
+        }
+    }
+
+    /**
+     * 随机刷新指定棋子位置，并重新开始当前回合(对应棋子按钮)
+     * Rafraîchit au hasard la position du pion indiqué et recommence le tour (boutons de pion)
+     * @param robot 棋子下标  indice du pion
+     */
+    public void respawn(int robot) {
+        log.respawn(robot);
+        randomChessPos(robot);
+        if (phase == Phase.BIDDING || phase == Phase.MOVING) {
+            nextRound();
+        }
+    }
+
+    /**
+     * --------------------------------------
+     * 游戏规则  Règles du jeu
+     * --------------------------------------
+     */
+
+    /**
+     * 当前棋子沿 dir 滑动并记录在本回合的移动中   Fait glisser le pion courant vers dir et l'ajoute aux coups du tour
+     */
+    private int slide(int dir) {
+        int robot = currentChessIndex;
+        int from = robotCells[robot];
+        if (turnMoves == UNDO_LIMIT) {
+            // 丢弃最早的一半移动，步数很多的回合不会无限占用内存
+            // abandonne la moitié la plus ancienne : un tour très long n'occupe pas une mémoire illimitée
+            int keep = UNDO_LIMIT / 2;
+            System.arraycopy(turnFrom, UNDO_LIMIT - keep, turnFrom, 0, keep);
+            System.arraycopy(turnDirs, UNDO_LIMIT - keep, turnDirs, 0, keep);
+            turnMoves = keep;
+            turnTop = keep;
+        }
+        turnFrom[turnMoves] = (byte) from;
+        turnDirs[turnMoves] = (byte) dir;
+        turnMoves++;
+        turnTop = Math.max(turnTop, turnMoves);
+        int stop = slideTable.slide(from, dir, robots);
+        if (stop != from) {
+            chessMove(robot, stop);
+        }
+        stepOver();
+        return stop;
+    }
+
+    /**
+     * 结束当前步
+     * terminer l'étape en cours
+     *  1. 判断棋子是否抵达对应终点，如果抵达则玩家得分并直接开始下一个回合！
+     *  1. Déterminez si la pièce a atteint le point final correspondant. Si c'est le cas,
+     *  le joueur marquera des points et commencera directement le tour suivant！
+     *  2. 如果没有抵达终点，则玩家进行下一步操作
+     *  2. Si le point final n'est pas atteint, le joueur passera à l'étape suivante
+     */
+    private void stepOver() {
+        int index = currentChessIndex;
+        if (index == board.getTarget(robotCells[index])) {       //判断robot是否到达终点，并且颜色匹配
+            //Déterminez si le robot a atteint le point final et si les couleurs correspondent
+            Player player = playerList.get(currentPlayerIndex);
+            player.setScore(player.getScore() + 1);     //该玩家得分加1 Le score du joueur augmente de 1
+            // 当前棋子抵达终点后才换下一个颜色的棋子
+            // Le pion de la couleur suivante n'est joué qu'une fois le pion courant arrivé
+            originCells[index] = robotCells[index];
+            currentChessIndex++;
+            for (OnGameListener listener : listeners) {
+                listener.onRobotArrived(player, index);
+            }
+            nextRound();        //下一个回合，下一个颜色的robot开始移动
+        } else {
+            nextStep();         //同一玩家的下一步  prochaine étape pour le même joueur
+        }
+    }
+
+    /**
+     * 开始当前回合
+     * commencer le tour en cours
+     *  1. 按照玩家输入的步数排序   Trier par le nombre de coups saisis par le joueur
+     *  2. 重置当前玩家下标号   Réinitialiser l'indice du joueur actuel
+     *  3. 开始由步数设定最小的玩家开始操作(调用nextPlayerStep)
+     *  3. Démarrez l'opération par le joueur avec le plus petit nombre d'étapes (appelez nextPlayerStep)
+     */
+    private void startRound() {
+        // sort by steps
+        Collections.shuffle(playerList, random);     // 相同时随机(可重放)   égalités au hasard (rejouable)
+        playerList.sort(new Player.PlayerStepsComparator());
+        currentPlayerIndex = -1;
+        phase = Phase.MOVING;
+        nextPlayerStep();
+    }
+
+    /**
+     * 由下一个玩家操作
+     * Actionné par le joueur suivant
+     *  1. 重置当前棋子位置(将棋子移动到原本生成的位置)
+     *  1. Réinitialisez la position actuelle du pion (déplacez le pion à la position générée d'origine)
+     *  2. 更新并获取当前玩家下标   Mettez à jour et obtenez l'indice du joueur actuel
+     *  3. 判断当前回合是否所有玩家都已经消耗完步数
+     *  3. Déterminez si tous les joueurs du tour en cours ont épuisé leurs pas
+     *      - 如果消耗完了，则重新开始新的回合(当前操作的棋子不变)
+     *      - S'il est épuisé, recommencez un nouveau tour (les pièces d'échecs actuellement utilisées restent inchangées)
+     *      - 没有消耗完，则轮到下一个 设定步数 最少的玩家操作
+     *      - S'il n'est pas epuise, ce sera la prochaine opération du joueur avec le nombre minimum d'étapes définies
+     */
+    private void nextPlayerStep() {
+        int chessIndex = currentChessIndex;
+        if (chessIndex >= 0 && chessIndex < ROBOTS && robotCells[chessIndex] != originCells[chessIndex]) {
+            chessMove(chessIndex, originCells[chessIndex]);
+        }
+
+        turnMoves = 0;
+        turnTop = 0;
+        int index = ++currentPlayerIndex;
+        if (index >= playerList.size()) {
+            // round over
+            nextRound();
+            return;
+        }
+
+        Player player = playerList.get(index);
+        player.setUsedSteps(0);
+        for (OnGameListener listener : listeners) {
+            listener.onTurnStarted(player);
+        }
+        nextStep();
+    }
+
+    /**
+     * 下一步玩家控制棋子移动操作
+     * À l'étape suivante, le joueur contrôle le mouvement des pièces
+     *   1. 获取当前玩家是否还剩余步数，用完则轮到下一个玩家操作(调用nextPlayerStep)
+     *   1. Si le joueur actuel a épuisé ses pas, c'est au tour du joueur suivant (appelez nextPlayerStep)
+     *   2. 通知当前玩家还剩下多少步   Informer le joueur actuel du nombre de coups restants
+     *   3. 更新玩家使用的步数，步数+1   Mettre à jour le nombre de pas utilisés par le joueur, +1
+     */
+    private void nextStep() {
+        Player player = playerList.get(currentPlayerIndex);
+        if (player.getUsedSteps() >= player.getSteps()) {
+            // next player step
+            nextPlayerStep();
+            return;
+        }
+
+        for (OnGameListener listener : listeners) {
+            listener.onStepsLeft(player, player.getSteps() - player.getUsedSteps());
+        }
+        player.setUsedSteps(player.getUsedSteps() + 1);
+    }
+
+    /**
+     * 下一个回合
+     * tour suivant
+     *  1. 判断当前是否所有棋子都已经抵达终点，如果是则结束游戏(调用gameOver)
+     *  1. Si toutes les pièces ont atteint la fin, terminez le jeu (appelez gameOver)
+     *  2. 重置当前玩家号，通知玩家开始输入步数
+     *  2. Réinitialiser le numéro de joueur actuel et informer les joueurs de saisir le nombre de coups
+     */
+    private void nextRound() {
+        // no increment!!!
+        if (currentChessIndex >= ROBOTS) {
+            gameOver();
+            return;
+        }
+        currentPlayerIndex = -1;
+        phase = Phase.BIDDING;
+        for (OnGameListener listener : listeners) {
+            listener.onRoundStarted(currentChessIndex, playerList.get(0));
+        }
+    }
+
+    /**
+     * 游戏结束
+     *  1. 重置当前棋子号   Réinitialiser le numéro de pion actuel
+     *  2. 按照玩家分数进行排序   Trier par score de joueur
+     *  3. 通知获胜玩家以及各个玩家的得分情况   Notifier le gagnant et le score de chaque joueur
+     */
+    private void gameOver() {
+        currentChessIndex = -1;
+        phase = Phase.OVER;
+        Collections.shuffle(playerList, random);     // 相同时随机(可重放)   égalités au hasard (rejouable)
+        playerList.sort(new Player.PlayerScoreComparator());
+        for (OnGameListener listener : listeners) {
+            listener.onGameOver(Collections.unmodifiableList(playerList));
+        }
+    }
+
+    /**
+     * 随机刷新指定棋子位置       Rafraîchir au hasard la position de la pièce d'échecs spécifiée
+     *  1. 随机生成行与列，直到生成的坐标允许放入棋子时，将该棋子移动至该坐标
+     *  1. Générez aléatoirement des lignes et des colonnes jusqu'à ce que les coordonnées générées permettent
+     *  le placement d'une pièce d'échecs, déplacez la pièce d'échecs à cette coordonnée
+     *  2. 更新棋子原始位置   Mettre à jour la position d'origine du pion
+     * @param robot 被刷新位置的棋子下标    indice du pion en position rafraîchie
+     */
+    private void randomChessPos(int robot) {
+        int r;      //row ligne
+        int c;      //colome
+        int cell;
+        do {
+            r = Math.abs(random.nextInt()) % BitBoard.SIZE;
+            c = Math.abs(random.nextInt()) % BitBoard.SIZE;
+            cell = BitBoard.cell(r, c);
+        } while (!board.isSpawnable(cell) || hasRobot(cell));
+        chessMove(robot, cell);
+        originCells[robot] = cell;
+    }
+
+    /**
+     * 把所有棋子放回默认位置  Remet tous les pions à leur position par défaut
+     */
+    private void resetRobots() {
+        for (int i = 0; i < ROBOTS; i++) {
+            int from = robotCells[i];
+            robotCells[i] = DEFAULT_ROBOTS[i];
+            originCells[i] = DEFAULT_ROBOTS[i];
+            robots = Solver.withCell(robots, i, DEFAULT_ROBOTS[i]);
+            if (from != DEFAULT_ROBOTS[i]) {
+                for (OnGameListener listener : listeners) {
+                    listener.onRobotMoved(i, from, DEFAULT_ROBOTS[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 随机刷新所有棋子位置       Rafraîchir au hasard toutes les positions des pions
+     */
+    private void randomAllChessPos() {
+        for (int i = 0; i < ROBOTS; i++) {
+            randomChessPos(i);
+        }
+    }
+
+    /**
+     * 移动棋子并通知界面  Déplace le pion et notifie l'interface
+     */
+    private void chessMove(int robot, int to) {
+        int from = robotCells[robot];
+        robotCells[robot] = to;
+        robots = Solver.withCell(robots, robot, to);
+        for (OnGameListener listener : listeners) {
+            listener.onRobotMoved(robot, from, to);
+        }
+    }
+
+    /**
+     * --------------------------------------
+     * 查询  Requêtes
+     * --------------------------------------
+     */
+
+    /**
+     * 把四个棋子当前的位置打包成求解器使用的状态
+     * Packe les positions actuelles des quatre pions dans l'état utilisé par le solveur
+     */
+    public int getRobots() {
+        return robots;
+    }
+
+    /**
+     * 格子上是否有棋子   Y a-t-il un pion sur la case
+     */
+    private boolean hasRobot(int cell) {
+        for (int i = 0; i < ROBOTS; i++) {
+            if (robotCells[i] == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getRobotCell(int robot) {
+        return robotCells[robot];
+    }
+
+    public int getOriginCell(int robot) {
+        return originCells[robot];
+    }
+
+    /**
+     * 地图(没有棋子，可能被其他引擎共用，请不要修改)；棋子位置见 getRobots
+     * Carte (sans pions, peut être partagée avec d'autres moteurs, ne pas la modifier) ; pions : voir getRobots
+     */
+    public BitBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * 当前这局游戏的种子  Graine de la partie en cours
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * 指定下一局游戏的种子(例如重放一个记录，或者服务器为比赛指定种子)
+     * Fixe la graine de la prochaine partie (par exemple pour rejouer un journal, ou pour un tournoi sur le serveur)
+     */
+    public void setNextSeed(long nextSeed) {
+        this.nextSeed = nextSeed;
+    }
+
+    /**
+     * 当前这局游戏的记录(开始新的一局时清空，请不要修改)
+     * Journal de la partie en cours (vidé au début d'une nouvelle partie, ne pas le modifier)
+     */
+    public MoveLog getMoveLog() {
+        return log;
+    }
+
+    public SlideTable getSlideTable() {
+        return slideTable;
+    }
+
+    public List<Player> getPlayers() {
+        return Collections.unmodifiableList(playerList);
+    }
+
+    /**
+     * 当前玩家，没有时返回 null   Joueur courant, null s'il n'y en a pas
+     */
+    public Player getCurrentPlayer() {
+        if (currentPlayerIndex < 0 || currentPlayerIndex >= playerList.size()) {
+            return null;
+        }
+        return playerList.get(currentPlayerIndex);
+    }
+
+    public int getCurrentPlayerIndex() {
+        return currentPlayerIndex;
+    }
+
+    public int getCurrentChessIndex() {
+        return currentChessIndex;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public void addListener(OnGameListener listener) {
+        OnGameListener[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+        copy[listeners.length] = listener;
+        listeners = copy;
+    }
+
+    public void removeListener(OnGameListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                OnGameListener[] copy = new OnGameListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, copy, 0, i);
+                System.arraycopy(listeners, i + 1, copy, i, copy.length - i);
+                listeners = copy;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 游戏事件监听器(所有方法都有空的默认实现)
+     * Écouteur d'événements de jeu (toutes les méthodes ont une implémentation vide par défaut)
+     */
+    public interface OnGameListener {
+
+        /**
+         * 棋子被移动(滑动、回到原位或随机刷新)
+         * Un pion a été déplacé (glissade, retour à l'origine ou rafraîchissement aléatoire)
+         */
+        default void onRobotMoved(int robot, int from, int to) {
+        }
+
+        /**
+         * 新的回合开始，由 firstBidder 开始输入步数
+         * Un nouveau tour commence, firstBidder saisit ses pas en premier
+         * @param robot 本回合操作的棋子   pion joué pendant ce tour
+         */
+        default void onRoundStarted(int robot, Player firstBidder) {
+        }
+
+        /**
+         * 轮到 player 输入步数  C'est au tour de player de saisir ses pas
+         */
+        default void onBidRequested(Player player) {
+        }
+
+        /**
+         * 轮到 player 操作棋子(需要重新开始计时)
+         * C'est au tour de player de déplacer le pion (le chronomètre doit redémarrer)
+         */
+        default void onTurnStarted(Player player) {
+        }
+
+        /**
+         * player 还剩 stepsLeft 步   Il reste stepsLeft pas à player
+         */
+        default void onStepsLeft(Player player, int stepsLeft) {
+        }
+
+        /**
+         * player 帮助棋子 robot 抵达了终点(得一分)
+         * player a aidé le pion robot à atteindre l'arrivée (un point)
+         */
+        default void onRobotArrived(Player player, int robot) {
+        }
+
+        /**
+         * 游戏结束，ranking 已按分数排序  Partie terminée, ranking est trié par score
+         */
+        default void onGameOver(List<Player> ranking) {
+        }
+    }
+}
@@ -0,0 +1,518 @@
+package gui;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 多人游戏服务器
+ * Serveur de jeu multijoueur
+ *  一个 NIO selector 线程处理所有连接，消息格式见 Protocol，游戏规则在 GameSessionManager 的会话中执行
+ *  Un seul thread NIO (selector) gère toutes les connexions, format des messages dans Protocol,
+ *  les règles s'exécutent dans les sessions du GameSessionManager
+ *      读: 每个连接一个直接缓冲区，一次 read 得到的所有完整消息一起解码，交给会话(异步)后立即返回
+ *      Lecture : un tampon direct par connexion, tous les messages complets d'une lecture sont décodés
+ *      ensemble et confiés à la session (asynchrone), le thread ne bloque jamais
+ *      写: 会话线程把事件编码到连接的待发送缓冲区，并只在缓冲区从空变为非空时唤醒 selector；
+ *      selector 把积累的所有消息复制到直接缓冲区，一次 write 发送(批处理)
+ *      Écriture : les threads des sessions encodent les événements dans le tampon d'envoi de la connexion
+ *      et ne réveillent le selector que lorsqu'il devient non vide ; le selector copie tous les messages
+ *      accumulés dans un tampon direct et les envoie en un seul write (traitement par lots)
+ *      每个连接只加入一个会话   chaque connexion ne rejoint qu'une session
+ *      客户端太慢、待发送数据超过 MAX_PENDING 时断开连接   un client trop lent (plus de MAX_PENDING en attente) est déconnecté
+ *      内容长度不对的消息回复 ERROR_UNKNOWN_MESSAGE，处理一个连接时的异常只断开这个连接
+ *      un message de longueur incorrecte reçoit ERROR_UNKNOWN_MESSAGE, une exception pendant le traitement
+ *      d'une connexion ne ferme que cette connexion
+ *      连接断开时释放座位，会话的最后一个连接断开时关闭会话
+ *      à la déconnexion le siège est libéré, la session est fermée quand sa dernière connexion part
+ *      用法  usage : java gui.GameServer [端口 port]
+ */
+public class GameServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 7070;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_PENDING = 1 << 20;
+    private static final long TURN_MILLIS = 60_000;
+
+    private final GameSessionManager manager;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread thread;
+    /**
+     * 有数据等待发送的连接  Connexions avec des données à envoyer
+     */
+    private final ConcurrentLinkedQueue<Connection> dirty = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    /**
+     * 统计(只在 selector 线程中写)   Statistiques (écrites seulement par le thread selector)
+     */
+    private volatile long messages;
+    private volatile long processingNanos;
+    private volatile long writes;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * 绑定端口并启动 selector 线程   Lie le port et démarre le thread selector
+     * @param address   端口为 0 时使用任意空闲端口   port 0 pour un port libre quelconque
+     */
+    public GameServer(GameSessionManager manager, InetSocketAddress address) throws IOException {
+        this.manager = manager;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(address);
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.thread = new Thread(this::run, "game-server");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * --------------------------------------
+     * selector 线程  Thread selector
+     * --------------------------------------
+     */
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Connection connection;
+                while ((connection = dirty.poll()) != null) {
+                    flush(connection);
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection target = (Connection) key.attachment();
+                            if (key.isReadable()) {
+                                read(target);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flush(target);
+                            }
+                        }
+                    } catch (CancelledKeyException e) {
+                        // 会话线程已经断开了这个连接   la connexion a été fermée par le thread d'une session
+                    } catch (RuntimeException e) {
+                        // 只断开出错的连接，selector 继续运行   seule la connexion fautive est fermée
+                        System.err.println("Game server connection error: " + e);
+                        if (key.attachment() instanceof Connection) {
+                            ((Connection) key.attachment()).close();
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Game server stopped: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Cannot close game server: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    /**
+     * 读取并解码所有完整的消息  Lit et décode tous les messages complets
+     */
+    private void read(Connection connection) {
+        int n;
+        try {
+            n = connection.channel.read(connection.in);
+        } catch (IOException e) {
+            n = -1;
+        }
+        if (n < 0) {
+            connection.close();
+            return;
+        }
+        long start = System.nanoTime();
+        connection.in.flip();
+        int count = Protocol.decode(connection.in, connection);
+        connection.in.compact();
+        processingNanos += System.nanoTime() - start;
+        messages += count;
+    }
+
+    /**
+     * 把待发送的消息复制到直接缓冲区并写出   Copie les messages en attente dans le tampon direct et les écrit
+     */
+    private void flush(Connection connection) {
+        if (!connection.key.isValid()) {
+            return;
+        }
+        ByteBuffer out = connection.out;
+        boolean more;
+        synchronized (connection) {
+            connection.queued = false;
+            ByteBuffer pending = connection.pending;
+            pending.flip();
+            if (pending.remaining() <= out.remaining()) {
+                out.put(pending);
+            } else {
+                int limit = pending.limit();
+                pending.limit(pending.position() + out.remaining());
+                out.put(pending);
+                pending.limit(limit);
+            }
+            pending.compact();
+            more = pending.position() > 0;
+        }
+        out.flip();
+        try {
+            connection.channel.write(out);
+            writes++;
+        } catch (IOException e) {
+            connection.close();
+            return;
+        }
+        out.compact();
+        more |= out.position() > 0;
+        int ops = SelectionKey.OP_READ | (more ? SelectionKey.OP_WRITE : 0);
+        try {
+            if (connection.key.interestOps() != ops) {
+                connection.key.interestOps(ops);
+            }
+        } catch (CancelledKeyException e) {
+            // 会话线程已经断开了这个连接   la connexion a été fermée par le thread d'une session
+        }
+    }
+
+    /**
+     * --------------------------------------
+     * 查询  Requêtes
+     * --------------------------------------
+     */
+
+    /**
+     * 收到的消息数  Nombre de messages reçus
+     */
+    public long getMessages() {
+        return messages;
+    }
+
+    /**
+     * 解码和分发消息用的总时间(纳秒)   Temps total de décodage et de distribution des messages (ns)
+     */
+    public long getProcessingNanos() {
+        return processingNanos;
+    }
+
+    /**
+     * write 调用次数(每次发送一批消息)   Nombre d'appels à write (un lot de messages chacun)
+     */
+    public long getWrites() {
+        return writes;
+    }
+
+    /**
+     * 一个客户端连接，同时是会话的监听器(把事件编码后发送给客户端)
+     * Une connexion cliente, également écouteur de la session (encode les événements pour le client)
+     */
+    private final class Connection implements Protocol.Handler, GameEngine.OnGameListener {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        /**
+         * 只在 selector 线程中使用的直接缓冲区   Tampons directs utilisés seulement par le thread selector
+         */
+        private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        /**
+         * 待发送的消息(会话线程写入，加锁)   Messages en attente (écrits par les threads des sessions, sous verrou)
+         */
+        private ByteBuffer pending = ByteBuffer.allocate(1024);
+        private boolean queued;
+        private GameSession session;
+        private int seat = -1;
+        private boolean closed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * selector 线程中收到客户端的一条消息   Message du client reçu dans le thread selector
+         */
+        @Override
+        public void onMessage(int type, ByteBuffer payload) {
+            if (payload.remaining() != Protocol.payloadLength(type)) {
+                send(Protocol.ERROR_UNKNOWN_MESSAGE);
+                return;
+            }
+            if (type == Protocol.JOIN) {
+                if (session != null) {
+                    send(Protocol.ERROR_ALREADY_JOINED);
+                } else {
+                    join(payload.getInt());
+                }
+                return;
+            }
+            if (session == null) {
+                send(Protocol.ERROR_NOT_JOINED);
+                return;
+            }
+            switch (type) {
+                case Protocol.START:
+                    session.start(seat, payload.get() & 0xFF, () -> send(Protocol.ERROR_NOT_ALLOWED));
+                    break;
+                case Protocol.BID:
+                    session.bid(seat, payload.getInt());
+                    break;
+                case Protocol.MOVE:
+                    int move = payload.get();
+                    session.move(seat, (move >> 2) & 3, move & 3);
+                    break;
+                case Protocol.UNDO:
+                    session.undo(seat);
+                    break;
+                case Protocol.REDO:
+                    session.redo(seat);
+                    break;
+                default:
+                    send(Protocol.ERROR_UNKNOWN_MESSAGE);
+                    break;
+            }
+        }
+
+        private void join(int id) {
+            GameSession target = id < 0 ? manager.create(GameSessionManager.CLASSIC) : manager.get(id);
+            if (target == null) {
+                send(Protocol.ERROR_NO_SESSION);
+                return;
+            }
+            int reserved = target.reserveSeat(Protocol.MAX_SEATS);
+            if (reserved < 0) {
+                send(Protocol.ERROR_SESSION_FULL);
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    // 在分配座位时已经断开   déconnectée pendant l'attribution du siège
+                    manager.release(target, reserved);
+                    return;
+                }
+                session = target;
+                seat = reserved;
+            }
+            // 在会话中加入并发送完整状态，之后的事件都在这之后   ajout et état complet dans la session, les événements suivent
+            session.execute(engine -> {
+                engine.addListener(this);
+                synchronized (this) {
+                    Protocol.welcome(reserve(), target.getId(), reserved, engine);
+                }
+                markDirty();
+            });
+        }
+
+        private void send(int error) {
+            synchronized (this) {
+                Protocol.error(reserve(), error);
+            }
+            markDirty();
+        }
+
+        /**
+         * 保证待发送缓冲区还能放下一条消息(调用时持有锁)
+         * Garantit la place d'un message dans le tampon d'envoi (appelé avec le verrou)
+         */
+        private ByteBuffer reserve() {
+            if (pending.remaining() < Protocol.MAX_MESSAGE) {
+                if (pending.capacity() >= MAX_PENDING) {
+                    // 客户端太慢，丢弃并断开   client trop lent : abandon et déconnexion
+                    pending.clear();
+                    close();
+                } else {
+                    ByteBuffer grown = ByteBuffer.allocate(pending.capacity() * 2);
+                    pending.flip();
+                    grown.put(pending);
+                    pending = grown;
+                }
+            }
+            return pending;
+        }
+
+        private void markDirty() {
+            boolean wake;
+            synchronized (this) {
+                wake = !queued;
+                queued = true;
+            }
+            if (wake) {
+                dirty.add(this);
+                selector.wakeup();
+            }
+        }
+
+        /**
+         * 断开连接、离开会话并释放座位(selector 线程或会话线程都可以调用，只执行一次)
+         * Ferme la connexion, quitte la session et libère le siège (depuis le thread selector ou celui
+         * d'une session, une seule fois)
+         */
+        void close() {
+            GameSession joined;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                joined = session;
+            }
+            if (joined != null) {
+                joined.leave(this);
+                manager.release(joined, seat);
+            }
+            SelectionKey current = key;
+            if (current != null) {
+                current.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // 已经关闭   déjà fermée
+            }
+        }
+
+        /**
+         * ---- 会话事件(会话线程)  Événements de la session (thread de la session) ----
+         */
+
+        @Override
+        public void onRobotMoved(int robot, int from, int to) {
+            synchronized (this) {
+                Protocol.robotMoved(reserve(), robot, from, to);
+            }
+            markDirty();
+        }
+
+        @Override
+        public void onRoundStarted(int robot, Player firstBidder) {
+            int bidder = session.seatOf(firstBidder);
+            synchronized (this) {
+                Protocol.roundStarted(reserve(), robot, bidder);
+            }
+            markDirty();
+        }
+
+        @Override
+        public void onBidRequested(Player player) {
+            sendSeat(Protocol.BID_REQUESTED, player);
+        }
+
+        @Override
+        public void onTurnStarted(Player player) {
+            sendSeat(Protocol.TURN_STARTED, player);
+        }
+
+        private void sendSeat(int type, Player player) {
+            int playerSeat = session.seatOf(player);
+            synchronized (this) {
+                Protocol.seat(reserve(), type, playerSeat);
+            }
+            markDirty();
+        }
+
+        @Override
+        public void onStepsLeft(Player player, int stepsLeft) {
+            int playerSeat = session.seatOf(player);
+            synchronized (this) {
+                Protocol.stepsLeft(reserve(), playerSeat, stepsLeft);
+            }
+            markDirty();
+        }
+
+        @Override
+        public void onRobotArrived(Player player, int robot) {
+            int playerSeat = session.seatOf(player);
+            synchronized (this) {
+                Protocol.robotArrived(reserve(), playerSeat, robot);
+            }
+            markDirty();
+        }
+
+        @Override
+        public void onGameOver(List<Player> ranking) {
+            int[] seats = new int[ranking.size()];
+            int[] scores = new int[ranking.size()];
+            for (int i = 0; i < seats.length; i++) {
+                seats[i] = session.seatOf(ranking.get(i));
+                scores[i] = ranking.get(i).getScore();
+            }
+            synchronized (this) {
+                Protocol.gameOver(reserve(), seats, scores);
+            }
+            markDirty();
+        }
+    }
+
+    /**
+     * 启动一个服务器(经典地图)   Démarre un serveur (carte classique)
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameSessionManager manager = new GameSessionManager(null, TURN_MILLIS);
+        try (GameServer server = new GameServer(manager, new InetSocketAddress(port))) {
+            System.out.println("Game server listening on port " + server.getPort());
+            server.thread.join();
+        } finally {
+            manager.shutdown();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 游戏会话(服务器中的一张游戏桌)
+ * Session de jeu (une table sur le serveur)
+ *  每个会话有自己的游戏引擎(棋子位置、玩家、对局记录)，地图的滑动终点表由同一地图的所有会话共用
+ *  Chaque session a son propre moteur (pions, joueurs, journal), la table des glissades de la carte
+ *  est partagée par toutes les sessions de la même carte
+ *      会话是一个轻量的 actor: 所有操作(玩家操作、回合超时)都在会话的 SerialExecutor 中按顺序执行，
+ *      引擎不需要加锁，成千上万个会话共用一个小线程池
+ *      La session est un acteur léger : toutes les actions (joueurs, dépassement de temps) s'exécutent
+ *      dans l'ordre dans son SerialExecutor, le moteur n'a pas besoin de verrou et des milliers de sessions
+ *      partagent un petit pool de threads
+ *      回合倒计时使用共用的时间轮，超时回调也在会话的 executor 中执行
+ *      Le compte à rebours du tour utilise la roue temporelle partagée, le dépassement s'exécute aussi
+ *      dans l'executor de la session
+ *  玩家用座位号(从 0 开始)表示，不是轮到该座位时操作被忽略
+ *  Les joueurs sont désignés par leur siège (à partir de 0), une action hors de son tour est ignorée
+ *  所有公共方法都是异步的，可以在任意线程调用；监听器在会话的 executor 中被调用
+ *  Toutes les méthodes publiques sont asynchrones et utilisables depuis n'importe quel thread ;
+ *  les écouteurs sont appelés dans l'executor de la session
+ */
+public class GameSession {
+
+    private final int id;
+    private final GameEngine engine;
+    private final SerialExecutor executor;
+    private final WTimer turnTimer;
+    /**
+     * 每个座位的玩家(开始游戏时创建)   Joueur de chaque siège (créés au début de la partie)
+     */
+    private Player[] seats = new Player[0];
+    /**
+     * 已经分配给客户端的座位(第 i 位为座位 i)，最后一个座位释放后全部置 1，不再分配
+     * Sièges attribués aux clients (bit i pour le siège i) ; tous les bits passent à 1 quand le dernier
+     * siège est libéré, plus aucun siège n'est attribué
+     */
+    private final AtomicLong seatMask = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * 由 GameSessionManager 创建  Créée par GameSessionManager
+     * @param board         地图(引擎会复制一份)   carte (le moteur en fait une copie)
+     * @param slideTable    共用的滑动终点表   table des glissades partagée
+     * @param boardId       地图库中的编号，-1 表示不是来自地图库   numéro dans la bibliothèque, -1 hors bibliothèque
+     * @param pool          共用的线程池   pool de threads partagé
+     * @param wheel         共用的时间轮   roue temporelle partagée
+     * @param turnMillis    每个玩家回合的时间(毫秒)   durée du tour d'un joueur (ms)
+     */
+    GameSession(int id, BitBoard board, SlideTable slideTable, int boardId, long seed,
+                Executor pool, TimingWheel wheel, long turnMillis) {
+        this.id = id;
+        this.engine = new GameEngine(board, slideTable, seed);
+        this.engine.getMoveLog().setBoardId(boardId);
+        this.executor = new SerialExecutor(pool);
+        this.turnTimer = WTimer.createWTimer(wheel, 0, turnMillis, executor, new WTimer.OnTimerListener() {
+            @Override
+            public void onTimerRunning(WTimer mTimer) {
+            }
+
+            @Override
+            public void onTimeout(WTimer mTimer) {
+                if (!closed) {
+                    engine.timeout();
+                }
+            }
+        });
+        this.engine.addListener(new GameEngine.OnGameListener() {
+            @Override
+            public void onTurnStarted(Player player) {
+                turnTimer.start();
+            }
+
+            @Override
+            public void onRoundStarted(int robot, Player firstBidder) {
+                turnTimer.stop();
+            }
+
+            @Override
+            public void onGameOver(List<Player> ranking) {
+                turnTimer.stop();
+            }
+        });
+    }
+
+    /**
+     * --------------------------------------
+     * 客户端操作  Actions des clients
+     * --------------------------------------
+     */
+
+    /**
+     * 添加一个客户端(接收这个会话的所有游戏事件)   Ajoute un client (reçoit tous les événements de la session)
+     */
+    public void join(GameEngine.OnGameListener client) {
+        execute(engine -> engine.addListener(client));
+    }
+
+    public void leave(GameEngine.OnGameListener client) {
+        execute(engine -> engine.removeListener(client));
+    }
+
+    /**
+     * 开始一局游戏，座位号 0 到 players - 1   Commence une partie, sièges 0 à players - 1
+     */
+    public void start(int players) {
+        execute(engine -> startGame(engine, players));
+    }
+
+    /**
+     * 座位 seat 的客户端请求开始游戏: 只有座位 0 (桌主)在没有进行中的游戏时可以开始，玩家数不超过已分配的座位数
+     * Le client du siège seat demande le début d'une partie : seul le siège 0 (l'hôte) peut la lancer hors partie,
+     * le nombre de joueurs ne dépasse pas le nombre de sièges attribués
+     * @param players   玩家数，0 表示所有已分配的座位   nombre de joueurs, 0 pour tous les sièges attribués
+     * @param rejected  请求被拒绝时在会话的 executor 中执行   exécuté dans l'executor de la session si la demande est refusée
+     */
+    public void start(int seat, int players, Runnable rejected) {
+        execute(engine -> {
+            GameEngine.Phase phase = engine.getPhase();
+            int count = getSeatCount();
+            int clamped = players > 0 ? Math.min(players, count) : count;
+            if (seat != 0 || clamped < 1 || (phase != GameEngine.Phase.WAITING && phase != GameEngine.Phase.OVER)) {
+                rejected.run();
+                return;
+            }
+            startGame(engine, clamped);
+        });
+    }
+
+    private void startGame(GameEngine engine, int players) {
+        List<Player> list = new ArrayList<>(players);
+        Player[] created = new Player[players];
+        for (int i = 0; i < players; i++) {
+            created[i] = new Player();
+            created[i].setName(String.valueOf(i + 1));
+            list.add(created[i]);
+        }
+        seats = created;
+        engine.startGame(list);
+    }
+
+    public void bid(int seat, int steps) {
+        execute(engine -> {
+            if (isBidder(seat)) {
+                engine.submitBid(steps);
+            }
+        });
+    }
+
+    public void move(int seat, int dir) {
+        execute(engine -> {
+            if (isMover(seat)) {
+                engine.move(dir);
+            }
+        });
+    }
+
+    /**
+     * 移动棋子 robot (不是当前棋子时忽略，例如客户端还没有收到回合变化)
+     * Déplace le pion robot (ignoré si ce n'est pas le pion courant, par exemple si le client n'a pas
+     * encore reçu le changement de tour)
+     */
+    public void move(int seat, int robot, int dir) {
+        execute(engine -> {
+            if (isMover(seat) && engine.getCurrentChessIndex() == robot) {
+                engine.move(dir);
+            }
+        });
+    }
+
+    public void undo(int seat) {
+        execute(engine -> {
+            if (isMover(seat)) {
+                engine.undo();
+            }
+        });
+    }
+
+    public void redo(int seat) {
+        execute(engine -> {
+            if (isMover(seat)) {
+                engine.redo();
+            }
+        });
+    }
+
+    public void respawn(int robot) {
+        execute(engine -> engine.respawn(robot));
+    }
+
+    /**
+     * 在会话的 executor 中对引擎执行 action (会话关闭后忽略)
+     * Exécute action sur le moteur dans l'executor de la session (ignoré après la fermeture)
+     */
+    public void execute(Consumer<GameEngine> action) {
+        if (closed) {
+            return;
+        }
+        executor.execute(() -> {
+            if (!closed) {
+                action.accept(engine);
+            }
+        });
+    }
+
+    /**
+     * 关闭会话，停止倒计时，之后的操作都被忽略   Ferme la session : arrête le compte à rebours, les actions suivantes sont ignorées
+     */
+    public void close() {
+        closed = true;
+        turnTimer.stop();
+    }
+
+    /**
+     * --------------------------------------
+     * 查询  Requêtes
+     * --------------------------------------
+     */
+
+    /**
+     * 是否轮到 seat 输入步数  Est-ce au tour de seat de saisir ses pas
+     */
+    private boolean isBidder(int seat) {
+        if (engine.getPhase() != GameEngine.Phase.BIDDING || seat < 0 || seat >= seats.length) {
+            return false;
+        }
+        int next = engine.getCurrentPlayerIndex() + 1;
+        return next < engine.getPlayers().size() && engine.getPlayers().get(next) == seats[seat];
+    }
+
+    /**
+     * 是否轮到 seat 操作棋子  Est-ce au tour de seat de déplacer le pion
+     */
+    private boolean isMover(int seat) {
+        return engine.getPhase() == GameEngine.Phase.MOVING && seat >= 0 && seat < seats.length
+                && engine.getCurrentPlayer() == seats[seat];
+    }
+
+    /**
+     * 为一个新的客户端分配最小的空闲座位   Attribue le plus petit siège libre à un nouveau client
+     * @param limit 最多 limit 个座位(不超过 63)   au plus limit sièges (63 au maximum)
+     * @return  座位号，会话已满或所有客户端都已离开时返回 -1   siège, -1 si la session est pleine ou si
+     *          tous les clients l'ont quittée
+     */
+    public int reserveSeat(int limit) {
+        while (true) {
+            long mask = seatMask.get();
+            int seat = Long.numberOfTrailingZeros(~mask);
+            if (seat >= limit) {
+                return -1;
+            }
+            if (seatMask.compareAndSet(mask, mask | 1L << seat)) {
+                return seat;
+            }
+        }
+    }
+
+    /**
+     * 释放客户端的座位，之后可以分配给新的客户端   Libère le siège d'un client, réattribuable ensuite
+     * @return  是否是最后一个座位(会话之后不再分配座位，应该关闭)   si c'était le dernier siège (la session
+     *          n'attribue plus de siège et doit être fermée)
+     */
+    public boolean releaseSeat(int seat) {
+        while (true) {
+            long mask = seatMask.get();
+            long next = mask & ~(1L << seat);
+            if (mask == -1L || next == mask) {
+                return false;
+            }
+            if (seatMask.compareAndSet(mask, next == 0 ? -1L : next)) {
+                return next == 0;
+            }
+        }
+    }
+
+    /**
+     * 座位数(最大的已分配座位号 + 1)   Nombre de sièges (plus grand siège attribué + 1)
+     */
+    public int getSeatCount() {
+        long mask = seatMask.get();
+        return mask == -1L ? 0 : Long.SIZE - Long.numberOfLeadingZeros(mask);
+    }
+
+    /**
+     * 座位号，不在这个会话中时返回 -1 (只能在会话的 executor 中调用)
+     * Numéro de siège, -1 hors de la session (uniquement dans l'executor de la session)
+     */
+    public int seatOf(Player player) {
+        for (int i = 0; i < seats.length; i++) {
+            if (seats[i] == player) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * 会话的引擎(只能在会话的 executor 中使用，例如通过 execute)
+     * Moteur de la session (uniquement dans l'executor de la session, par exemple via execute)
+     */
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 排队中的操作数  Nombre d'actions en attente
+     */
+    public int pending() {
+        return executor.pending();
+    }
+}
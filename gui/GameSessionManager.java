@@ -0,0 +1,167 @@
+package gui;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 会话管理器
+ * Gestionnaire de sessions
+ *  在一个进程中运行成千上万个相互隔离的游戏会话(GameSession)
+ *  Héberge des milliers de sessions de jeu (GameSession) isolées dans un seul processus
+ *      所有会话共用一个线程池(默认每个处理器核心一个线程)和一个时间轮，没有每个会话一个的线程
+ *      Toutes les sessions partagent un pool de threads (par défaut un par cœur) et une roue temporelle,
+ *      aucun thread par session
+ *      同一张地图只读取一次: 墙与滑动终点表(只读)被该地图的所有会话共用，每个会话只有自己的棋子状态
+ *      Chaque carte n'est lue qu'une fois : murs et table des glissades (lecture seule) sont partagés
+ *      par toutes ses sessions, chaque session n'a que son propre état des pions
+ *  线程安全   Thread-safe
+ */
+public class GameSessionManager {
+
+    /**
+     * 经典地图的编号(不在地图库中)   Numéro de la carte classique (hors bibliothèque)
+     */
+    public static final int CLASSIC = -1;
+
+    /**
+     * 一张地图的共用数据  Données partagées d'une carte
+     */
+    private static final class SharedBoard {
+        final BitBoard board;
+        final SlideTable slideTable;
+
+        SharedBoard(BitBoard board) {
+            this.board = board.withoutRobots();
+            this.slideTable = new SlideTable(board);
+        }
+    }
+
+    private final BoardLibrary library;
+    private final long turnMillis;
+    private final ExecutorService pool;
+    private final TimingWheel wheel;
+    private final ConcurrentHashMap<Integer, SharedBoard> boards = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * @param library       地图库，可以为 null(只能使用经典地图)   bibliothèque, peut être null (carte classique seulement)
+     * @param threads       共用线程池的线程数   nombre de threads du pool partagé
+     * @param turnMillis    每个玩家回合的时间(毫秒)   durée du tour d'un joueur (ms)
+     */
+    public GameSessionManager(BoardLibrary library, int threads, long turnMillis) {
+        this.library = library;
+        this.turnMillis = turnMillis;
+        AtomicInteger count = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "session-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.wheel = new TimingWheel("session-timers");
+    }
+
+    /**
+     * 每个处理器核心一个线程  Un thread par cœur
+     */
+    public GameSessionManager(BoardLibrary library, long turnMillis) {
+        this(library, Runtime.getRuntime().availableProcessors(), turnMillis);
+    }
+
+    /**
+     * --------------------------------------
+     * 会话  Sessions
+     * --------------------------------------
+     */
+
+    /**
+     * 在指定地图上创建一个会话(随机种子)   Crée une session sur la carte indiquée (graine aléatoire)
+     * @param boardId   地图库中的编号或 CLASSIC   numéro dans la bibliothèque ou CLASSIC
+     */
+    public GameSession create(int boardId) {
+        return create(boardId, ThreadLocalRandom.current().nextLong());
+    }
+
+    public GameSession create(int boardId, long seed) {
+        SharedBoard shared = boards.computeIfAbsent(boardId, this::loadBoard);
+        int id = nextId.incrementAndGet();
+        GameSession session = new GameSession(id, shared.board, shared.slideTable, boardId, seed,
+                pool, wheel, turnMillis);
+        sessions.put(id, session);
+        return session;
+    }
+
+    private SharedBoard loadBoard(int boardId) {
+        if (boardId == CLASSIC) {
+            return new SharedBoard(Boards.classic());
+        }
+        if (library == null) {
+            throw new IllegalArgumentException("No board library for board " + boardId);
+        }
+        return new SharedBoard(library.get(boardId));
+    }
+
+    /**
+     * 会话，不存在时返回 null   Session, null si elle n'existe pas
+     */
+    public GameSession get(int id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * 释放客户端的座位，会话的最后一个座位释放后关闭会话
+     * Libère le siège d'un client ; la session est fermée quand son dernier siège est libéré
+     * @return  会话是否被关闭   si la session a été fermée
+     */
+    public boolean release(GameSession session, int seat) {
+        if (session.releaseSeat(seat)) {
+            close(session.getId());
+            return true;
+        }
+        return false;
+    }
+
+    public void close(int id) {
+        GameSession session = sessions.remove(id);
+        if (session != null) {
+            session.close();
+        }
+    }
+
+    public Collection<GameSession> getSessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * 已经读取的地图数  Nombre de cartes chargées
+     */
+    public int boardCount() {
+        return boards.size();
+    }
+
+    /**
+     * 关闭所有会话并停止线程池和时间轮   Ferme toutes les sessions, arrête le pool et la roue
+     */
+    public void shutdown() {
+        for (Integer id : sessions.keySet()) {
+            close(id);
+        }
+        wheel.stop();
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,193 @@
+package gui;
+
+import java.util.Arrays;
+
+/**
+ * IDA* 迭代加深搜索
+ * Recherche IDA* (A* à approfondissement itératif)
+ *  用 DistanceMap 作为可采纳的启发函数，每一轮把 f = g + h 的上限加大，直到找到解
+ *  Utilise DistanceMap comme heuristique admissible, chaque itération augmente la borne de f = g + h
+ *  jusqu'à trouver une solution
+ *      内存只与搜索深度有关(路径栈)，外加一个固定大小的置换表用于剪枝
+ *      La mémoire ne dépend que de la profondeur (pile du chemin), plus une table de transposition
+ *      de taille fixe pour l'élagage
+ *  注意: 不是线程安全的   Attention : pas thread-safe
+ */
+public class IdaStarSearch {
+
+    /**
+     * 置换表大小(2 的幂)   Taille de la table de transposition (puissance de 2)
+     */
+    private static final int TABLE_SIZE = 1 << 16;
+
+    private final SlideTable slideTable;
+
+    /**
+     * 置换表: 状态、到达该状态时的步数 g、写入时的轮次
+     * Table de transposition : état, nombre de pas g à l'arrivée dans l'état, itération d'écriture
+     */
+    private final int[] tableKeys = new int[TABLE_SIZE];
+    private final byte[] tableDepths = new byte[TABLE_SIZE];
+    private final int[] tableIterations = new int[TABLE_SIZE];
+    private int iteration;
+
+    /**
+     * 当前搜索的参数  Paramètres de la recherche en cours
+     */
+    private int robot;
+    private int firstRobot;
+    private int lastRobot;
+    private long[] goal;
+    private DistanceMap distances;
+    private int bound;
+    private int nextBound;
+    private byte[] path;
+    /**
+     * 上一次搜索展开的节点数  Nombre de nœuds développés par la dernière recherche
+     */
+    private long nodes;
+    /**
+     * 截止时间(System.nanoTime，0 表示不限时)以及上一次搜索是否因此放弃
+     * Échéance (System.nanoTime, 0 sans limite) et abandon de la dernière recherche à cause d'elle
+     */
+    private long deadline;
+    private boolean cancelled;
+    /**
+     * 置换表的键使用规范状态(null 表示直接使用状态)，路径仍然是真实的移动
+     * Les clés de la table de transposition sont des états canoniques (null : l'état lui-même),
+     * le chemin reste fait des vrais coups
+     */
+    private StateCanonicalizer canonicalizer;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    public IdaStarSearch(SlideTable slideTable) {
+        this.slideTable = slideTable;
+    }
+
+    /**
+     * 搜索最优解  Recherche de la solution optimale
+     * @param start         打包的棋子位置   positions packées des pions
+     * @param robot         当前棋子下标    indice du pion courant
+     * @param goal          终点掩码        masque des arrivées
+     * @param distances     该终点的距离表   table des distances de cette arrivée
+     * @param helperMoves   是否允许移动其他棋子   autoriser le déplacement des autres pions
+     * @param maxDepth      最大步数        profondeur maximale
+     * @return  最优解，无解时返回 null    solution optimale, null s'il n'y en a pas
+     */
+    public Solution search(int start, int robot, long[] goal, DistanceMap distances, boolean helperMoves, int maxDepth) {
+        this.robot = robot;
+        this.firstRobot = helperMoves ? 0 : robot;
+        this.lastRobot = helperMoves ? 3 : robot;
+        this.goal = goal;
+        this.distances = distances;
+        this.path = new byte[maxDepth];
+        nodes = 0;
+        cancelled = false;
+        bound = distances.get(Solver.cellOf(start, robot));
+        while (bound <= maxDepth) {
+            iteration++;
+            nextBound = Integer.MAX_VALUE;
+            int length = dfs(start, 0);
+            if (length >= 0) {
+                return new Solution(Arrays.copyOf(path, length));
+            }
+            if (cancelled) {
+                return null;
+            }
+            if (nextBound == Integer.MAX_VALUE) {
+                break;
+            }
+            bound = nextBound;
+        }
+        return null;
+    }
+
+    /**
+     * 深度优先搜索一轮  Une passe de recherche en profondeur
+     * @return  找到解时返回解的长度，否则返回 -1   longueur de la solution trouvée, sinon -1
+     */
+    private int dfs(int state, int g) {
+        if ((++nodes & Solver.STOP_CHECK_MASK) == 0 && !cancelled) {
+            cancelled = Thread.currentThread().isInterrupted() || (deadline != 0 && System.nanoTime() - deadline > 0);
+        }
+        if (cancelled) {
+            return -1;
+        }
+        int cell = Solver.cellOf(state, robot);
+        if ((goal[cell >>> 6] & (1L << cell)) != 0) {
+            return g;
+        }
+        int f = g + distances.get(cell);
+        if (f > bound) {
+            if (f < nextBound) {
+                nextBound = f;
+            }
+            return -1;
+        }
+        if (seen(canonicalizer != null ? canonicalizer.canonical(state) : state, g)) {
+            return -1;
+        }
+        for (int r = firstRobot; r <= lastRobot; r++) {
+            int from = Solver.cellOf(state, r);
+            for (int dir = 0; dir < 4; dir++) {
+                int to = slideTable.slide(from, dir, state);
+                if (to == from) {
+                    continue;
+                }
+                path[g] = Solution.encode(r, dir);
+                int length = dfs(Solver.withCell(state, r, to), g + 1);
+                if (length >= 0) {
+                    return length;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 本轮中是否已经以不多于 g 的步数展开过该状态(否则记录下来)
+     * L'état a-t-il déjà été développé dans cette itération avec au plus g pas (sinon il est enregistré)
+     */
+    private boolean seen(int state, int g) {
+        int i = IntHashSet.mix(state) & (TABLE_SIZE - 1);
+        if (tableIterations[i] == iteration && tableKeys[i] == state && tableDepths[i] <= g) {
+            return true;
+        }
+        tableIterations[i] = iteration;
+        tableKeys[i] = state;
+        tableDepths[i] = (byte) g;
+        return false;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @param deadline  System.nanoTime() 的时刻，0 表示不限时   instant System.nanoTime(), 0 pour aucune limite
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * @param canonicalizer 已经 setGoal 的规范化器，null 表示不规范化   canonicaliseur déjà passé par setGoal,
+     *                      null pour ne pas canonicaliser
+     */
+    public void setCanonicalizer(StateCanonicalizer canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    /**
+     * 上一次搜索是否因为超时或线程被中断而放弃
+     * La dernière recherche a-t-elle été abandonnée (échéance dépassée ou thread interrompu)
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,133 @@
+package gui;
+
+/**
+ * 基本类型 int 哈希集合
+ * Ensemble de hachage de type primitif int
+ *  开放寻址(线性探测)，不装箱，不为每个元素创建对象，用于搜索时记录已访问的状态
+ *  Adressage ouvert (sondage linéaire), sans boxing ni objet par élément,
+ *  utilisé pour enregistrer les états visités pendant une recherche
+ */
+public class IntHashSet implements VisitedSet {
+
+    /**
+     * 空槽标记，值 0 本身用 hasZero 单独记录
+     * Marqueur de case vide, la valeur 0 elle-même est enregistrée à part dans hasZero
+     */
+    private static final int EMPTY = 0;
+
+    private int[] table;
+    private int mask;
+    private int size;
+    private boolean hasZero;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * @param expected 预计元素个数  nombre d'éléments attendu
+     */
+    public IntHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        table = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public IntHashSet() {
+        this(1024);
+    }
+
+    /**
+     * 添加元素  Ajoute un élément
+     * @return  元素之前不存在时返回 true    true si l'élément n'existait pas encore
+     */
+    @Override
+    public boolean add(int value) {
+        if (value == EMPTY) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int i = mix(value) & mask;
+        while (true) {
+            int v = table[i];
+            if (v == EMPTY) {
+                table[i] = value;
+                if (++size * 2 > table.length) {
+                    rehash();
+                }
+                return true;
+            }
+            if (v == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * 判断元素是否存在  Détermine si l'élément existe
+     */
+    @Override
+    public boolean contains(int value) {
+        if (value == EMPTY) {
+            return hasZero;
+        }
+        int i = mix(value) & mask;
+        while (true) {
+            int v = table[i];
+            if (v == EMPTY) {
+                return false;
+            }
+            if (v == value) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * 清空集合(保留已经分配的数组，便于复用)
+     * Vide l'ensemble (le tableau déjà alloué est conservé pour être réutilisé)
+     */
+    @Override
+    public void clear() {
+        java.util.Arrays.fill(table, EMPTY);
+        size = 0;
+        hasZero = false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        int[] old = table;
+        table = new int[old.length << 1];
+        mask = table.length - 1;
+        for (int v : old) {
+            if (v != EMPTY) {
+                int i = mix(v) & mask;
+                while (table[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = v;
+            }
+        }
+    }
+
+    /**
+     * 打散哈希值(打包的棋子状态低位变化很少)
+     * Mélange la valeur de hachage (les bits de poids faible des états de pions packés varient peu)
+     */
+    static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,238 @@
+package gui;
+
+import java.util.Arrays;
+
+/**
+ * 锦标赛排行榜
+ * Classement d'un tournoi
+ *  每局结束时增量更新基本类型数组(不创建对象，不排序 Player 列表)，显示时才计算等级分
+ *  Mis à jour de façon incrémentale à la fin de chaque partie dans des tableaux primitifs (aucun objet créé,
+ *  aucune liste de Player triée) ; les classements Elo ne sont calculés qu'à l'affichage
+ *      一局多人游戏按分数拆成每两人之间的一局: 分数高的胜，相同为和
+ *      Une partie à plusieurs est décomposée en une rencontre par paire de joueurs : le plus haut score gagne,
+ *      égalité pour un nul
+ *      等级分为 Bradley-Terry 模型的最大似然估计(Elo 刻度，平均为 0)，每对选手加一局虚拟和棋，
+ *      全胜或全负的选手等级分也是有限的
+ *      Les classements sont l'estimation du maximum de vraisemblance du modèle de Bradley-Terry (échelle Elo,
+ *      moyenne 0) ; un nul fictif est ajouté à chaque paire, pour qu'un joueur invaincu ou sans victoire
+ *      ait un classement fini
+ *  不是线程安全的: 每个工作线程使用自己的排行榜，再用 merge 合并
+ *  N'est pas thread-safe : chaque thread de travail a son classement, fusionné ensuite par merge
+ */
+public class Leaderboard {
+
+    private static final double ELO = 400 / Math.log(10);
+    /**
+     * 95% 置信区间对应的标准差倍数   Multiple de l'écart type pour un intervalle de confiance à 95 %
+     */
+    private static final double Z95 = 1.96;
+    private static final int MAX_ITERATIONS = 10_000;
+    private static final double EPSILON = 1e-10;
+
+    private final int size;
+    /**
+     * 每个选手的对局数和得分总和   Parties et somme des scores de chaque joueur
+     */
+    private final long[] games;
+    private final long[] points;
+    /**
+     * 每对选手 [i * size + j] 的对局数，以及 i 对 j 得到的半分数(胜 2，和 1)
+     * Rencontres de chaque paire [i * size + j], et demi-points de i contre j (victoire 2, nul 1)
+     */
+    private final long[] pairGames;
+    private final long[] pairHalfPoints;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * @param size  选手数   nombre de joueurs
+     */
+    public Leaderboard(int size) {
+        this.size = size;
+        this.games = new long[size];
+        this.points = new long[size];
+        this.pairGames = new long[size * size];
+        this.pairHalfPoints = new long[size * size];
+    }
+
+    /**
+     * --------------------------------------
+     * 记录  Enregistrement
+     * --------------------------------------
+     */
+
+    /**
+     * 记录一局游戏   Enregistre une partie
+     * @param players   每个座位的选手编号   numéro de joueur de chaque siège
+     * @param scores    每个座位的得分   score de chaque siège
+     * @param seats     座位数   nombre de sièges
+     */
+    public void record(int[] players, int[] scores, int seats) {
+        for (int a = 0; a < seats; a++) {
+            int i = players[a];
+            games[i]++;
+            points[i] += scores[a];
+            for (int b = a + 1; b < seats; b++) {
+                int j = players[b];
+                int half = Integer.compare(scores[a], scores[b]) + 1;
+                pairGames[i * size + j]++;
+                pairGames[j * size + i]++;
+                pairHalfPoints[i * size + j] += half;
+                pairHalfPoints[j * size + i] += 2 - half;
+            }
+        }
+    }
+
+    /**
+     * 把 other 的记录加到这个排行榜中   Ajoute les enregistrements de other à ce classement
+     */
+    public void merge(Leaderboard other) {
+        for (int i = 0; i < size; i++) {
+            games[i] += other.games[i];
+            points[i] += other.points[i];
+        }
+        for (int k = 0; k < size * size; k++) {
+            pairGames[k] += other.pairGames[k];
+            pairHalfPoints[k] += other.pairHalfPoints[k];
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(games, 0);
+        Arrays.fill(points, 0);
+        Arrays.fill(pairGames, 0);
+        Arrays.fill(pairHalfPoints, 0);
+    }
+
+    /**
+     * --------------------------------------
+     * 等级分  Classement Elo
+     * --------------------------------------
+     */
+
+    /**
+     * Bradley-Terry 最大似然估计(MM 迭代)   Estimation du maximum de vraisemblance de Bradley-Terry (itérations MM)
+     *  γi = Wi / Σj nij / (γi + γj)，等级分 = 400 log10 γi
+     *  γi = Wi / Σj nij / (γi + γj), classement = 400 log10 γi
+     * @return  每个选手的等级分，平均为 0(没有对局的选手为 0)   classement de chaque joueur, moyenne 0
+     *          (0 pour un joueur sans partie)
+     */
+    public double[] ratings() {
+        double[] strength = new double[size];
+        Arrays.fill(strength, 1);
+        double[] wins = new double[size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (pairGames[i * size + j] > 0) {
+                    wins[i] += pairHalfPoints[i * size + j] / 2.0 + 0.5;
+                }
+            }
+        }
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double change = 0;
+            for (int i = 0; i < size; i++) {
+                double sum = 0;
+                for (int j = 0; j < size; j++) {
+                    long n = pairGames[i * size + j];
+                    if (n > 0) {
+                        sum += (n + 1) / (strength[i] + strength[j]);
+                    }
+                }
+                if (sum > 0) {
+                    double next = wins[i] / sum;
+                    change = Math.max(change, Math.abs(Math.log(next / strength[i])));
+                    strength[i] = next;
+                }
+            }
+            if (change < EPSILON) {
+                break;
+            }
+        }
+        double[] ratings = new double[size];
+        double mean = 0;
+        for (int i = 0; i < size; i++) {
+            ratings[i] = ELO * Math.log(strength[i]);
+            mean += ratings[i];
+        }
+        mean /= size;
+        for (int i = 0; i < size; i++) {
+            ratings[i] -= mean;
+        }
+        return ratings;
+    }
+
+    /**
+     * 每个选手等级分的 95% 置信区间半宽(Fisher 信息矩阵的对角项，忽略协方差)
+     * Demi-largeur de l'intervalle de confiance à 95 % de chaque classement (termes diagonaux de
+     * l'information de Fisher, covariances ignorées)
+     * @param ratings   ratings() 的结果   résultat de ratings()
+     * @return  没有对局的选手为无穷大   infini pour un joueur sans partie
+     */
+    public double[] errors(double[] ratings) {
+        double[] errors = new double[size];
+        for (int i = 0; i < size; i++) {
+            double information = 0;
+            for (int j = 0; j < size; j++) {
+                long n = pairGames[i * size + j];
+                if (n > 0) {
+                    double p = 1 / (1 + Math.pow(10, (ratings[j] - ratings[i]) / 400));
+                    information += (n + 1) * p * (1 - p);
+                }
+            }
+            errors[i] = information > 0 ? Z95 * ELO / Math.sqrt(information) : Double.POSITIVE_INFINITY;
+        }
+        return errors;
+    }
+
+    /**
+     * 按等级分从高到低排列的选手编号(插入排序，选手数很少)
+     * Numéros des joueurs du meilleur au moins bon classement (tri par insertion, peu de joueurs)
+     */
+    public int[] order(double[] ratings) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            int k = i;
+            while (k > 0 && ratings[order[k - 1]] < ratings[i]) {
+                order[k] = order[k - 1];
+                k--;
+            }
+            order[k] = i;
+        }
+        return order;
+    }
+
+    /**
+     * --------------------------------------
+     * Getter
+     * --------------------------------------
+     */
+
+    public int size() {
+        return size;
+    }
+
+    public long getGames(int player) {
+        return games[player];
+    }
+
+    public long getPoints(int player) {
+        return points[player];
+    }
+
+    /**
+     * 对所有对手的得分率(胜 1，和 0.5)   Taux de points contre tous les adversaires (victoire 1, nul 0,5)
+     */
+    public double getScoreRate(int player) {
+        long n = 0;
+        long half = 0;
+        for (int j = 0; j < size; j++) {
+            n += pairGames[player * size + j];
+            half += pairHalfPoints[player * size + j];
+        }
+        return n > 0 ? half / (2.0 * n) : 0;
+    }
+}
@@ -0,0 +1,129 @@
+package gui;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 本地回环客户端
+ * Client local en boucle
+ *  代替网络客户端坐在会话的一个座位上: 像远程玩家一样接收会话的事件，并通过会话的异步方法发送操作
+ *  Remplace un client réseau sur un siège de la session : il reçoit les événements comme un joueur distant
+ *  et envoie ses actions par les méthodes asynchrones de la session
+ *      轮到自己时随机出价、随机移动(用于压力测试和基准测试，不是一个好玩家)
+ *      À son tour, il enchérit et joue au hasard (pour les tests de charge et les benchmarks, pas un bon joueur)
+ *      座位 0 的客户端可以在游戏结束后重新开始一局   le client du siège 0 peut relancer une partie à la fin
+ *  事件在会话的 executor 中被调用，计数器可以在其他线程读取
+ *  Les événements sont appelés dans l'executor de la session, les compteurs sont lisibles depuis d'autres threads
+ */
+public class LoopbackClient implements GameEngine.OnGameListener {
+
+    private final GameSession session;
+    private final int seat;
+    private final Random random;
+    private final int maxBid;
+    /**
+     * 游戏结束后重新开始时的玩家数，0 表示不重新开始
+     * Nombre de joueurs de la partie relancée à la fin, 0 pour ne pas relancer
+     */
+    private final int restartPlayers;
+
+    private volatile long events;
+    private volatile long actions;
+    private volatile int games;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * @param seat              座位号   siège
+     * @param seed              随机操作的种子   graine des actions aléatoires
+     * @param maxBid            最大出价   enchère maximum
+     * @param restartPlayers    游戏结束后重新开始时的玩家数(0 不重新开始)   joueurs de la partie relancée (0 : pas de relance)
+     */
+    public LoopbackClient(GameSession session, int seat, long seed, int maxBid, int restartPlayers) {
+        this.session = session;
+        this.seat = seat;
+        this.random = new Random(seed);
+        this.maxBid = maxBid;
+        this.restartPlayers = restartPlayers;
+    }
+
+    /**
+     * --------------------------------------
+     * 会话事件  Événements de la session
+     * --------------------------------------
+     */
+
+    @Override
+    public void onRobotMoved(int robot, int from, int to) {
+        events++;
+    }
+
+    @Override
+    public void onRoundStarted(int robot, Player firstBidder) {
+        events++;
+        bidIfMine(firstBidder);
+    }
+
+    @Override
+    public void onBidRequested(Player player) {
+        events++;
+        bidIfMine(player);
+    }
+
+    @Override
+    public void onStepsLeft(Player player, int stepsLeft) {
+        events++;
+        if (session.seatOf(player) == seat) {
+            actions++;
+            session.move(seat, random.nextInt(4));
+        }
+    }
+
+    @Override
+    public void onGameOver(List<Player> ranking) {
+        events++;
+        games++;
+        if (restartPlayers > 0) {
+            session.start(restartPlayers);
+        }
+    }
+
+    private void bidIfMine(Player player) {
+        if (session.seatOf(player) == seat) {
+            actions++;
+            session.bid(seat, 1 + random.nextInt(maxBid));
+        }
+    }
+
+    /**
+     * --------------------------------------
+     * 查询  Requêtes
+     * --------------------------------------
+     */
+
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * 收到的事件数  Nombre d'événements reçus
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * 发出的操作数(出价和移动)   Nombre d'actions envoyées (enchères et coups)
+     */
+    public long getActions() {
+        return actions;
+    }
+
+    public int getGames() {
+        return games;
+    }
+}
@@ -0,0 +1,203 @@
+package gui;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 对局记录
+ * Journal de partie
+ *  记录改变游戏状态的所有操作，每个操作一个字节(出价较大时除外)，可以由 (种子, 地图编号, 记录) 重放整局游戏
+ *  Enregistre toutes les actions qui changent l'état du jeu, un octet par action (sauf grosses enchères) :
+ *  la partie entière peut être rejouée à partir de (graine, numéro de carte, journal)
+ *      0x00-0x0F : 移动   déplacement (robot << 2 | dir, voir Solution.encode)
+ *      0x10 : 超时   dépassement de temps
+ *      0x11 / 0x12 : 撤销 / 重做   annuler / rétablir
+ *      0x14-0x17 : 随机刷新棋子   rafraîchissement d'un pion (0x14 | robot)
+ *      0x40-0x7F : 开始游戏   début de partie (0x40 | nombre de joueurs)
+ *      0x80-0xFE : 出价   enchère (0x80 | pas, pas < 127)
+ *      0xFF + 4 字节 : 其他出价   autre enchère (0xFF + 4 octets)
+ *  不是线程安全的(与 GameEngine 相同)   Pas thread-safe (comme GameEngine)
+ */
+public class MoveLog {
+
+    public static final int MOVE_MASK = 0x0F;
+    public static final int TIMEOUT = 0x10;
+    public static final int UNDO = 0x11;
+    public static final int REDO = 0x12;
+    public static final int RESPAWN = 0x14;
+    public static final int START = 0x40;
+    public static final int BID = 0x80;
+    public static final int BID_INT = 0xFF;
+    /**
+     * 一个字节能表示的最大玩家数与出价   Nombre de joueurs et enchère maximum sur un octet
+     */
+    public static final int MAX_PLAYERS = 0x3F;
+    public static final int MAX_SHORT_BID = 0x7E;
+
+    /**
+     * 文件头  En-tête de fichier
+     */
+    private static final int MAGIC = 0x524D4C31;       // "RML1"
+
+    private long seed;
+    /**
+     * 地图库中的地图编号，-1 表示不是来自地图库   Numéro de carte dans la bibliothèque, -1 hors bibliothèque
+     */
+    private int boardId = -1;
+    private byte[] data;
+    private int size;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    public MoveLog(long seed) {
+        this(seed, new byte[64], 0);
+    }
+
+    private MoveLog(long seed, byte[] data, int size) {
+        this.seed = seed;
+        this.data = data;
+        this.size = size;
+    }
+
+    /**
+     * --------------------------------------
+     * 记录  Enregistrement
+     * --------------------------------------
+     */
+
+    public void move(int robot, int dir) {
+        append(Solution.encode(robot, dir));
+    }
+
+    public void bid(int steps) {
+        if (steps >= 0 && steps <= MAX_SHORT_BID) {
+            append(BID | steps);
+        } else {
+            append(BID_INT);
+            append(steps >>> 24);
+            append(steps >>> 16);
+            append(steps >>> 8);
+            append(steps);
+        }
+    }
+
+    public void start(int players) {
+        if (players < 0 || players > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Too many players: " + players);
+        }
+        append(START | players);
+    }
+
+    public void respawn(int robot) {
+        append(RESPAWN | robot);
+    }
+
+    public void append(int op) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        data[size++] = (byte) op;
+    }
+
+    /**
+     * 清空记录并换用新的种子(开始新的一局)   Vide le journal avec une nouvelle graine (nouvelle partie)
+     */
+    public void reset(long seed) {
+        this.seed = seed;
+        size = 0;
+    }
+
+    /**
+     * --------------------------------------
+     * 读取  Lecture
+     * --------------------------------------
+     */
+
+    /**
+     * 第 i 个字节(无符号)   i-ème octet (non signé)
+     */
+    public int get(int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", size: " + size);
+        }
+        return data[i] & 0xFF;
+    }
+
+    /**
+     * 从第 i 个字节读取 0xFF 之后的 4 字节出价   Lit l'enchère sur 4 octets qui suit 0xFF à l'octet i
+     */
+    public int getInt(int i) {
+        return get(i) << 24 | get(i + 1) << 16 | get(i + 2) << 8 | get(i + 3);
+    }
+
+    public static boolean isMove(int op) {
+        return op <= MOVE_MASK;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getBoardId() {
+        return boardId;
+    }
+
+    public void setBoardId(int boardId) {
+        this.boardId = boardId;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    /**
+     * 复制前 length 个字节(例如只重放到有争议的回合)
+     * Copie les length premiers octets (par exemple pour rejouer jusqu'au tour contesté)
+     */
+    public MoveLog copy(int length) {
+        MoveLog copy = new MoveLog(seed, Arrays.copyOf(data, Math.max(16, length)), Math.min(length, size));
+        copy.boardId = boardId;
+        return copy;
+    }
+
+    /**
+     * --------------------------------------
+     * 文件  Fichier
+     * --------------------------------------
+     */
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeLong(seed);
+        out.writeInt(boardId);
+        out.writeInt(size);
+        out.write(data, 0, size);
+    }
+
+    public static MoveLog read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a move log");
+        }
+        long seed = in.readLong();
+        int boardId = in.readInt();
+        int size = in.readInt();
+        if (size < 0) {
+            throw new IOException("Bad move log size: " + size);
+        }
+        byte[] data = new byte[Math.max(16, size)];
+        in.readFully(data, 0, size);
+        MoveLog log = new MoveLog(seed, data, size);
+        log.boardId = boardId;
+        return log;
+    }
+}
@@ -88,25 +88,32 @@ public class Obstacle {
      * hashCode方法   méthodehashCode
      *  用于计算hash值，在Set与Map中需要用到
      *  Utilisé pour calculer la valeur de hachage, il doit être utilisé dans Set et Map
-     * @return  坐标字符串 的hashCode值    La valeur hashCode de la chaîne de coordonnées
+     *  直接由行号与列号计算，不再生成坐标字符串
+     *  Calculé directement à partir de la ligne et de la colonne, sans créer de chaîne de coordonnées
+     * @return  坐标的hash值    La valeur de hachage des coordonnées
      */
     @Override
     public int hashCode() {
-        return (row + "_" + col).hashCode();
+        return row * 31 + col;
     }
 
     /**
      * equals方法 méthode equals
-     *  用于判断两个棋子是否相同
-     *  Utilisé pour déterminer si deux pièces sont identiques
-     *  这里只做了最简单toString()是否相同判断，不考虑其他情况
-     *  Ici, seul le toString() le plus simple est jugé identique, en ignorant les autres situations
+     *  用于判断两个障碍物是否在同一个坐标
+     *  Utilisé pour déterminer si deux obstacles sont aux mêmes coordonnées
      * @param obj   用于对比的障碍物对象    obj  Objets d'obstacle à comparer
-     * @return 两个棋子对象是否相同(在同一个坐标)   return Si les deux objets pion sont identiques (aux mêmes coordonnées)
+     * @return 两个对象是否相同(在同一个坐标)   return Si les deux objets sont identiques (aux mêmes coordonnées)
      */
     @Override
     public boolean equals(Object obj) {
-        return this.toString().equals(obj.toString());
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Obstacle)) {
+            return false;
+        }
+        Obstacle other = (Obstacle) obj;
+        return row == other.row && col == other.col;
     }
 
     /**
@@ -134,10 +141,15 @@ public class Obstacle {
     }
 
     public Obstacle(String r_c) {
-        String[] split = r_c.split("_");
-        // TODO: 2022/5/31 throw Exception
-        this.row = Integer.parseInt(split[0]);
-        this.col = Integer.parseInt(split[1]);
+        this.row = getR(r_c);
+        this.col = getC(r_c);
+    }
+
+    /**
+     * @param cell  格子下标(BitBoard.cell)  indice de case (BitBoard.cell)
+     */
+    public Obstacle(int cell) {
+        this(BitBoard.row(cell), BitBoard.col(cell));
     }
 
     /**
@@ -154,14 +166,36 @@ public class Obstacle {
     }
 
 
+    /**
+     * [公共静态方法] 格子下标转换为坐标字符串(只在显示与保存时使用)
+     * [public static] Convertit un indice de case en chaîne de coordonnées (seulement pour l'affichage et la sauvegarde)
+     * @param cell  格子下标(BitBoard.cell)  indice de case (BitBoard.cell)
+     * @return  坐标字符串   chaîne de coordonnées
+     */
+    public static String getR_C(int cell) {
+        return getR_C(BitBoard.row(cell), BitBoard.col(cell));
+    }
+
+    /**
+     * [公共静态方法] 通过坐标字符串获取格子下标的辅助方法
+     * [public static] Méthode d'assistance pour obtenir l'indice de case par chaîne de coordonnées
+     * @param rc    坐标字符串   chaîne de coordonnées
+     * @return  格子下标(BitBoard.cell)  indice de case (BitBoard.cell)
+     */
+    public static int getCell(String rc) {
+        return BitBoard.cell(getR(rc), getC(rc));
+    }
+
     /**
      * [公共静态方法] 通过坐标字符串获取行号的辅助方法    [public static]
      * Méthode d'assistance pour obtenir le numéro de ligne par chaîne de coordonnées
+     *  直接解析字符，不使用 split(不产生垃圾对象)
+     *  Analyse directement les caractères, sans split (aucun objet temporaire)
      * @param rc    坐标字符串   chaîne de coordonnées
      * @return  行号  numéro de ligne
      */
     public static int getR(String rc) {
-        return Integer.parseInt(rc.split("_")[0]);
+        return parse(rc, 0, separator(rc));
     }
 
     /**
@@ -170,7 +204,36 @@ public class Obstacle {
      * @return  列号      numéro de colonne
      */
     public static int getC(String rc) {
-        return Integer.parseInt(rc.split("_")[1]);
+        return parse(rc, separator(rc) + 1, rc.length());
+    }
+
+    private static int separator(String rc) {
+        int index = rc.indexOf('_', 1);
+        if (index < 0) {
+            throw new NumberFormatException("For coordinate string: \"" + rc + "\"");
+        }
+        return index;
+    }
+
+    /**
+     * 解析 [from, to) 之间的整数(可以为负数，例如地图外的 -1)
+     * Analyse l'entier entre [from, to) (peut être négatif, par exemple -1 hors de la carte)
+     */
+    private static int parse(String rc, int from, int to) {
+        boolean negative = from < to && rc.charAt(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i >= to) {
+            throw new NumberFormatException("For coordinate string: \"" + rc + "\"");
+        }
+        int value = 0;
+        for (; i < to; i++) {
+            int digit = rc.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For coordinate string: \"" + rc + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
     }
 
     /**
@@ -179,6 +242,13 @@ public class Obstacle {
      * --------------------------------------
      */
 
+    /**
+     * @return  格子下标(BitBoard.cell)，只对地图内的点有意义   indice de case (BitBoard.cell), valable seulement dans la carte
+     */
+    public int getCell() {
+        return BitBoard.cell(row, col);
+    }
+
     public int getRow() {
         return row;
     }
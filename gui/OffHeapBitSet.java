@@ -0,0 +1,125 @@
+package gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 堆外位图
+ * Bitset hors tas
+ *  每个 32 位状态对应一位，共 2^32 位 = 512 MB，存放在直接内存或内存映射文件中
+ *  Un bit par état de 32 bits, soit 2^32 bits = 512 Mo, en mémoire directe ou dans un fichier mappé
+ *      不占用 Java 堆，也不产生 GC 压力，四个棋子的全部状态空间都可以记录
+ *      N'occupe pas le tas Java et ne crée aucune pression GC, tout l'espace d'états des quatre pions tient dedans
+ *  注意: 直接内存需要 -XX:MaxDirectMemorySize=512m 以上   Attention : la mémoire directe demande
+ *  -XX:MaxDirectMemorySize=512m ou plus
+ */
+public class OffHeapBitSet implements VisitedSet {
+
+    /**
+     * 位图字节数 (2^32 / 8)   Taille du bitset en octets (2^32 / 8)
+     */
+    public static final int BYTES = 1 << 29;
+
+    /**
+     * 重置时已添加状态少于该值则逐位清除，否则整体清空
+     * Sous ce nombre d'états ajoutés, la réinitialisation efface bit par bit, sinon tout est vidé
+     */
+    private static final int SPARSE_RESET = 1 << 22;
+
+    private final ByteBuffer buffer;
+    private int size;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    private OffHeapBitSet(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * 静态工厂: 在直接内存中分配  Fabrique statique : allocation en mémoire directe
+     */
+    public static OffHeapBitSet allocateDirect() {
+        return new OffHeapBitSet(ByteBuffer.allocateDirect(BYTES));
+    }
+
+    /**
+     * 静态工厂: 映射到文件(内存不足时由操作系统换页)
+     * Fabrique statique : mappage sur un fichier (le système pagine si la mémoire manque)
+     * @param file  映射的文件，不存在时创建   fichier mappé, créé s'il n'existe pas
+     * @throws IOException  文件无法创建或映射  fichier impossible à créer ou mapper
+     */
+    public static OffHeapBitSet mapped(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            OffHeapBitSet bitSet = new OffHeapBitSet(channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTES));
+            bitSet.clear();
+            return bitSet;
+        }
+    }
+
+    @Override
+    public boolean add(int state) {
+        int offset = (state >>> 6) << 3;
+        long word = buffer.getLong(offset);
+        long bit = 1L << state;
+        if ((word & bit) != 0) {
+            return false;
+        }
+        buffer.putLong(offset, word | bit);
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean contains(int state) {
+        return (buffer.getLong((state >>> 6) << 3) & (1L << state)) != 0;
+    }
+
+    /**
+     * 清除一个状态  Efface un état
+     */
+    public void remove(int state) {
+        int offset = (state >>> 6) << 3;
+        long word = buffer.getLong(offset);
+        long bit = 1L << state;
+        if ((word & bit) != 0) {
+            buffer.putLong(offset, word & ~bit);
+            size--;
+        }
+    }
+
+    /**
+     * 整体清空(写 512 MB，较慢)   Vidage complet (écrit 512 Mo, lent)
+     */
+    @Override
+    public void clear() {
+        for (int offset = 0; offset < BYTES; offset += 8) {
+            buffer.putLong(offset, 0L);
+        }
+        size = 0;
+    }
+
+    @Override
+    public void reset(int[] added, int count) {
+        if (count < SPARSE_RESET) {
+            for (int i = 0; i < count; i++) {
+                remove(added[i]);
+            }
+            size = 0;
+        } else {
+            clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,413 @@
+package gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * 多核并行求解器
+ * Solveur parallèle multicœur
+ *  广度优先搜索按层展开，每一层的展开分成小块交给 ForkJoinPool 并行执行
+ *  La recherche en largeur progresse couche par couche, chaque couche est découpée en blocs
+ *  exécutés en parallèle par un ForkJoinPool
+ *      1. 展开: 每个块生成子状态(只读上一层的已访问集合)，并按分段稳定排序
+ *      1. Expansion : chaque bloc génère les états fils (lecture seule des visités des couches précédentes)
+ *      et les trie de façon stable par segment
+ *      2. 去重: 已访问集合分成多个段，每个段由一个任务按块顺序处理，不需要锁
+ *      2. Dédoublonnage : l'ensemble des visités est découpé en segments, chaque segment est traité
+ *      par une seule tâche dans l'ordre des blocs, sans verrou
+ *      3. 压缩: 按原顺序得到下一层
+ *      3. Compactage : la couche suivante est obtenue dans l'ordre d'origine
+ *  子状态的顺序与单线程的 Solver 完全相同，所以返回的解也完全相同
+ *  L'ordre des états fils est exactement celui du Solver monothread, la solution renvoyée est donc identique
+ */
+public class ParallelSolver extends Solver {
+
+    /**
+     * 每个展开任务处理的状态数   Nombre d'états traités par tâche d'expansion
+     */
+    private static final int CHUNK = 2048;
+    /**
+     * 已访问集合的段数(2 的幂)   Nombre de segments de l'ensemble des visités (puissance de 2)
+     */
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    /**
+     * 展开的停止原因   Raison de l'arrêt de l'expansion
+     */
+    private static final int RUNNING = 0;
+    private static final int STOP_CANCELLED = 1;
+    private static final int STOP_TRUNCATED = 2;
+
+    private final ForkJoinPool pool;
+    private final IntHashSet[] stripes = new IntHashSet[STRIPES];
+    /**
+     * 当前层的停止原因，任一展开任务都可以设置，其他任务在下一次检查时停止
+     * Raison de l'arrêt de la couche courante, posée par n'importe quelle tâche d'expansion ;
+     * les autres s'arrêtent à leur prochaine vérification
+     */
+    private volatile int stop;
+    /**
+     * 当前层已生成的候选子状态数   Nombre de candidats fils déjà générés dans la couche courante
+     */
+    private final AtomicInteger generated = new AtomicInteger();
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * @param parallelism   并行线程数   nombre de threads parallèles
+     */
+    public ParallelSolver(BitBoard board, SlideTable slideTable, int parallelism) {
+        super(board, slideTable);
+        this.pool = new ForkJoinPool(parallelism);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new IntHashSet(1 << 10);
+        }
+    }
+
+    public ParallelSolver(BitBoard board, int parallelism) {
+        this(board, new SlideTable(board), parallelism);
+    }
+
+    /**
+     * 按层并行的广度优先搜索  Recherche en largeur parallèle par couche
+     *  只移动当前棋子时状态太少，直接使用单线程搜索
+     *  Si seul le pion courant bouge, il y a trop peu d'états : la recherche monothread est utilisée
+     */
+    @Override
+    protected Solution bfs(int start, int robot, long[] goal) {
+        if (!helperMoves) {
+            return super.bfs(start, robot, goal);
+        }
+        truncated = false;
+        visitedCount = 1;
+        if (isGoal(goal, cellOf(start, robot))) {
+            return new Solution(new byte[0]);
+        }
+        for (IntHashSet stripe : stripes) {
+            stripe.clear();
+        }
+        boolean canonical = isCanonical();
+        int root = canonical ? canonicalizer.canonical(start) : start;
+        stripes[stripe(root)].add(root);
+
+        List<Layer> layers = new ArrayList<>();
+        Layer frontier = new Layer(new int[]{root}, new int[]{-1}, new byte[1]);
+        layers.add(frontier);
+        for (int depth = 0; depth < maxDepth && frontier.size() > 0; depth++) {
+            if (shouldStop()) {
+                cancelled = true;
+                return null;
+            }
+            Chunk[] chunks = expand(frontier.states, robot, goal, Thread.currentThread(), bfsStateLimit - visitedCount);
+            if (stop != RUNNING) {
+                // 层没有展开完，不能保证与单线程的解相同   couche incomplète : la solution monothread n'est pas garantie
+                cancelled = stop == STOP_CANCELLED;
+                truncated = stop == STOP_TRUNCATED;
+                return null;
+            }
+            for (Chunk chunk : chunks) {
+                if (chunk.goal >= 0) {
+                    visitedCount += chunk.goal + 1;
+                    if (canonical) {
+                        return replay(start, chain(layers, chunk.children[chunk.goal], chunk.parents[chunk.goal]));
+                    }
+                    return path(layers, chunk.moves[chunk.goal], chunk.parents[chunk.goal]);
+                }
+            }
+            dedupe(chunks);
+            frontier = compact(chunks);
+            layers.add(frontier);
+            visitedCount += frontier.size();
+            if (visitedCount >= bfsStateLimit) {
+                truncated = true;
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 1. 并行展开一层   1. Expansion parallèle d'une couche
+     *  块内遇到第一个抵达终点的子状态就停止: 它之前没有被访问过，按顺序最先出现的那个就是单线程搜索的解
+     *  Un bloc s'arrête au premier fils arrivé au but : il n'a jamais été visité, et le premier dans l'ordre
+     *  est exactement la solution de la recherche monothread
+     *  每个块开始时和每 STOP_CHECK_MASK + 1 个状态检查一次取消和状态数限制，超过时整层提前停止(见 stop)
+     *  Chaque bloc vérifie l'annulation et la limite d'états au début puis tous les STOP_CHECK_MASK + 1 états ;
+     *  si elles sont atteintes, toute la couche s'arrête tôt (voir stop)
+     * @param caller    调用搜索的线程(检查它是否被中断)   thread appelant (dont l'interruption est vérifiée)
+     * @param limit     这一层最多生成的候选子状态数   nombre maximal de candidats fils de cette couche
+     */
+    private Chunk[] expand(int[] states, int robot, long[] goal, Thread caller, int limit) {
+        int first = helperMoves ? 0 : robot;
+        int last = helperMoves ? 3 : robot;
+        boolean canonical = isCanonical();
+        Chunk[] chunks = new Chunk[(states.length + CHUNK - 1) / CHUNK];
+        stop = RUNNING;
+        generated.set(0);
+        forEach(chunks.length, c -> {
+            int from = c * CHUNK;
+            int to = Math.min(states.length, from + CHUNK);
+            Chunk chunk = new Chunk((to - from) * (last - first + 1) * 4);
+            chunks[c] = chunk;
+            int reported = 0;
+            for (int i = from; i < to; i++) {
+                if (((i - from) & STOP_CHECK_MASK) == 0) {
+                    if (shouldStop(caller, chunk.count - reported, limit)) {
+                        return;
+                    }
+                    reported = chunk.count;
+                }
+                int state = states[i];
+                for (int r = first; r <= last; r++) {
+                    int cell = cellOf(state, r);
+                    for (int dir = 0; dir < 4; dir++) {
+                        int target = slideTable.slide(cell, dir, state);
+                        if (target == cell) {
+                            continue;
+                        }
+                        int next = withCell(state, r, target);
+                        if (canonical) {
+                            next = canonicalizer.canonical(next);
+                        }
+                        if (stripes[stripe(next)].contains(next)) {
+                            continue;
+                        }
+                        chunk.add(next, i, Solution.encode(r, dir));
+                        if (r == robot && isGoal(goal, target)) {
+                            chunk.goal = chunk.count - 1;
+                            return;
+                        }
+                    }
+                }
+            }
+            if (shouldStop(caller, chunk.count - reported, limit)) {
+                return;
+            }
+            chunk.sortByStripe();
+        });
+        return chunks;
+    }
+
+    /**
+     * 展开任务的停止检查: 调用线程被中断或超过截止时间时取消，这一层的候选子状态数达到 limit 时截断
+     * Vérification d'arrêt d'une tâche d'expansion : annulée si le thread appelant est interrompu ou
+     * l'échéance dépassée, tronquée si les candidats de la couche atteignent limit
+     * @param added 上次检查之后本块新增的候选子状态数   candidats ajoutés par le bloc depuis la dernière vérification
+     */
+    private boolean shouldStop(Thread caller, int added, int limit) {
+        if (stop == RUNNING) {
+            if (caller.isInterrupted() || (deadline != 0 && System.nanoTime() - deadline > 0)) {
+                stop = STOP_CANCELLED;
+            } else if (generated.addAndGet(added) >= limit) {
+                stop = STOP_TRUNCATED;
+            }
+        }
+        return stop != RUNNING;
+    }
+
+    /**
+     * 2. 按段并行去重: 同一段内按块顺序处理，保留第一次出现的状态
+     * 2. Dédoublonnage parallèle par segment : dans un segment, les blocs sont traités dans l'ordre
+     * et la première occurrence est conservée
+     */
+    private void dedupe(Chunk[] chunks) {
+        forEach(STRIPES, s -> {
+            IntHashSet visited = stripes[s];
+            for (Chunk chunk : chunks) {
+                for (int k = chunk.stripeStart[s]; k < chunk.stripeStart[s + 1]; k++) {
+                    int index = chunk.order[k];
+                    chunk.keep[index] = visited.add(chunk.children[index]);
+                }
+            }
+        });
+    }
+
+    /**
+     * 3. 按原顺序压缩出下一层   3. Compactage de la couche suivante dans l'ordre d'origine
+     */
+    private Layer compact(Chunk[] chunks) {
+        int[] offsets = new int[chunks.length + 1];
+        for (int c = 0; c < chunks.length; c++) {
+            int kept = 0;
+            for (int i = 0; i < chunks[c].count; i++) {
+                if (chunks[c].keep[i]) {
+                    kept++;
+                }
+            }
+            offsets[c + 1] = offsets[c] + kept;
+        }
+        Layer layer = new Layer(new int[offsets[chunks.length]], new int[offsets[chunks.length]],
+                new byte[offsets[chunks.length]]);
+        forEach(chunks.length, c -> {
+            Chunk chunk = chunks[c];
+            int k = offsets[c];
+            for (int i = 0; i < chunk.count; i++) {
+                if (chunk.keep[i]) {
+                    layer.states[k] = chunk.children[i];
+                    layer.parents[k] = chunk.parents[i];
+                    layer.moves[k] = chunk.moves[i];
+                    k++;
+                }
+            }
+        });
+        return layer;
+    }
+
+    /**
+     * 从最后一步沿各层的父状态回溯出移动序列
+     * Remonte les parents couche par couche depuis le dernier pas pour obtenir la suite de déplacements
+     */
+    private static Solution path(List<Layer> layers, byte lastMove, int parent) {
+        byte[] result = new byte[layers.size()];
+        result[layers.size() - 1] = lastMove;
+        for (int depth = layers.size() - 1; depth > 0; depth--) {
+            Layer layer = layers.get(depth);
+            result[depth - 1] = layer.moves[parent];
+            parent = layer.parents[parent];
+        }
+        return new Solution(result);
+    }
+
+    /**
+     * 从最后一个状态沿各层的父状态回溯出的状态序列(不包括起点)
+     * Suite des états remontée couche par couche depuis le dernier état (départ exclu)
+     */
+    private static int[] chain(List<Layer> layers, int lastState, int parent) {
+        int[] chain = new int[layers.size()];
+        chain[layers.size() - 1] = lastState;
+        for (int depth = layers.size() - 1; depth > 0; depth--) {
+            Layer layer = layers.get(depth);
+            chain[depth - 1] = layer.states[parent];
+            parent = layer.parents[parent];
+        }
+        return chain;
+    }
+
+    private static int stripe(int state) {
+        return IntHashSet.mix(state) >>> (32 - STRIPE_BITS);
+    }
+
+    /**
+     * 在线程池中并行执行 body(0) ... body(n - 1)
+     * Exécute body(0) ... body(n - 1) en parallèle dans le pool
+     */
+    private void forEach(int n, IntConsumer body) {
+        if (n > 0) {
+            pool.invoke(new RangeTask(0, n, body));
+        }
+    }
+
+    /**
+     * 关闭线程池  Ferme le pool de threads
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * 二分拆分区间的 fork/join 任务   Tâche fork/join qui découpe un intervalle en deux
+     */
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer body;
+
+        RangeTask(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, body), new RangeTask(middle, to, body));
+        }
+    }
+
+    /**
+     * 搜索的一层: 状态、父状态在上一层的下标、移动
+     * Une couche de recherche : état, indice du parent dans la couche précédente, déplacement
+     */
+    private static class Layer {
+        final int[] states;
+        final int[] parents;
+        final byte[] moves;
+
+        Layer(int[] states, int[] parents, byte[] moves) {
+            this.states = states;
+            this.parents = parents;
+            this.moves = moves;
+        }
+
+        int size() {
+            return states.length;
+        }
+    }
+
+    /**
+     * 一个展开块的候选子状态  Candidats fils d'un bloc d'expansion
+     */
+    private static class Chunk {
+        final int[] children;
+        final int[] parents;
+        final byte[] moves;
+        int count;
+        /**
+         * 块内第一个抵达终点的候选下标，没有时为 -1   Indice du premier candidat arrivé au but, -1 sinon
+         */
+        int goal = -1;
+        boolean[] keep;
+        int[] order;
+        final int[] stripeStart = new int[STRIPES + 1];
+
+        Chunk(int capacity) {
+            this.children = new int[capacity];
+            this.parents = new int[capacity];
+            this.moves = new byte[capacity];
+        }
+
+        void add(int child, int parent, byte move) {
+            children[count] = child;
+            parents[count] = parent;
+            moves[count] = move;
+            count++;
+        }
+
+        /**
+         * 计数排序: 按段稳定排序候选下标   Tri par comptage : tri stable des indices candidats par segment
+         */
+        void sortByStripe() {
+            keep = new boolean[count];
+            order = new int[count];
+            for (int i = 0; i < count; i++) {
+                stripeStart[stripe(children[i]) + 1]++;
+            }
+            for (int s = 0; s < STRIPES; s++) {
+                stripeStart[s + 1] += stripeStart[s];
+            }
+            int[] next = java.util.Arrays.copyOf(stripeStart, STRIPES);
+            for (int i = 0; i < count; i++) {
+                order[next[stripe(children[i])]++] = i;
+            }
+        }
+    }
+}
@@ -37,20 +37,13 @@ public class Player {
      * Trier par nombre maximum de coups défini par le joueur
      *  步数(steps)设定越少排在越前面
      *  Moins le nombre d'étapes est défini, plus il y en a à l'avant
+     *  相同时返回 0: 由 GameEngine 用种子随机打乱后再稳定排序，相同步数的顺序随机但可以重放
+     *  Égalité → 0 : GameEngine mélange avec sa graine puis trie de façon stable, l'ordre des égalités
+     *  est aléatoire mais rejouable
      */
     public static class PlayerStepsComparator implements Comparator<Player> {
         @Override
         public int compare(Player o1, Player o2) {
-            if (o1.steps == o2.steps) {
-                double v = Math.random();
-                if (v < 0.34) {
-                    return 0;
-                } else if (v < 0.67) {
-                    return 1;
-                } else {
-                    return -1;
-                }
-            }
             return o1.steps - o2.steps;
         }
     }
@@ -60,20 +53,11 @@ public class Player {
      * Trier par score de joueur
      *  分数(score)越高排在越前面
      *  Plus le score est élevé, plus le classement est élevé
+     *  相同时返回 0 (同上)   Égalité → 0 (comme ci-dessus)
      */
     public static class PlayerScoreComparator implements Comparator<Player> {
         @Override
         public int compare(Player o1, Player o2) {
-            if (o1.score == o2.score) {
-                double v = Math.random();
-                if (v < 0.34) {
-                    return 0;
-                } else if (v < 0.67) {
-                    return 1;
-                } else {
-                    return -1;
-                }
-            }
             return o2.score - o1.score;
         }
     }
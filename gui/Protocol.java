@@ -0,0 +1,226 @@
+package gui;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 多人游戏的二进制协议
+ * Protocole binaire du jeu multijoueur
+ *  每条消息: 类型(1 字节) + 内容长度(1 字节) + 内容，所有整数为大端序
+ *  Chaque message : type (1 octet) + longueur du contenu (1 octet) + contenu, entiers en big-endian
+ *      客户端 → 服务器   client → serveur
+ *          JOIN        会话号(int，-1 创建新会话)   numéro de session (int, -1 pour en créer une)
+ *          START       玩家数(u8，0 为所有座位)，只有座位 0 在没有进行中的游戏时可以发送
+ *                      nombre de joueurs (u8, 0 pour tous les sièges), seul le siège 0 peut l'envoyer hors partie
+ *          BID         步数(int)，对应 Player.setSteps   nombre de pas (int), correspond à Player.setSteps
+ *          MOVE        棋子 << 2 | 方向(u8)，与 Solution.encode 相同   pion << 2 | direction (u8), comme Solution.encode
+ *          UNDO / REDO 没有内容   sans contenu
+ *      服务器 → 客户端: 加入时的完整状态，之后只发送状态变化
+ *      serveur → client : l'état complet à l'arrivée, ensuite seulement les changements d'état
+ *          WELCOME         会话号(int) 座位(u8) 阶段(u8) 当前棋子(u8) 四个棋子的格子(4 × u8)
+ *                          session (int) siège (u8) phase (u8) pion courant (u8) cases des quatre pions (4 × u8)
+ *          ROBOT_MOVED     棋子 起点 终点(3 × u8)   pion départ arrivée (3 × u8)
+ *          ROUND_STARTED   棋子 第一个出价的座位(2 × u8)   pion, siège du premier enchérisseur (2 × u8)
+ *          BID_REQUESTED / TURN_STARTED    座位(u8)   siège (u8)
+ *          STEPS_LEFT      座位(u8) 剩余步数(int)   siège (u8) pas restants (int)
+ *          ROBOT_ARRIVED   座位 棋子(2 × u8)   siège pion (2 × u8)
+ *          GAME_OVER       人数(u8)，然后按名次每人 座位(u8) 分数(u16)   nombre (u8), puis par rang siège (u8) score (u16)
+ *          ERROR           错误码(u8)   code d'erreur (u8)
+ *  一次读写可以包含多条消息(批处理)，消息不会跨越 MAX_MESSAGE 字节
+ *  Une lecture ou écriture peut contenir plusieurs messages (traitement par lots), un message ne dépasse
+ *  jamais MAX_MESSAGE octets
+ */
+public final class Protocol {
+
+    public static final int JOIN = 0x01;
+    public static final int START = 0x02;
+    public static final int BID = 0x03;
+    public static final int MOVE = 0x04;
+    public static final int UNDO = 0x05;
+    public static final int REDO = 0x06;
+
+    public static final int WELCOME = 0x81;
+    public static final int ROBOT_MOVED = 0x82;
+    public static final int ROUND_STARTED = 0x83;
+    public static final int BID_REQUESTED = 0x84;
+    public static final int TURN_STARTED = 0x85;
+    public static final int STEPS_LEFT = 0x86;
+    public static final int ROBOT_ARRIVED = 0x87;
+    public static final int GAME_OVER = 0x88;
+    public static final int ERROR = 0xFF;
+
+    /**
+     * 错误码  Codes d'erreur
+     */
+    public static final int ERROR_UNKNOWN_MESSAGE = 1;
+    public static final int ERROR_NO_SESSION = 2;
+    public static final int ERROR_NOT_JOINED = 3;
+    public static final int ERROR_SESSION_FULL = 4;
+    public static final int ERROR_ALREADY_JOINED = 5;
+    public static final int ERROR_NOT_ALLOWED = 6;
+
+    /**
+     * 消息头长度与一条消息的最大长度   Longueur de l'en-tête et longueur maximum d'un message
+     */
+    public static final int HEADER = 2;
+    public static final int MAX_MESSAGE = HEADER + 255;
+
+    /**
+     * 一个会话的最大座位数(GAME_OVER 必须放进一条消息)   Sièges maximum par session (GAME_OVER tient dans un message)
+     */
+    public static final int MAX_SEATS = MoveLog.MAX_PLAYERS;
+
+    /**
+     * 收到一条消息  Réception d'un message
+     */
+    public interface Handler {
+        /**
+         * @param type      消息类型   type du message
+         * @param payload   position 为内容开始，limit 为内容结束   position au début du contenu, limit à sa fin
+         */
+        void onMessage(int type, ByteBuffer payload);
+    }
+
+    private Protocol() {
+    }
+
+    /**
+     * --------------------------------------
+     * 解码  Décodage
+     * --------------------------------------
+     */
+
+    /**
+     * 解码 in 中所有完整的消息(in 处于读模式)，不完整的消息留在 in 中
+     * Décode tous les messages complets de in (en mode lecture), un message incomplet reste dans in
+     * @return  解码的消息数   nombre de messages décodés
+     */
+    public static int decode(ByteBuffer in, Handler handler) {
+        int count = 0;
+        int limit = in.limit();
+        while (in.remaining() >= HEADER) {
+            int start = in.position();
+            int type = in.get(start) & 0xFF;
+            int length = in.get(start + 1) & 0xFF;
+            int end = start + HEADER + length;
+            if (end > limit) {
+                break;
+            }
+            in.position(start + HEADER).limit(end);
+            handler.onMessage(type, in);
+            in.limit(limit).position(end);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 客户端消息内容的固定长度   Longueur fixe du contenu d'un message client
+     * @return  不是客户端消息时返回 -1   -1 si ce n'est pas un message client
+     */
+    public static int payloadLength(int type) {
+        switch (type) {
+            case JOIN:
+            case BID:
+                return 4;
+            case START:
+            case MOVE:
+                return 1;
+            case UNDO:
+            case REDO:
+                return 0;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * --------------------------------------
+     * 编码  Encodage
+     * --------------------------------------
+     */
+
+    private static void header(ByteBuffer out, int type, int length) {
+        out.put((byte) type).put((byte) length);
+    }
+
+    public static void join(ByteBuffer out, int session) {
+        header(out, JOIN, 4);
+        out.putInt(session);
+    }
+
+    public static void start(ByteBuffer out, int players) {
+        header(out, START, 1);
+        out.put((byte) players);
+    }
+
+    public static void bid(ByteBuffer out, int steps) {
+        header(out, BID, 4);
+        out.putInt(steps);
+    }
+
+    public static void move(ByteBuffer out, int robot, int dir) {
+        header(out, MOVE, 1);
+        out.put(Solution.encode(robot, dir));
+    }
+
+    /**
+     * 没有内容的消息(UNDO、REDO)   Message sans contenu (UNDO, REDO)
+     */
+    public static void empty(ByteBuffer out, int type) {
+        header(out, type, 0);
+    }
+
+    public static void welcome(ByteBuffer out, int session, int seat, GameEngine engine) {
+        header(out, WELCOME, 7 + GameEngine.ROBOTS);
+        out.putInt(session).put((byte) seat).put((byte) engine.getPhase().ordinal())
+                .put((byte) engine.getCurrentChessIndex());
+        for (int robot = 0; robot < GameEngine.ROBOTS; robot++) {
+            out.put((byte) engine.getRobotCell(robot));
+        }
+    }
+
+    public static void robotMoved(ByteBuffer out, int robot, int from, int to) {
+        header(out, ROBOT_MOVED, 3);
+        out.put((byte) robot).put((byte) from).put((byte) to);
+    }
+
+    public static void roundStarted(ByteBuffer out, int robot, int firstBidder) {
+        header(out, ROUND_STARTED, 2);
+        out.put((byte) robot).put((byte) firstBidder);
+    }
+
+    /**
+     * 只包含一个座位的消息(BID_REQUESTED、TURN_STARTED)   Message d'un seul siège (BID_REQUESTED, TURN_STARTED)
+     */
+    public static void seat(ByteBuffer out, int type, int seat) {
+        header(out, type, 1);
+        out.put((byte) seat);
+    }
+
+    public static void stepsLeft(ByteBuffer out, int seat, int steps) {
+        header(out, STEPS_LEFT, 5);
+        out.put((byte) seat).putInt(steps);
+    }
+
+    public static void robotArrived(ByteBuffer out, int seat, int robot) {
+        header(out, ROBOT_ARRIVED, 2);
+        out.put((byte) seat).put((byte) robot);
+    }
+
+    /**
+     * @param seats     按名次排列的座位   sièges dans l'ordre du classement
+     * @param scores    对应的分数   scores correspondants
+     */
+    public static void gameOver(ByteBuffer out, int[] seats, int[] scores) {
+        header(out, GAME_OVER, 1 + 3 * seats.length);
+        out.put((byte) seats.length);
+        for (int i = 0; i < seats.length; i++) {
+            out.put((byte) seats[i]).putShort((short) scores[i]);
+        }
+    }
+
+    public static void error(ByteBuffer out, int code) {
+        header(out, ERROR, 1);
+        out.put((byte) code);
+    }
+}
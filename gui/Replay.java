@@ -0,0 +1,136 @@
+package gui;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * 对局重放
+ * Rejeu d'une partie
+ *  在没有界面、没有定时器的引擎上按顺序重新执行 MoveLog 中的操作，得到与原来的游戏完全相同的状态
+ *  Réexécute dans l'ordre les actions d'un MoveLog sur un moteur sans interface ni minuterie,
+ *  pour retrouver exactement l'état de la partie d'origine
+ *      同一个种子、同一张地图 → 同样的出生点；同样的操作 → 同样的移动、得分和排名
+ *      Même graine et même carte → mêmes points d'apparition ; mêmes actions → mêmes coups, scores et classement
+ *      可以只重放到某个位置(例如有争议的回合)，再检查棋子位置和玩家步数
+ *      On peut ne rejouer que jusqu'à une position (par exemple le tour contesté) puis examiner
+ *      les pions et les pas des joueurs
+ *      用法  usage : java gui.Replay 地图库 bibliothèque 记录文件 journal [操作数 actions]
+ *      (记录中的地图编号为 -1 时使用经典地图   carte classique si le numéro de carte du journal vaut -1)
+ */
+public class Replay {
+
+    private Replay() {
+    }
+
+    /**
+     * 重放整个记录  Rejoue tout le journal
+     */
+    public static GameEngine replay(BitBoard board, MoveLog log) {
+        return replay(board, log, log.size());
+    }
+
+    /**
+     * 重放记录的前 length 个字节  Rejoue les length premiers octets du journal
+     * @throws IllegalStateException 记录与地图不符(某个操作被引擎拒绝)   le journal ne correspond pas à la carte
+     *                               (une action est refusée par le moteur)
+     */
+    public static GameEngine replay(BitBoard board, MoveLog log, int length) {
+        GameEngine engine = new GameEngine(board, log.getSeed());
+        apply(engine, log, 0, length);
+        return engine;
+    }
+
+    /**
+     * 在已有的引擎上重放整个记录(记录从开始游戏开始，引擎可以重复使用)
+     * Rejoue tout le journal sur un moteur existant (le journal commence par le début de partie,
+     * le moteur est réutilisable)
+     */
+    public static void replay(GameEngine engine, MoveLog log) {
+        apply(engine, log, 0, log.size());
+    }
+
+    /**
+     * 在 engine 上执行记录中 [from, to) 之间的操作   Exécute sur engine les actions du journal entre [from, to)
+     * @return  执行后的位置(to 落在一个 4 字节出价中间时停在出价之前)
+     *          position atteinte (s'arrête avant une enchère sur 4 octets coupée par to)
+     */
+    public static int apply(GameEngine engine, MoveLog log, int from, int to) {
+        int i = from;
+        while (i < to) {
+            int op = log.get(i);
+            boolean accepted;
+            if (MoveLog.isMove(op)) {
+                accepted = op >> 2 == engine.getCurrentChessIndex() && engine.move(op & 3) >= 0;
+            } else if (op == MoveLog.TIMEOUT) {
+                accepted = engine.getPhase() == GameEngine.Phase.MOVING;
+                engine.timeout();
+            } else if (op == MoveLog.UNDO) {
+                accepted = engine.undo();
+            } else if (op == MoveLog.REDO) {
+                accepted = engine.redo() >= 0;
+            } else if ((op & ~3) == MoveLog.RESPAWN) {
+                engine.respawn(op & 3);
+                accepted = true;
+            } else if (op == MoveLog.BID_INT) {
+                if (i + 5 > to) {
+                    return i;
+                }
+                accepted = engine.submitBid(log.getInt(i + 1));
+                i += 4;
+            } else if ((op & MoveLog.BID) != 0) {
+                accepted = engine.submitBid(op & ~MoveLog.BID);
+            } else if ((op & MoveLog.START) != 0) {
+                engine.setNextSeed(log.getSeed());
+                engine.startGame(op & MoveLog.MAX_PLAYERS);
+                accepted = true;
+            } else {
+                accepted = false;
+            }
+            if (!accepted) {
+                throw new IllegalStateException("Action 0x" + Integer.toHexString(op) + " rejected at " + i);
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 重放一个记录文件并显示结果   Rejoue un fichier de journal et affiche le résultat
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: java gui.Replay <library> <log> [actions]");
+            return;
+        }
+        MoveLog log;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(args[1])))) {
+            log = MoveLog.read(in);
+        }
+        BitBoard board = Boards.classic();
+        if (log.getBoardId() >= 0) {
+            try (BoardLibrary boards = BoardLibrary.open(new File(args[0]))) {
+                board = boards.get(log.getBoardId());
+            }
+        }
+        int length = args.length > 2 ? Math.min(log.size(), Integer.parseInt(args[2])) : log.size();
+
+        long start = System.nanoTime();
+        GameEngine engine = replay(board, log, length);
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("seed %d, board %d, %d/%d actions in %.2f ms%n",
+                log.getSeed(), log.getBoardId(), length, log.size(), nanos / 1e6);
+        System.out.println("phase: " + engine.getPhase() + ", robot: " + engine.getCurrentChessIndex());
+        for (int robot = 0; robot < GameEngine.ROBOTS; robot++) {
+            System.out.println("robot " + robot + ": " + BitBoard.row(engine.getRobotCell(robot))
+                    + "," + BitBoard.col(engine.getRobotCell(robot)));
+        }
+        for (Player player : engine.getPlayers()) {
+            System.out.println("player " + player.getName() + ": score " + player.getScore()
+                    + ", steps " + player.getUsedSteps() + "/" + player.getSteps());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package gui;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 串行执行器
+ * Exécuteur séquentiel
+ *  在一个共用的线程池上按提交顺序、一次一个地执行任务(每个游戏会话一个)
+ *  Exécute les tâches une à la fois, dans l'ordre de soumission, sur un pool de threads partagé (un par session de jeu)
+ *      同一个会话的事件(定时器回调、玩家操作)不会并发执行，所以 GameEngine 不需要加锁
+ *      Les événements d'une même session (rappels de minuterie, actions des joueurs) ne s'exécutent jamais
+ *      en parallèle : GameEngine n'a pas besoin de verrou
+ *      不同会话共用线程池的线程，成千上万个会话不需要成千上万个线程
+ *      Les sessions partagent les threads du pool : des milliers de sessions n'ont pas besoin de milliers de threads
+ */
+public class SerialExecutor implements Executor {
+
+    private final Executor pool;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    /**
+     * 是否已经有一个任务提交到了线程池   Une tâche est-elle déjà soumise au pool
+     */
+    private boolean scheduled;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * @param pool  共用的线程池   pool de threads partagé
+     */
+    public SerialExecutor(Executor pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        synchronized (this) {
+            tasks.add(task);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        submit();
+    }
+
+    /**
+     * 执行队列中的一个任务，然后把下一个任务重新提交给线程池(让其他会话也有机会执行)
+     * Exécute une tâche de la file, puis resoumet la suivante au pool (pour laisser passer les autres sessions)
+     */
+    private void runNext() {
+        Runnable task;
+        synchronized (this) {
+            task = tasks.poll();
+        }
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            System.err.println("Session task failed: " + e);
+        } finally {
+            boolean more;
+            synchronized (this) {
+                more = !tasks.isEmpty();
+                scheduled = more;
+            }
+            if (more) {
+                try {
+                    submit();
+                } catch (RejectedExecutionException e) {
+                    // 线程池已经关闭   le pool est arrêté
+                }
+            }
+        }
+    }
+
+    /**
+     * 把 runNext 提交给线程池，被拒绝时(线程池已关闭)丢弃排队的任务
+     * Soumet runNext au pool ; en cas de refus (pool arrêté), les tâches en attente sont abandonnées
+     */
+    private void submit() {
+        try {
+            pool.execute(this::runNext);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                tasks.clear();
+                scheduled = false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 排队中的任务数  Nombre de tâches en attente
+     */
+    public synchronized int pending() {
+        return tasks.size();
+    }
+}
@@ -0,0 +1,127 @@
+package gui;
+
+/**
+ * 滑动终点表
+ * Table des points d'arrêt des glissades
+ *  每张地图只计算一次：记录每个格子向四个方向一直滑动(只考虑墙)最终停下的格子
+ *  Calculée une seule fois par carte : enregistre pour chaque case la case d'arrêt d'une glissade
+ *  dans chacune des quatre directions (en ne tenant compte que des murs)
+ *      一次滑动 = 一次查表 + 检查路上的其他棋子，在更新界面之前就已经得到终点
+ *      Une glissade = une consultation de table + un contrôle des autres pions sur le chemin,
+ *      le point d'arrêt est connu avant toute mise à jour de l'interface
+ */
+public class SlideTable {
+
+    /**
+     * 终点表: stops[dir * 256 + cell] (无符号字节)
+     * Table des arrêts : stops[dir * 256 + cell] (octet non signé)
+     */
+    private final byte[] stops = new byte[4 * BitBoard.CELLS];
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * 根据地图的墙生成终点表 (地图上的棋子不影响该表)
+     * Construit la table à partir des murs de la carte (les pions de la carte n'influencent pas la table)
+     * @param board 位棋盘   bitboard
+     */
+    public SlideTable(BitBoard board) {
+        for (int dir = 0; dir < 4; dir++) {
+            for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+                int stop = cell;
+                while (board.canMove(stop, dir)) {
+                    stop = BitBoard.neighbour(stop, dir);
+                }
+                stops[dir * BitBoard.CELLS + cell] = (byte) stop;
+            }
+        }
+    }
+
+    /**
+     * 只考虑墙时，从 cell 沿 dir 方向滑动停下的格子
+     * Case d'arrêt d'une glissade depuis cell vers dir, en ne tenant compte que des murs
+     */
+    public int wallStop(int cell, int dir) {
+        return stops[dir * BitBoard.CELLS + cell] & 0xFF;
+    }
+
+    /**
+     * 从 cell 沿 dir 方向滑动停下的格子，路上的棋子(位棋盘的棋子掩码)会挡住滑动
+     * Case d'arrêt d'une glissade depuis cell vers dir, les pions du bitboard arrêtent la glissade
+     *  - 左右: 直接对该行的 16 位棋子掩码做位运算
+     *  - Gauche/droite : opération de bits directe sur le masque de 16 bits de la ligne
+     *  - 上下: 沿路最多检查 15 个位
+     *  - Haut/bas : au plus 15 tests de bits le long du chemin
+     * @param cell  起点  case de départ
+     * @param dir   方向 BitBoard.UP/DOWN/LEFT/RIGHT   direction
+     * @param board 棋子所在的位棋盘  bitboard contenant les pions
+     * @return  停下的格子，无法移动时返回 cell 本身   case d'arrêt, cell si le pion ne peut pas bouger
+     */
+    public int slide(int cell, int dir, BitBoard board) {
+        int stop = wallStop(cell, dir);
+        if (stop == cell) {
+            return cell;
+        }
+        int c = BitBoard.col(cell);
+        switch (dir) {
+            case BitBoard.RIGHT: {
+                int stopC = BitBoard.col(stop);
+                // 第 c+1 到 stopC 列之间的棋子   pions entre les colonnes c+1 et stopC
+                int blockers = board.robotRow(BitBoard.row(cell)) & ((2 << stopC) - (2 << c));
+                return blockers == 0 ? stop : cell + Integer.numberOfTrailingZeros(blockers) - c - 1;
+            }
+            case BitBoard.LEFT: {
+                int stopC = BitBoard.col(stop);
+                // 第 stopC 到 c-1 列之间的棋子   pions entre les colonnes stopC et c-1
+                int blockers = board.robotRow(BitBoard.row(cell)) & ((1 << c) - (1 << stopC));
+                return blockers == 0 ? stop : cell - (c - (31 - Integer.numberOfLeadingZeros(blockers))) + 1;
+            }
+            default: {
+                int next = cell;
+                while (next != stop) {
+                    int step = BitBoard.neighbour(next, dir);
+                    if (board.hasRobot(step)) {
+                        return next;
+                    }
+                    next = step;
+                }
+                return stop;
+            }
+        }
+    }
+
+    /**
+     * 从 cell 沿 dir 方向滑动停下的格子，棋子位置来自打包的状态(每个棋子 8 位)
+     * Case d'arrêt d'une glissade depuis cell vers dir, les pions viennent d'un état packé (8 bits par pion)
+     *  只需要比较另外三个棋子是否在同一行/列并且在路上
+     *  Il suffit de vérifier si les trois autres pions sont sur la même ligne/colonne et sur le chemin
+     * @param cell      起点  case de départ
+     * @param dir       方向  direction
+     * @param robots    打包的四个棋子位置 (见 Solver.pack)   positions packées des quatre pions (voir Solver.pack)
+     * @return  停下的格子   case d'arrêt
+     */
+    public int slide(int cell, int dir, int robots) {
+        int stop = wallStop(cell, dir);
+        if (stop == cell) {
+            return cell;
+        }
+        boolean vertical = dir == BitBoard.UP || dir == BitBoard.DOWN;
+        boolean backward = dir == BitBoard.UP || dir == BitBoard.LEFT;
+        int line = vertical ? BitBoard.col(cell) : BitBoard.row(cell);
+        int back = cell - BitBoard.neighbour(cell, dir);
+        for (int shift = 0; shift < 32; shift += 8) {
+            int other = (robots >>> shift) & 0xFF;
+            if (other == cell || (vertical ? BitBoard.col(other) : BitBoard.row(other)) != line) {
+                continue;
+            }
+            if (backward ? other < cell && other >= stop : other > cell && other <= stop) {
+                stop = other + back;
+            }
+        }
+        return stop;
+    }
+}
@@ -0,0 +1,89 @@
+package gui;
+
+/**
+ * 解法类
+ * Classe de solution
+ *  记录一串移动，每一步用一个字节表示: (棋子下标 << 2) | 方向
+ *  Enregistre une suite de déplacements, chaque pas tient dans un octet : (indice du pion << 2) | direction
+ */
+public class Solution {
+
+    /**
+     * 方向名称(与键盘按钮的名字相同)
+     * Noms des directions (identiques aux noms des touches du clavier)
+     */
+    private static final String[] DIRECTION_NAMES = {"Up", "Down", "Left", "Right"};
+
+    private final byte[] moves;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    public Solution(byte[] moves) {
+        this.moves = moves;
+    }
+
+    /**
+     * [公共静态方法] 把棋子下标和方向编码为一个字节
+     * [Méthode statique publique] Encode l'indice du pion et la direction dans un octet
+     */
+    public static byte encode(int robot, int dir) {
+        return (byte) ((robot << 2) | dir);
+    }
+
+    /**
+     * 步数  nombre de pas
+     */
+    public int length() {
+        return moves.length;
+    }
+
+    /**
+     * 第 i 步移动的棋子下标  Indice du pion déplacé au pas i
+     */
+    public int getRobot(int i) {
+        return (moves[i] >>> 2) & 3;
+    }
+
+    /**
+     * 第 i 步的方向 BitBoard.UP/DOWN/LEFT/RIGHT   Direction du pas i
+     */
+    public int getDirection(int i) {
+        return moves[i] & 3;
+    }
+
+    /**
+     * 第 i 步的编码  Code du pas i
+     */
+    public byte getMove(int i) {
+        return moves[i];
+    }
+
+    /**
+     * toString方法   toStringméthode
+     * @return  例如 "Up, 2:Left" (棋子编号从 1 开始，与棋子按钮一致)
+     *          par exemple "Up, 2:Left" (numéros de pion à partir de 1, comme les boutons de pion)
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        int first = moves.length > 0 ? getRobot(0) : 0;
+        boolean singleRobot = true;
+        for (int i = 0; i < moves.length; i++) {
+            singleRobot &= getRobot(i) == first;
+        }
+        for (int i = 0; i < moves.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            if (!singleRobot) {
+                text.append(getRobot(i) + 1).append(':');
+            }
+            text.append(DIRECTION_NAMES[getDirection(i)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,565 @@
+package gui;
+
+/**
+ * 最优解求解器(广度优先搜索)
+ * Solveur de solution optimale (recherche en largeur)
+ *  四个棋子的位置打包成一个 32 位 int (每个棋子 8 位格子下标)，作为搜索状态
+ *  Les positions des quatre pions sont packées dans un int de 32 bits (8 bits d'indice de case par pion),
+ *  utilisé comme état de recherche
+ *      移动规则与 AppMain 的 chessMove*Straightly 相同: 沿一个方向滑动直至撞到墙或棋子
+ *      Les règles de déplacement sont celles de chessMove*Straightly d'AppMain :
+ *      glisser dans une direction jusqu'à toucher un mur ou un pion
+ *      队列与已访问集合都是基本类型数组，多次求解时复用，不为每个状态创建对象
+ *      La file et l'ensemble des visités sont des tableaux primitifs réutilisés entre les recherches,
+ *      aucun objet n'est créé par état
+ *  注意: 一个 Solver 对象不是线程安全的   Attention : un objet Solver n'est pas thread-safe
+ */
+public class Solver {
+
+    /**
+     * 默认最大搜索步数   Profondeur de recherche maximale par défaut
+     */
+    public static final int DEFAULT_MAX_DEPTH = 30;
+    /**
+     * 估计步数达到该值时使用 IDA*，否则使用广度优先搜索
+     * IDA* est utilisé à partir de cette profondeur estimée, sinon la recherche en largeur
+     */
+    public static final int IDA_DEPTH = 6;
+    /**
+     * 广度优先搜索最多记录的状态数，超过后改用 IDA*
+     * Nombre maximal d'états enregistrés par la recherche en largeur, IDA* prend le relais au-delà
+     */
+    public static final int DEFAULT_BFS_STATE_LIMIT = 1 << 22;
+    /**
+     * 每展开这么多个状态检查一次截止时间和中断   L'échéance et l'interruption sont vérifiées tous les tant d'états
+     */
+    static final int STOP_CHECK_MASK = (1 << 10) - 1;
+
+    protected final BitBoard board;
+    protected final SlideTable slideTable;
+
+    /**
+     * 是否允许移动其他三个棋子(经典规则)
+     * Autoriser le déplacement des trois autres pions (règle classique)
+     *  默认 false : 与本游戏规则相同，只有当前棋子可以移动
+     *  false par défaut : comme dans ce jeu, seul le pion courant peut bouger
+     */
+    protected boolean helperMoves = false;
+    /**
+     * 经典规则下是否规范化搜索状态(辅助棋子排序、地图对称)，见 StateCanonicalizer
+     * Canonicaliser les états avec les règles classiques (pions auxiliaires triés, symétries de la carte),
+     * voir StateCanonicalizer
+     *  默认 false : 浅的搜索中规范化的开销大于减少的状态(solver.bfs 慢约 27%)，只对很深的搜索有利
+     *  false par défaut : pour une recherche peu profonde le coût de la canonicalisation dépasse le gain
+     *  en états (solver.bfs environ 27 % plus lent), seules les recherches très profondes en profitent
+     */
+    protected boolean canonicalStates = false;
+    protected final StateCanonicalizer canonicalizer;
+    /**
+     * 最大搜索步数  Profondeur de recherche maximale
+     */
+    protected int maxDepth = DEFAULT_MAX_DEPTH;
+    /**
+     * 广度优先搜索最多记录的状态数  Nombre maximal d'états de la recherche en largeur
+     */
+    protected int bfsStateLimit = DEFAULT_BFS_STATE_LIMIT;
+    /**
+     * 估计步数达到该值时使用 IDA*   IDA* est utilisé à partir de cette profondeur estimée
+     */
+    protected int idaDepth = IDA_DEPTH;
+
+    /**
+     * 每种颜色的终点掩码和距离表(构造时为所有终点预先计算)
+     * Masques et tables de distances des points finaux de chaque couleur (précalculés à la construction)
+     */
+    private final long[][] colorGoals = new long[4][];
+    private final DistanceMap[] colorDistances = new DistanceMap[4];
+    /**
+     * 单个终点格子的距离表(终点格子预先计算，其他格子用到时再计算)
+     * Tables de distances d'une seule case (précalculées pour les points finaux, à la demande sinon)
+     */
+    private final DistanceMap[] cellDistances = new DistanceMap[BitBoard.CELLS];
+    private final IdaStarSearch idaStar;
+    /**
+     * 地图指纹(构造时计算)  Empreinte de la carte (calculée à la construction)
+     */
+    private final long fingerprint;
+
+    /**
+     * 搜索队列: 状态、父状态在队列中的下标、到达该状态的移动
+     * File de recherche : état, indice de l'état parent dans la file, déplacement menant à l'état
+     */
+    private int[] states = new int[1 << 12];
+    private int[] parents = new int[1 << 12];
+    private byte[] moves = new byte[1 << 12];
+    /**
+     * 已访问集合，默认为开放寻址哈希集合，深搜索可以换成 OffHeapBitSet
+     * Ensemble des visités, hachage à adressage ouvert par défaut, remplaçable par OffHeapBitSet
+     * pour les recherches profondes
+     */
+    private VisitedSet visited = new IntHashSet(1 << 12);
+    /**
+     * 上一次搜索记录的状态数  Nombre d'états enregistrés par la dernière recherche
+     */
+    protected int visitedCount;
+    /**
+     * 上一次广度优先搜索放入队列(也就是已访问集合)的状态数
+     * Nombre d'états mis dans la file (donc dans l'ensemble des visités) par la dernière recherche en largeur
+     */
+    private int queued;
+    /**
+     * 上一次广度优先搜索是否因为状态数超限而中止
+     * La dernière recherche en largeur a-t-elle été interrompue par la limite d'états
+     */
+    protected boolean truncated;
+    /**
+     * 搜索截止时间(System.nanoTime)，0 表示不限时
+     * Échéance de la recherche (System.nanoTime), 0 signifie sans limite
+     */
+    protected long deadline;
+    /**
+     * 上一次搜索是否因为超时或线程被中断而放弃(此时返回的 null 不代表无解)
+     * La dernière recherche a-t-elle été abandonnée (échéance dépassée ou thread interrompu),
+     * le null renvoyé ne signifie alors pas "sans solution"
+     */
+    protected boolean cancelled;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    public Solver(BitBoard board) {
+        this(board, new SlideTable(board));
+    }
+
+    public Solver(BitBoard board, SlideTable slideTable) {
+        this.board = board;
+        this.slideTable = slideTable;
+        this.idaStar = new IdaStarSearch(slideTable);
+        this.canonicalizer = new StateCanonicalizer(slideTable);
+        this.fingerprint = board.fingerprint();
+        for (int color = 0; color < 4; color++) {
+            colorGoals[color] = colorGoal(color);
+            colorDistances[color] = new DistanceMap(board, colorGoals[color]);
+        }
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            if (board.getTarget(cell) >= 0) {
+                cellDistances[cell] = new DistanceMap(board, cellGoal(cell));
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------
+     * 打包状态的辅助方法  Méthodes d'assistance des états packés
+     * --------------------------------------
+     */
+
+    /**
+     * [公共静态方法] 把四个棋子的格子下标打包成一个状态
+     * [Méthode statique publique] Packe les indices de case des quatre pions dans un état
+     * @param cells 按棋子下标(红 绿 黄 蓝)排列的格子下标    indices de case par indice de pion (rouge vert jaune bleu)
+     */
+    public static int pack(int[] cells) {
+        int robots = 0;
+        for (int i = 0; i < cells.length; i++) {
+            robots |= cells[i] << (i << 3);
+        }
+        return robots;
+    }
+
+    /**
+     * [公共静态方法] 获取状态中第 robot 个棋子的格子下标
+     * [Méthode statique publique] Indice de case du pion robot dans l'état
+     */
+    public static int cellOf(int robots, int robot) {
+        return (robots >>> (robot << 3)) & 0xFF;
+    }
+
+    /**
+     * [公共静态方法] 替换状态中第 robot 个棋子的格子下标
+     * [Méthode statique publique] Remplace l'indice de case du pion robot dans l'état
+     */
+    public static int withCell(int robots, int robot, int cell) {
+        int shift = robot << 3;
+        return (robots & ~(0xFF << shift)) | (cell << shift);
+    }
+
+    /**
+     * --------------------------------------
+     * 求解  Résolution
+     * --------------------------------------
+     */
+
+    /**
+     * 求当前棋子抵达任意一个同颜色终点的最优解(与 stepOver 的判断相同)
+     * Solution optimale pour que le pion atteigne n'importe quel point final de sa couleur
+     * (même règle que stepOver)
+     * @param robots    打包的棋子位置   positions packées des pions
+     * @param robot     当前棋子下标(也是终点颜色)   indice du pion courant (aussi la couleur du point final)
+     * @return  最优解，在最大步数内无解时返回 null    solution optimale, null s'il n'y en a pas dans la profondeur maximale
+     */
+    public Solution solve(int robots, int robot) {
+        return search(robots, robot, colorGoals[robot], colorDistances[robot]);
+    }
+
+    /**
+     * 求当前棋子抵达指定格子的最优解
+     * Solution optimale pour que le pion atteigne la case indiquée
+     */
+    public Solution solve(int robots, int robot, int targetCell) {
+        return search(robots, robot, cellGoal(targetCell), getDistances(targetCell));
+    }
+
+    /**
+     * 搜索入口: 根据估计步数选择广度优先搜索或 IDA*
+     * Point d'entrée de la recherche : choisit la recherche en largeur ou IDA* selon la profondeur estimée
+     *  - 只移动当前棋子时最多 256 个状态，总是使用广度优先搜索
+     *  - Si seul le pion courant bouge, il y a au plus 256 états, la recherche en largeur est toujours utilisée
+     *  - 估计步数较大，或者广度优先搜索的状态数超限时，使用 IDA* (内存只与深度有关)
+     *  - Si la profondeur estimée est grande, ou si la recherche en largeur dépasse sa limite d'états,
+     *  IDA* est utilisé (mémoire proportionnelle à la profondeur)
+     * @param goal      终点掩码(4 个 long)   masque des arrivées (4 long)
+     * @param distances 终点距离表    table des distances vers l'arrivée
+     */
+    protected Solution search(int robots, int robot, long[] goal, DistanceMap distances) {
+        cancelled = false;
+        int estimate = distances.get(cellOf(robots, robot));
+        if (estimate == DistanceMap.UNREACHABLE || estimate > maxDepth) {
+            visitedCount = 0;
+            return null;
+        }
+        if (isCanonical()) {
+            canonicalizer.setGoal(robot, goal);
+        }
+        if (!helperMoves || estimate < idaDepth) {
+            Solution solution = bfs(robots, robot, goal);
+            if (!truncated) {
+                return solution;
+            }
+        }
+        idaStar.setDeadline(deadline);
+        idaStar.setCanonicalizer(isCanonical() ? canonicalizer : null);
+        Solution solution = idaStar.search(robots, robot, goal, distances, helperMoves, maxDepth);
+        cancelled = idaStar.isCancelled();
+        return solution;
+    }
+
+    /**
+     * 广度优先搜索  Recherche en largeur
+     *  生成子状态时就判断是否抵达终点，第一个抵达终点的状态就是最优解
+     *  L'arrivée est testée dès la génération d'un état fils, le premier état arrivé est optimal
+     */
+    protected Solution bfs(int start, int robot, long[] goal) {
+        visited.reset(states, queued);
+        queued = 0;
+        visitedCount = 1;
+        truncated = false;
+        if (isGoal(goal, cellOf(start, robot))) {
+            return new Solution(new byte[0]);
+        }
+        boolean canonical = isCanonical();
+        int root = canonical ? canonicalizer.canonical(start) : start;
+        visited.add(root);
+        states[0] = root;
+        parents[0] = -1;
+        int head = 0;
+        int tail = 1;
+        int layerEnd = 1;
+        int depth = 0;
+        int first = helperMoves ? 0 : robot;
+        int last = helperMoves ? 3 : robot;
+        while (head < tail) {
+            if ((head & STOP_CHECK_MASK) == 0 && shouldStop()) {
+                visitedCount = queued = tail;
+                cancelled = true;
+                return null;
+            }
+            if (head == layerEnd) {
+                layerEnd = tail;
+                if (++depth >= maxDepth) {
+                    break;
+                }
+            }
+            int state = states[head];
+            for (int r = first; r <= last; r++) {
+                int cell = cellOf(state, r);
+                for (int dir = 0; dir < 4; dir++) {
+                    int to = slideTable.slide(cell, dir, state);
+                    if (to == cell) {
+                        continue;
+                    }
+                    if (tail == states.length) {
+                        if (tail >= bfsStateLimit) {
+                            visitedCount = queued = tail;
+                            truncated = true;
+                            return null;
+                        }
+                        grow();
+                    }
+                    int next = withCell(state, r, to);
+                    if (canonical) {
+                        next = canonicalizer.canonical(next);
+                    }
+                    if (!visited.add(next)) {
+                        continue;
+                    }
+                    states[tail] = next;
+                    parents[tail] = head;
+                    moves[tail] = Solution.encode(r, dir);
+                    tail++;
+                    if (r == robot && isGoal(goal, to)) {
+                        visitedCount = queued = tail;
+                        return canonical ? replay(start, chain(tail - 1)) : path(tail - 1);
+                    }
+                }
+            }
+            head++;
+        }
+        visitedCount = queued = tail;
+        return null;
+    }
+
+    /**
+     * 是否超过截止时间或线程被中断   L'échéance est-elle dépassée ou le thread interrompu
+     */
+    protected boolean shouldStop() {
+        return Thread.currentThread().isInterrupted() || (deadline != 0 && System.nanoTime() - deadline > 0);
+    }
+
+    /**
+     * 从队列中的下标沿父状态回溯出移动序列
+     * Remonte les états parents depuis l'indice de la file pour obtenir la suite de déplacements
+     */
+    private Solution path(int index) {
+        int length = 0;
+        for (int i = index; parents[i] >= 0; i = parents[i]) {
+            length++;
+        }
+        byte[] result = new byte[length];
+        for (int i = index; parents[i] >= 0; i = parents[i]) {
+            result[--length] = moves[i];
+        }
+        return new Solution(result);
+    }
+
+    /**
+     * 从下标沿父状态回溯出的状态序列(不包括起点)   Suite des états remontée par les parents depuis l'indice
+     * (départ exclu)
+     */
+    private int[] chain(int index) {
+        int length = 0;
+        for (int i = index; parents[i] >= 0; i = parents[i]) {
+            length++;
+        }
+        int[] chain = new int[length];
+        for (int i = index; parents[i] >= 0; i = parents[i]) {
+            chain[--length] = states[i];
+        }
+        return chain;
+    }
+
+    /**
+     * 规范状态序列的解: 从真实的起点重新模拟，每一步找一个规范形式等于下一个状态的移动
+     * Solution d'une suite d'états canoniques : on rejoue depuis le vrai départ, en cherchant à chaque pas
+     * un coup dont la forme canonique est l'état suivant
+     *  辅助棋子被排序、局面可能被对称变换过，所以不能直接使用记录的移动
+     *  Les auxiliaires ont été triés et la position a pu être transformée par symétrie : les coups
+     *  enregistrés ne sont pas utilisables directement
+     */
+    protected Solution replay(int start, int[] chain) {
+        byte[] result = new byte[chain.length];
+        int state = start;
+        for (int k = 0; k < chain.length; k++) {
+            // 状态可能是负数(最高的格子下标 >= 128)，用 found 记录是否找到   l'état peut être négatif
+            // (case du dernier octet >= 128), found indique si le coup est trouvé
+            boolean found = false;
+            for (int r = 0; r < 4 && !found; r++) {
+                int cell = cellOf(state, r);
+                for (int dir = 0; dir < 4; dir++) {
+                    int to = slideTable.slide(cell, dir, state);
+                    int next = withCell(state, r, to);
+                    if (to != cell && canonicalizer.canonical(next) == chain[k]) {
+                        result[k] = Solution.encode(r, dir);
+                        state = next;
+                        found = true;
+                        break;
+                    }
+                }
+            }
+            if (!found) {
+                throw new IllegalStateException("No move leads to state " + Integer.toHexString(chain[k]));
+            }
+        }
+        return new Solution(result);
+    }
+
+    private void grow() {
+        int capacity = states.length << 1;
+        states = java.util.Arrays.copyOf(states, capacity);
+        parents = java.util.Arrays.copyOf(parents, capacity);
+        moves = java.util.Arrays.copyOf(moves, capacity);
+    }
+
+    /**
+     * --------------------------------------
+     * 终点掩码  Masques d'arrivée
+     * --------------------------------------
+     */
+
+    /**
+     * color 颜色所有终点的掩码   Masque de tous les points finaux de la couleur color
+     */
+    protected long[] colorGoal(int color) {
+        long[] goal = new long[4];
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            if (board.isTarget(cell, color)) {
+                goal[cell >>> 6] |= 1L << cell;
+            }
+        }
+        return goal;
+    }
+
+    /**
+     * 获取抵达该格子的距离表   Table des distances vers la case
+     */
+    public DistanceMap getDistances(int targetCell) {
+        if (cellDistances[targetCell] == null) {
+            cellDistances[targetCell] = new DistanceMap(board, cellGoal(targetCell));
+        }
+        return cellDistances[targetCell];
+    }
+
+    /**
+     * 获取抵达 color 颜色任意终点的距离表   Table des distances vers un point final de la couleur color
+     */
+    public DistanceMap getColorDistances(int color) {
+        return colorDistances[color];
+    }
+
+    /**
+     * 单个格子的掩码   Masque d'une seule case
+     */
+    protected static long[] cellGoal(int cell) {
+        long[] goal = new long[4];
+        goal[cell >>> 6] |= 1L << cell;
+        return goal;
+    }
+
+    protected static boolean isGoal(long[] goal, int cell) {
+        return (goal[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * --------------------------------------
+     * Getter Setter
+     * --------------------------------------
+     */
+
+    public boolean isHelperMoves() {
+        return helperMoves;
+    }
+
+    public void setHelperMoves(boolean helperMoves) {
+        this.helperMoves = helperMoves;
+    }
+
+    public boolean isCanonicalStates() {
+        return canonicalStates;
+    }
+
+    public void setCanonicalStates(boolean canonicalStates) {
+        this.canonicalStates = canonicalStates;
+    }
+
+    /**
+     * 本次搜索是否使用规范状态(只有其他棋子可以移动时才有意义)
+     * La recherche utilise-t-elle les états canoniques (utile seulement si les autres pions bougent)
+     */
+    protected boolean isCanonical() {
+        return helperMoves && canonicalStates;
+    }
+
+    public StateCanonicalizer getCanonicalizer() {
+        return canonicalizer;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    public int getIdaDepth() {
+        return idaDepth;
+    }
+
+    public void setIdaDepth(int idaDepth) {
+        this.idaDepth = idaDepth;
+    }
+
+    public int getBfsStateLimit() {
+        return bfsStateLimit;
+    }
+
+    public void setBfsStateLimit(int bfsStateLimit) {
+        this.bfsStateLimit = bfsStateLimit;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * 设置搜索截止时间，超时或线程被中断时 solve 返回 null 并且 isCancelled() 为 true
+     * Fixe l'échéance de la recherche, au-delà (ou si le thread est interrompu) solve renvoie null
+     * et isCancelled() vaut true
+     * @param deadline  System.nanoTime() 的时刻，0 表示不限时   instant System.nanoTime(), 0 pour aucune limite
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public VisitedSet getVisitedSet() {
+        return visited;
+    }
+
+    /**
+     * 替换已访问集合(例如四个棋子都可以移动的深搜索使用 OffHeapBitSet)，传入的集合必须为空
+     * Remplace l'ensemble des visités (par exemple OffHeapBitSet pour une recherche profonde
+     * où les quatre pions bougent), l'ensemble fourni doit être vide
+     */
+    public void setVisitedSet(VisitedSet visited) {
+        this.visited.reset(states, queued);
+        queued = 0;
+        this.visited = visited;
+    }
+
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    public IdaStarSearch getIdaStar() {
+        return idaStar;
+    }
+
+    public BitBoard getBoard() {
+        return board;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public SlideTable getSlideTable() {
+        return slideTable;
+    }
+}
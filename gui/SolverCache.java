@@ -0,0 +1,242 @@
+package gui;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 求解结果缓存
+ * Cache des résultats du solveur
+ *  键: (地图指纹, 打包的棋子位置, 终点颜色与格子, 规则, 最大搜索步数)，值: 最优解或"无解"
+ *  Clé : (empreinte de la carte, positions packées des pions, couleur et case d'arrivée, règle,
+ *  profondeur maximale), valeur : solution optimale ou "sans solution"
+ *      "无解"只表示在最大步数内无解，所以最大步数也是键的一部分
+ *      "sans solution" ne vaut que pour la profondeur maximale, qui fait donc partie de la clé
+ *      容量有限，超出时淘汰最久未使用的结果(LRU)，并统计命中与未命中次数
+ *      Capacité bornée, le résultat le moins récemment utilisé est évincé (LRU),
+ *      les succès et échecs sont comptés
+ *      可以保存到本地文件，下次运行时再读取
+ *      Peut être enregistré dans un fichier local et relu à l'exécution suivante
+ *  线程安全(所有方法同步)   Thread-safe (toutes les méthodes sont synchronisées)
+ */
+public class SolverCache {
+
+    /**
+     * 文件头  En-tête du fichier
+     */
+    private static final int MAGIC = 0x52534332;  // "RSC2"
+
+    /**
+     * 终点为"任意同颜色终点"时使用的格子值   Valeur de case quand l'arrivée est "n'importe quel point de la couleur"
+     */
+    public static final int ANY_TARGET = 0xFFFF;
+
+    /**
+     * 表示"无解"的缓存值   Valeur de cache signifiant "sans solution"
+     */
+    private static final Solution NO_SOLUTION = new Solution(new byte[0]);
+
+    private final int capacity;
+    private final LinkedHashMap<Key, Solution> map;
+    private long hits;
+    private long misses;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * @param capacity  最多缓存的结果数   nombre maximal de résultats en cache
+     */
+    public SolverCache(int capacity) {
+        this.capacity = capacity;
+        this.map = new LinkedHashMap<Key, Solution>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Solution> eldest) {
+                return size() > SolverCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * 带缓存的求解: 当前棋子抵达任意同颜色终点
+     * Résolution avec cache : le pion courant atteint n'importe quel point final de sa couleur
+     * @see Solver#solve(int, int)
+     */
+    public Solution solve(Solver solver, int robots, int robot) {
+        Key key = new Key(solver.getFingerprint(), robots, robot, ANY_TARGET, solver.isHelperMoves(), solver.getMaxDepth());
+        Solution solution = get(key);
+        if (solution == null) {
+            solution = solver.solve(robots, robot);
+            if (solver.isCancelled()) {
+                return null;
+            }
+            put(key, solution);
+        }
+        return solution == NO_SOLUTION ? null : solution;
+    }
+
+    /**
+     * 带缓存的求解: 当前棋子抵达指定格子
+     * Résolution avec cache : le pion courant atteint la case indiquée
+     * @see Solver#solve(int, int, int)
+     */
+    public Solution solve(Solver solver, int robots, int robot, int targetCell) {
+        Key key = new Key(solver.getFingerprint(), robots, robot, targetCell, solver.isHelperMoves(), solver.getMaxDepth());
+        Solution solution = get(key);
+        if (solution == null) {
+            solution = solver.solve(robots, robot, targetCell);
+            if (solver.isCancelled()) {
+                return null;
+            }
+            put(key, solution);
+        }
+        return solution == NO_SOLUTION ? null : solution;
+    }
+
+    /**
+     * 查找缓存  Recherche dans le cache
+     * @return  缓存的解(无解时为 NO_SOLUTION)，未命中时返回 null
+     *          solution en cache (NO_SOLUTION si sans solution), null en cas d'échec
+     */
+    private synchronized Solution get(Key key) {
+        Solution solution = map.get(key);
+        if (solution == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return solution;
+    }
+
+    private synchronized void put(Key key, Solution solution) {
+        map.put(key, solution == null ? NO_SOLUTION : solution);
+    }
+
+    /**
+     * --------------------------------------
+     * 持久化  Persistance
+     * --------------------------------------
+     */
+
+    /**
+     * 保存到文件(按最近使用顺序，读取后淘汰顺序不变)
+     * Enregistre dans un fichier (dans l'ordre d'utilisation, l'ordre d'éviction est conservé à la relecture)
+     * @throws IOException  写入失败   échec d'écriture
+     */
+    public synchronized void save(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(map.size());
+            for (Map.Entry<Key, Solution> entry : map.entrySet()) {
+                out.writeLong(entry.getKey().fingerprint);
+                out.writeLong(entry.getKey().query);
+                Solution solution = entry.getValue();
+                if (solution == NO_SOLUTION) {
+                    out.writeByte(-1);
+                } else {
+                    out.writeByte(solution.length());
+                    for (int i = 0; i < solution.length(); i++) {
+                        out.writeByte(solution.getMove(i));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 从文件读取，加入当前缓存   Lit un fichier et l'ajoute au cache courant
+     * @throws IOException  读取失败或文件格式错误   échec de lecture ou format invalide
+     */
+    public synchronized void load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a solver cache file: " + file);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Key key = new Key(in.readLong(), in.readLong());
+                int length = in.readByte();
+                Solution solution = NO_SOLUTION;
+                if (length >= 0) {
+                    byte[] moves = new byte[length];
+                    in.readFully(moves);
+                    solution = new Solution(moves);
+                }
+                map.put(key, solution);
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------
+     * 统计  Statistiques
+     * --------------------------------------
+     */
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized void clear() {
+        map.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * 缓存键: 地图指纹 + 打包的查询(棋子位置、颜色、终点格子、最大步数(7 位，超过 127 时为 127)、规则)
+     * Clé du cache : empreinte de la carte + requête packée (positions des pions, couleur, case d'arrivée,
+     * profondeur maximale (7 bits, 127 au-delà), règle)
+     */
+    private static final class Key {
+        final long fingerprint;
+        final long query;
+
+        Key(long fingerprint, int robots, int robot, int targetCell, boolean helperMoves, int maxDepth) {
+            this(fingerprint, ((long) robots << 32) | ((long) robot << 24) | ((long) (targetCell & 0xFFFF) << 8)
+                    | (Math.min(Math.max(maxDepth, 0), 0x7F) << 1) | (helperMoves ? 1 : 0));
+        }
+
+        Key(long fingerprint, long query) {
+            this.fingerprint = fingerprint;
+            this.query = query;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = (fingerprint ^ query) * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return fingerprint == other.fingerprint && query == other.query;
+        }
+    }
+}
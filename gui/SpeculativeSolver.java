@@ -0,0 +1,154 @@
+package gui;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 预先求解器
+ * Solveur anticipé
+ *  回合一开始(引擎通知 onRoundStarted)就在后台线程中求当前棋子的最优解，玩家输入步数的这几秒里机器是空闲的
+ *  Dès le début de la manche (onRoundStarted du moteur), la solution optimale du pion courant est
+ *  calculée dans un thread d'arrière-plan : la machine est inactive pendant que les joueurs saisissent leurs pas
+ *      提示按钮、出价检查以及回合结束后显示的"最优解为 N 步"都直接使用这个结果
+ *      Le bouton d'indice, la vérification des enchères et l'affichage "optimal en N pas" de fin de manche
+ *      utilisent directement ce résultat
+ *      局面改变(颜色按钮随机刷新了棋子，引擎重新开始回合)时，正在进行的搜索被中断并重新开始
+ *      Si la position change (un bouton de couleur a fait réapparaître un pion, le moteur recommence la manche),
+ *      la recherche en cours est interrompue et relancée
+ *  结果保存在 SolverCache 中，相同局面不会再求解一次
+ *  Les résultats sont conservés dans le SolverCache, une même position n'est jamais résolue deux fois
+ */
+public class SpeculativeSolver implements GameEngine.OnGameListener {
+
+    private final GameEngine engine;
+    /**
+     * 后台线程独占的求解器(Solver 不是线程安全的)
+     * Solveur réservé au thread d'arrière-plan (Solver n'est pas thread-safe)
+     */
+    private final Solver solver;
+    private final SolverCache solverCache;
+    private final ExecutorService executor;
+
+    /**
+     * 当前求解的局面、结果以及后台任务
+     * Position en cours de résolution, son résultat et la tâche d'arrière-plan
+     */
+    private int robots = -1;
+    private int robot = -1;
+    private CompletableFuture<Solution> result;
+    private Future<?> task;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * 创建后注册为引擎的监听器  Enregistré comme écouteur du moteur à la création
+     * @param engine        游戏引擎(求解期间地图不能修改)   moteur de jeu (la carte ne doit pas changer)
+     * @param solverCache   与其他求解共用的缓存   cache partagé avec les autres résolutions
+     */
+    public SpeculativeSolver(GameEngine engine, SolverCache solverCache) {
+        this.engine = engine;
+        this.solver = new Solver(engine.getBoard(), engine.getSlideTable());
+        this.solverCache = solverCache;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "speculative-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        engine.addListener(this);
+    }
+
+    /**
+     * --------------------------------------
+     * 引擎事件  Événements du moteur
+     * --------------------------------------
+     */
+
+    /**
+     * 新回合(或者颜色按钮刷新棋子后重新开始的回合): 上一个局面的搜索已经没有用了
+     * Nouvelle manche (ou manche recommencée après réapparition d'un pion) : la recherche
+     * de la position précédente ne sert plus
+     */
+    @Override
+    public void onRoundStarted(int robot, Player firstBidder) {
+        int robots = engine.getRobots();
+        synchronized (this) {
+            if (result == null || this.robots != robots || this.robot != robot) {
+                cancel();
+            }
+            solve(robots, robot);
+        }
+    }
+
+    @Override
+    public void onGameOver(List<Player> ranking) {
+        cancel();
+    }
+
+    /**
+     * --------------------------------------
+     * 求解  Résolution
+     * --------------------------------------
+     */
+
+    /**
+     * 获取局面的最优解(在最大步数内无解时为 null)
+     * Solution optimale de la position (null s'il n'y en a pas dans la profondeur maximale)
+     *  与最近一次求解的局面相同时直接返回同一个结果，否则在后台排队求解这个局面
+     *  (不会中断之前的搜索，只有新回合才会中断)
+     *  Si c'est la dernière position demandée, le même résultat est renvoyé, sinon cette position
+     *  est mise en file (la recherche précédente n'est pas interrompue, seule une nouvelle manche le fait)
+     * @param robots    打包的棋子位置   positions packées des pions
+     * @param robot     当前棋子下标    indice du pion courant
+     * @return  求解完成时完成的结果，被取消时为 cancelled   résultat complété à la fin de la résolution, annulé en cas d'abandon
+     */
+    public synchronized CompletableFuture<Solution> solve(int robots, int robot) {
+        if (result != null && !result.isCancelled() && this.robots == robots && this.robot == robot) {
+            return result;
+        }
+        CompletableFuture<Solution> future = new CompletableFuture<>();
+        this.robots = robots;
+        this.robot = robot;
+        this.result = future;
+        this.task = executor.submit(() -> {
+            try {
+                Solution solution = solverCache.solve(solver, robots, robot);
+                if (solver.isCancelled()) {
+                    future.cancel(false);
+                } else {
+                    future.complete(solution);
+                }
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 中断最近一次求解的搜索  Interrompt la recherche de la dernière position demandée
+     */
+    public synchronized void cancel() {
+        if (task != null) {
+            task.cancel(true);
+            result.cancel(false);
+            task = null;
+            result = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    public Solver getSolver() {
+        return solver;
+    }
+}
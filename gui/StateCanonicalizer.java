@@ -0,0 +1,242 @@
+package gui;
+
+import java.util.Arrays;
+
+/**
+ * 搜索状态的规范化
+ * Canonicalisation des états de recherche
+ *  经典规则(其他棋子也可以移动)下，只有当前棋子需要抵达终点，其他三个棋子只是可以互换的障碍:
+ *  Avec les règles classiques (les autres pions bougent aussi), seul le pion courant doit atteindre l'arrivée,
+ *  les trois autres ne sont que des obstacles interchangeables :
+ *      1. 三个辅助棋子的格子按从小到大排列，交换辅助棋子得到的最多 3! = 6 个状态变成同一个
+ *      1. les cases des trois pions auxiliaires sont triées par ordre croissant : jusqu'à 3! = 6 états obtenus
+ *      en échangeant les auxiliaires deviennent un seul
+ *      2. 地图的对称(旋转、翻转后墙完全相同，由滑动终点表检测)如果也保持终点不变，对称的状态也是同一个，
+ *      取所有对称变换中最小的状态
+ *      2. si une symétrie de la carte (rotation ou retournement qui laisse les murs identiques, détectée par
+ *      la table des glissades) conserve aussi l'arrivée, les états symétriques sont aussi confondus :
+ *      le plus petit état parmi toutes les symétries est retenu
+ *  当前棋子始终在自己的 8 位上，所以终点判断不变；解的棋子下标由 Solver 重新模拟得到
+ *  Le pion courant garde toujours ses 8 bits, le test d'arrivée est donc inchangé ; les indices de pion
+ *  de la solution sont retrouvés par Solver en rejouant les coups
+ *  不是线程安全的(setGoal 会改变状态)   N'est pas thread-safe (setGoal modifie l'état)
+ */
+public class StateCanonicalizer {
+
+    /**
+     * 正方形的 8 种对称变换(第 0 种为恒等变换)   Les 8 symétries du carré (la 0 est l'identité)
+     */
+    public static final int TRANSFORMS = 8;
+
+    /**
+     * 地图的对称变换: 每种变换的格子置换表   Symétries de la carte : permutation des cases de chaque symétrie
+     */
+    private final byte[][] symmetries;
+    /**
+     * 当前搜索使用的对称变换(保持终点不变的那些，不包括恒等变换)
+     * Symétries utilisées par la recherche en cours (celles qui conservent l'arrivée, identité exclue)
+     */
+    private final byte[][] active;
+    private int activeCount;
+    private int robot;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * 检测地图的对称(只考虑墙和挡住的格子)   Détecte les symétries de la carte (murs et cases bloquées seulement)
+     */
+    public StateCanonicalizer(SlideTable slideTable) {
+        byte[][] found = new byte[TRANSFORMS][];
+        int count = 0;
+        for (int transform = 1; transform < TRANSFORMS; transform++) {
+            if (isSymmetry(slideTable, transform)) {
+                found[count++] = permutation(transform);
+            }
+        }
+        this.symmetries = Arrays.copyOf(found, count);
+        this.active = new byte[count][];
+    }
+
+    /**
+     * --------------------------------------
+     * 对称检测  Détection des symétries
+     * --------------------------------------
+     */
+
+    /**
+     * 变换 transform 下格子 cell 的位置   Position de la case cell par la symétrie transform
+     *  0 恒等 identité, 1 旋转 90° rotation, 2 旋转 180°, 3 旋转 270°, 4 左右翻转 miroir horizontal,
+     *  5 上下翻转 miroir vertical, 6 主对角线 diagonale, 7 副对角线 anti-diagonale
+     */
+    public static int transform(int transform, int cell) {
+        int n = BitBoard.SIZE - 1;
+        int r = BitBoard.row(cell);
+        int c = BitBoard.col(cell);
+        switch (transform) {
+            case 0:
+                return cell;
+            case 1:
+                return BitBoard.cell(c, n - r);
+            case 2:
+                return BitBoard.cell(n - r, n - c);
+            case 3:
+                return BitBoard.cell(n - c, r);
+            case 4:
+                return BitBoard.cell(r, n - c);
+            case 5:
+                return BitBoard.cell(n - r, c);
+            case 6:
+                return BitBoard.cell(c, r);
+            default:
+                return BitBoard.cell(n - c, n - r);
+        }
+    }
+
+    /**
+     * 变换后的方向: 在地图中心附近的格子上看相邻格子的位置
+     * Direction après la symétrie : position de la case voisine, vue depuis une case centrale
+     */
+    static int transformDir(int transform, int dir) {
+        int center = BitBoard.cell(BitBoard.SIZE / 2, BitBoard.SIZE / 2);
+        int from = transform(transform, center);
+        int to = transform(transform, BitBoard.neighbour(center, dir));
+        for (int d = 0; d < 4; d++) {
+            if (BitBoard.neighbour(from, d) == to) {
+                return d;
+            }
+        }
+        throw new IllegalStateException("transform " + transform);
+    }
+
+    /**
+     * 每个格子每个方向只考虑墙的滑动终点在变换后都相同   Toutes les glissades (murs seulement) de toutes
+     * les cases sont identiques après la symétrie
+     */
+    private static boolean isSymmetry(SlideTable slideTable, int transform) {
+        for (int dir = 0; dir < 4; dir++) {
+            int mapped = transformDir(transform, dir);
+            for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+                if (slideTable.wallStop(transform(transform, cell), mapped)
+                        != transform(transform, slideTable.wallStop(cell, dir))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static byte[] permutation(int transform) {
+        byte[] permutation = new byte[BitBoard.CELLS];
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            permutation[cell] = (byte) transform(transform, cell);
+        }
+        return permutation;
+    }
+
+    /**
+     * --------------------------------------
+     * 规范化  Canonicalisation
+     * --------------------------------------
+     */
+
+    /**
+     * 开始一次搜索: 当前棋子和终点掩码，只保留把终点映射到自身的对称变换
+     * Début d'une recherche : pion courant et masque d'arrivée, seules les symétries qui envoient
+     * l'arrivée sur elle-même sont gardées
+     */
+    public void setGoal(int robot, long[] goal) {
+        this.robot = robot;
+        activeCount = 0;
+        for (byte[] symmetry : symmetries) {
+            if (preserves(symmetry, goal)) {
+                active[activeCount++] = symmetry;
+            }
+        }
+    }
+
+    private static boolean preserves(byte[] symmetry, long[] goal) {
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            if ((goal[cell >>> 6] & (1L << cell)) != 0) {
+                int mapped = symmetry[cell] & 0xFF;
+                if ((goal[mapped >>> 6] & (1L << mapped)) == 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 状态的规范形式(setGoal 之后)   Forme canonique d'un état (après setGoal)
+     */
+    public int canonical(int state) {
+        int best = sortHelpers(state, robot);
+        for (int i = 0; i < activeCount; i++) {
+            byte[] symmetry = active[i];
+            int mapped = 0;
+            for (int shift = 0; shift < 32; shift += 8) {
+                mapped |= (symmetry[(state >>> shift) & 0xFF] & 0xFF) << shift;
+            }
+            mapped = sortHelpers(mapped, robot);
+            if (mapped < best) {
+                best = mapped;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * [公共静态方法] 三个辅助棋子的格子按从小到大放在除 robot 以外的三个位置上
+     * [Méthode statique publique] Range les cases des trois pions auxiliaires par ordre croissant dans
+     * les trois emplacements autres que robot
+     */
+    public static int sortHelpers(int state, int robot) {
+        int shift = robot << 3;
+        int active = (state >>> shift) & 0xFF;
+        // 去掉当前棋子，剩下的三个字节在低 24 位   sans le pion courant, les trois autres octets sur 24 bits
+        int low = state & ((1 << shift) - 1);
+        int rest = shift == 24 ? low : low | ((state >>> 8) & ~((1 << shift) - 1));
+        int a = rest & 0xFF;
+        int b = (rest >>> 8) & 0xFF;
+        int c = (rest >>> 16) & 0xFF;
+        int t;
+        if (a > b) {
+            t = a;
+            a = b;
+            b = t;
+        }
+        if (b > c) {
+            t = b;
+            b = c;
+            c = t;
+        }
+        if (a > b) {
+            t = a;
+            a = b;
+            b = t;
+        }
+        int sorted = a | b << 8 | c << 16;
+        // 把当前棋子插回原来的位置   réinsère le pion courant à sa place
+        int below = sorted & ((1 << shift) - 1);
+        int above = shift == 24 ? 0 : (sorted & ~((1 << shift) - 1)) << 8;
+        return below | active << shift | above;
+    }
+
+    /**
+     * 地图的对称变换数(不包括恒等变换)   Nombre de symétries de la carte (identité exclue)
+     */
+    public int getSymmetryCount() {
+        return symmetries.length;
+    }
+
+    /**
+     * 当前搜索使用的对称变换数   Nombre de symétries utilisées par la recherche en cours
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+}
@@ -0,0 +1,213 @@
+package gui;
+
+import java.util.Arrays;
+
+/**
+ * 一个局面所有终点的分析
+ * Analyse de tous les points finaux d'une position
+ *  从当前棋子位置出发的一次广度优先搜索，节点为 (棋子, 格子)，同时得到每个棋子抵达每个格子的最少步数，
+ *  也就是 16 个终点各自的最优步数以及每种颜色的最优步数，代替 16 次独立的搜索
+ *  Une seule recherche en largeur depuis la position courante, sur les nœuds (pion, case) : elle donne à la fois
+ *  le nombre minimum de coups de chaque pion vers chaque case, donc l'optimum de chacun des 16 points finaux
+ *  et de chaque couleur, au lieu de 16 recherches indépendantes
+ *      与游戏规则相同只移动当前棋子，其他棋子停在原位，所以每个棋子最多 256 个节点，整个搜索最多 1024 个节点
+ *      Comme la règle du jeu, seul le pion courant bouge et les autres restent en place : au plus 256 nœuds
+ *      par pion, 1024 pour toute la recherche
+ *      终点 t 由同颜色的棋子抵达   le point final t est atteint par le pion de sa couleur
+ *  结果用于回合难度的显示和选择终点   Les résultats servent à l'affichage de la difficulté de la manche
+ *  et au choix du point final
+ *  不是线程安全的   N'est pas thread-safe
+ */
+public class TargetAnalysis {
+
+    /**
+     * 不可抵达   Inaccessible
+     */
+    public static final int UNREACHABLE = 0xFF;
+
+    private final SlideTable slideTable;
+    /**
+     * 地图上所有终点的格子和颜色(按格子顺序)   Cases et couleurs de tous les points finaux (par ordre de case)
+     */
+    private final int[] targetCells;
+    private final int[] targetColors;
+
+    /**
+     * 节点 robot << 8 | cell 的步数，以及到达它的上一个格子和方向(用来重建路径)
+     * Coups du nœud robot << 8 | cell, avec la case précédente et la direction (pour reconstruire le chemin)
+     */
+    private final byte[] distances = new byte[GameEngine.ROBOTS * BitBoard.CELLS];
+    private final byte[] parentCells = new byte[GameEngine.ROBOTS * BitBoard.CELLS];
+    private final byte[] parentDirs = new byte[GameEngine.ROBOTS * BitBoard.CELLS];
+    private final int[] queue = new int[GameEngine.ROBOTS * BitBoard.CELLS];
+    private final int[] targetMoves;
+    private final int[] colorMoves = new int[GameEngine.ROBOTS];
+    private final int[] bestTargets = new int[GameEngine.ROBOTS];
+    private int robots;
+    private int visited;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * @param board         地图(只读取终点)   carte (seuls les points finaux sont lus)
+     * @param slideTable    该地图的滑动终点表，可以共用   table des glissades de la carte, partageable
+     */
+    public TargetAnalysis(BitBoard board, SlideTable slideTable) {
+        this.slideTable = slideTable;
+        int count = 0;
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            if (board.getTarget(cell) >= 0) {
+                count++;
+            }
+        }
+        targetCells = new int[count];
+        targetColors = new int[count];
+        targetMoves = new int[count];
+        count = 0;
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            if (board.getTarget(cell) >= 0) {
+                targetCells[count] = cell;
+                targetColors[count] = board.getTarget(cell);
+                count++;
+            }
+        }
+    }
+
+    /**
+     * --------------------------------------
+     * 分析  Analyse
+     * --------------------------------------
+     */
+
+    /**
+     * 分析局面: 四个棋子同时作为起点的一次广度优先搜索
+     * Analyse la position : une recherche en largeur avec les quatre pions comme départs
+     * @param robots    打包的棋子位置   positions packées des pions
+     */
+    public void analyse(int robots) {
+        this.robots = robots;
+        Arrays.fill(distances, (byte) UNREACHABLE);
+        int tail = 0;
+        for (int robot = 0; robot < GameEngine.ROBOTS; robot++) {
+            int node = robot << 8 | Solver.cellOf(robots, robot);
+            distances[node] = 0;
+            queue[tail++] = node;
+        }
+        for (int head = 0; head < tail; head++) {
+            int node = queue[head];
+            int robot = node >>> 8;
+            int cell = node & 0xFF;
+            int distance = distances[node] & 0xFF;
+            // 其他棋子在原位，当前棋子在 cell   les autres pions à leur place, le pion courant sur cell
+            int state = Solver.withCell(robots, robot, cell);
+            for (int dir = 0; dir < 4; dir++) {
+                int to = slideTable.slide(cell, dir, state);
+                int next = robot << 8 | to;
+                if (to == cell || (distances[next] & 0xFF) != UNREACHABLE) {
+                    continue;
+                }
+                distances[next] = (byte) (distance + 1);
+                parentCells[next] = (byte) cell;
+                parentDirs[next] = (byte) dir;
+                queue[tail++] = next;
+            }
+        }
+        visited = tail;
+
+        Arrays.fill(colorMoves, UNREACHABLE);
+        Arrays.fill(bestTargets, -1);
+        for (int t = 0; t < targetCells.length; t++) {
+            int color = targetColors[t];
+            targetMoves[t] = getDistance(color, targetCells[t]);
+            if (targetMoves[t] < colorMoves[color]) {
+                colorMoves[color] = targetMoves[t];
+                bestTargets[color] = t;
+            }
+        }
+    }
+
+    /**
+     * 沿父节点重建 robot 抵达 cell 的最优解(需要先 analyse)
+     * Reconstruit par les parents la solution optimale de robot vers cell (après analyse)
+     * @return  不可抵达时返回 null   null si inaccessible
+     */
+    public Solution solution(int robot, int cell) {
+        int length = getDistance(robot, cell);
+        if (length == UNREACHABLE) {
+            return null;
+        }
+        byte[] moves = new byte[length];
+        int node = robot << 8 | cell;
+        for (int i = length - 1; i >= 0; i--) {
+            moves[i] = Solution.encode(robot, parentDirs[node]);
+            node = robot << 8 | (parentCells[node] & 0xFF);
+        }
+        return new Solution(moves);
+    }
+
+    /**
+     * --------------------------------------
+     * Getter
+     * --------------------------------------
+     */
+
+    /**
+     * robot 单独抵达 cell 的最少步数   Nombre minimum de coups de robot seul vers cell
+     */
+    public int getDistance(int robot, int cell) {
+        return distances[robot << 8 | cell] & 0xFF;
+    }
+
+    public int getTargetCount() {
+        return targetCells.length;
+    }
+
+    public int getTargetCell(int target) {
+        return targetCells[target];
+    }
+
+    public int getTargetColor(int target) {
+        return targetColors[target];
+    }
+
+    /**
+     * 终点 target 的最优步数   Nombre optimal de coups du point final target
+     */
+    public int getTargetMoves(int target) {
+        return targetMoves[target];
+    }
+
+    /**
+     * color 颜色的棋子抵达任意同颜色终点的最优步数   Nombre optimal de coups du pion color vers un point
+     * final de sa couleur
+     */
+    public int getColorMoves(int color) {
+        return colorMoves[color];
+    }
+
+    /**
+     * color 颜色步数最少的终点，没有可以抵达的终点时返回 -1   Point final de la couleur color le plus proche,
+     * -1 si aucun n'est accessible
+     */
+    public int getBestTarget(int color) {
+        return bestTargets[color];
+    }
+
+    /**
+     * 上一次分析的局面   Position de la dernière analyse
+     */
+    public int getRobots() {
+        return robots;
+    }
+
+    /**
+     * 上一次分析访问的节点数   Nœuds visités par la dernière analyse
+     */
+    public int getVisited() {
+        return visited;
+    }
+}
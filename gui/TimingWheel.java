@@ -0,0 +1,270 @@
+package gui;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 时间轮
+ * Roue temporelle (timing wheel hachée)
+ *  用一个驱动线程管理成千上万个定时任务(例如每个游戏会话一个回合倒计时)
+ *  Un seul thread pilote gère des milliers de tâches planifiées (par exemple un compte à rebours par session de jeu)
+ *      轮子有 wheelSize 个格子，每格 tick 时间；截止时间为 d 的任务放在第 (d / tick) % wheelSize 格，
+ *      并记录还要转几圈(rounds)
+ *      La roue a wheelSize cases d'une durée tick ; une tâche d'échéance d va dans la case (d / tick) % wheelSize,
+ *      avec le nombre de tours restants (rounds)
+ *      每格是一个双向链表，添加和取消都是 O(1)   chaque case est une liste doublement chaînée, ajout et annulation en O(1)
+ *      驱动线程每个 tick 只处理一个格子，到期的任务交给任务自己的 executor 执行(驱动线程不执行回调)
+ *      Le thread pilote ne traite qu'une case par tick, les tâches échues sont confiées à leur propre executor
+ *      (le thread pilote n'exécute jamais de rappel)
+ *      没有任务时驱动线程一直等待，不会被唤醒   sans tâche, le thread pilote attend sans jamais se réveiller
+ *  精度为一个 tick (任务不会提前执行，最多晚一个 tick)
+ *  Précision d'un tick (une tâche n'est jamais exécutée en avance, au plus un tick en retard)
+ *  线程安全   Thread-safe
+ */
+public class TimingWheel {
+
+    /**
+     * 默认 tick 长度(毫秒)和格子数   Durée d'un tick (ms) et nombre de cases par défaut
+     */
+    public static final long DEFAULT_TICK_MILLIS = 10;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * 所有 WTimer 默认共用的时间轮   Roue partagée par défaut par toutes les WTimer
+     */
+    private static TimingWheel shared;
+
+    private final long tickNanos;
+    private final int mask;
+    /**
+     * 每个格子的链表头  Tête de liste de chaque case
+     */
+    private final Timeout[] buckets;
+    /**
+     * 第 0 个 tick 的时刻(System.nanoTime)   instant du tick 0 (System.nanoTime)
+     */
+    private final long startTime;
+    /**
+     * 下一个要处理的 tick   prochain tick à traiter
+     */
+    private long tick;
+    /**
+     * 轮子中的任务数  Nombre de tâches dans la roue
+     */
+    private int size;
+    private boolean stopped;
+    private final Thread driver;
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    public TimingWheel(String name) {
+        this(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE, name);
+    }
+
+    /**
+     * @param tickMillis    每格的时间(毫秒)   durée d'une case (ms)
+     * @param wheelSize     格子数(向上取整为 2 的幂)   nombre de cases (arrondi à une puissance de 2)
+     * @param name          驱动线程的名字(守护线程)   nom du thread pilote (démon)
+     */
+    public TimingWheel(long tickMillis, int wheelSize, String name) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tick and wheel size must be positive");
+        }
+        int capacity = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.mask = capacity - 1;
+        this.buckets = new Timeout[capacity];
+        this.startTime = System.nanoTime();
+        this.driver = new Thread(this::drive, name);
+        this.driver.setDaemon(true);
+        this.driver.start();
+    }
+
+    /**
+     * 默认共用的时间轮(懒加载)   Roue partagée par défaut (créée à la demande)
+     */
+    public static synchronized TimingWheel shared() {
+        if (shared == null) {
+            shared = new TimingWheel("timing-wheel");
+        }
+        return shared;
+    }
+
+    /**
+     * --------------------------------------
+     * 调度  Planification
+     * --------------------------------------
+     */
+
+    /**
+     * 在 delay 之后把 task 交给 executor 执行  Confie task à executor après delay
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit, Executor executor) {
+        return scheduleAt(System.nanoTime() + unit.toNanos(delay), task, executor);
+    }
+
+    /**
+     * 在截止时间把 task 交给 executor 执行  Confie task à executor à l'échéance
+     * @param deadline  System.nanoTime() 的时刻   instant System.nanoTime()
+     */
+    public synchronized Timeout scheduleAt(long deadline, Runnable task, Executor executor) {
+        if (stopped) {
+            throw new IllegalStateException("Timing wheel stopped");
+        }
+        if (size == 0) {
+            // 驱动线程空闲时没有处理 tick，从现在开始计  pilote inactif : les ticks reprennent à partir de maintenant
+            tick = Math.max(tick, (System.nanoTime() - startTime) / tickNanos);
+            notifyAll();
+        }
+        Timeout timeout = new Timeout(deadline, task, executor);
+        // 向上取整，保证不会提前执行   arrondi au supérieur pour ne jamais exécuter en avance
+        long target = Math.max(tick, (deadline - startTime + tickNanos - 1) / tickNanos);
+        timeout.rounds = (target - tick) >> Long.numberOfTrailingZeros(buckets.length);
+        timeout.bucket = (int) (target & mask);
+        Timeout head = buckets[timeout.bucket];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[timeout.bucket] = timeout;
+        size++;
+        return timeout;
+    }
+
+    /**
+     * 从格子中移除(调用时持有锁)   Retire de sa case (appelé avec le verrou)
+     */
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        size--;
+    }
+
+    /**
+     * 停止驱动线程，没有到期的任务被丢弃   Arrête le thread pilote, les tâches non échues sont abandonnées
+     */
+    public synchronized void stop() {
+        stopped = true;
+        notifyAll();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * --------------------------------------
+     * 驱动线程  Thread pilote
+     * --------------------------------------
+     */
+
+    private void drive() {
+        try {
+            while (true) {
+                long wakeUp;
+                synchronized (this) {
+                    while (size == 0 && !stopped) {
+                        wait();
+                    }
+                    if (stopped) {
+                        return;
+                    }
+                    wakeUp = startTime + (tick + 1) * tickNanos;
+                }
+                long sleep = wakeUp - System.nanoTime();
+                if (sleep > 0) {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                }
+                expire();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 处理当前 tick 的格子，到期的任务交给各自的 executor
+     * Traite la case du tick courant, les tâches échues sont confiées à leur executor
+     */
+    private void expire() {
+        Timeout expired = null;
+        synchronized (this) {
+            Timeout timeout = buckets[(int) (tick & mask)];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.rounds <= 0) {
+                    unlink(timeout);
+                    timeout.expired = true;
+                    timeout.next = expired;
+                    expired = timeout;
+                } else {
+                    timeout.rounds--;
+                }
+                timeout = next;
+            }
+            tick++;
+        }
+        // 在锁外提交，executor 可能会阻塞或者重新调度   soumis hors du verrou, executor peut bloquer ou replanifier
+        while (expired != null) {
+            Timeout next = expired.next;
+            expired.next = null;
+            try {
+                expired.executor.execute(expired.task);
+            } catch (RuntimeException e) {
+                System.err.println("Timer task rejected: " + e);
+            }
+            expired = next;
+        }
+    }
+
+    /**
+     * 一个定时任务  Une tâche planifiée
+     */
+    public final class Timeout {
+        private final long deadline;
+        private final Runnable task;
+        private final Executor executor;
+        private long rounds;
+        private int bucket = -1;
+        private Timeout prev;
+        private Timeout next;
+        private boolean expired;
+
+        private Timeout(long deadline, Runnable task, Executor executor) {
+            this.deadline = deadline;
+            this.task = task;
+            this.executor = executor;
+        }
+
+        /**
+         * 取消任务(O(1))  Annule la tâche (O(1))
+         * @return  任务还没有到期并且被取消时返回 true   true si la tâche n'était pas échue et a été annulée
+         */
+        public boolean cancel() {
+            synchronized (TimingWheel.this) {
+                if (expired || bucket < 0) {
+                    return false;
+                }
+                unlink(this);
+                return true;
+            }
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 电脑玩家锦标赛
+ * Tournoi de joueurs ordinateur
+ *  没有界面、没有定时器，K 种电脑玩家配置在 M 张地图和不同种子上互相对局，用来调整电脑玩家的强度
+ *  Sans interface ni minuterie, K configurations de joueurs ordinateur s'affrontent sur M cartes et
+ *  différentes graines, pour régler la force des bots
+ *      第 g 局: 地图 g % M，种子由 (seed, g) 生成，座位上的选手由种子随机选择
+ *      Partie g : carte g % M, graine tirée de (seed, g), joueurs des sièges tirés de cette graine
+ *      难度只按最大步数限制搜索(不用 BotPlayer 的时间预算)，所以结果可以重现，与线程数和机器负载无关；
+ *      给出毫秒预算的选手(名字:步数:毫秒)依赖时间，结果不能重现
+ *      les difficultés ne limitent la recherche que par la profondeur (sans le budget de temps de BotPlayer),
+ *      le résultat est donc reproductible et indépendant du nombre de threads et de la charge ; un joueur
+ *      avec un budget en ms (nom:profondeur:ms) dépend du temps et n'est plus reproductible
+ *      每个工作线程在自己的引擎上同步驱动游戏(与 BotPlayer 相同的 BotSearch，但不经过回调和时间轮)，
+ *      每 CHUNK 局把自己的排行榜合并到全局排行榜
+ *      Chaque thread de travail mène les parties de façon synchrone sur ses propres moteurs (même BotSearch
+ *      que BotPlayer, sans rappel ni roue temporelle) et fusionne son classement dans le classement global
+ *      toutes les CHUNK parties
+ *      所有选手都没有解时刷新当前棋子(与界面中的颜色按钮相同)，超过 MAX_RESPAWNS 次的对局放弃，不计入排行榜
+ *      Si aucun joueur n'a de solution, le pion courant est replacé (comme les boutons de couleur de l'interface) ;
+ *      une partie qui dépasse MAX_RESPAWNS est abandonnée et ne compte pas au classement
+ *      用法  usage : java [-Drobot.library=地图库 bibliothèque] [-Drobot.seed=种子 graine] gui.Tournament
+ *      [局数 parties] [地图数 cartes] [座位数 sièges] [线程数 threads] [选手 joueur ...]
+ *      选手: EASY|NORMAL|HARD|EXPERT，或者 名字:最大步数[:毫秒]   joueur : EASY|NORMAL|HARD|EXPERT, ou nom:profondeur[:ms]
+ */
+public class Tournament {
+
+    /**
+     * 一种电脑玩家配置   Une configuration de joueur ordinateur
+     */
+    public static final class Bot {
+        private final String name;
+        private final int maxDepth;
+        private final long budgetMillis;
+
+        /**
+         * @param budgetMillis  每次搜索的时间预算，0 表示不限时   budget de chaque recherche, 0 pour aucune limite
+         */
+        public Bot(String name, int maxDepth, long budgetMillis) {
+            this.name = name;
+            this.maxDepth = maxDepth;
+            this.budgetMillis = budgetMillis;
+        }
+
+        /**
+         * 只使用难度的最大步数，不限时，结果可以重现   Profondeur de la difficulté seulement, sans limite
+         * de temps, pour un résultat reproductible
+         */
+        public Bot(BotPlayer.Difficulty difficulty) {
+            this(difficulty.name(), difficulty.getMaxDepth(), 0);
+        }
+
+        /**
+         * 解析 EASY|NORMAL|HARD|EXPERT 或 名字:最大步数[:毫秒]
+         * Analyse EASY|NORMAL|HARD|EXPERT ou nom:profondeur[:ms]
+         */
+        public static Bot parse(String text) {
+            String[] parts = text.split(":");
+            if (parts.length == 1) {
+                return new Bot(BotPlayer.Difficulty.valueOf(text.toUpperCase(Locale.ROOT)));
+            }
+            return new Bot(parts[0], Integer.parseInt(parts[1]), parts.length > 2 ? Long.parseLong(parts[2]) : 0);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public long getBudgetMillis() {
+            return budgetMillis;
+        }
+    }
+
+    /**
+     * 工作线程每次领取的局数   Parties prises à la fois par un thread de travail
+     */
+    private static final int CHUNK = 256;
+    public static final int MAX_RESPAWNS = 64;
+
+    private final List<BitBoard> boards;
+    private final List<SlideTable> slideTables;
+    private final Bot[] bots;
+    private final int seats;
+    private final long seed;
+
+    /**
+     * 全局排行榜(锁为 this)   Classement global (verrou : this)
+     */
+    private final Leaderboard leaderboard;
+    private final AtomicLong nextGame = new AtomicLong();
+    private final AtomicLong played = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+
+    /**
+     * --------------------------------------
+     * 构造器  Constructeur
+     * --------------------------------------
+     */
+
+    /**
+     * @param boards    对局使用的地图   cartes des parties
+     * @param bots      参赛的配置(至少 seats 个)   configurations engagées (au moins seats)
+     * @param seats     每局的座位数   sièges par partie
+     * @param seed      锦标赛的种子   graine du tournoi
+     */
+    public Tournament(List<BitBoard> boards, Bot[] bots, int seats, long seed) {
+        if (seats < 2 || seats > bots.length || seats > MoveLog.MAX_PLAYERS) {
+            throw new IllegalArgumentException(seats + " seats for " + bots.length + " bots");
+        }
+        this.boards = boards;
+        this.slideTables = new ArrayList<>(boards.size());
+        for (BitBoard board : boards) {
+            slideTables.add(new SlideTable(board));
+        }
+        this.bots = bots;
+        this.seats = seats;
+        this.seed = seed;
+        this.leaderboard = new Leaderboard(bots.length);
+    }
+
+    /**
+     * --------------------------------------
+     * 运行  Exécution
+     * --------------------------------------
+     */
+
+    /**
+     * 在 threads 个线程中进行 games 局，每 reportMillis 毫秒把排行榜的副本交给 report(在调用线程中)
+     * Joue games parties dans threads threads ; toutes les reportMillis ms, une copie du classement est passée
+     * à report (dans le thread appelant)
+     * @return  最终的排行榜   classement final
+     */
+    public Leaderboard run(long games, int threads, long reportMillis, Consumer<Leaderboard> report)
+            throws InterruptedException {
+        nextGame.set(0);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            Worker worker = new Worker(games);
+            Thread thread = new Thread(() -> {
+                try {
+                    worker.run();
+                } finally {
+                    done.countDown();
+                }
+            }, "tournament-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        while (!done.await(reportMillis, TimeUnit.MILLISECONDS)) {
+            report.accept(snapshot());
+        }
+        return snapshot();
+    }
+
+    /**
+     * 全局排行榜的副本   Copie du classement global
+     */
+    public synchronized Leaderboard snapshot() {
+        Leaderboard copy = new Leaderboard(bots.length);
+        copy.merge(leaderboard);
+        return copy;
+    }
+
+    private synchronized void merge(Leaderboard local) {
+        leaderboard.merge(local);
+    }
+
+    /**
+     * 已经完成的局数(包括放弃的)   Parties terminées (abandonnées comprises)
+     */
+    public long getPlayed() {
+        return played.get();
+    }
+
+    public long getAbandoned() {
+        return abandoned.get();
+    }
+
+    public Bot[] getBots() {
+        return bots;
+    }
+
+    /**
+     * 工作线程: 自己的引擎、搜索和玩家，每局都复用
+     * Thread de travail : ses propres moteurs, recherches et joueurs, réutilisés à chaque partie
+     */
+    private final class Worker {
+        private final long games;
+        private final GameEngine[] engines = new GameEngine[boards.size()];
+        private final BotSearch[] searches = new BotSearch[boards.size()];
+        private final Player[] players = new Player[seats];
+        private final List<Player> seatList = new ArrayList<>(seats);
+        private final int[] seatBots = new int[seats];
+        private final int[] scores = new int[seats];
+        private final int[] draw = new int[bots.length];
+        private final Solution[] plans = new Solution[seats];
+        private final Random random = new Random();
+        private final Leaderboard local = new Leaderboard(bots.length);
+
+        Worker(long games) {
+            this.games = games;
+            for (int s = 0; s < seats; s++) {
+                players[s] = new Player();
+                players[s].setName(String.valueOf(s + 1));
+                seatList.add(players[s]);
+            }
+        }
+
+        void run() {
+            long from;
+            while ((from = nextGame.getAndAdd(CHUNK)) < games) {
+                long to = Math.min(games, from + CHUNK);
+                for (long game = from; game < to; game++) {
+                    if (play(game)) {
+                        local.record(seatBots, scores, seats);
+                    } else {
+                        abandoned.incrementAndGet();
+                    }
+                }
+                merge(local);
+                local.clear();
+                played.addAndGet(to - from);
+            }
+        }
+
+        /**
+         * 进行第 game 局   Joue la partie game
+         * @return  刷新棋子次数过多而放弃时返回 false   false si la partie est abandonnée (trop de replacements)
+         */
+        private boolean play(long game) {
+            long gameSeed = mix(seed + game);
+            random.setSeed(gameSeed);
+            // 不放回地随机选择 seats 个选手   tire seats joueurs sans remise
+            for (int i = 0; i < draw.length; i++) {
+                draw[i] = i;
+            }
+            for (int s = 0; s < seats; s++) {
+                int k = s + random.nextInt(draw.length - s);
+                int bot = draw[k];
+                draw[k] = draw[s];
+                draw[s] = bot;
+                seatBots[s] = bot;
+            }
+            int board = (int) (game % boards.size());
+            GameEngine engine = engine(board);
+            BotSearch search = searches[board];
+            engine.setNextSeed(gameSeed);
+            engine.startGame(seatList);
+            int respawns = 0;
+            while (engine.getPhase() != GameEngine.Phase.OVER) {
+                int robot = engine.getCurrentChessIndex();
+                if (engine.getPhase() == GameEngine.Phase.BIDDING) {
+                    if (engine.getCurrentPlayerIndex() < 0 && !plan(search, engine.getRobots(), robot)) {
+                        if (++respawns > MAX_RESPAWNS) {
+                            return false;
+                        }
+                        engine.respawn(robot);
+                        continue;
+                    }
+                    Solution plan = plans[seatOf(engine.getPlayers().get(engine.getCurrentPlayerIndex() + 1))];
+                    engine.submitBid(plan != null ? plan.length() : BotPlayer.PASS_BID);
+                } else {
+                    Player player = engine.getCurrentPlayer();
+                    Solution plan = plans[seatOf(player)];
+                    if (plan != null && plan.length() <= player.getSteps()) {
+                        for (int i = 0; i < plan.length() && isTurn(engine, player, robot); i++) {
+                            engine.move(plan.getDirection(i));
+                        }
+                    }
+                    if (isTurn(engine, player, robot)) {
+                        engine.timeout();
+                    }
+                }
+            }
+            for (int s = 0; s < seats; s++) {
+                scores[s] = players[s].getScore();
+            }
+            return true;
+        }
+
+        /**
+         * 每个座位搜索当前回合的解   Chaque siège cherche sa solution pour la manche
+         * @return  至少有一个座位找到解   au moins un siège a une solution
+         */
+        private boolean plan(BotSearch search, int robots, int robot) {
+            boolean any = false;
+            for (int s = 0; s < seats; s++) {
+                Bot bot = bots[seatBots[s]];
+                long deadline = bot.budgetMillis > 0
+                        ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(bot.budgetMillis) : 0;
+                plans[s] = search.search(robots, robot, bot.maxDepth, deadline);
+                any |= plans[s] != null;
+            }
+            return any;
+        }
+
+        private int seatOf(Player player) {
+            for (int s = 0; s < seats; s++) {
+                if (players[s] == player) {
+                    return s;
+                }
+            }
+            throw new IllegalStateException("Unknown player " + player.getName());
+        }
+
+        private GameEngine engine(int board) {
+            if (engines[board] == null) {
+                engines[board] = new GameEngine(boards.get(board), slideTables.get(board), seed);
+                searches[board] = new BotSearch(boards.get(board), slideTables.get(board));
+            }
+            return engines[board];
+        }
+    }
+
+    /**
+     * player 仍在移动 robot   player joue encore le pion robot
+     */
+    private static boolean isTurn(GameEngine engine, Player player, int robot) {
+        return engine.getPhase() == GameEngine.Phase.MOVING && engine.getCurrentPlayer() == player
+                && engine.getCurrentChessIndex() == robot;
+    }
+
+    /**
+     * SplitMix64 的混合函数: 相邻的局号得到不相关的种子   Mélange de SplitMix64 : des parties voisines
+     * ont des graines décorrélées
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 打印排行榜   Affiche le classement
+     */
+    public static void print(PrintStream out, Bot[] bots, Leaderboard leaderboard) {
+        double[] ratings = leaderboard.ratings();
+        double[] errors = leaderboard.errors(ratings);
+        out.printf("%4s  %-12s %8s %7s %10s %7s %8s%n", "rank", "bot", "elo", "+-95%", "games", "score", "points");
+        int rank = 1;
+        for (int i : leaderboard.order(ratings)) {
+            long games = leaderboard.getGames(i);
+            out.printf("%4d  %-12s %8.1f %7.1f %10d %6.1f%% %8.3f%n", rank++, bots[i].getName(), ratings[i],
+                    errors[i], games, 100 * leaderboard.getScoreRate(i),
+                    games > 0 ? leaderboard.getPoints(i) / (double) games : 0);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int boardCount = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seats = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        Bot[] bots;
+        if (args.length > 4) {
+            bots = new Bot[args.length - 4];
+            for (int i = 0; i < bots.length; i++) {
+                bots[i] = Bot.parse(args[4 + i]);
+            }
+        } else {
+            bots = Arrays.stream(BotPlayer.Difficulty.values()).map(Bot::new).toArray(Bot[]::new);
+        }
+        long seed = Long.getLong("robot.seed", 0);
+
+        List<BitBoard> boards = new ArrayList<>();
+        String library = System.getProperty("robot.library");
+        if (library != null) {
+            try (BoardLibrary in = BoardLibrary.open(new File(library))) {
+                for (int id = 0; id < Math.min(boardCount, in.size()); id++) {
+                    boards.add(in.get(id));
+                }
+            }
+        } else {
+            boards.add(Boards.classic());
+        }
+
+        Tournament tournament = new Tournament(boards, bots, seats, seed);
+        System.out.printf("%d games, %d boards, %d seats, %d threads, seed %d%n",
+                games, boards.size(), seats, threads, seed);
+        long start = System.nanoTime();
+        Leaderboard result = tournament.run(games, threads, TimeUnit.SECONDS.toMillis(5), snapshot -> {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%n%d games in %.1f s (%.0f games/s)%n", tournament.getPlayed(), seconds,
+                    tournament.getPlayed() / seconds);
+            print(System.out, bots, snapshot);
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%n%d games in %.1f s (%.0f games/s), %d abandoned%n", tournament.getPlayed(), seconds,
+                tournament.getPlayed() / seconds, tournament.getAbandoned());
+        print(System.out, bots, result);
+    }
+}
@@ -0,0 +1,44 @@
+package gui;
+
+/**
+ * 已访问状态集合接口
+ * Interface d'ensemble des états visités
+ *  搜索时用于记录打包的棋子状态(32 位 int)，实现类都不装箱
+ *  Enregistre les états de pions packés (int de 32 bits) pendant une recherche, sans boxing
+ *      - IntHashSet : 开放寻址哈希集合，适合浅搜索  ensemble à adressage ouvert, pour les recherches peu profondes
+ *      - OffHeapBitSet : 堆外位图(每个状态一位，512 MB)，适合深搜索  bitset hors tas (un bit par état, 512 Mo),
+ *      pour les recherches profondes
+ */
+public interface VisitedSet {
+
+    /**
+     * 添加状态  Ajoute un état
+     * @return  状态之前不存在时返回 true    true si l'état n'existait pas encore
+     */
+    boolean add(int state);
+
+    /**
+     * 判断状态是否存在  Détermine si l'état existe
+     */
+    boolean contains(int state);
+
+    /**
+     * 清空集合  Vide l'ensemble
+     */
+    void clear();
+
+    /**
+     * 已记录的状态数  Nombre d'états enregistrés
+     */
+    int size();
+
+    /**
+     * 搜索结束后重置集合，added 是本次搜索添加过的全部状态
+     * Réinitialise l'ensemble après une recherche, added contient tous les états ajoutés par celle-ci
+     *  默认直接清空，位图可以只清除这些位，避免清空整个 512 MB
+     *  Par défaut l'ensemble est vidé, un bitset peut n'effacer que ces bits au lieu des 512 Mo entiers
+     */
+    default void reset(int[] added, int count) {
+        clear();
+    }
+}
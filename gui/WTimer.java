@@ -1,18 +1,30 @@
 package gui;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
- * 伪定线程时器类
- * Classe pseudo-timer
- *  不是单独的线程！模拟出一个线程！（还是同一个工人在干活）
- *  Pas un fil séparé! Simulez un fil! (toujours le même travailleur travaille)
- *  当线程(工人)调用update()方法时
- *  Lorsque le thread (worker) appelle la méthode update()
- *      1. 判断是否为运行状态(isRunning = true)
- *      1. Déterminez s'il est en cours d'exécution (isRunning = true)
- *      2. 判断调用前与调用时的时间差是否满足设定的时间间隔(nowTime - lastTime >= pTime)
- *      2. Déterminez si la différence de temps entre avant l'appel et le moment où
- *      l'appel respecte l'intervalle de temps défini (nowTime - lastTime >= pTime)
+ * 倒计时定时器类
+ * Classe de minuterie à rebours
+ *  不再由一个线程每秒轮询 update()，而是按截止时间调度:
+ *  Plus de thread qui interroge update() chaque seconde, la minuterie est planifiée selon une échéance :
+ *      1. start() 时用单调时钟(System.nanoTime)记下截止时间，并调度一次超时(onTimeout)，在截止时间准时执行
+ *      1. start() note l'échéance avec l'horloge monotone (System.nanoTime) et planifie un seul dépassement
+ *      (onTimeout), exécuté exactement à l'échéance
+ *      2. 运行期间每隔 pTime 执行一次 onTimerRunning(显示剩余时间)，节拍对齐到截止时间，不会累积误差
+ *      2. Pendant l'exécution, onTimerRunning (affichage du temps restant) est appelé toutes les pTime,
+ *      les battements sont alignés sur l'échéance, sans dérive cumulée
+ *      3. stop() 之后(以及两局游戏之间)没有任何任务，时间轮的驱动线程不会被唤醒
+ *      3. Après stop() (et entre deux parties) aucune tâche n'existe, le thread pilote de la roue ne se réveille pas
+ *  定时任务放在时间轮(TimingWheel)中，一个驱动线程可以管理成千上万个定时器(每个游戏会话一个)
+ *  Les tâches sont placées dans une roue temporelle (TimingWheel) : un seul thread pilote gère des milliers
+ *  de minuteries (une par session de jeu)
+ *      回调通过 executor 执行(界面中为 Platform::runLater，服务器中为会话的 SerialExecutor)
+ *      Les rappels passent par executor (Platform::runLater dans l'interface, le SerialExecutor de la session
+ *      sur le serveur)
+ *      在 executor 中执行回调前会检查定时器是否已经被停止或重新开始，过期的回调不会被执行
+ *      Avant d'exécuter un rappel dans executor, on vérifie que la minuterie n'a pas été arrêtée ou relancée :
+ *      un rappel périmé n'est jamais exécuté
  */
 public class WTimer {
 
@@ -20,18 +32,32 @@ public class WTimer {
      * 监听器对象(自定义的一个接口，在本类最后面)
      * Objet écouteur (une interface personnalisée, à la fin de cette classe)
      */
-    private OnTimerListener onTimerListener;
+    private final OnTimerListener onTimerListener;
     /**
-     * pTime : 执行任务的最小时间间隔  Intervalle de temps minimum pour l'exécution des tâches
-     * lastTime : 上次执行、开始、判断的时间 Dernière exécution, début, heure de jugement
-     * nowTime : 当前进行判断的时间  moment du jugement actuel
-     *  - 注意单位为long，时间戳用int装不下  Notez que l'unité est long et que l'horodatage ne peut pas être chargé avec int
+     * 时间轮与执行回调的线程  Roue temporelle et exécuteur des rappels
      */
-    private long pTime, lastTime, nowTime;
+    private final TimingWheel wheel;
+    private final Executor executor;
+    /**
+     * pTime : 显示节拍的间隔(毫秒)，0 表示没有节拍   intervalle des battements d'affichage (ms), 0 pour aucun battement
+     * timeout : 从开始到超时的时间(毫秒)   durée entre le départ et le dépassement (ms)
+     */
+    private final long pTime, timeout;
+    /**
+     * 截止时间(System.nanoTime)   échéance (System.nanoTime)
+     */
+    private long deadline;
     /**
      * 记录当前是否处于运行状态 enregistrer s'il est en cours d'exécution
      */
     private boolean isRunning = false;
+    /**
+     * 每次 start()/stop() 加一，用来丢弃过期的回调
+     * Incrémenté à chaque start()/stop(), pour ignorer les rappels périmés
+     */
+    private int generation;
+    private TimingWheel.Timeout timeoutTask;
+    private TimingWheel.Timeout tickTask;
 
     /**
      * --------------------------------------
@@ -39,59 +65,127 @@ public class WTimer {
      * --------------------------------------
      */
 
-    private WTimer(OnTimerListener onTimerListener) {
-        this.onTimerListener = onTimerListener;
-    }
-
-    private WTimer(long pTime, OnTimerListener onTimerListener) {
+    private WTimer(TimingWheel wheel, long pTime, long timeout, Executor executor, OnTimerListener onTimerListener) {
+        this.wheel = wheel;
         this.pTime = pTime;
+        this.timeout = timeout;
+        this.executor = executor;
         this.onTimerListener = onTimerListener;
     }
 
     /**
-     * 静态工厂
-     * @param pTime 设定的最小时间间隔   définir un intervalle de temps minimum
+     * 静态工厂(使用共用的时间轮)
+     * @param pTime     显示节拍的间隔(毫秒)，0 表示没有节拍   intervalle des battements (ms), 0 pour aucun battement
+     * @param timeout   从 start() 到超时的时间(毫秒)   durée entre start() et le dépassement (ms)
+     * @param executor  执行回调的线程(例如 Platform::runLater)   exécuteur des rappels (par exemple Platform::runLater)
      * @param onTimerListener   设置的监听器对象(需要执行的内容)   L'objet set listener (ce qui doit être exécuté)
      * @return  创建的WTimer对象     Objet WTimer créé
      */
-    public static WTimer createWTimer(long pTime, OnTimerListener onTimerListener) {
-        WTimer wTimer = new WTimer(pTime, onTimerListener);
-        return wTimer;
+    public static WTimer createWTimer(long pTime, long timeout, Executor executor, OnTimerListener onTimerListener) {
+        return createWTimer(TimingWheel.shared(), pTime, timeout, executor, onTimerListener);
     }
 
     /**
-     * 开始运行     démarrer l'opération
+     * 静态工厂(使用指定的时间轮)   Fabrique statique (avec la roue indiquée)
      */
-    public void start() {
+    public static WTimer createWTimer(TimingWheel wheel, long pTime, long timeout, Executor executor,
+                                      OnTimerListener onTimerListener) {
+        return new WTimer(wheel, pTime, timeout, executor, onTimerListener);
+    }
+
+    /**
+     * 开始(或重新开始)倒计时     démarrer (ou redémarrer) le compte à rebours
+     */
+    public synchronized void start() {
+        cancelTasks();
         isRunning = true;
-        lastTime = System.currentTimeMillis();
+        int current = ++generation;
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        timeoutTask = wheel.scheduleAt(deadline, () -> expire(current), executor);
+        if (pTime > 0) {
+            scheduleTick(current, (timeout - 1) / pTime);
+        }
     }
 
     /**
-     * 执行任务     effectuer des tâches
-     *  - 需要被其他工人调用     doit être appelé par d'autres travailleurs
-     *  - 判断当前是否为运行状态，判断是否满足时间间隔后 执行监听器对象中的任务
-     *  Déterminez si l'état actuel est en cours d'exécution et exécutez la tâche
-     *  dans l'objet écouteur après avoir jugé si l'intervalle de temps est satisfait
+     * 停止运行 arrêter de courir
      */
-    public void update() {
-        if (isRunning) {
-            nowTime = System.currentTimeMillis();
+    public synchronized void stop() {
+        cancelTasks();
+        isRunning = false;
+        generation++;
+    }
 
-            if (nowTime - lastTime >= pTime) {
-                if (onTimerListener != null) {
-                    onTimerListener.onTimerRunning(this);
-                }
-                lastTime = nowTime;
+    /**
+     * 剩余时间(毫秒)，没有运行时为 0   Temps restant (ms), 0 si arrêtée
+     */
+    public synchronized long getRemaining() {
+        if (!isRunning) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    /**
+     * 剩余的整秒数(向上取整)   Secondes restantes (arrondies au supérieur)
+     */
+    public long getRemainingSeconds() {
+        return (getRemaining() + 999) / 1000;
+    }
+
+    public synchronized boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * 调度剩余时间为 ticks * pTime 时的节拍，每个节拍执行后再调度下一个
+     * Planifie le battement où il reste ticks * pTime, chaque battement planifie le suivant
+     */
+    private void scheduleTick(int current, long ticks) {
+        if (ticks <= 0) {
+            tickTask = null;
+            return;
+        }
+        long at = deadline - TimeUnit.MILLISECONDS.toNanos(ticks * pTime);
+        tickTask = wheel.scheduleAt(at, () -> tick(current, ticks), executor);
+    }
+
+    /**
+     * 在 executor 中执行的节拍  Battement exécuté dans executor
+     */
+    private void tick(int current, long ticks) {
+        synchronized (this) {
+            if (generation != current) {
+                return;
             }
+            scheduleTick(current, ticks - 1);
         }
+        onTimerListener.onTimerRunning(this);
     }
 
     /**
-     * 停止运行 arrêter de courir
+     * 在 executor 中执行的超时  Dépassement exécuté dans executor
      */
-    public void stop() {
-        isRunning = false;
+    private void expire(int current) {
+        synchronized (this) {
+            if (generation != current) {
+                return;
+            }
+            cancelTasks();
+            isRunning = false;
+        }
+        onTimerListener.onTimeout(this);
+    }
+
+    private void cancelTasks() {
+        if (timeoutTask != null) {
+            timeoutTask.cancel();
+            timeoutTask = null;
+        }
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
     }
 
     /**
@@ -101,6 +195,15 @@ public class WTimer {
      *  l'utilisateur peut personnaliser le corps d'exécution
      */
     public interface OnTimerListener {
+        /**
+         * 显示节拍(每 pTime 一次)  Battement d'affichage (toutes les pTime)
+         */
         void onTimerRunning(WTimer mTimer);
+
+        /**
+         * 到达截止时间(只执行一次)  Échéance atteinte (une seule fois)
+         */
+        default void onTimeout(WTimer mTimer) {
+        }
     }
 }